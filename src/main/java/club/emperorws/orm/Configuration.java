@@ -1,9 +1,19 @@
 package club.emperorws.orm;
 
+import club.emperorws.orm.annotations.QueryCache;
 import club.emperorws.orm.bingding.MapperRegistry;
-import club.emperorws.orm.exception.ReuseExecutor;
+import club.emperorws.orm.cache.BoundedConcurrentCache;
+import club.emperorws.orm.cache.Cache;
+import club.emperorws.orm.cache.CacheBuilder;
+import club.emperorws.orm.cache.StatementCacheRegistry;
+import club.emperorws.orm.cache.TableVersionRegistry;
+import club.emperorws.orm.dialect.Dialect;
+import club.emperorws.orm.dialect.DialectRegistry;
 import club.emperorws.orm.executor.BatchExecutor;
+import club.emperorws.orm.executor.CachingExecutor;
 import club.emperorws.orm.executor.Executor;
+import club.emperorws.orm.executor.PageCounter;
+import club.emperorws.orm.executor.ReuseExecutor;
 import club.emperorws.orm.executor.SimpleExecutor;
 import club.emperorws.orm.logging.Log;
 import club.emperorws.orm.logging.LogFactory;
@@ -11,9 +21,13 @@ import club.emperorws.orm.mapping.*;
 import club.emperorws.orm.metadata.TableModelInfo;
 import club.emperorws.orm.metadata.TableModelInfoHelper;
 import club.emperorws.orm.parameter.DefaultParameterHandler;
+import club.emperorws.orm.parameter.ParameterBindingPlan;
 import club.emperorws.orm.parameter.ParameterHandler;
+import club.emperorws.orm.parsing.DynamicSqlParser;
+import club.emperorws.orm.parsing.SqlTemplate;
 import club.emperorws.orm.plugin.Interceptor;
 import club.emperorws.orm.plugin.InterceptorChain;
+import club.emperorws.orm.reflection.AccessorStrategy;
 import club.emperorws.orm.reflection.DefaultReflectorFactory;
 import club.emperorws.orm.reflection.MetaObject;
 import club.emperorws.orm.reflection.ReflectorFactory;
@@ -25,7 +39,10 @@ import club.emperorws.orm.result.AutoMappingBehavior;
 import club.emperorws.orm.result.DefaultResultSetHandler;
 import club.emperorws.orm.result.ResultHandler;
 import club.emperorws.orm.result.ResultSetHandler;
+import club.emperorws.orm.result.ResultSetSchema;
+import club.emperorws.orm.result.RowMappingPlan;
 import club.emperorws.orm.session.ExecutorType;
+import club.emperorws.orm.session.LocalCacheScope;
 import club.emperorws.orm.session.SqlSession;
 import club.emperorws.orm.statement.RoutingStatementHandler;
 import club.emperorws.orm.statement.StatementHandler;
@@ -34,8 +51,23 @@ import club.emperorws.orm.type.JdbcType;
 import club.emperorws.orm.type.TypeAliasRegistry;
 import club.emperorws.orm.type.TypeHandlerRegistry;
 import club.emperorws.orm.util.BuilderUtil;
-
+import club.emperorws.orm.util.MapUtil;
+import club.emperorws.orm.util.SqlTableUtil;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * orm的所有配置单例
@@ -51,9 +83,20 @@ public class Configuration {
     /*************************************************some configuration**********************************************************/
 
     /**
-     * 数据库名称，暂未实现多数据库切换，ignore
+     * 数据库名称（如MYSQL、ORACLE），用于选择分页方言（见{@link DialectRegistry}）
+     * <p>没有设置时，第一次使用时按数据源的{@link java.sql.DatabaseMetaData#getDatabaseProductName()}识别（只识别一次）</p>
+     */
+    protected String databaseId;
+
+    /**
+     * databaseId是否已经确定（手动设置，或者已经按数据源识别）
+     */
+    private volatile boolean databaseIdResolved;
+
+    /**
+     * 分页方言，没有设置时按databaseId从{@link #dialectRegistry}中获取；都没有时使用内存分页
      */
-    protected String databaseId = "ORACLE";
+    protected Dialect dialect;
 
     /**
      * 是否使用（建议为true）
@@ -91,6 +134,98 @@ public class Configuration {
      */
     protected Integer defaultFetchSize;
 
+    /**
+     * 游标查询的fetchSize，没有设置时使用方言的默认值（{@link Dialect#getCursorFetchSize()}），Statement自己的fetchSize优先
+     */
+    protected Integer cursorFetchSize;
+
+    /**
+     * Batch批处理模式下：交错执行的SQL语句，是否按（MappedStatement id，SQL）合并到已有的批次
+     * <p>合并到更早的批次相当于把这条记录提前执行，只有中间的批次与它没有依赖时才合并：没有读写同一张表，也没有外键依赖（从数据库元数据读取）。
+     * 触发器等元数据中看不到的依赖无法识别，有这种依赖时需要关闭</p>
+     */
+    protected boolean batchGroupingEnabled = true;
+
+    /**
+     * Batch批处理模式下：单个批次（Statement）最多缓存的记录数，达到后自动执行，null表示不限制
+     */
+    protected Integer batchMaxRows;
+
+    /**
+     * Batch批处理模式下：缓存的请求参数最多估算字节数，达到后自动执行，null表示不限制
+     */
+    protected Long batchMaxBytes;
+
+    /**
+     * Batch批处理模式下：最多同时缓存的批次（Statement）数量，达到后自动执行，null表示不限制
+     */
+    protected Integer batchMaxStatements;
+
+    /**
+     * Batch批处理模式下：是否把同一批的单行INSERT ... VALUES (?, ...)改写为多行INSERT ... VALUES (...),(...)执行（与数据库驱动无关）
+     */
+    protected boolean batchRewriteInserts = false;
+
+    /**
+     * 多行INSERT改写时，单条SQL最多的参数数量（很多数据库驱动限制为65535个占位符），超过时分块执行
+     */
+    protected int batchRewriteMaxParameters = 65535;
+
+    /**
+     * 是否开启查询结果缓存（二级缓存），开启后还需要在Mapper接口或方法上标注{@link QueryCache}
+     */
+    protected boolean cacheEnabled = true;
+
+    /**
+     * 本地缓存（一级缓存）的作用范围
+     */
+    protected LocalCacheScope localCacheScope = LocalCacheScope.SESSION;
+
+    /**
+     * 每个SqlSession本地缓存的查询结果数量上限（LRU淘汰）
+     */
+    protected int localCacheSize = 256;
+
+    /**
+     * 本地缓存单个查询结果的行数上限，超过时不缓存
+     */
+    protected int localCacheMaxResultSize = 1000;
+
+    /**
+     * 分批加载关联对象（{@link club.emperorws.orm.mapping.FetchType#BATCH}）时，每条SQL的IN列表中key的个数上限
+     */
+    protected int batchLoadSize = 500;
+
+    /**
+     * 延迟加载（{@link club.emperorws.orm.mapping.FetchType#LAZY}）时，访问对象的任意一个延迟加载属性，是否同时加载这个对象的所有延迟加载属性
+     */
+    protected boolean aggressiveLazyLoading = false;
+
+    /**
+     * 延迟加载时，如果原SqlSession已关闭，是否使用新的事务（连接）加载；否则抛出异常
+     */
+    protected boolean lazyLoadingWithNewSession = false;
+
+    /**
+     * 分页查询（返回{@link club.emperorws.orm.result.Page}）时，是否使用数据源的另一个连接并行统计总记录数
+     */
+    protected boolean parallelPageCount = true;
+
+    /**
+     * 并行统计总记录数的线程池，没有设置时第一次使用时创建（守护线程，线程数达到上限时在调用线程中执行）
+     */
+    protected volatile ExecutorService pageCountThreadPool;
+
+    /**
+     * 默认的并行统计总记录数的线程池的最大线程数
+     */
+    protected int pageCountThreads = 8;
+
+    /**
+     * 集合参数#{ids,collection}展开为IN (?, ?, ...)时，一条SQL最多的占位符个数，集合更大时拆分为多条SQL执行、合并结果
+     */
+    protected int inListChunkSize = 1024;
+
     /**
      * Mapper的动态代理注册器
      */
@@ -151,6 +286,63 @@ public class Configuration {
     protected ObjectFactory objectFactory = new DefaultObjectFactory();
     protected ObjectWrapperFactory objectWrapperFactory = new DefaultObjectWrapperFactory();
 
+    /*************************************************some cache**********************************************************/
+
+    /**
+     * MappedStatement缓存（key：{@link SqlSource#getMappedStatementId()}），避免每次执行SQL都重新构建MappedStatement、ResultMap
+     */
+    protected final BoundedConcurrentCache<String, MappedStatement> mappedStatementCache = new BoundedConcurrentCache<>(1024);
+
+    /**
+     * 预编译的SQL模板缓存（key：SQL文本+请求参数类型），避免每次执行SQL都重新解析#{}、${}
+     */
+    protected final BoundedConcurrentCache<SqlTemplate.TemplateKey, SqlTemplate> sqlTemplateCache = new BoundedConcurrentCache<>(1024);
+
+    /**
+     * 结果集的行映射计划缓存，key：ResultMap的id#结果集列签名
+     */
+    protected final BoundedConcurrentCache<String, RowMappingPlan> rowMappingPlanCache = new BoundedConcurrentCache<>(1024);
+
+    /**
+     * 结果集的结构缓存（列名、JDBC类型、TypeHandler），key：MappedStatement的id
+     */
+    protected final BoundedConcurrentCache<String, ResultSetSchema> resultSetSchemaCache = new BoundedConcurrentCache<>(1024);
+
+    /**
+     * 请求参数的绑定计划缓存，key：参数映射列表（元素按引用比较）-->请求参数类型-->绑定计划
+     */
+    protected final BoundedConcurrentCache<List<ParameterMapping>, Map<Class<?>, ParameterBindingPlan>> parameterBindingPlanCache = new BoundedConcurrentCache<>(1024);
+
+    /**
+     * REUSE执行器的Statement缓存（绑定在物理Connection上，key：SQL语句），每个物理Connection默认最多缓存128个Statement
+     */
+    protected final StatementCacheRegistry statementCacheRegistry = new StatementCacheRegistry(128);
+
+    /**
+     * 查询结果缓存（二级缓存）：缓存id-->缓存
+     */
+    protected final Map<String, Cache> caches = new ConcurrentHashMap<>();
+
+    /**
+     * 表的版本号，查询结果缓存按表失效
+     */
+    protected final TableVersionRegistry tableVersionRegistry = new TableVersionRegistry();
+
+    /**
+     * 表-->外键关系（Batch批处理合并批次时判断依赖）
+     */
+    protected final Map<String, SqlTableUtil.ForeignKeys> foreignKeysCache = new ConcurrentHashMap<>();
+
+    /**
+     * 数据库方言注册器
+     */
+    protected final DialectRegistry dialectRegistry = new DialectRegistry();
+
+    /**
+     * 分页查询的总记录数统计
+     */
+    protected final PageCounter pageCounter = new PageCounter(this);
+
     /*************************************************get、set some property**********************************************************/
 
     public Environment getEnvironment() {
@@ -162,11 +354,43 @@ public class Configuration {
     }
 
     public String getDatabaseId() {
+        if (!databaseIdResolved) {
+            resolveDatabaseId();
+        }
         return databaseId;
     }
 
     public void setDatabaseId(String databaseId) {
         this.databaseId = databaseId;
+        this.databaseIdResolved = databaseId != null;
+    }
+
+    /**
+     * 没有设置databaseId时，按数据源识别数据库名称（识别成功后，查询、生成SQL时不再获取连接）
+     * <p>无法获取连接时databaseId为null（使用内存分页），下次使用时再识别</p>
+     */
+    private synchronized void resolveDatabaseId() {
+        if (databaseIdResolved || environment == null) {
+            return;
+        }
+        try (Connection connection = environment.getDataSource().getConnection()) {
+            databaseId = DialectRegistry.resolveDatabaseId(connection.getMetaData().getDatabaseProductName());
+            databaseIdResolved = true;
+        } catch (SQLException e) {
+            LogFactory.getLog(Configuration.class).warn("Could not resolve the databaseId from the DataSource, falling back to in-memory paging. Cause: " + e);
+        }
+    }
+
+    public Dialect getDialect() {
+        return dialect != null ? dialect : dialectRegistry.getDialect(getDatabaseId());
+    }
+
+    public void setDialect(Dialect dialect) {
+        this.dialect = dialect;
+    }
+
+    public DialectRegistry getDialectRegistry() {
+        return dialectRegistry;
     }
 
     public boolean isUseActualParamName() {
@@ -225,6 +449,179 @@ public class Configuration {
         this.defaultFetchSize = defaultFetchSize;
     }
 
+    public Integer getCursorFetchSize() {
+        if (cursorFetchSize != null) {
+            return cursorFetchSize;
+        }
+        Dialect currentDialect = getDialect();
+        return currentDialect == null ? null : currentDialect.getCursorFetchSize();
+    }
+
+    public void setCursorFetchSize(Integer cursorFetchSize) {
+        this.cursorFetchSize = cursorFetchSize;
+    }
+
+    public boolean isBatchGroupingEnabled() {
+        return batchGroupingEnabled;
+    }
+
+    public void setBatchGroupingEnabled(boolean batchGroupingEnabled) {
+        this.batchGroupingEnabled = batchGroupingEnabled;
+    }
+
+    public Integer getBatchMaxRows() {
+        return batchMaxRows;
+    }
+
+    public void setBatchMaxRows(Integer batchMaxRows) {
+        this.batchMaxRows = batchMaxRows;
+    }
+
+    public Long getBatchMaxBytes() {
+        return batchMaxBytes;
+    }
+
+    public void setBatchMaxBytes(Long batchMaxBytes) {
+        this.batchMaxBytes = batchMaxBytes;
+    }
+
+    public Integer getBatchMaxStatements() {
+        return batchMaxStatements;
+    }
+
+    public void setBatchMaxStatements(Integer batchMaxStatements) {
+        this.batchMaxStatements = batchMaxStatements;
+    }
+
+    public boolean isBatchRewriteInserts() {
+        return batchRewriteInserts;
+    }
+
+    public void setBatchRewriteInserts(boolean batchRewriteInserts) {
+        this.batchRewriteInserts = batchRewriteInserts;
+    }
+
+    public int getBatchRewriteMaxParameters() {
+        return batchRewriteMaxParameters;
+    }
+
+    public void setBatchRewriteMaxParameters(int batchRewriteMaxParameters) {
+        this.batchRewriteMaxParameters = batchRewriteMaxParameters;
+    }
+
+    public boolean isCacheEnabled() {
+        return cacheEnabled;
+    }
+
+    public void setCacheEnabled(boolean cacheEnabled) {
+        this.cacheEnabled = cacheEnabled;
+    }
+
+    public LocalCacheScope getLocalCacheScope() {
+        return localCacheScope;
+    }
+
+    public void setLocalCacheScope(LocalCacheScope localCacheScope) {
+        this.localCacheScope = localCacheScope;
+    }
+
+    public int getLocalCacheSize() {
+        return localCacheSize;
+    }
+
+    public void setLocalCacheSize(int localCacheSize) {
+        this.localCacheSize = localCacheSize;
+    }
+
+    public int getLocalCacheMaxResultSize() {
+        return localCacheMaxResultSize;
+    }
+
+    public void setLocalCacheMaxResultSize(int localCacheMaxResultSize) {
+        this.localCacheMaxResultSize = localCacheMaxResultSize;
+    }
+
+    public int getBatchLoadSize() {
+        return batchLoadSize;
+    }
+
+    public void setBatchLoadSize(int batchLoadSize) {
+        if (batchLoadSize <= 0) {
+            throw new IllegalArgumentException("batchLoadSize must be positive, but was " + batchLoadSize);
+        }
+        this.batchLoadSize = batchLoadSize;
+    }
+
+    public boolean isAggressiveLazyLoading() {
+        return aggressiveLazyLoading;
+    }
+
+    public void setAggressiveLazyLoading(boolean aggressiveLazyLoading) {
+        this.aggressiveLazyLoading = aggressiveLazyLoading;
+    }
+
+    public boolean isParallelPageCount() {
+        return parallelPageCount;
+    }
+
+    public void setParallelPageCount(boolean parallelPageCount) {
+        this.parallelPageCount = parallelPageCount;
+    }
+
+    public ExecutorService getPageCountThreadPool() {
+        if (pageCountThreadPool == null) {
+            synchronized (this) {
+                if (pageCountThreadPool == null) {
+                    final AtomicInteger threadNumber = new AtomicInteger();
+                    pageCountThreadPool = new ThreadPoolExecutor(0, pageCountThreads, 60L, TimeUnit.SECONDS, new SynchronousQueue<>(), runnable -> {
+                        Thread thread = new Thread(runnable, "orm-page-count-" + threadNumber.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    }, new ThreadPoolExecutor.CallerRunsPolicy());
+                }
+            }
+        }
+        return pageCountThreadPool;
+    }
+
+    public void setPageCountThreadPool(ExecutorService pageCountThreadPool) {
+        this.pageCountThreadPool = pageCountThreadPool;
+    }
+
+    public int getPageCountThreads() {
+        return pageCountThreads;
+    }
+
+    public void setPageCountThreads(int pageCountThreads) {
+        if (pageCountThreads <= 0) {
+            throw new IllegalArgumentException("pageCountThreads must be positive, but was " + pageCountThreads);
+        }
+        this.pageCountThreads = pageCountThreads;
+    }
+
+    public PageCounter getPageCounter() {
+        return pageCounter;
+    }
+
+    public int getInListChunkSize() {
+        return inListChunkSize;
+    }
+
+    public void setInListChunkSize(int inListChunkSize) {
+        if (inListChunkSize <= 0) {
+            throw new IllegalArgumentException("inListChunkSize must be positive, but was " + inListChunkSize);
+        }
+        this.inListChunkSize = inListChunkSize;
+    }
+
+    public boolean isLazyLoadingWithNewSession() {
+        return lazyLoadingWithNewSession;
+    }
+
+    public void setLazyLoadingWithNewSession(boolean lazyLoadingWithNewSession) {
+        this.lazyLoadingWithNewSession = lazyLoadingWithNewSession;
+    }
+
     public TypeAliasRegistry getTypeAliasRegistry() {
         return typeAliasRegistry;
     }
@@ -261,6 +658,19 @@ public class Configuration {
         this.reflectorFactory = reflectorFactory;
     }
 
+    public AccessorStrategy getAccessorStrategy() {
+        return reflectorFactory.getAccessorStrategy();
+    }
+
+    /**
+     * 设置get、set访问器的生成策略（MethodHandle或反射）
+     *
+     * @param accessorStrategy 访问器的生成策略
+     */
+    public void setAccessorStrategy(AccessorStrategy accessorStrategy) {
+        reflectorFactory.setAccessorStrategy(accessorStrategy);
+    }
+
     public ObjectFactory getObjectFactory() {
         return objectFactory;
     }
@@ -342,14 +752,14 @@ public class Configuration {
         return parameterHandler;
     }
 
-    public ResultSetHandler newResultSetHandler(MappedStatement mappedStatement, RowBounds rowBounds, ResultHandler resultHandler) {
-        ResultSetHandler resultSetHandler = new DefaultResultSetHandler(mappedStatement, resultHandler, rowBounds);
+    public ResultSetHandler newResultSetHandler(Executor executor, MappedStatement mappedStatement, RowBounds rowBounds, ResultHandler resultHandler) {
+        ResultSetHandler resultSetHandler = new DefaultResultSetHandler(executor, mappedStatement, resultHandler, rowBounds);
         resultSetHandler = (ResultSetHandler) interceptorChain.pluginAll(resultSetHandler);
         return resultSetHandler;
     }
 
-    public StatementHandler newStatementHandler(MappedStatement mappedStatement, Object parameterObject, RowBounds rowBounds, ResultHandler resultHandler, BoundSql boundSql) {
-        StatementHandler statementHandler = new RoutingStatementHandler(mappedStatement, parameterObject, rowBounds, resultHandler, boundSql);
+    public StatementHandler newStatementHandler(Executor executor, MappedStatement mappedStatement, Object parameterObject, RowBounds rowBounds, ResultHandler resultHandler, BoundSql boundSql) {
+        StatementHandler statementHandler = new RoutingStatementHandler(executor, mappedStatement, parameterObject, rowBounds, resultHandler, boundSql);
         statementHandler = (StatementHandler) interceptorChain.pluginAll(statementHandler);
         return statementHandler;
     }
@@ -372,16 +782,249 @@ public class Configuration {
         } else {
             executor = new SimpleExecutor(this, transaction);
         }
+        if (cacheEnabled) {
+            executor = new CachingExecutor(this, executor);
+        }
         executor = (Executor) interceptorChain.pluginAll(executor);
         return executor;
     }
 
+    /**
+     * 获取SQL对应的MappedStatement（优先从缓存中获取）
+     *
+     * @param sqlSource 执行sql的语句
+     * @return MappedStatement
+     */
     public MappedStatement getMappedStatement(SqlSource sqlSource) {
+        String mappedStatementId = sqlSource.getMappedStatementId();
+        if (mappedStatementId == null) {
+            return buildMappedStatement(sqlSource);
+        }
+        return mappedStatementCache.computeIfAbsent(mappedStatementId, id -> buildMappedStatement(sqlSource));
+    }
+
+    public BoundedConcurrentCache<String, MappedStatement> getMappedStatementCache() {
+        return mappedStatementCache;
+    }
+
+    /**
+     * 设置MappedStatement缓存的容量上限
+     *
+     * @param mappedStatementCacheSize 容量上限
+     */
+    public void setMappedStatementCacheSize(int mappedStatementCacheSize) {
+        mappedStatementCache.setMaximumSize(mappedStatementCacheSize);
+    }
+
+    /**
+     * 获取动态SQL预编译后的SQL模板（优先从缓存中获取）
+     *
+     * @param dynamicSql      原动态sql
+     * @param parameterObject 请求参数
+     * @return SQL模板
+     */
+    public SqlTemplate getSqlTemplate(String dynamicSql, Object parameterObject) {
+        Class<?> parameterType = parameterObject == null ? null : parameterObject.getClass();
+        return sqlTemplateCache.computeIfAbsent(new SqlTemplate.TemplateKey(dynamicSql, parameterType),
+                key -> new DynamicSqlParser().parse(this, dynamicSql, parameterObject));
+    }
+
+    public BoundedConcurrentCache<SqlTemplate.TemplateKey, SqlTemplate> getSqlTemplateCache() {
+        return sqlTemplateCache;
+    }
+
+    /**
+     * 设置SQL模板缓存的容量上限
+     *
+     * @param sqlTemplateCacheSize 容量上限
+     */
+    public void setSqlTemplateCacheSize(int sqlTemplateCacheSize) {
+        sqlTemplateCache.setMaximumSize(sqlTemplateCacheSize);
+    }
+
+    public BoundedConcurrentCache<String, RowMappingPlan> getRowMappingPlanCache() {
+        return rowMappingPlanCache;
+    }
+
+    /**
+     * 设置行映射计划缓存的容量上限
+     *
+     * @param rowMappingPlanCacheSize 容量上限
+     */
+    public void setRowMappingPlanCacheSize(int rowMappingPlanCacheSize) {
+        rowMappingPlanCache.setMaximumSize(rowMappingPlanCacheSize);
+    }
+
+    /**
+     * 获取请求参数的绑定计划（优先从缓存中获取）
+     *
+     * @param boundSql        sql语句对象
+     * @param parameterObject 请求参数
+     * @return 绑定计划
+     */
+    public ParameterBindingPlan getParameterBindingPlan(BoundSql boundSql, Object parameterObject) {
+        Map<Class<?>, ParameterBindingPlan> plans = parameterBindingPlanCache.computeIfAbsent(boundSql.getParameterMappings(), key -> new ConcurrentHashMap<>(4));
+        Class<?> parameterType = parameterObject == null ? void.class : parameterObject.getClass();
+        ParameterBindingPlan plan = plans.get(parameterType);
+        if (plan == null) {
+            //先get再创建，命中时不需要分配捕获参数的lambda
+            plan = plans.computeIfAbsent(parameterType, key -> new ParameterBindingPlan(this, boundSql, parameterObject));
+        }
+        return plan;
+    }
+
+    public BoundedConcurrentCache<List<ParameterMapping>, Map<Class<?>, ParameterBindingPlan>> getParameterBindingPlanCache() {
+        return parameterBindingPlanCache;
+    }
+
+    /**
+     * 设置请求参数绑定计划缓存的容量上限
+     *
+     * @param parameterBindingPlanCacheSize 容量上限
+     */
+    public void setParameterBindingPlanCacheSize(int parameterBindingPlanCacheSize) {
+        parameterBindingPlanCache.setMaximumSize(parameterBindingPlanCacheSize);
+    }
+
+    public BoundedConcurrentCache<String, ResultSetSchema> getResultSetSchemaCache() {
+        return resultSetSchemaCache;
+    }
+
+    /**
+     * 设置结果集结构缓存的容量上限
+     *
+     * @param resultSetSchemaCacheSize 容量上限
+     */
+    public void setResultSetSchemaCacheSize(int resultSetSchemaCacheSize) {
+        resultSetSchemaCache.setMaximumSize(resultSetSchemaCacheSize);
+    }
+
+    public StatementCacheRegistry getStatementCacheRegistry() {
+        return statementCacheRegistry;
+    }
+
+    /**
+     * 设置每个物理Connection的Statement缓存容量上限
+     *
+     * @param statementCacheSize 容量上限
+     */
+    public void setStatementCacheSize(int statementCacheSize) {
+        statementCacheRegistry.setMaximumSize(statementCacheSize);
+    }
+
+    public Map<String, Cache> getCaches() {
+        return caches;
+    }
+
+    public Map<String, SqlTableUtil.ForeignKeys> getForeignKeysCache() {
+        return foreignKeysCache;
+    }
+
+    public TableVersionRegistry getTableVersionRegistry() {
+        return tableVersionRegistry;
+    }
+
+    protected MappedStatement buildMappedStatement(SqlSource sqlSource) {
+        ResultMap resultMap = buildResultMap(sqlSource);
         MappedStatement.Builder statementBuilder = new MappedStatement.Builder(this, sqlSource, sqlSource.getSqlCommandType())
-                .resultMap(buildResultMap(sqlSource));
+                .resultMap(resultMap);
+        if (SqlCommandType.SELECT == sqlSource.getSqlCommandType()) {
+            applyQueryCache(statementBuilder, sqlSource, resultMap);
+        }
         return statementBuilder.build();
     }
 
+    /**
+     * 解析{@link QueryCache}，设置查询结果缓存（方法上的注解优先于Mapper接口上的）
+     *
+     * @param statementBuilder MappedStatement构建器
+     * @param sqlSource        执行sql的语句
+     * @param resultMap        返回结果映射信息
+     */
+    protected void applyQueryCache(MappedStatement.Builder statementBuilder, SqlSource sqlSource, ResultMap resultMap) {
+        Class<?> mapperInterface = sqlSource.getMapperInterface();
+        if (mapperInterface == null || sqlSource.getMethod() == null) {
+            //直接通过SqlSession执行的SQL，没有注解
+            return;
+        }
+        QueryCache queryCache = sqlSource.getMethod().getAnnotation(QueryCache.class);
+        String cacheId = mapperInterface.getName() + "." + sqlSource.getMethod().getName();
+        if (queryCache == null) {
+            queryCache = mapperInterface.getAnnotation(QueryCache.class);
+            cacheId = mapperInterface.getName();
+        }
+        if (queryCache == null || !queryCache.enabled()) {
+            return;
+        }
+        if (hasLazyResultMappings(resultMap, new HashSet<>())) {
+            //延迟加载的代理对象持有创建它的SqlSession的Executor，不能放入多个SqlSession共享的缓存
+            LogFactory.getLog(Configuration.class).warn("Query cache is disabled for " + sqlSource.getMethod()
+                    + ", because its results (or their associations) have lazy loading properties.");
+            return;
+        }
+        final QueryCache cacheConfig = queryCache;
+        Cache cache = MapUtil.computeIfAbsent(caches, cacheId, id -> new CacheBuilder(id)
+                .implementation(cacheConfig.implementation())
+                .eviction(cacheConfig.eviction())
+                .size(cacheConfig.size())
+                .ttl(cacheConfig.ttl())
+                .build());
+        //额外依赖的表：注解声明的表+返回结果（包括关联对象）实体类对应的表
+        Set<String> cacheTables = new LinkedHashSet<>();
+        for (String table : queryCache.tables()) {
+            cacheTables.add(SqlTableUtil.normalizeTableName(table));
+        }
+        collectResultTables(resultMap, cacheTables, new HashSet<>());
+        statementBuilder.cache(cache).cacheTables(cacheTables.toArray(new String[0]));
+    }
+
+    /**
+     * 收集结果对象涉及的表：返回结果实体类对应的表，以及JOIN嵌套、分批加载、延迟加载的关联实体类对应的表
+     * <p>关联对象可能由另外的SQL查询，只解析主查询的SQL会漏掉这些表</p>
+     *
+     * @param resultMap 返回结果映射信息
+     * @param tables    收集到的表（统一格式后的表名）
+     * @param visited   已经收集过的结果类型（避免循环关联）
+     */
+    private void collectResultTables(ResultMap resultMap, Set<String> tables, Set<Class<?>> visited) {
+        if (!visited.add(resultMap.getType())) {
+            return;
+        }
+        TableModelInfo tableInfo = TableModelInfoHelper.getTableInfo(resultMap.getType());
+        if (tableInfo != null) {
+            tables.add(SqlTableUtil.normalizeTableName(tableInfo.getTableName()));
+        }
+        for (List<ResultMapping> resultMappings : Arrays.asList(resultMap.getNestedResultMappings(), resultMap.getBatchResultMappings(), resultMap.getLazyResultMappings())) {
+            for (ResultMapping resultMapping : resultMappings) {
+                collectResultTables(getNestedResultMap(resultMapping.getNestedResultType()), tables, visited);
+            }
+        }
+    }
+
+    /**
+     * 结果对象、JOIN嵌套的结果对象、分批加载的关联对象中是否有延迟加载属性
+     *
+     * @param resultMap 返回结果映射信息
+     * @param visited   已经检查过的结果类型（避免循环关联）
+     * @return 是否有延迟加载属性
+     */
+    private boolean hasLazyResultMappings(ResultMap resultMap, Set<Class<?>> visited) {
+        if (resultMap.hasLazyResultMappings()) {
+            return true;
+        }
+        if (!visited.add(resultMap.getType())) {
+            return false;
+        }
+        for (List<ResultMapping> resultMappings : Arrays.asList(resultMap.getNestedResultMappings(), resultMap.getBatchResultMappings())) {
+            for (ResultMapping resultMapping : resultMappings) {
+                if (hasLazyResultMappings(getNestedResultMap(resultMapping.getNestedResultType()), visited)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
     protected ResultMap buildResultMap(SqlSource sqlSource) {
         // 1. 获取resultType
         String resultTypeStr = sqlSource.getResultType();
@@ -397,4 +1040,19 @@ public class Configuration {
         }
         return tableInfo.getResultMap();
     }
+
+    /**
+     * 获取嵌套结果（一对一关联、一对多集合）的ResultMap，实体类还未注册时先注册
+     *
+     * @param nestedResultType 嵌套结果的实体类型
+     * @return 嵌套结果的ResultMap
+     */
+    public ResultMap getNestedResultMap(Class<?> nestedResultType) {
+        TableModelInfoHelper.addTableModelInfo(this, nestedResultType);
+        TableModelInfo tableInfo = TableModelInfoHelper.getTableInfo(nestedResultType);
+        if (tableInfo == null) {
+            return new ResultMap.Builder(this, nestedResultType.getName(), nestedResultType).build();
+        }
+        return tableInfo.getResultMap();
+    }
 }
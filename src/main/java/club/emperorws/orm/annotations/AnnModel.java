@@ -1,6 +1,7 @@
 package club.emperorws.orm.annotations;
 
 import club.emperorws.orm.interfaces.GenId;
+import club.emperorws.orm.mapping.FetchType;
 
 import java.lang.annotation.ElementType;
 import java.lang.annotation.Retention;
@@ -109,4 +110,102 @@ public class AnnModel {
          */
         boolean isInsertOrUpdateCondition() default false;
     }
+
+    /**
+     * 一对一关联属性注解：JOIN查询的结果集中，关联对象的列按{@link #columnPrefix()}映射为嵌套对象
+     */
+    @Retention(RetentionPolicy.RUNTIME)
+    @Target(ElementType.FIELD)
+    public @interface Association {
+
+        /**
+         * 映射的实体属性名称
+         *
+         * @return 映射的实体属性名称，默认为字段名称
+         */
+        String property() default "";
+
+        /**
+         * 关联对象的实体类型
+         *
+         * @return 关联对象的实体类型，默认为字段类型
+         */
+        String javaType() default "";
+
+        /**
+         * 关联对象的列在结果集中的前缀（如：clazz_id、clazz_name的前缀为clazz_），JOIN查询时必填
+         *
+         * @return 关联对象的列前缀
+         */
+        String columnPrefix() default "";
+
+        /**
+         * 当前表中关联的数据库列名（外键）
+         *
+         * @return 当前表中关联的数据库列名
+         */
+        String column() default "";
+
+        /**
+         * 关联表中被关联的数据库列名
+         *
+         * @return 关联表中被关联的数据库列名，默认为关联表的主键
+         */
+        String foreignColumn() default "";
+        /**
+         * 关联对象的加载方式
+         *
+         * @return 默认JOIN查询（按列前缀映射）；BATCH时按{@link #column()}的值分批查询关联表；LAZY时第一次访问属性才查询（属性类型必须是接口，关联对象请使用BATCH）
+         */
+        FetchType fetch() default FetchType.JOIN;
+    }
+
+    /**
+     * 一对多集合属性注解：JOIN查询的结果集中，集合元素的列按{@link #columnPrefix()}映射为嵌套对象，按主键去重后添加至集合
+     */
+    @Retention(RetentionPolicy.RUNTIME)
+    @Target(ElementType.FIELD)
+    public @interface Collection {
+
+        /**
+         * 映射的实体属性名称
+         *
+         * @return 映射的实体属性名称，默认为字段名称
+         */
+        String property() default "";
+
+        /**
+         * 集合元素的实体类型
+         *
+         * @return 集合元素的实体类型，默认为字段的泛型类型
+         */
+        String ofType() default "";
+
+        /**
+         * 集合元素的列在结果集中的前缀（如：course_id、course_name的前缀为course_），JOIN查询时必填
+         *
+         * @return 集合元素的列前缀
+         */
+        String columnPrefix() default "";
+
+        /**
+         * 当前表中被关联的数据库列名
+         *
+         * @return 当前表中被关联的数据库列名，默认为当前表的主键
+         */
+        String column() default "";
+
+        /**
+         * 集合元素的表中关联的数据库列名（外键）
+         *
+         * @return 集合元素的表中关联的数据库列名
+         */
+        String foreignColumn() default "";
+        /**
+         * 集合的加载方式
+         *
+         * @return 默认JOIN查询（按列前缀映射）；BATCH时按{@link #column()}的值分批查询集合元素的表；LAZY时第一次访问属性才查询（集合属性须声明为List、Set等接口类型）
+         */
+        FetchType fetch() default FetchType.JOIN;
+    }
 }
@@ -0,0 +1,30 @@
+package club.emperorws.orm.annotations;
+
+import java.lang.annotation.*;
+
+/**
+ * 标注查询结果映射使用的构造器（不可变对象：通过构造器一次性创建，不再调用set方法）
+ * <p>构造器参数按名称匹配列：参数上的{@link Param}、Record的属性名称、编译时开启-parameters后的参数名称；都没有时按下标匹配第几列</p>
+ * <p>Record默认使用规范构造器（canonical constructor），只有一个构造器且没有无参构造器的类默认使用该构造器，不需要标注</p>
+ *
+ * <p>
+ * <b>怎么使用:</b>
+ *
+ * <pre>
+ * public class UserDTO {
+ *   &#064;AutomapConstructor
+ *   public UserDTO(&#064;Param("id") Long id, &#064;Param("userName") String userName) {
+ *     ...
+ *   }
+ * }
+ * </pre>
+ *
+ * @author: EmperorWS
+ * @date: 2023/8/21 10:15
+ * @description: AutomapConstructor: 标注查询结果映射使用的构造器
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.CONSTRUCTOR)
+public @interface AutomapConstructor {
+}
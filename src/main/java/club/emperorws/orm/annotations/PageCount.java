@@ -0,0 +1,39 @@
+package club.emperorws.orm.annotations;
+
+import java.lang.annotation.*;
+
+/**
+ * 返回{@link club.emperorws.orm.result.Page}的查询方法：总记录数的统计方式
+ * <p>没有标注时，每次都统计总记录数（不缓存）</p>
+ * <p>
+ * <b>How to use:</b>
+ *
+ * <pre>
+ * &#064;PageCount(cacheTtl = 300000)
+ * Page&lt;Order&gt; selectPage(SqlSource sqlSource, &#064;Param("status") int status, RowBounds rowBounds);
+ * </pre>
+ *
+ * @author: EmperorWS
+ * @date: 2023/8/26 10:50
+ * @description: PageCount: 分页查询总记录数的统计方式
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface PageCount {
+
+    /**
+     * 是否统计总记录数（大表不需要总数时可以关闭，只按当前页是否满页判断是否有下一页）
+     *
+     * @return 是否统计总记录数
+     */
+    boolean enabled() default true;
+
+    /**
+     * 总记录数的缓存时间（毫秒），小于等于0时不缓存
+     * <p>缓存同查询结果缓存（见{@link QueryCache}），按表失效，需要开启cacheEnabled</p>
+     *
+     * @return 总记录数的缓存时间
+     */
+    long cacheTtl() default 0;
+}
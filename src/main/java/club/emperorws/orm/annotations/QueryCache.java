@@ -0,0 +1,76 @@
+package club.emperorws.orm.annotations;
+
+import club.emperorws.orm.cache.Cache;
+import club.emperorws.orm.cache.EvictionPolicy;
+import club.emperorws.orm.cache.impl.PerpetualCache;
+
+import java.lang.annotation.*;
+
+/**
+ * 开启查询结果缓存（二级缓存），可以标注在Mapper接口（所有查询方法共享一个缓存）或者方法上（方法单独一个缓存，优先级更高）
+ * <p>缓存按查询涉及的表失效：增删改SQL写入的表在事务提交后，涉及该表的缓存全部失效</p>
+ * <p>
+ * <b>How to use:</b>
+ *
+ * <pre>
+ * &#064;QueryCache(size = 512, ttl = 60000)
+ * public interface DictMapper {
+ *   List&lt;Dict&gt; selectByType(SqlSource sqlSource, &#064;Param("type") String type);
+ *
+ *   &#064;QueryCache(enabled = false)
+ *   List&lt;Dict&gt; selectRealtime(SqlSource sqlSource);
+ * }
+ * </pre>
+ * <p>注意：命中缓存时返回的List是新的，但List里面的对象是共享的，不要修改</p>
+ *
+ * @author: EmperorWS
+ * @date: 2023/8/17 16:00
+ * @description: QueryCache: 开启查询结果缓存（二级缓存）
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE, ElementType.METHOD})
+public @interface QueryCache {
+
+    /**
+     * 是否开启缓存（方法上标注false，可以关闭Mapper接口上开启的缓存）
+     *
+     * @return 是否开启缓存
+     */
+    boolean enabled() default true;
+
+    /**
+     * 缓存的存储实现，需要提供一个参数为缓存id（String）的构造方法
+     *
+     * @return 缓存的存储实现
+     */
+    Class<? extends Cache> implementation() default PerpetualCache.class;
+
+    /**
+     * 淘汰策略
+     *
+     * @return 淘汰策略
+     */
+    EvictionPolicy eviction() default EvictionPolicy.LRU;
+
+    /**
+     * 缓存数量上限
+     *
+     * @return 缓存数量上限
+     */
+    int size() default 1024;
+
+    /**
+     * 过期时间（毫秒），小于等于0时永不过期
+     *
+     * @return 过期时间
+     */
+    long ttl() default 0;
+
+    /**
+     * 额外依赖的表（如：查询的是视图、SQL无法解析出表名时），这些表被写入时缓存也会失效
+     *
+     * @return 额外依赖的表
+     */
+    String[] tables() default {};
+}
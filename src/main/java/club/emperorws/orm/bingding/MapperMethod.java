@@ -2,24 +2,29 @@ package club.emperorws.orm.bingding;
 
 import club.emperorws.orm.Configuration;
 import club.emperorws.orm.annotations.*;
+import club.emperorws.orm.cache.BoundedConcurrentCache;
 import club.emperorws.orm.cursor.Cursor;
 import club.emperorws.orm.exception.OrmException;
 import club.emperorws.orm.mapping.*;
 import club.emperorws.orm.reflection.MetaObject;
 import club.emperorws.orm.reflection.ParamNameResolver;
 import club.emperorws.orm.reflection.TypeParameterResolver;
+import club.emperorws.orm.result.Page;
 import club.emperorws.orm.result.ResultHandler;
+import club.emperorws.orm.result.columnar.ColumnarResult;
+import club.emperorws.orm.result.primitive.PrimitiveColumnHandler;
 import club.emperorws.orm.session.SqlSession;
 import club.emperorws.orm.util.StringUtils;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
 import java.lang.reflect.Array;
 import java.lang.reflect.Method;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
-import java.util.Optional;
+import java.util.*;
 
 /**
  * Mapper方法的真正执行者
@@ -33,6 +38,11 @@ public class MapperMethod {
     private final SqlCommand command;
     private final MethodSignature method;
 
+    /**
+     * 已生成MappedStatement id的SqlSource缓存（key：原动态sql），避免每次执行都重新计算id
+     */
+    private final BoundedConcurrentCache<String, SqlSource> sqlSourceCache = new BoundedConcurrentCache<>(256);
+
     public MapperMethod(Class<?> mapperInterface, Method method, Configuration config) {
         //获取SQL语句的执行ID和执行类型
         this.command = new SqlCommand(mapperInterface, method);
@@ -45,19 +55,19 @@ public class MapperMethod {
         switch (command.getType()) {
             case INSERT: {
                 Object param = method.convertArgsToSqlCommandParam(args);
-                SqlSource sqlSource = new SqlSource.Builder(method.extractSqlSource(args), command).build();
+                SqlSource sqlSource = resolveSqlSource(args);
                 result = rowCountResult(sqlSession.insert(sqlSource, param));
                 break;
             }
             case UPDATE: {
                 Object param = method.convertArgsToSqlCommandParam(args);
-                SqlSource sqlSource = new SqlSource.Builder(method.extractSqlSource(args), command).build();
+                SqlSource sqlSource = resolveSqlSource(args);
                 result = rowCountResult(sqlSession.update(sqlSource, param));
                 break;
             }
             case DELETE: {
                 Object param = method.convertArgsToSqlCommandParam(args);
-                SqlSource sqlSource = new SqlSource.Builder(method.extractSqlSource(args), command).build();
+                SqlSource sqlSource = resolveSqlSource(args);
                 result = rowCountResult(sqlSession.delete(sqlSource, param));
                 break;
             }
@@ -66,6 +76,15 @@ public class MapperMethod {
                     //返回结果是void，但是有@ResultType(Xxx.class)注解，且有ResultHandler，具体看@ResultType注解用法
                     executeWithResultHandler(sqlSession, args);
                     result = null;
+                } else if (method.returnsColumnar()) {
+                    //列式存储的查询结果，不为每一行创建对象
+                    result = executeForColumnar(sqlSession, args);
+                } else if (method.returnsPrimitives()) {
+                    //返回结果是单列基本类型的数组或列表（long[]、LongList等），不装箱
+                    result = executeForPrimitives(sqlSession, args);
+                } else if (method.returnsPage()) {
+                    //分页查询：当前页的数据和总记录数
+                    result = executeForPage(sqlSession, args);
                 } else if (method.returnsMany()) {
                     //返回结果是集合或数组
                     result = executeForMany(sqlSession, args);
@@ -73,12 +92,12 @@ public class MapperMethod {
                     //@MapKey("xxx")定义的返回结果为Map：key为属性名称（MapKey.value），value为返回结果对象（一行记录）
                     result = executeForMap(sqlSession, args);
                 } else if (method.returnsCursor()) {
-                    //游标、流式查询，暂未实现ignore
+                    //游标、流式查询
                     result = executeForCursor(sqlSession, args);
                 } else {
                     //返回结果是一个对象
                     Object param = method.convertArgsToSqlCommandParam(args);
-                    SqlSource sqlSource = new SqlSource.Builder(method.extractSqlSource(args), command).build();
+                    SqlSource sqlSource = resolveSqlSource(args);
                     result = sqlSession.selectOne(sqlSource, param);
                     //返回结果允许为Optional
                     if (method.returnsOptional() && (result == null || !method.getReturnType().equals(result.getClass()))) {
@@ -100,6 +119,24 @@ public class MapperMethod {
         return result;
     }
 
+    /**
+     * 获取本次执行的SqlSource（带有MappedStatement id，调用方传入的SqlSource不会被修改）
+     *
+     * @param args 实际请求参数
+     * @return 带有MappedStatement id的SqlSource
+     */
+    private SqlSource resolveSqlSource(Object[] args) {
+        SqlSource sqlSource = method.extractSqlSource(args);
+        if (sqlSource == null) {
+            throw new OrmException("Mapper method '" + command.getName() + "' requires a SqlSource parameter.");
+        }
+        if (sqlSource.getMappedStatementId() != null && command.getMapperMethod().equals(sqlSource.getMethod())) {
+            //已经是本方法生成的SqlSource
+            return sqlSource;
+        }
+        return sqlSourceCache.computeIfAbsent(sqlSource.getDynamicSql(), sql -> new SqlSource.Builder(sqlSource, command).build());
+    }
+
     /**
      * SQL执行受影响的行数结果封装
      *
@@ -123,7 +160,7 @@ public class MapperMethod {
     }
 
     private void executeWithResultHandler(SqlSession sqlSession, Object[] args) {
-        SqlSource sqlSource = new SqlSource.Builder(method.extractSqlSource(args), command).build();
+        SqlSource sqlSource = resolveSqlSource(args);
         MappedStatement ms = sqlSession.getConfiguration().getMappedStatement(sqlSource);
         if (!StatementType.CALLABLE.equals(ms.getStatementType()) && void.class.equals(ms.getResultMap().getType())) {
             throw new OrmException("method " + command.getName()
@@ -141,7 +178,7 @@ public class MapperMethod {
     private <E> Object executeForMany(SqlSession sqlSession, Object[] args) {
         List<E> result;
         Object param = method.convertArgsToSqlCommandParam(args);
-        SqlSource sqlSource = new SqlSource.Builder(method.extractSqlSource(args), command).build();
+        SqlSource sqlSource = resolveSqlSource(args);
         if (method.hasRowBounds()) {
             RowBounds rowBounds = method.extractRowBounds(args);
             result = sqlSession.selectList(sqlSource, param, rowBounds);
@@ -159,10 +196,43 @@ public class MapperMethod {
         return result;
     }
 
+    private <E> Page<E> executeForPage(SqlSession sqlSession, Object[] args) {
+        Object param = method.convertArgsToSqlCommandParam(args);
+        SqlSource sqlSource = resolveSqlSource(args);
+        RowBounds rowBounds = method.hasRowBounds() ? method.extractRowBounds(args) : RowBounds.DEFAULT;
+        PageCount pageCount = method.getPageCount();
+        if (pageCount == null) {
+            return sqlSession.selectPage(sqlSource, param, rowBounds);
+        }
+        return sqlSession.selectPage(sqlSource, param, rowBounds, pageCount.enabled(), pageCount.cacheTtl());
+    }
+
+    private ColumnarResult executeForColumnar(SqlSession sqlSession, Object[] args) {
+        Object param = method.convertArgsToSqlCommandParam(args);
+        SqlSource sqlSource = resolveSqlSource(args);
+        if (method.hasRowBounds()) {
+            return sqlSession.selectColumnar(sqlSource, param, method.extractRowBounds(args));
+        }
+        return sqlSession.selectColumnar(sqlSource, param);
+    }
+
+    private Object executeForPrimitives(SqlSession sqlSession, Object[] args) {
+        PrimitiveColumnHandler handler = PrimitiveColumnHandler.forReturnType(method.getReturnType());
+        Object param = method.convertArgsToSqlCommandParam(args);
+        SqlSource sqlSource = resolveSqlSource(args);
+        if (method.hasRowBounds()) {
+            RowBounds rowBounds = method.extractRowBounds(args);
+            sqlSession.select(sqlSource, param, rowBounds, handler);
+        } else {
+            sqlSession.select(sqlSource, param, handler);
+        }
+        return handler.getResult();
+    }
+
     private <T> Cursor<T> executeForCursor(SqlSession sqlSession, Object[] args) {
         Cursor<T> result;
         Object param = method.convertArgsToSqlCommandParam(args);
-        SqlSource sqlSource = new SqlSource.Builder(method.extractSqlSource(args), command).build();
+        SqlSource sqlSource = resolveSqlSource(args);
         if (method.hasRowBounds()) {
             RowBounds rowBounds = method.extractRowBounds(args);
             result = sqlSession.selectCursor(sqlSource, param, rowBounds);
@@ -196,28 +266,345 @@ public class MapperMethod {
     private <K, V> Map<K, V> executeForMap(SqlSession sqlSession, Object[] args) {
         Map<K, V> result;
         Object param = method.convertArgsToSqlCommandParam(args);
-        SqlSource sqlSource = new SqlSource.Builder(method.extractSqlSource(args), command).build();
-        if (method.hasRowBounds()) {
-            RowBounds rowBounds = method.extractRowBounds(args);
+        SqlSource sqlSource = resolveSqlSource(args);
+        RowBounds rowBounds = method.hasRowBounds() ? method.extractRowBounds(args) : RowBounds.DEFAULT;
+        if (method.getReturnType().isInterface()) {
             result = sqlSession.selectMap(sqlSource, param, method.getMapKey(), rowBounds);
         } else {
-            result = sqlSession.selectMap(sqlSource, param, method.getMapKey());
+            //方法返回具体的Map实现（如LinkedHashMap、TreeMap）时，结果直接放入这个类型的Map
+            @SuppressWarnings("unchecked")
+            Map<K, V> resultMap = (Map<K, V>) sqlSession.getConfiguration().getObjectFactory().create(method.getReturnType());
+            result = sqlSession.selectMap(sqlSource, param, method.getMapKey(), rowBounds, resultMap);
         }
         return result;
     }
 
     /****************************************************Mapper执行方法的请求参数的封装*******************************************************/
 
-    public static class ParamMap<V> extends HashMap<String, V> {
+    /**
+     * Mapper方法封装后的请求参数（key：参数名称，value：参数）
+     * <p>参数名称在解析方法签名时就已确定（{@link ParamShape}，每个方法一个），值按下标存放在数组中，每次调用只需要复制参数数组，不再创建哈希表</p>
+     * <p>不在ParamShape中的参数名称（手动put的）存放在溢出的HashMap中（懒创建）</p>
+     *
+     * @param <V> 参数类型
+     */
+    public static class ParamMap<V> extends AbstractMap<String, V> implements Serializable {
 
         private static final long serialVersionUID = -2212268410512043556L;
 
+        /**
+         * 参数名称的下标位置被移除的标记
+         */
+        private static final Object ABSENT = new Object();
+
+        private final ParamShape shape;
+
+        /**
+         * 参数的值，下标与{@link ParamShape}的参数名称一一对应
+         */
+        private transient Object[] values;
+
+        /**
+         * 不在ParamShape中的参数
+         */
+        private HashMap<String, V> overflow;
+
+        private int size;
+
+        public ParamMap() {
+            this(ParamShape.EMPTY, new Object[0]);
+        }
+
+        /**
+         * @param shape  参数名称
+         * @param values 参数的值（直接使用，不复制），长度必须与参数名称的个数一致
+         */
+        public ParamMap(ParamShape shape, Object[] values) {
+            if (values.length != shape.size()) {
+                throw new IllegalArgumentException("Expected " + shape.size() + " parameter values but got " + values.length);
+            }
+            this.shape = shape;
+            this.values = values;
+            this.size = values.length;
+        }
+
+        public ParamShape getShape() {
+            return shape;
+        }
+
+        /**
+         * 按下标获取参数（下标由{@link ParamShape#indexOf(Object)}预先解析）
+         *
+         * @param index 参数名称的下标，小于0时按名称获取
+         * @param name  参数名称
+         * @return 参数
+         */
+        @SuppressWarnings("unchecked")
+        public V get(int index, String name) {
+            if (index >= 0) {
+                Object value = values[index];
+                if (value != ABSENT) {
+                    return (V) value;
+                }
+            }
+            return get(name);
+        }
+
+        @SuppressWarnings("unchecked")
         @Override
         public V get(Object key) {
-            if (!super.containsKey(key)) {
-                throw new OrmException("Parameter '" + key + "' not found. Available parameters are " + keySet());
+            int index = shape.indexOf(key);
+            if (index >= 0) {
+                Object value = values[index];
+                if (value != ABSENT) {
+                    return (V) value;
+                }
+            } else if (overflow != null && overflow.containsKey(key)) {
+                return overflow.get(key);
+            }
+            throw new OrmException("Parameter '" + key + "' not found. Available parameters are " + keySet());
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            int index = shape.indexOf(key);
+            if (index >= 0) {
+                return values[index] != ABSENT;
+            }
+            return overflow != null && overflow.containsKey(key);
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public V put(String key, V value) {
+            int index = shape.indexOf(key);
+            if (index >= 0) {
+                Object previous = values[index];
+                values[index] = value;
+                if (previous == ABSENT) {
+                    size++;
+                    return null;
+                }
+                return (V) previous;
+            }
+            if (overflow == null) {
+                overflow = new HashMap<>();
+            }
+            if (!overflow.containsKey(key)) {
+                size++;
+            }
+            return overflow.put(key, value);
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public V remove(Object key) {
+            int index = shape.indexOf(key);
+            if (index >= 0) {
+                Object previous = values[index];
+                if (previous == ABSENT) {
+                    return null;
+                }
+                values[index] = ABSENT;
+                size--;
+                return (V) previous;
+            }
+            if (overflow == null || !overflow.containsKey(key)) {
+                return null;
+            }
+            size--;
+            return overflow.remove(key);
+        }
+
+        @Override
+        public void clear() {
+            Arrays.fill(values, ABSENT);
+            overflow = null;
+            size = 0;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public Set<Entry<String, V>> entrySet() {
+            return new AbstractSet<Entry<String, V>>() {
+                @Override
+                public Iterator<Entry<String, V>> iterator() {
+                    return new EntryIterator();
+                }
+
+                @Override
+                public int size() {
+                    return size;
+                }
+            };
+        }
+
+        private void writeObject(ObjectOutputStream out) throws IOException {
+            out.defaultWriteObject();
+            for (Object value : values) {
+                out.writeBoolean(value != ABSENT);
+                out.writeObject(value == ABSENT ? null : value);
+            }
+        }
+
+        private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+            in.defaultReadObject();
+            values = new Object[shape.size()];
+            for (int i = 0; i < values.length; i++) {
+                boolean present = in.readBoolean();
+                Object value = in.readObject();
+                values[i] = present ? value : ABSENT;
+            }
+        }
+
+        /**
+         * 先遍历ParamShape中的参数，再遍历溢出的参数
+         */
+        private class EntryIterator implements Iterator<Entry<String, V>> {
+
+            private int index = nextPresent(0);
+
+            private Iterator<Entry<String, V>> overflowIterator;
+
+            private int lastIndex = -1;
+
+            private int nextPresent(int from) {
+                while (from < values.length && values[from] == ABSENT) {
+                    from++;
+                }
+                return from;
+            }
+
+            @Override
+            public boolean hasNext() {
+                if (index < values.length) {
+                    return true;
+                }
+                if (overflowIterator == null && overflow != null) {
+                    overflowIterator = overflow.entrySet().iterator();
+                }
+                return overflowIterator != null && overflowIterator.hasNext();
+            }
+
+            @SuppressWarnings("unchecked")
+            @Override
+            public Entry<String, V> next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                if (index < values.length) {
+                    final int current = index;
+                    lastIndex = current;
+                    index = nextPresent(index + 1);
+                    return new SimpleEntry<String, V>(shape.getName(current), (V) values[current]) {
+                        private static final long serialVersionUID = 1L;
+
+                        @Override
+                        public V setValue(V value) {
+                            super.setValue(value);
+                            Object previous = values[current];
+                            values[current] = value;
+                            return (V) previous;
+                        }
+                    };
+                }
+                lastIndex = -1;
+                return overflowIterator.next();
+            }
+
+            @Override
+            public void remove() {
+                if (lastIndex >= 0) {
+                    if (values[lastIndex] == ABSENT) {
+                        throw new IllegalStateException();
+                    }
+                    values[lastIndex] = ABSENT;
+                    size--;
+                } else if (overflowIterator != null) {
+                    overflowIterator.remove();
+                    size--;
+                } else {
+                    throw new IllegalStateException();
+                }
             }
-            return super.get(key);
+        }
+    }
+
+    /**
+     * 请求参数的名称（每个Mapper方法一个，只读）：参数名称-->下标
+     * <p>参数个数一般很少，按名称顺序比较hash、equals即可；参数较多时使用HashMap查找</p>
+     */
+    public static final class ParamShape implements Serializable {
+
+        private static final long serialVersionUID = 5325780413316425349L;
+
+        /**
+         * 参数名称多于这个数量时，使用HashMap查找下标
+         */
+        private static final int LINEAR_SCAN_THRESHOLD = 8;
+
+        public static final ParamShape EMPTY = new ParamShape();
+
+        private final String[] names;
+
+        private final int[] hashes;
+
+        private final Map<String, Integer> indexes;
+
+        /**
+         * @param names 参数名称（不能重复）
+         */
+        public ParamShape(String... names) {
+            this.names = names.clone();
+            this.hashes = new int[names.length];
+            Map<String, Integer> indexMap = new HashMap<>();
+            for (int i = 0; i < names.length; i++) {
+                hashes[i] = names[i].hashCode();
+                if (indexMap.put(names[i], i) != null) {
+                    throw new IllegalArgumentException("Duplicate parameter name '" + names[i] + "'");
+                }
+            }
+            this.indexes = names.length > LINEAR_SCAN_THRESHOLD ? indexMap : null;
+        }
+
+        /**
+         * 获取参数名称的下标
+         *
+         * @param name 参数名称
+         * @return 下标，没有此参数名称时返回-1
+         */
+        public int indexOf(Object name) {
+            if (!(name instanceof String)) {
+                return -1;
+            }
+            if (indexes != null) {
+                Integer index = indexes.get(name);
+                return index == null ? -1 : index;
+            }
+            int hash = name.hashCode();
+            for (int i = 0; i < names.length; i++) {
+                if (hashes[i] == hash && names[i].equals(name)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        public int size() {
+            return names.length;
+        }
+
+        public String getName(int index) {
+            return names[index];
+        }
+
+        @Override
+        public String toString() {
+            return Arrays.toString(names);
         }
     }
 
@@ -316,10 +703,14 @@ public class MapperMethod {
     public static class MethodSignature {
 
         private final boolean returnsMany;
+        private final boolean returnsPrimitives;
+        private final boolean returnsColumnar;
         private final boolean returnsMap;
         private final boolean returnsVoid;
         private final boolean returnsCursor;
         private final boolean returnsOptional;
+        private final boolean returnsPage;
+        private final PageCount pageCount;
         private final Class<?> returnType;
         private final String mapKey;
         private final Integer resultHandlerIndex;
@@ -339,8 +730,12 @@ public class MapperMethod {
             }
             this.returnsVoid = void.class.equals(this.returnType);
             this.returnsMany = configuration.getObjectFactory().isCollection(this.returnType) || this.returnType.isArray();
+            this.returnsPrimitives = PrimitiveColumnHandler.isSupported(this.returnType);
+            this.returnsColumnar = ColumnarResult.class.equals(this.returnType);
             this.returnsCursor = Cursor.class.equals(this.returnType);
             this.returnsOptional = Optional.class.equals(this.returnType);
+            this.returnsPage = Page.class.equals(this.returnType);
+            this.pageCount = method.getAnnotation(PageCount.class);
             //@MapKey结果的封装
             this.mapKey = getMapKey(method);
             this.returnsMap = this.mapKey != null;
@@ -393,6 +788,14 @@ public class MapperMethod {
             return returnsMany;
         }
 
+        public boolean returnsColumnar() {
+            return returnsColumnar;
+        }
+
+        public boolean returnsPrimitives() {
+            return returnsPrimitives;
+        }
+
         public boolean returnsMap() {
             return returnsMap;
         }
@@ -405,6 +808,14 @@ public class MapperMethod {
             return returnsCursor;
         }
 
+        public boolean returnsPage() {
+            return returnsPage;
+        }
+
+        public PageCount getPageCount() {
+            return pageCount;
+        }
+
         /**
          * return whether return type is {@code java.util.Optional}.
          *
@@ -0,0 +1,209 @@
+package club.emperorws.orm.cache;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * 有容量上限的并发缓存（近似LRU）
+ * <p>读操作只有一次ConcurrentHashMap查找；超过容量时，按最近访问时间批量淘汰最久未访问的条目（淘汰到容量的90%），均摊淘汰成本</p>
+ * <p>同时记录命中、未命中、淘汰次数，便于观察缓存效果</p>
+ *
+ * @author: EmperorWS
+ * @date: 2023/8/15 9:40
+ * @description: BoundedConcurrentCache: 有容量上限的并发缓存
+ */
+public class BoundedConcurrentCache<K, V> {
+
+    private final ConcurrentHashMap<K, Node<V>> map;
+
+    /**
+     * 淘汰锁，同一时间只允许一个线程执行淘汰
+     */
+    private final ReentrantLock evictionLock = new ReentrantLock();
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+
+    /**
+     * 缓存容量上限
+     */
+    private volatile int maximumSize;
+
+    public BoundedConcurrentCache(int maximumSize) {
+        checkMaximumSize(maximumSize);
+        this.maximumSize = maximumSize;
+        this.map = new ConcurrentHashMap<>(Math.min(maximumSize, 256));
+    }
+
+    /**
+     * 获取缓存值
+     *
+     * @param key 键
+     * @return 缓存值，不存在时返回null
+     */
+    public V get(K key) {
+        Node<V> node = map.get(key);
+        if (node == null) {
+            missCount.increment();
+            return null;
+        }
+        hitCount.increment();
+        node.accessTime = System.nanoTime();
+        return node.value;
+    }
+
+    /**
+     * 获取缓存值，不存在时创建并放入缓存
+     * <p>注意：创建逻辑在Map的锁之外执行（允许递归调用本缓存），并发时可能重复创建，以先放入的值为准</p>
+     *
+     * @param key             键
+     * @param mappingFunction 缓存值的创建逻辑
+     * @return 缓存值，创建逻辑返回null时不缓存，直接返回null
+     */
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+        V value = get(key);
+        if (value != null) {
+            return value;
+        }
+        value = mappingFunction.apply(key);
+        if (value == null) {
+            return null;
+        }
+        Node<V> previous = map.putIfAbsent(key, new Node<>(value));
+        if (previous != null) {
+            return previous.value;
+        }
+        evictIfNecessary();
+        return value;
+    }
+
+    public void put(K key, V value) {
+        map.put(key, new Node<>(value));
+        evictIfNecessary();
+    }
+
+    public V remove(K key) {
+        Node<V> node = map.remove(key);
+        return node == null ? null : node.value;
+    }
+
+    public void clear() {
+        map.clear();
+    }
+
+    public int size() {
+        return map.size();
+    }
+
+    public int getMaximumSize() {
+        return maximumSize;
+    }
+
+    public void setMaximumSize(int maximumSize) {
+        checkMaximumSize(maximumSize);
+        this.maximumSize = maximumSize;
+        evictIfNecessary();
+    }
+
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictionCount.sum();
+    }
+
+    /**
+     * 命中率
+     *
+     * @return 命中率（0~1），还没有访问过时返回0
+     */
+    public double getHitRatio() {
+        long hits = hitCount.sum();
+        long total = hits + missCount.sum();
+        return total == 0 ? 0D : (double) hits / total;
+    }
+
+    @Override
+    public String toString() {
+        return "BoundedConcurrentCache{size=" + size() + ", maximumSize=" + maximumSize + ", hitCount=" + getHitCount()
+                + ", missCount=" + getMissCount() + ", evictionCount=" + getEvictionCount() + '}';
+    }
+
+    /**
+     * 超出容量时，淘汰最久未访问的条目，直到容量的90%
+     */
+    private void evictIfNecessary() {
+        int max = maximumSize;
+        if (map.size() <= max || !evictionLock.tryLock()) {
+            return;
+        }
+        try {
+            int overflow = map.size() - max * 9 / 10;
+            if (overflow <= 0) {
+                return;
+            }
+            //先固定访问时间的快照，避免排序过程中访问时间被其他线程修改
+            List<EvictionCandidate<K, V>> candidates = new ArrayList<>(map.size());
+            for (Map.Entry<K, Node<V>> entry : map.entrySet()) {
+                candidates.add(new EvictionCandidate<>(entry.getKey(), entry.getValue()));
+            }
+            candidates.sort(Comparator.comparingLong(candidate -> candidate.accessTime));
+            for (int i = 0; i < overflow && i < candidates.size(); i++) {
+                EvictionCandidate<K, V> candidate = candidates.get(i);
+                if (map.remove(candidate.key, candidate.node)) {
+                    evictionCount.increment();
+                }
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    private static void checkMaximumSize(int maximumSize) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("The maximum size of cache must be greater than 0, but was " + maximumSize);
+        }
+    }
+
+    /*************************************************inner class*********************************************************/
+
+    private static class Node<V> {
+
+        private final V value;
+
+        /**
+         * 最近一次访问时间（并发下允许轻微不准确）
+         */
+        private volatile long accessTime;
+
+        private Node(V value) {
+            this.value = value;
+            this.accessTime = System.nanoTime();
+        }
+    }
+
+    private static class EvictionCandidate<K, V> {
+
+        private final K key;
+        private final Node<V> node;
+        private final long accessTime;
+
+        private EvictionCandidate(K key, Node<V> node) {
+            this.key = key;
+            this.node = node;
+            this.accessTime = node.accessTime;
+        }
+    }
+}
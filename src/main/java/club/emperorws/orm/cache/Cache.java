@@ -0,0 +1,56 @@
+package club.emperorws.orm.cache;
+
+/**
+ * 二级缓存（查询结果缓存）的存储接口
+ * <p>可插拔：自定义实现需要提供一个参数为缓存id（String）的构造方法，见{@link club.emperorws.orm.annotations.QueryCache#implementation()}</p>
+ * <p>淘汰策略（LRU/LFU）、过期时间（TTL）、线程安全均由装饰器实现，见{@link CacheBuilder}</p>
+ *
+ * @author: EmperorWS
+ * @date: 2023/8/17 14:10
+ * @description: Cache: 二级缓存的存储接口
+ */
+public interface Cache {
+
+    /**
+     * 缓存的唯一标识
+     *
+     * @return 缓存id
+     */
+    String getId();
+
+    /**
+     * 放入缓存
+     *
+     * @param key   缓存key
+     * @param value 缓存值
+     */
+    void putObject(Object key, Object value);
+
+    /**
+     * 获取缓存值
+     *
+     * @param key 缓存key
+     * @return 缓存值，不存在时返回null
+     */
+    Object getObject(Object key);
+
+    /**
+     * 移除缓存
+     *
+     * @param key 缓存key
+     * @return 被移除的缓存值
+     */
+    Object removeObject(Object key);
+
+    /**
+     * 清空缓存
+     */
+    void clear();
+
+    /**
+     * 缓存数量
+     *
+     * @return 缓存数量
+     */
+    int getSize();
+}
@@ -0,0 +1,82 @@
+package club.emperorws.orm.cache;
+
+import club.emperorws.orm.cache.decorators.LfuCache;
+import club.emperorws.orm.cache.decorators.LruCache;
+import club.emperorws.orm.cache.decorators.SynchronizedCache;
+import club.emperorws.orm.cache.decorators.TtlCache;
+import club.emperorws.orm.cache.impl.PerpetualCache;
+import club.emperorws.orm.exception.OrmException;
+
+import java.lang.reflect.Constructor;
+
+/**
+ * 二级缓存的构建器：存储实现-->TTL-->淘汰策略-->线程安全，依次装饰
+ *
+ * @author: EmperorWS
+ * @date: 2023/8/17 15:30
+ * @description: CacheBuilder: 二级缓存的构建器
+ */
+public class CacheBuilder {
+
+    private final String id;
+    private Class<? extends Cache> implementation = PerpetualCache.class;
+    private EvictionPolicy eviction = EvictionPolicy.LRU;
+    private int size = 1024;
+    private long ttl;
+
+    public CacheBuilder(String id) {
+        this.id = id;
+    }
+
+    public CacheBuilder implementation(Class<? extends Cache> implementation) {
+        this.implementation = implementation;
+        return this;
+    }
+
+    public CacheBuilder eviction(EvictionPolicy eviction) {
+        this.eviction = eviction;
+        return this;
+    }
+
+    public CacheBuilder size(int size) {
+        this.size = size;
+        return this;
+    }
+
+    /**
+     * 过期时间
+     *
+     * @param ttl 过期时间（毫秒），小于等于0时永不过期
+     * @return CacheBuilder
+     */
+    public CacheBuilder ttl(long ttl) {
+        this.ttl = ttl;
+        return this;
+    }
+
+    public Cache build() {
+        if (size <= 0) {
+            throw new OrmException("The size of cache '" + id + "' must be greater than 0, but was " + size);
+        }
+        Cache cache = newBaseCacheInstance();
+        //TTL在淘汰策略里面：淘汰时会一并清理TTL的过期时间
+        if (ttl > 0) {
+            cache = new TtlCache(cache, ttl);
+        }
+        if (eviction == EvictionPolicy.LFU) {
+            cache = new LfuCache(cache, size);
+        } else {
+            cache = new LruCache(cache, size);
+        }
+        return new SynchronizedCache(cache);
+    }
+
+    private Cache newBaseCacheInstance() {
+        try {
+            Constructor<? extends Cache> constructor = implementation.getConstructor(String.class);
+            return constructor.newInstance(id);
+        } catch (Exception e) {
+            throw new OrmException("Could not instantiate cache implementation (" + implementation + "). Cause: " + e, e);
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package club.emperorws.orm.cache;
+
+import java.io.Serializable;
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 查询结果缓存的key：由（MappedStatement id，RowBounds，SQL，请求参数的值）依次组合而成
+ * <p>hashCode、checksum在update时增量计算，equals时先比较它们，最后才逐个比较组成部分</p>
+ *
+ * @author: EmperorWS
+ * @date: 2023/8/17 14:20
+ * @description: CacheKey: 查询结果缓存的key
+ */
+public class CacheKey implements Cloneable, Serializable {
+
+    private static final long serialVersionUID = 1146682552656046210L;
+
+    private static final int DEFAULT_MULTIPLIER = 37;
+    private static final int DEFAULT_HASHCODE = 17;
+
+    private final int multiplier;
+    private int hashcode;
+    private long checksum;
+    private int count;
+    private List<Object> updateList;
+
+    public CacheKey() {
+        this.hashcode = DEFAULT_HASHCODE;
+        this.multiplier = DEFAULT_MULTIPLIER;
+        this.count = 0;
+        this.updateList = new ArrayList<>();
+    }
+
+    public CacheKey(Object[] objects) {
+        this();
+        updateAll(objects);
+    }
+
+    public int getUpdateCount() {
+        return updateList.size();
+    }
+
+    /**
+     * 追加一个组成部分
+     *
+     * @param object 组成部分（数组按元素比较）
+     */
+    public void update(Object object) {
+        int baseHashCode = object == null ? 1 : arrayHashCode(object);
+        count++;
+        checksum += baseHashCode;
+        baseHashCode *= count;
+        hashcode = multiplier * hashcode + baseHashCode;
+        updateList.add(object);
+    }
+
+    public void updateAll(Object[] objects) {
+        for (Object o : objects) {
+            update(o);
+        }
+    }
+
+    @Override
+    public boolean equals(Object object) {
+        if (this == object) {
+            return true;
+        }
+        if (!(object instanceof CacheKey)) {
+            return false;
+        }
+        final CacheKey cacheKey = (CacheKey) object;
+        if (hashcode != cacheKey.hashcode || checksum != cacheKey.checksum || count != cacheKey.count) {
+            return false;
+        }
+        for (int i = 0; i < updateList.size(); i++) {
+            Object thisObject = updateList.get(i);
+            Object thatObject = cacheKey.updateList.get(i);
+            if (!arrayEquals(thisObject, thatObject)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        return hashcode;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder returnValue = new StringBuilder().append(hashcode).append(':').append(checksum);
+        for (Object object : updateList) {
+            returnValue.append(':').append(arrayToString(object));
+        }
+        return returnValue.toString();
+    }
+
+    @Override
+    public CacheKey clone() throws CloneNotSupportedException {
+        CacheKey clonedCacheKey = (CacheKey) super.clone();
+        clonedCacheKey.updateList = new ArrayList<>(updateList);
+        return clonedCacheKey;
+    }
+
+    private static int arrayHashCode(Object obj) {
+        if (!obj.getClass().isArray()) {
+            return obj.hashCode();
+        }
+        if (obj instanceof Object[]) {
+            return Arrays.deepHashCode((Object[]) obj);
+        } else if (obj instanceof byte[]) {
+            return Arrays.hashCode((byte[]) obj);
+        } else if (obj instanceof char[]) {
+            return Arrays.hashCode((char[]) obj);
+        } else if (obj instanceof int[]) {
+            return Arrays.hashCode((int[]) obj);
+        } else if (obj instanceof long[]) {
+            return Arrays.hashCode((long[]) obj);
+        } else if (obj instanceof short[]) {
+            return Arrays.hashCode((short[]) obj);
+        } else if (obj instanceof double[]) {
+            return Arrays.hashCode((double[]) obj);
+        } else if (obj instanceof float[]) {
+            return Arrays.hashCode((float[]) obj);
+        } else {
+            return Arrays.hashCode((boolean[]) obj);
+        }
+    }
+
+    private static boolean arrayEquals(Object thisObj, Object thatObj) {
+        if (thisObj == thatObj) {
+            return true;
+        }
+        if (thisObj == null || thatObj == null) {
+            return false;
+        }
+        if (!thisObj.getClass().isArray() || thisObj.getClass() != thatObj.getClass()) {
+            return thisObj.equals(thatObj);
+        }
+        if (thisObj instanceof Object[]) {
+            return Arrays.deepEquals((Object[]) thisObj, (Object[]) thatObj);
+        } else if (thisObj instanceof byte[]) {
+            return Arrays.equals((byte[]) thisObj, (byte[]) thatObj);
+        } else if (thisObj instanceof char[]) {
+            return Arrays.equals((char[]) thisObj, (char[]) thatObj);
+        } else if (thisObj instanceof int[]) {
+            return Arrays.equals((int[]) thisObj, (int[]) thatObj);
+        } else if (thisObj instanceof long[]) {
+            return Arrays.equals((long[]) thisObj, (long[]) thatObj);
+        } else if (thisObj instanceof short[]) {
+            return Arrays.equals((short[]) thisObj, (short[]) thatObj);
+        } else if (thisObj instanceof double[]) {
+            return Arrays.equals((double[]) thisObj, (double[]) thatObj);
+        } else if (thisObj instanceof float[]) {
+            return Arrays.equals((float[]) thisObj, (float[]) thatObj);
+        } else {
+            return Arrays.equals((boolean[]) thisObj, (boolean[]) thatObj);
+        }
+    }
+
+    private static String arrayToString(Object obj) {
+        if (obj == null || !obj.getClass().isArray()) {
+            return String.valueOf(obj);
+        }
+        if (obj instanceof Object[]) {
+            return Arrays.deepToString((Object[]) obj);
+        }
+        List<Object> values = new ArrayList<>();
+        for (int i = 0, n = Array.getLength(obj); i < n; i++) {
+            values.add(Array.get(obj, i));
+        }
+        return values.toString();
+    }
+}
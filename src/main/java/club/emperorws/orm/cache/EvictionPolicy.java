@@ -0,0 +1,21 @@
+package club.emperorws.orm.cache;
+
+/**
+ * 缓存的淘汰策略
+ *
+ * @author: EmperorWS
+ * @date: 2023/8/17 14:30
+ * @description: EvictionPolicy: 缓存的淘汰策略
+ */
+public enum EvictionPolicy {
+
+    /**
+     * 淘汰最久未使用的
+     */
+    LRU,
+
+    /**
+     * 淘汰使用次数最少的
+     */
+    LFU
+}
@@ -0,0 +1,104 @@
+package club.emperorws.orm.cache;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 绑定在一个物理Connection上的Statement缓存（LRU）
+ * <p>超过容量时淘汰最久未使用的Statement，并执行Statement.close()</p>
+ * <p>连接池同一时间只会把一个物理Connection借给一个线程，这里只做简单的同步</p>
+ *
+ * @author: EmperorWS
+ * @date: 2023/8/17 10:20
+ * @description: StatementCache: 绑定在一个物理Connection上的Statement缓存
+ */
+public class StatementCache {
+
+    /**
+     * 所属的注册器（容量上限、命中统计）
+     */
+    private final StatementCacheRegistry registry;
+
+    /**
+     * 按访问顺序排列的Statement：key-->Statement
+     */
+    private final LinkedHashMap<String, Statement> statementMap = new LinkedHashMap<>(16, 0.75F, true);
+
+    StatementCache(StatementCacheRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * 获取缓存的Statement
+     *
+     * @param key 缓存key
+     * @return 缓存的Statement，不存在或已关闭时返回null
+     */
+    public synchronized Statement get(String key) {
+        Statement statement = statementMap.get(key);
+        if (statement != null && isClosed(statement)) {
+            statementMap.remove(key);
+            statement = null;
+        }
+        registry.recordAccess(statement != null);
+        return statement;
+    }
+
+    /**
+     * 缓存Statement，超过容量时关闭并淘汰最久未使用的Statement
+     *
+     * @param key       缓存key
+     * @param statement Statement
+     */
+    public synchronized void put(String key, Statement statement) {
+        Statement previous = statementMap.put(key, statement);
+        if (previous != null && previous != statement) {
+            closeStatement(previous);
+        }
+        evictIfNecessary();
+    }
+
+    /**
+     * 关闭并清空所有缓存的Statement
+     */
+    public synchronized void clear() {
+        for (Statement statement : statementMap.values()) {
+            closeStatement(statement);
+        }
+        statementMap.clear();
+    }
+
+    public synchronized int size() {
+        return statementMap.size();
+    }
+
+    synchronized void evictIfNecessary() {
+        int maximumSize = registry.getMaximumSize();
+        Iterator<Map.Entry<String, Statement>> iterator = statementMap.entrySet().iterator();
+        while (statementMap.size() > maximumSize && iterator.hasNext()) {
+            Statement eldest = iterator.next().getValue();
+            iterator.remove();
+            closeStatement(eldest);
+            registry.recordEviction();
+        }
+    }
+
+    private static boolean isClosed(Statement statement) {
+        try {
+            return statement.isClosed();
+        } catch (SQLException e) {
+            return true;
+        }
+    }
+
+    private static void closeStatement(Statement statement) {
+        try {
+            statement.close();
+        } catch (SQLException e) {
+            // ignore
+        }
+    }
+}
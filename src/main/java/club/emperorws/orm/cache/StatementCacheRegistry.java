@@ -0,0 +1,170 @@
+package club.emperorws.orm.cache;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 物理Connection-->Statement缓存的注册器
+ * <p>Statement缓存绑定在物理Connection上（而不是SqlSession上），连接池把同一个物理Connection借给后续的SqlSession时，可以继续复用已预编译的Statement</p>
+ * <p>不能用WeakHashMap：Statement强引用着它的Connection，key永远不会被回收。这里在出现新的物理Connection时（连接池新建、替换连接），顺便清理已关闭的Connection的缓存</p>
+ *
+ * @author: EmperorWS
+ * @date: 2023/8/17 10:05
+ * @description: StatementCacheRegistry: 物理Connection-->Statement缓存的注册器
+ */
+public class StatementCacheRegistry {
+
+    private final Map<Connection, StatementCache> statementCacheMap = new ConcurrentHashMap<>();
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+
+    /**
+     * 每个物理Connection缓存的Statement数量上限
+     */
+    private volatile int maximumSize;
+
+    public StatementCacheRegistry(int maximumSize) {
+        checkMaximumSize(maximumSize);
+        this.maximumSize = maximumSize;
+    }
+
+    /**
+     * 获取物理Connection对应的Statement缓存，不存在时创建
+     *
+     * @param connection 连接（连接池的代理Connection会被unwrap为物理Connection）
+     * @return Statement缓存
+     */
+    public StatementCache getStatementCache(Connection connection) {
+        Connection physicalConnection = unwrapConnection(connection);
+        StatementCache statementCache = statementCacheMap.get(physicalConnection);
+        if (statementCache == null) {
+            //出现新的物理Connection，顺便清理已关闭的Connection
+            expungeClosedConnections();
+            statementCache = statementCacheMap.computeIfAbsent(physicalConnection, key -> new StatementCache(this));
+        }
+        return statementCache;
+    }
+
+    /**
+     * 获取物理Connection（连接池的代理Connection关闭时会关闭它创建的Statement，所以Statement要在物理Connection上预编译）
+     *
+     * @param connection 连接
+     * @return 物理Connection，无法unwrap时返回原连接
+     */
+    public static Connection unwrapConnection(Connection connection) {
+        try {
+            Connection physicalConnection = connection.unwrap(Connection.class);
+            return physicalConnection == null ? connection : physicalConnection;
+        } catch (SQLException | AbstractMethodError e) {
+            return connection;
+        }
+    }
+
+    /**
+     * 关闭并清空所有的Statement缓存
+     */
+    public void clear() {
+        for (StatementCache statementCache : statementCacheMap.values()) {
+            statementCache.clear();
+        }
+        statementCacheMap.clear();
+    }
+
+    /**
+     * 已缓存Statement的物理Connection数量
+     *
+     * @return 物理Connection数量
+     */
+    public int size() {
+        return statementCacheMap.size();
+    }
+
+    public int getMaximumSize() {
+        return maximumSize;
+    }
+
+    /**
+     * 修改每个物理Connection缓存的Statement数量上限（超出的部分立即淘汰）
+     *
+     * @param maximumSize 容量上限
+     */
+    public void setMaximumSize(int maximumSize) {
+        checkMaximumSize(maximumSize);
+        this.maximumSize = maximumSize;
+        for (StatementCache statementCache : statementCacheMap.values()) {
+            statementCache.evictIfNecessary();
+        }
+    }
+
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictionCount.sum();
+    }
+
+    /**
+     * 命中率
+     *
+     * @return 命中率（0~1）
+     */
+    public double getHitRatio() {
+        long hits = hitCount.sum();
+        long total = hits + missCount.sum();
+        return total == 0 ? 0D : (double) hits / total;
+    }
+
+    void recordAccess(boolean hit) {
+        if (hit) {
+            hitCount.increment();
+        } else {
+            missCount.increment();
+        }
+    }
+
+    void recordEviction() {
+        evictionCount.increment();
+    }
+
+    @Override
+    public String toString() {
+        return "StatementCacheRegistry{connections=" + size() + ", maximumSize=" + maximumSize + ", hitCount=" + getHitCount()
+                + ", missCount=" + getMissCount() + ", evictionCount=" + getEvictionCount() + '}';
+    }
+
+    private void expungeClosedConnections() {
+        Iterator<Map.Entry<Connection, StatementCache>> iterator = statementCacheMap.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Connection, StatementCache> entry = iterator.next();
+            if (isClosed(entry.getKey())) {
+                iterator.remove();
+                entry.getValue().clear();
+            }
+        }
+    }
+
+    private static boolean isClosed(Connection connection) {
+        try {
+            return connection.isClosed();
+        } catch (SQLException e) {
+            return true;
+        }
+    }
+
+    private static void checkMaximumSize(int maximumSize) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("The maximum size of statement cache must be greater than 0, but was " + maximumSize);
+        }
+    }
+}
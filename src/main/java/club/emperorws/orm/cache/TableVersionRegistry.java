@@ -0,0 +1,85 @@
+package club.emperorws.orm.cache;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 表的版本号注册器：查询结果缓存按表失效
+ * <p>缓存时记录查询涉及的表的版本号；表被写入（事务提交）时版本号+1，版本号不一致的缓存即视为失效，不需要遍历所有缓存</p>
+ * <p>无法识别写入的表时，递增全局版本号，所有缓存都失效</p>
+ *
+ * @author: EmperorWS
+ * @date: 2023/8/17 15:40
+ * @description: TableVersionRegistry: 表的版本号注册器
+ */
+public class TableVersionRegistry {
+
+    /**
+     * 代表“所有表”（无法识别写入的表时使用）
+     */
+    public static final String ALL_TABLES = "*";
+
+    private final Map<String, AtomicLong> tableVersionMap = new ConcurrentHashMap<>();
+
+    private final AtomicLong globalVersion = new AtomicLong();
+
+    /**
+     * 获取表当前的版本号快照（最后一个元素为全局版本号）
+     * <p>必须在查询数据库之前获取，避免查询期间其他事务提交的写入被漏掉</p>
+     *
+     * @param tables 表名（统一格式后的）
+     * @return 版本号快照
+     */
+    public long[] snapshot(String[] tables) {
+        long[] versions = new long[tables.length + 1];
+        for (int i = 0; i < tables.length; i++) {
+            versions[i] = getVersion(tables[i]).get();
+        }
+        versions[tables.length] = globalVersion.get();
+        return versions;
+    }
+
+    /**
+     * 版本号快照是否仍然是最新的
+     *
+     * @param tables   表名
+     * @param versions 版本号快照
+     * @return 是否仍然是最新的
+     */
+    public boolean isCurrent(String[] tables, long[] versions) {
+        if (versions[tables.length] != globalVersion.get()) {
+            return false;
+        }
+        for (int i = 0; i < tables.length; i++) {
+            if (versions[i] != getVersion(tables[i]).get()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 表被写入，递增版本号
+     *
+     * @param tables 表名，包含{@link #ALL_TABLES}时递增全局版本号
+     */
+    public void invalidate(Collection<String> tables) {
+        for (String table : tables) {
+            if (ALL_TABLES.equals(table)) {
+                globalVersion.incrementAndGet();
+            } else {
+                getVersion(table).incrementAndGet();
+            }
+        }
+    }
+
+    private AtomicLong getVersion(String table) {
+        AtomicLong version = tableVersionMap.get(table);
+        if (version == null) {
+            version = tableVersionMap.computeIfAbsent(table, key -> new AtomicLong());
+        }
+        return version;
+    }
+}
@@ -0,0 +1,111 @@
+package club.emperorws.orm.cache.decorators;
+
+import club.emperorws.orm.cache.Cache;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * LFU淘汰策略的缓存装饰器：超过容量时淘汰使用次数最少的缓存（次数相同时淘汰先放入的）
+ * <p>淘汰时需要遍历一次所有key，只在缓存已满且未命中时发生</p>
+ *
+ * @author: EmperorWS
+ * @date: 2023/8/17 15:00
+ * @description: LfuCache: LFU淘汰策略的缓存装饰器
+ */
+public class LfuCache implements Cache {
+
+    private final Cache delegate;
+
+    /**
+     * key-->使用次数
+     */
+    private final Map<Object, Frequency> frequencyMap = new HashMap<>();
+
+    private final int size;
+
+    /**
+     * 放入顺序，次数相同时淘汰先放入的
+     */
+    private long sequence;
+
+    public LfuCache(Cache delegate, int size) {
+        this.delegate = delegate;
+        this.size = size;
+    }
+
+    @Override
+    public String getId() {
+        return delegate.getId();
+    }
+
+    @Override
+    public void putObject(Object key, Object value) {
+        Frequency frequency = frequencyMap.get(key);
+        if (frequency == null) {
+            if (frequencyMap.size() >= size) {
+                evictLeastFrequentlyUsed();
+            }
+            frequencyMap.put(key, new Frequency(sequence++));
+        }
+        delegate.putObject(key, value);
+    }
+
+    @Override
+    public Object getObject(Object key) {
+        Object value = delegate.getObject(key);
+        if (value != null) {
+            Frequency frequency = frequencyMap.get(key);
+            if (frequency != null) {
+                frequency.count++;
+            }
+        }
+        return value;
+    }
+
+    @Override
+    public Object removeObject(Object key) {
+        frequencyMap.remove(key);
+        return delegate.removeObject(key);
+    }
+
+    @Override
+    public void clear() {
+        delegate.clear();
+        frequencyMap.clear();
+    }
+
+    @Override
+    public int getSize() {
+        return delegate.getSize();
+    }
+
+    private void evictLeastFrequentlyUsed() {
+        Object evictKey = null;
+        Frequency evictFrequency = null;
+        for (Map.Entry<Object, Frequency> entry : frequencyMap.entrySet()) {
+            Frequency frequency = entry.getValue();
+            if (evictFrequency == null || frequency.count < evictFrequency.count
+                    || (frequency.count == evictFrequency.count && frequency.sequence < evictFrequency.sequence)) {
+                evictKey = entry.getKey();
+                evictFrequency = frequency;
+            }
+        }
+        if (evictFrequency != null) {
+            removeObject(evictKey);
+        }
+    }
+
+    /*************************************************inner class*********************************************************/
+
+    private static class Frequency {
+
+        private final long sequence;
+
+        private long count;
+
+        private Frequency(long sequence) {
+            this.sequence = sequence;
+        }
+    }
+}
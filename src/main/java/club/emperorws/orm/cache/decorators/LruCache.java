@@ -0,0 +1,71 @@
+package club.emperorws.orm.cache.decorators;
+
+import club.emperorws.orm.cache.Cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * LRU淘汰策略的缓存装饰器：超过容量时淘汰最久未使用的缓存
+ *
+ * @author: EmperorWS
+ * @date: 2023/8/17 14:50
+ * @description: LruCache: LRU淘汰策略的缓存装饰器
+ */
+public class LruCache implements Cache {
+
+    private final Cache delegate;
+
+    /**
+     * 按访问顺序排列的key
+     */
+    private final LinkedHashMap<Object, Object> keyMap = new LinkedHashMap<>(16, 0.75F, true);
+
+    private final int size;
+
+    public LruCache(Cache delegate, int size) {
+        this.delegate = delegate;
+        this.size = size;
+    }
+
+    @Override
+    public String getId() {
+        return delegate.getId();
+    }
+
+    @Override
+    public void putObject(Object key, Object value) {
+        delegate.putObject(key, value);
+        keyMap.put(key, key);
+        Iterator<Object> iterator = keyMap.keySet().iterator();
+        while (keyMap.size() > size && iterator.hasNext()) {
+            Object eldestKey = iterator.next();
+            iterator.remove();
+            delegate.removeObject(eldestKey);
+        }
+    }
+
+    @Override
+    public Object getObject(Object key) {
+        //刷新访问顺序
+        keyMap.get(key);
+        return delegate.getObject(key);
+    }
+
+    @Override
+    public Object removeObject(Object key) {
+        keyMap.remove(key);
+        return delegate.removeObject(key);
+    }
+
+    @Override
+    public void clear() {
+        delegate.clear();
+        keyMap.clear();
+    }
+
+    @Override
+    public int getSize() {
+        return delegate.getSize();
+    }
+}
@@ -0,0 +1,49 @@
+package club.emperorws.orm.cache.decorators;
+
+import club.emperorws.orm.cache.Cache;
+
+/**
+ * 线程安全的缓存装饰器（二级缓存被所有SqlSession共享）
+ *
+ * @author: EmperorWS
+ * @date: 2023/8/17 15:20
+ * @description: SynchronizedCache: 线程安全的缓存装饰器
+ */
+public class SynchronizedCache implements Cache {
+
+    private final Cache delegate;
+
+    public SynchronizedCache(Cache delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public String getId() {
+        return delegate.getId();
+    }
+
+    @Override
+    public synchronized void putObject(Object key, Object value) {
+        delegate.putObject(key, value);
+    }
+
+    @Override
+    public synchronized Object getObject(Object key) {
+        return delegate.getObject(key);
+    }
+
+    @Override
+    public synchronized Object removeObject(Object key) {
+        return delegate.removeObject(key);
+    }
+
+    @Override
+    public synchronized void clear() {
+        delegate.clear();
+    }
+
+    @Override
+    public synchronized int getSize() {
+        return delegate.getSize();
+    }
+}
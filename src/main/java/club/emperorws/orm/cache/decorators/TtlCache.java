@@ -0,0 +1,72 @@
+package club.emperorws.orm.cache.decorators;
+
+import club.emperorws.orm.cache.Cache;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 过期时间（TTL）的缓存装饰器：缓存放入超过ttl毫秒后视为不存在
+ *
+ * @author: EmperorWS
+ * @date: 2023/8/17 15:10
+ * @description: TtlCache: 过期时间（TTL）的缓存装饰器
+ */
+public class TtlCache implements Cache {
+
+    private final Cache delegate;
+
+    private final long ttlNanos;
+
+    /**
+     * key-->过期时间（System.nanoTime()）
+     */
+    private final Map<Object, Long> expireTimeMap = new HashMap<>();
+
+    public TtlCache(Cache delegate, long ttlMillis) {
+        this.delegate = delegate;
+        this.ttlNanos = ttlMillis * 1000000L;
+    }
+
+    @Override
+    public String getId() {
+        return delegate.getId();
+    }
+
+    @Override
+    public void putObject(Object key, Object value) {
+        delegate.putObject(key, value);
+        expireTimeMap.put(key, System.nanoTime() + ttlNanos);
+    }
+
+    @Override
+    public Object getObject(Object key) {
+        Long expireTime = expireTimeMap.get(key);
+        if (expireTime == null) {
+            //被内层装饰器淘汰了，或者还没放入
+            return delegate.getObject(key);
+        }
+        if (System.nanoTime() - expireTime >= 0) {
+            removeObject(key);
+            return null;
+        }
+        return delegate.getObject(key);
+    }
+
+    @Override
+    public Object removeObject(Object key) {
+        expireTimeMap.remove(key);
+        return delegate.removeObject(key);
+    }
+
+    @Override
+    public void clear() {
+        delegate.clear();
+        expireTimeMap.clear();
+    }
+
+    @Override
+    public int getSize() {
+        return delegate.getSize();
+    }
+}
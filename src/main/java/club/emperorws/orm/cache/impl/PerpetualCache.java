@@ -0,0 +1,70 @@
+package club.emperorws.orm.cache.impl;
+
+import club.emperorws.orm.cache.Cache;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 最基础的缓存存储：HashMap，永不淘汰（淘汰、过期、线程安全由装饰器实现）
+ *
+ * @author: EmperorWS
+ * @date: 2023/8/17 14:40
+ * @description: PerpetualCache: 最基础的缓存存储
+ */
+public class PerpetualCache implements Cache {
+
+    private final String id;
+
+    private final Map<Object, Object> cache = new HashMap<>();
+
+    public PerpetualCache(String id) {
+        this.id = id;
+    }
+
+    @Override
+    public String getId() {
+        return id;
+    }
+
+    @Override
+    public void putObject(Object key, Object value) {
+        cache.put(key, value);
+    }
+
+    @Override
+    public Object getObject(Object key) {
+        return cache.get(key);
+    }
+
+    @Override
+    public Object removeObject(Object key) {
+        return cache.remove(key);
+    }
+
+    @Override
+    public void clear() {
+        cache.clear();
+    }
+
+    @Override
+    public int getSize() {
+        return cache.size();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Cache)) {
+            return false;
+        }
+        return id.equals(((Cache) o).getId());
+    }
+
+    @Override
+    public int hashCode() {
+        return id.hashCode();
+    }
+}
@@ -3,8 +3,8 @@ package club.emperorws.orm.cursor;
 import java.io.Closeable;
 
 /**
- * todo 后续处理
  * Cursor游标流式查询
+ * <p>遍历时逐行从ResultSet中读取并映射记录，遍历完毕或者{@link #close()}时释放ResultSet、Statement</p>
  *
  * @author: EmperorWS
  * @date: 2023/4/28 14:09
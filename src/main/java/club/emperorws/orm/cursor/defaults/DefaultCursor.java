@@ -0,0 +1,239 @@
+package club.emperorws.orm.cursor.defaults;
+
+import club.emperorws.orm.cursor.Cursor;
+import club.emperorws.orm.dialect.PaginationRewriter;
+import club.emperorws.orm.exception.OrmException;
+import club.emperorws.orm.mapping.ResultMap;
+import club.emperorws.orm.mapping.RowBounds;
+import club.emperorws.orm.result.DefaultResultSetHandler;
+import club.emperorws.orm.result.ResultContext;
+import club.emperorws.orm.result.ResultHandler;
+import club.emperorws.orm.result.ResultSetWrapper;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * 默认的Cursor游标实现：流式读取ResultSet，每次只映射一行记录
+ * <p>游标消费完毕或者调用{@link #close()}时，会关闭ResultSet以及对应的Statement</p>
+ *
+ * @author: EmperorWS
+ * @date: 2023/8/14 10:20
+ * @description: DefaultCursor: 默认的Cursor游标实现
+ */
+public class DefaultCursor<T> implements Cursor<T> {
+
+    private final DefaultResultSetHandler resultSetHandler;
+
+    private final ResultMap resultMap;
+
+    private final ResultSetWrapper rsw;
+
+    private final RowBounds rowBounds;
+
+    /**
+     * 单行结果的暂存处理器
+     */
+    protected final ObjectWrapperResultHandler<T> objectWrapperResultHandler = new ObjectWrapperResultHandler<>();
+
+    private final CursorIterator cursorIterator = new CursorIterator();
+
+    private boolean iteratorRetrieved;
+
+    private CursorStatus status = CursorStatus.CREATED;
+
+    /**
+     * 已读取的记录下标（包含RowBounds中需要跳过的记录）
+     */
+    private int indexWithRowBound = -1;
+
+    /**
+     * 第一条记录的下标（内存分页、SQL分页跳过的记录数）
+     */
+    private final int firstIndex;
+
+    public DefaultCursor(DefaultResultSetHandler resultSetHandler, ResultMap resultMap, ResultSetWrapper rsw, RowBounds rowBounds) {
+        this.resultSetHandler = resultSetHandler;
+        this.resultMap = resultMap;
+        this.rsw = rsw;
+        this.rowBounds = rowBounds;
+        this.firstIndex = rowBounds instanceof PaginationRewriter.SqlPagedRowBounds
+                ? ((PaginationRewriter.SqlPagedRowBounds) rowBounds).getSqlOffset() : rowBounds.getOffset();
+    }
+
+    @Override
+    public boolean isOpen() {
+        return status == CursorStatus.OPEN;
+    }
+
+    @Override
+    public boolean isConsumed() {
+        return status == CursorStatus.CONSUMED;
+    }
+
+    @Override
+    public int getCurrentIndex() {
+        return cursorIterator.iteratorIndex < 0 ? -1 : firstIndex + cursorIterator.iteratorIndex;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        if (iteratorRetrieved) {
+            throw new IllegalStateException("Cannot open more than one iterator on a Cursor");
+        }
+        if (isClosed()) {
+            throw new IllegalStateException("A Cursor is already closed.");
+        }
+        iteratorRetrieved = true;
+        return cursorIterator;
+    }
+
+    @Override
+    public void close() {
+        if (isClosed()) {
+            return;
+        }
+        ResultSet rs = rsw.getResultSet();
+        try {
+            if (rs != null) {
+                Statement statement = rs.getStatement();
+                rs.close();
+                if (statement != null) {
+                    statement.close();
+                }
+            }
+        } catch (SQLException e) {
+            // ignore
+        } finally {
+            status = CursorStatus.CLOSED;
+        }
+    }
+
+    /**
+     * 读取下一条满足RowBounds的记录
+     *
+     * @return 映射后的对象，没有更多记录时返回null
+     */
+    protected T fetchNextUsingRowBound() {
+        T result = fetchNextObjectFromDatabase();
+        //跳过offset之前的记录
+        while (objectWrapperResultHandler.fetched && indexWithRowBound < rowBounds.getOffset()) {
+            result = fetchNextObjectFromDatabase();
+        }
+        return result;
+    }
+
+    protected T fetchNextObjectFromDatabase() {
+        if (isClosed()) {
+            return null;
+        }
+        try {
+            objectWrapperResultHandler.fetched = false;
+            status = CursorStatus.OPEN;
+            if (!rsw.getResultSet().isClosed()) {
+                //借助ResultHandler.stop()，每次只映射一行记录
+                resultSetHandler.handleRowValues(rsw, resultMap, objectWrapperResultHandler, RowBounds.DEFAULT);
+            }
+        } catch (SQLException e) {
+            throw new OrmException("Error fetching the next cursor row.  Cause: " + e, e);
+        }
+        T next = objectWrapperResultHandler.result;
+        if (objectWrapperResultHandler.fetched) {
+            indexWithRowBound++;
+        }
+        //记录读完了，或者已经达到RowBounds的limit
+        if (!objectWrapperResultHandler.fetched || getReadItemsCount() == rowBounds.getOffset() + rowBounds.getLimit()) {
+            close();
+            status = CursorStatus.CONSUMED;
+        }
+        objectWrapperResultHandler.result = null;
+        return next;
+    }
+
+    private boolean isClosed() {
+        return status == CursorStatus.CLOSED || status == CursorStatus.CONSUMED;
+    }
+
+    private int getReadItemsCount() {
+        return indexWithRowBound + 1;
+    }
+
+    /*************************************************inner class*********************************************************/
+
+    private enum CursorStatus {
+
+        /**
+         * 刚创建，还没有从数据库读取过记录
+         */
+        CREATED,
+        /**
+         * 正在读取记录
+         */
+        OPEN,
+        /**
+         * 被关闭（没有完全消费）
+         */
+        CLOSED,
+        /**
+         * 记录全部消费完毕（同时也已关闭）
+         */
+        CONSUMED
+    }
+
+    protected static class ObjectWrapperResultHandler<T> implements ResultHandler<T> {
+
+        protected T result;
+        protected boolean fetched;
+
+        @Override
+        public void handleResult(ResultContext<? extends T> context) {
+            this.result = context.getResultObject();
+            context.stop();
+            fetched = true;
+        }
+    }
+
+    protected class CursorIterator implements Iterator<T> {
+
+        /**
+         * 预读取的下一条记录
+         */
+        T object;
+
+        /**
+         * 返回给调用方的记录下标
+         */
+        int iteratorIndex = -1;
+
+        @Override
+        public boolean hasNext() {
+            if (!objectWrapperResultHandler.fetched) {
+                object = fetchNextUsingRowBound();
+            }
+            return objectWrapperResultHandler.fetched;
+        }
+
+        @Override
+        public T next() {
+            T next = object;
+            if (!objectWrapperResultHandler.fetched) {
+                next = fetchNextUsingRowBound();
+            }
+            if (objectWrapperResultHandler.fetched) {
+                objectWrapperResultHandler.fetched = false;
+                object = null;
+                iteratorIndex++;
+                return next;
+            }
+            throw new NoSuchElementException();
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException("Cannot remove element from Cursor");
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package club.emperorws.orm.dialect;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * 由查询SQL生成统计总数的SQL：SELECT COUNT(*) ...
+ * <ul>
+ *     <li>去掉最外层末尾的ORDER BY（后面没有LIMIT、OFFSET、FETCH时）</li>
+ *     <li>简单查询（没有DISTINCT、GROUP BY、HAVING、UNION、聚合函数）直接替换查询列：SELECT COUNT(*) FROM ...</li>
+ *     <li>其它查询包装为子查询：SELECT COUNT(*) FROM (原SQL) count_t</li>
+ * </ul>
+ * <p>去掉的部分包含?参数时不去掉，保证参数映射不变；只做轻量级的词法扫描（跳过字符串、注释、括号内的子查询），不做完整的SQL语法解析</p>
+ *
+ * @author: EmperorWS
+ * @date: 2023/8/26 10:10
+ * @description: CountSqlBuilder: 由查询SQL生成统计总数的SQL
+ */
+public class CountSqlBuilder {
+
+    private static final Pattern AGGREGATE_FUNCTION = Pattern.compile(
+            "\\b(?:count|sum|avg|min|max|group_concat|string_agg|listagg|array_agg|json_arrayagg|json_objectagg)\\s*\\(",
+            Pattern.CASE_INSENSITIVE);
+
+    private CountSqlBuilder() {
+        super();
+    }
+
+    /**
+     * 生成统计总数的SQL
+     *
+     * @param sql 查询SQL
+     * @return 统计总数的SQL（?参数的个数、顺序与原SQL一致）
+     */
+    public static String getCountSql(String sql) {
+        final List<Token> tokens = scanTopLevelWords(sql);
+        //末尾的ORDER BY
+        final int orderBy = lastIndexOf(tokens, "ORDER", "BY");
+        final int end = getRemovableOrderByStart(sql, tokens, orderBy);
+        final String body = sql.substring(0, end).trim();
+        //没有去掉的ORDER BY会引用非聚合的列，不能直接替换查询列
+        final boolean orderByRemains = orderBy >= 0 && end == sql.length();
+        if (!orderByRemains && isSimpleSelect(sql, tokens, end)) {
+            final int from = indexOf(tokens, 0, "FROM");
+            return "SELECT COUNT(*) " + sql.substring(tokens.get(from).start, end).trim();
+        }
+        return "SELECT COUNT(*) FROM (" + body + ") count_t";
+    }
+
+    /**
+     * 去掉最外层末尾的ORDER BY（规则与{@link #getCountSql(String)}一致，不能去掉时返回原SQL）
+     *
+     * @param sql 查询SQL
+     * @return 去掉ORDER BY后的SQL（?参数的个数、顺序与原SQL一致）
+     */
+    public static String removeOrderBy(String sql) {
+        final List<Token> tokens = scanTopLevelWords(sql);
+        final int end = getRemovableOrderByStart(sql, tokens, lastIndexOf(tokens, "ORDER", "BY"));
+        return end == sql.length() ? sql : sql.substring(0, end).trim();
+    }
+
+    /**
+     * 最外层是否有ORDER BY（忽略子查询、字符串、注释中的ORDER BY）
+     *
+     * @param sql 查询SQL
+     * @return 最外层是否有ORDER BY
+     */
+    public static boolean hasOrderBy(String sql) {
+        return lastIndexOf(scanTopLevelWords(sql), "ORDER", "BY") >= 0;
+    }
+
+    /**
+     * 多条SQL的结果是否可以直接按顺序合并：简单查询（没有DISTINCT、GROUP BY、HAVING、UNION、聚合函数），且最外层没有ORDER BY、LIMIT等
+     * <p>集合参数拆分为多条SQL时，排序、去重、分组、聚合只在每条SQL内生效，合并后的结果与一条SQL的结果不一致</p>
+     *
+     * @param sql 查询SQL
+     * @return 是否可以直接合并
+     */
+    public static boolean isMergeableSelect(String sql) {
+        final List<Token> tokens = scanTopLevelWords(sql);
+        return lastIndexOf(tokens, "ORDER", "BY") < 0 && isSimpleSelect(sql, tokens, sql.length());
+    }
+
+    /**
+     * 位置index处的IN (...)是否为最外层WHERE中以AND连接的条件：IN在最外层（不在括号、子查询中）的WHERE之后，且最外层WHERE中没有OR
+     * <p>集合参数拆分为多条SQL时，只有这样一行记录才只会匹配一条SQL（如IN (...) OR status = 1，每条SQL都会查出status = 1的记录）</p>
+     *
+     * @param sql   查询SQL
+     * @param index IN (之后的位置（集合参数的位置）
+     * @return 是否为最外层WHERE中以AND连接的条件
+     */
+    public static boolean isTopLevelAndCondition(String sql, int index) {
+        final List<Token> tokens = scanTopLevelWords(sql);
+        final int where = indexOf(tokens, 0, "WHERE");
+        if (where < 0 || tokens.get(where).start > index) {
+            return false;
+        }
+        //IN之前最近的最外层单词必须是IN，且IN与集合参数之间只有左括号
+        int in = where;
+        while (in + 1 < tokens.size() && tokens.get(in + 1).start < index) {
+            in++;
+        }
+        if (!"IN".equals(tokens.get(in).word) || !"(".equals(sql.substring(tokens.get(in).end, index).trim())) {
+            return false;
+        }
+        return indexOf(tokens, where, "OR") < 0;
+    }
+
+    /**
+     * 可以去掉的ORDER BY的起始位置：后面没有LIMIT、OFFSET、FETCH等，且不包含?参数；不能去掉时返回SQL的长度
+     */
+    private static int getRemovableOrderByStart(String sql, List<Token> tokens, int orderBy) {
+        if (orderBy >= 0 && !containsAny(tokens, orderBy, "LIMIT", "OFFSET", "FETCH", "FOR", "ROWS")
+                && sql.indexOf('?', tokens.get(orderBy).start) < 0) {
+            return tokens.get(orderBy).start;
+        }
+        return sql.length();
+    }
+
+    private static boolean isSimpleSelect(String sql, List<Token> tokens, int end) {
+        if (tokens.size() < 2 || !"SELECT".equals(tokens.get(0).word)) {
+            return false;
+        }
+        final String second = tokens.get(1).word;
+        if ("DISTINCT".equals(second) || "TOP".equals(second) || "ALL".equals(second)) {
+            return false;
+        }
+        final int from = indexOf(tokens, 0, "FROM");
+        if (from < 0 || containsAny(tokens, 0, "GROUP", "HAVING", "UNION", "INTERSECT", "EXCEPT", "MINUS",
+                "LIMIT", "OFFSET", "FETCH", "WINDOW", "INTO")) {
+            return false;
+        }
+        final String projection = sql.substring(tokens.get(0).end, tokens.get(from).start);
+        return projection.indexOf('?') < 0 && !AGGREGATE_FUNCTION.matcher(projection).find() && tokens.get(from).start < end;
+    }
+
+    private static int indexOf(List<Token> tokens, int fromIndex, String word) {
+        for (int i = fromIndex; i < tokens.size(); i++) {
+            if (word.equals(tokens.get(i).word)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int lastIndexOf(List<Token> tokens, String first, String second) {
+        for (int i = tokens.size() - 2; i >= 0; i--) {
+            if (first.equals(tokens.get(i).word) && second.equals(tokens.get(i + 1).word)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean containsAny(List<Token> tokens, int fromIndex, String... words) {
+        for (int i = fromIndex; i < tokens.size(); i++) {
+            for (String word : words) {
+                if (word.equals(tokens.get(i).word)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 扫描最外层（不在括号、字符串、注释中）的单词
+     */
+    private static List<Token> scanTopLevelWords(String sql) {
+        final List<Token> tokens = new ArrayList<>();
+        final int length = sql.length();
+        int depth = 0;
+        int i = 0;
+        while (i < length) {
+            final char c = sql.charAt(i);
+            if (c == '\'' || c == '"' || c == '`') {
+                //字符串、带引号的标识符（''转义）
+                i++;
+                while (i < length && sql.charAt(i) != c) {
+                    i++;
+                }
+                i++;
+            } else if (c == '-' && i + 1 < length && sql.charAt(i + 1) == '-') {
+                while (i < length && sql.charAt(i) != '\n') {
+                    i++;
+                }
+            } else if (c == '/' && i + 1 < length && sql.charAt(i + 1) == '*') {
+                final int commentEnd = sql.indexOf("*/", i + 2);
+                i = commentEnd < 0 ? length : commentEnd + 2;
+            } else if (c == '(') {
+                depth++;
+                i++;
+            } else if (c == ')') {
+                depth--;
+                i++;
+            } else if (Character.isLetter(c) || c == '_') {
+                final int start = i;
+                while (i < length && (Character.isLetterOrDigit(sql.charAt(i)) || sql.charAt(i) == '_' || sql.charAt(i) == '$')) {
+                    i++;
+                }
+                if (depth == 0) {
+                    tokens.add(new Token(sql.substring(start, i).toUpperCase(Locale.ENGLISH), start, i));
+                }
+            } else {
+                i++;
+            }
+        }
+        return tokens;
+    }
+
+    /****************************************************inner class****************************************************/
+
+    private static class Token {
+
+        private final String word;
+
+        private final int start;
+
+        private final int end;
+
+        private Token(String word, int start, int end) {
+            this.word = word;
+            this.start = start;
+            this.end = end;
+        }
+    }
+}
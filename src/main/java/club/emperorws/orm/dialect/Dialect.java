@@ -0,0 +1,51 @@
+package club.emperorws.orm.dialect;
+
+import java.util.List;
+
+/**
+ * 数据库方言：分页SQL的语法
+ * <p>分页参数（offset、limit）以预编译参数?的形式出现在SQL中，同一条SQL不同页共用一个PreparedStatement</p>
+ *
+ * @author: EmperorWS
+ * @date: 2023/8/25 10:05
+ * @description: Dialect: 数据库方言
+ */
+public interface Dialect {
+
+    /**
+     * offset参数的名称（额外参数）
+     */
+    String OFFSET_PARAMETER = "_pageOffset";
+
+    /**
+     * limit参数的名称（额外参数），没有limit时绑定{@link club.emperorws.orm.mapping.RowBounds#NO_ROW_LIMIT}
+     */
+    String LIMIT_PARAMETER = "_pageLimit";
+
+    /**
+     * 生成分页SQL
+     *
+     * @param sql            原SQL
+     * @param hasOffset      是否跳过记录（offset &gt; 0）
+     * @param hasLimit       是否限制记录数
+     * @param pageParameters 按?在分页SQL中的顺序，添加分页参数的名称（{@link #OFFSET_PARAMETER}、{@link #LIMIT_PARAMETER}）
+     * @return 分页SQL，offset、limit用?占位
+     */
+    String getPageSql(String sql, boolean hasOffset, boolean hasLimit, List<String> pageParameters);
+
+    /**
+     * 是否支持行值比较：(a, b) &gt; (?, ?)，不支持时展开为a &gt; ? OR (a = ? AND b &gt; ?)
+     *
+     * @return 是否支持行值比较
+     */
+    boolean supportsRowValueComparison();
+
+    /**
+     * 游标（{@link club.emperorws.orm.cursor.Cursor}）查询的默认fetchSize，使JDBC驱动逐批读取记录，而不是一次性缓存整个结果集
+     *
+     * @return 游标查询的fetchSize，null表示使用驱动的默认值
+     */
+    default Integer getCursorFetchSize() {
+        return null;
+    }
+}
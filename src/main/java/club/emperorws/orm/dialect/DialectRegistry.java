@@ -0,0 +1,83 @@
+package club.emperorws.orm.dialect;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 数据库方言注册器：databaseId--&gt;方言
+ *
+ * @author: EmperorWS
+ * @date: 2023/8/25 10:30
+ * @description: DialectRegistry: 数据库方言注册器
+ */
+public class DialectRegistry {
+
+    private final Map<String, Dialect> dialects = new ConcurrentHashMap<>();
+
+    public DialectRegistry() {
+        register("MYSQL", new MySqlDialect());
+        Dialect limitOffset = new LimitOffsetDialect();
+        register("MARIADB", limitOffset);
+        register("POSTGRESQL", limitOffset);
+        register("SQLITE", limitOffset);
+        register("H2", limitOffset);
+        register("HSQLDB", limitOffset);
+        Dialect fetchFirst = new FetchFirstDialect();
+        register("ORACLE", fetchFirst);
+        register("DB2", fetchFirst);
+        register("DERBY", fetchFirst);
+        register("SQLSERVER", new SqlServerDialect());
+    }
+
+    /**
+     * 注册（覆盖）方言
+     *
+     * @param databaseId 数据库名称（忽略大小写）
+     * @param dialect    方言
+     */
+    public void register(String databaseId, Dialect dialect) {
+        dialects.put(databaseId.toUpperCase(Locale.ENGLISH), dialect);
+    }
+
+    /**
+     * 获取方言
+     *
+     * @param databaseId 数据库名称（忽略大小写）
+     * @return 方言，没有时返回null
+     */
+    public Dialect getDialect(String databaseId) {
+        return databaseId == null ? null : dialects.get(databaseId.toUpperCase(Locale.ENGLISH));
+    }
+
+    /**
+     * 通过JDBC驱动返回的数据库产品名称（{@link java.sql.DatabaseMetaData#getDatabaseProductName()}）解析databaseId
+     *
+     * @param productName 数据库产品名称
+     * @return databaseId，无法识别时返回大写的产品名称
+     */
+    public static String resolveDatabaseId(String productName) {
+        if (productName == null) {
+            return null;
+        }
+        final String name = productName.toUpperCase(Locale.ENGLISH);
+        if (name.contains("MARIADB")) {
+            return "MARIADB";
+        } else if (name.contains("MYSQL")) {
+            return "MYSQL";
+        } else if (name.contains("ORACLE")) {
+            return "ORACLE";
+        } else if (name.contains("POSTGRES")) {
+            return "POSTGRESQL";
+        } else if (name.contains("SQL SERVER")) {
+            return "SQLSERVER";
+        } else if (name.startsWith("DB2")) {
+            return "DB2";
+        } else if (name.contains("HSQL")) {
+            return "HSQLDB";
+        } else if (name.contains("DERBY")) {
+            return "DERBY";
+        }
+        return name.trim();
+    }
+}
@@ -0,0 +1,32 @@
+package club.emperorws.orm.dialect;
+
+import java.util.List;
+
+/**
+ * SQL:2008 OFFSET ? ROWS FETCH NEXT ? ROWS ONLY分页语法（Oracle 12c+、DB2、Derby）
+ *
+ * @author: EmperorWS
+ * @date: 2023/8/25 10:20
+ * @description: FetchFirstDialect: OFFSET ? ROWS FETCH NEXT ? ROWS ONLY分页语法
+ */
+public class FetchFirstDialect implements Dialect {
+
+    @Override
+    public String getPageSql(String sql, boolean hasOffset, boolean hasLimit, List<String> pageParameters) {
+        StringBuilder pageSql = new StringBuilder(sql.length() + 40).append(sql);
+        if (hasOffset) {
+            pageSql.append(" OFFSET ? ROWS");
+            pageParameters.add(OFFSET_PARAMETER);
+        }
+        if (hasLimit) {
+            pageSql.append(hasOffset ? " FETCH NEXT ? ROWS ONLY" : " FETCH FIRST ? ROWS ONLY");
+            pageParameters.add(LIMIT_PARAMETER);
+        }
+        return pageSql.toString();
+    }
+
+    @Override
+    public boolean supportsRowValueComparison() {
+        return false;
+    }
+}
@@ -0,0 +1,31 @@
+package club.emperorws.orm.dialect;
+
+import java.util.List;
+
+/**
+ * LIMIT ? OFFSET ?分页语法（MySQL、MariaDB、PostgreSQL、SQLite、H2、HSQLDB）
+ *
+ * @author: EmperorWS
+ * @date: 2023/8/25 10:15
+ * @description: LimitOffsetDialect: LIMIT ? OFFSET ?分页语法
+ */
+public class LimitOffsetDialect implements Dialect {
+
+    /**
+     * 只有offset时也需要LIMIT（MySQL不支持单独的OFFSET）
+     */
+    @Override
+    public String getPageSql(String sql, boolean hasOffset, boolean hasLimit, List<String> pageParameters) {
+        pageParameters.add(LIMIT_PARAMETER);
+        if (!hasOffset) {
+            return sql + " LIMIT ?";
+        }
+        pageParameters.add(OFFSET_PARAMETER);
+        return sql + " LIMIT ? OFFSET ?";
+    }
+
+    @Override
+    public boolean supportsRowValueComparison() {
+        return true;
+    }
+}
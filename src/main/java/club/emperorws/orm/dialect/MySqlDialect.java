@@ -0,0 +1,18 @@
+package club.emperorws.orm.dialect;
+
+/**
+ * MySQL方言：LIMIT ? OFFSET ?分页语法，游标查询逐行流式读取
+ * <p>MySQL驱动默认会把整个结果集读入内存，fetchSize为{@link Integer#MIN_VALUE}时才逐行读取</p>
+ * <p>注意：流式读取的结果集关闭前，同一个Connection不能执行其他SQL</p>
+ *
+ * @author: EmperorWS
+ * @date: 2023/8/29 10:10
+ * @description: MySqlDialect: MySQL方言
+ */
+public class MySqlDialect extends LimitOffsetDialect {
+
+    @Override
+    public Integer getCursorFetchSize() {
+        return Integer.MIN_VALUE;
+    }
+}
@@ -0,0 +1,181 @@
+package club.emperorws.orm.dialect;
+
+import club.emperorws.orm.Configuration;
+import club.emperorws.orm.mapping.*;
+import club.emperorws.orm.util.MapUtil;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 分页SQL改写：把{@link RowBounds}的offset、limit改写为数据库方言的分页SQL，{@link KeysetRowBounds}改写为键集分页SQL
+ * <p>不改写（内存分页）的情况：没有方言；JOIN查询的嵌套结果映射（limit是对象个数，不是记录数）</p>
+ * <p>分页参数以额外参数（{@link Dialect#OFFSET_PARAMETER}、{@link Dialect#LIMIT_PARAMETER}、{@link #KEYSET_PARAMETER_PREFIX}0...）绑定</p>
+ *
+ * @author: EmperorWS
+ * @date: 2023/8/25 11:30
+ * @description: PaginationRewriter: 分页SQL改写
+ */
+public class PaginationRewriter {
+
+    /**
+     * 键集分页的排序列参数名称前缀（额外参数）
+     */
+    public static final String KEYSET_PARAMETER_PREFIX = "_keyset";
+
+    private final Configuration configuration;
+
+    /**
+     * 分页参数的ParameterMapping（参数名称#Java类型-->ParameterMapping），复用同一个实例，改写后的参数映射列表才能命中请求参数的绑定计划缓存
+     */
+    private final Map<String, ParameterMapping> pageParameterMappings = new ConcurrentHashMap<>();
+
+    public PaginationRewriter(Configuration configuration) {
+        this.configuration = configuration;
+    }
+
+    /**
+     * 改写分页SQL
+     *
+     * @param ms        sql语句的装载体
+     * @param boundSql  原SQL
+     * @param rowBounds 分页信息
+     * @return 改写后的SQL和剩余的内存分页信息，不需要改写时返回null
+     */
+    public PagedSql rewrite(MappedStatement ms, BoundSql boundSql, RowBounds rowBounds) {
+        final boolean keyset = rowBounds instanceof KeysetRowBounds;
+        if (!keyset && rowBounds.getOffset() == RowBounds.NO_ROW_OFFSET && rowBounds.getLimit() == RowBounds.NO_ROW_LIMIT) {
+            return null;
+        }
+        final Dialect dialect = configuration.getDialect();
+        final ResultMap resultMap = ms.getResultMap();
+        final boolean pageInSql = dialect != null && (resultMap == null || !resultMap.hasNestedResultMaps());
+        if (!keyset && !pageInSql) {
+            return null;
+        }
+        String sql = boundSql.getSql();
+        final List<ParameterMapping> parameterMappings = new ArrayList<>(boundSql.getParameterMappings());
+        final Map<String, Object> additionalParameters = new LinkedHashMap<>();
+        if (keyset) {
+            sql = rewriteKeyset(sql, (KeysetRowBounds) rowBounds, dialect, parameterMappings, additionalParameters);
+        }
+        RowBounds remainingRowBounds = rowBounds;
+        if (pageInSql) {
+            final boolean hasOffset = rowBounds.getOffset() > RowBounds.NO_ROW_OFFSET;
+            final boolean hasLimit = rowBounds.getLimit() != RowBounds.NO_ROW_LIMIT;
+            final List<String> pageParameters = new ArrayList<>(2);
+            final String pageSql = dialect.getPageSql(sql, hasOffset, hasLimit, pageParameters);
+            for (String pageParameter : pageParameters) {
+                parameterMappings.add(getPageParameterMapping(pageParameter, Integer.class));
+            }
+            additionalParameters.put(Dialect.OFFSET_PARAMETER, rowBounds.getOffset());
+            additionalParameters.put(Dialect.LIMIT_PARAMETER, rowBounds.getLimit());
+            sql = pageSql;
+            remainingRowBounds = hasOffset ? new SqlPagedRowBounds(rowBounds.getOffset()) : RowBounds.DEFAULT;
+        }
+        final BoundSql pageBoundSql = boundSql.copy(configuration, sql, parameterMappings);
+        additionalParameters.forEach(pageBoundSql::setAdditionalParameter);
+        return new PagedSql(pageBoundSql, remainingRowBounds);
+    }
+
+    /**
+     * 键集分页：SELECT * FROM (原SQL) keyset_t WHERE (k1, k2) &gt; (?, ?) ORDER BY k1, k2
+     */
+    private String rewriteKeyset(String sql, KeysetRowBounds rowBounds, Dialect dialect, List<ParameterMapping> parameterMappings,
+                                 Map<String, Object> additionalParameters) {
+        final List<String> keyColumns = rowBounds.getKeyColumns();
+        final List<Object> lastKeys = rowBounds.getLastKeys();
+        final String operator = rowBounds.isDescending() ? " < " : " > ";
+        //原SQL末尾的ORDER BY被外层的ORDER BY代替（派生表中的ORDER BY无意义，SQL Server等数据库不允许）
+        final String innerSql = CountSqlBuilder.removeOrderBy(sql);
+        final StringBuilder keysetSql = new StringBuilder(innerSql.length() + 64).append("SELECT * FROM (").append(innerSql).append(") keyset_t");
+        if (lastKeys != null) {
+            keysetSql.append(" WHERE ");
+            if (dialect != null && dialect.supportsRowValueComparison()) {
+                //(k1, k2) > (?, ?)
+                keysetSql.append('(').append(String.join(", ", keyColumns)).append(')').append(operator).append('(');
+                for (int i = 0; i < keyColumns.size(); i++) {
+                    keysetSql.append(i == 0 ? "?" : ", ?");
+                    parameterMappings.add(newKeysetParameterMapping(i, lastKeys.get(i)));
+                }
+                keysetSql.append(')');
+            } else {
+                //k1 > ? OR (k1 = ? AND k2 > ?)
+                for (int i = 0; i < keyColumns.size(); i++) {
+                    keysetSql.append(i == 0 ? "(" : " OR (");
+                    for (int j = 0; j < i; j++) {
+                        keysetSql.append(keyColumns.get(j)).append(" = ? AND ");
+                        parameterMappings.add(newKeysetParameterMapping(j, lastKeys.get(j)));
+                    }
+                    keysetSql.append(keyColumns.get(i)).append(operator).append("?)");
+                    parameterMappings.add(newKeysetParameterMapping(i, lastKeys.get(i)));
+                }
+            }
+            for (int i = 0; i < lastKeys.size(); i++) {
+                additionalParameters.put(KEYSET_PARAMETER_PREFIX + i, lastKeys.get(i));
+            }
+        }
+        keysetSql.append(" ORDER BY ");
+        for (int i = 0; i < keyColumns.size(); i++) {
+            keysetSql.append(i == 0 ? "" : ", ").append(keyColumns.get(i)).append(rowBounds.isDescending() ? " DESC" : "");
+        }
+        return keysetSql.toString();
+    }
+
+    private ParameterMapping newKeysetParameterMapping(int index, Object lastKey) {
+        return getPageParameterMapping(KEYSET_PARAMETER_PREFIX + index, lastKey.getClass());
+    }
+
+    private ParameterMapping getPageParameterMapping(String property, Class<?> javaType) {
+        return MapUtil.computeIfAbsent(pageParameterMappings, property + "#" + javaType.getName(),
+                key -> new ParameterMapping.Builder(configuration, property, javaType).build());
+    }
+
+    /****************************************************inner class****************************************************/
+
+    /**
+     * offset已经改写到SQL中的剩余分页信息：不再跳过记录，但记录下标（如{@link club.emperorws.orm.cursor.Cursor#getCurrentIndex()}）仍从原offset开始
+     */
+    public static class SqlPagedRowBounds extends RowBounds {
+
+        private final int sqlOffset;
+
+        private SqlPagedRowBounds(int sqlOffset) {
+            super();
+            this.sqlOffset = sqlOffset;
+        }
+
+        /**
+         * @return SQL中跳过的记录数
+         */
+        public int getSqlOffset() {
+            return sqlOffset;
+        }
+    }
+
+    /**
+     * 改写后的SQL，以及剩余的内存分页信息
+     */
+    public static class PagedSql {
+
+        private final BoundSql boundSql;
+
+        private final RowBounds rowBounds;
+
+        private PagedSql(BoundSql boundSql, RowBounds rowBounds) {
+            this.boundSql = boundSql;
+            this.rowBounds = rowBounds;
+        }
+
+        public BoundSql getBoundSql() {
+            return boundSql;
+        }
+
+        public RowBounds getRowBounds() {
+            return rowBounds;
+        }
+    }
+}
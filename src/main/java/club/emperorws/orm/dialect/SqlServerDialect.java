@@ -0,0 +1,31 @@
+package club.emperorws.orm.dialect;
+
+import java.util.List;
+
+/**
+ * SQL Server 2012+分页语法：OFFSET ? ROWS FETCH NEXT ? ROWS ONLY，必须有ORDER BY
+ *
+ * @author: EmperorWS
+ * @date: 2023/8/25 10:25
+ * @description: SqlServerDialect: SQL Server 2012+分页语法
+ */
+public class SqlServerDialect extends FetchFirstDialect {
+
+    /**
+     * OFFSET必须跟在ORDER BY之后；SQL最外层没有ORDER BY时（子查询、OVER()中的不算）补充一个不改变顺序的ORDER BY
+     */
+    @Override
+    public String getPageSql(String sql, boolean hasOffset, boolean hasLimit, List<String> pageParameters) {
+        if (!CountSqlBuilder.hasOrderBy(sql)) {
+            sql = sql + " ORDER BY (SELECT NULL)";
+        }
+        //SQL Server不支持单独的FETCH FIRST，总是带上OFFSET
+        StringBuilder pageSql = new StringBuilder(sql.length() + 40).append(sql).append(" OFFSET ? ROWS");
+        pageParameters.add(OFFSET_PARAMETER);
+        if (hasLimit) {
+            pageSql.append(" FETCH NEXT ? ROWS ONLY");
+            pageParameters.add(LIMIT_PARAMETER);
+        }
+        return pageSql.toString();
+    }
+}
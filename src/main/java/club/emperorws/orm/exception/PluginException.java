@@ -0,0 +1,30 @@
+package club.emperorws.orm.exception;
+
+/**
+ * 插件拦截器异常
+ *
+ * @author: EmperorWS
+ * @date: 2023/8/18 14:10
+ * @description: PluginException: 插件拦截器异常
+ */
+public class PluginException extends OrmException {
+
+    private static final long serialVersionUID = 8548771664564998225L;
+
+    public PluginException() {
+        super();
+    }
+
+    public PluginException(String message) {
+        super(message);
+    }
+
+    public PluginException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    public PluginException(Throwable cause) {
+        super(cause);
+    }
+
+}
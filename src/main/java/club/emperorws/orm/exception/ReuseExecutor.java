@@ -1,103 +0,0 @@
-package club.emperorws.orm.exception;
-
-import club.emperorws.orm.Configuration;
-import club.emperorws.orm.cursor.Cursor;
-import club.emperorws.orm.executor.BaseExecutor;
-import club.emperorws.orm.logging.Log;
-import club.emperorws.orm.mapping.BoundSql;
-import club.emperorws.orm.mapping.MappedStatement;
-import club.emperorws.orm.mapping.RowBounds;
-import club.emperorws.orm.result.BatchResult;
-import club.emperorws.orm.result.ResultHandler;
-import club.emperorws.orm.statement.StatementHandler;
-import club.emperorws.orm.transaction.Transaction;
-
-import java.sql.Connection;
-import java.sql.SQLException;
-import java.sql.Statement;
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
-
-/**
- * 可重复使用的SQL语句的执行器，不会执行Statement.close()。最后通过doFlushStatements()执行close()
- *
- * @author: EmperorWS
- * @date: 2023/5/12 16:35
- * @description: ReuseExecutor: 可重复使用的SQL语句的执行器，不会执行Statement.close()
- */
-public class ReuseExecutor extends BaseExecutor {
-
-    private final Map<String, Statement> statementMap = new HashMap<>();
-
-    public ReuseExecutor(Configuration configuration, Transaction transaction) {
-        super(configuration, transaction);
-    }
-
-    @Override
-    public int doUpdate(MappedStatement ms, Object parameter) throws SQLException {
-        Configuration configuration = ms.getConfiguration();
-        StatementHandler handler = configuration.newStatementHandler(ms, parameter, RowBounds.DEFAULT, null, null);
-        Statement stmt = prepareStatement(handler, ms.getStatementLog());
-        return handler.update(stmt);
-    }
-
-    @Override
-    public <E> List<E> doQuery(MappedStatement ms, Object parameter, RowBounds rowBounds, ResultHandler resultHandler, BoundSql boundSql) throws SQLException {
-        Configuration configuration = ms.getConfiguration();
-        StatementHandler handler = configuration.newStatementHandler(ms, parameter, rowBounds, resultHandler, boundSql);
-        Statement stmt = prepareStatement(handler, ms.getStatementLog());
-        return handler.query(stmt, resultHandler);
-    }
-
-    @Override
-    protected <E> Cursor<E> doQueryCursor(MappedStatement ms, Object parameter, RowBounds rowBounds, BoundSql boundSql) throws SQLException {
-        Configuration configuration = ms.getConfiguration();
-        StatementHandler handler = configuration.newStatementHandler(ms, parameter, rowBounds, null, boundSql);
-        Statement stmt = prepareStatement(handler, ms.getStatementLog());
-        return handler.queryCursor(stmt);
-    }
-
-    @Override
-    public List<BatchResult> doFlushStatements(boolean isRollback) {
-        for (Statement stmt : statementMap.values()) {
-            closeStatement(stmt);
-        }
-        statementMap.clear();
-        return Collections.emptyList();
-    }
-
-    private Statement prepareStatement(StatementHandler handler, Log statementLog) throws SQLException {
-        Statement stmt;
-        BoundSql boundSql = handler.getBoundSql();
-        String sql = boundSql.getSql();
-        if (hasStatementFor(sql)) {
-            stmt = getStatement(sql);
-            applyTransactionTimeout(stmt);
-        } else {
-            Connection connection = getConnection(statementLog);
-            stmt = handler.prepare(connection, transaction.getTimeout());
-            putStatement(sql, stmt);
-        }
-        handler.parameterize(stmt);
-        return stmt;
-    }
-
-    private boolean hasStatementFor(String sql) {
-        try {
-            Statement statement = statementMap.get(sql);
-            return statement != null && !statement.getConnection().isClosed();
-        } catch (SQLException e) {
-            return false;
-        }
-    }
-
-    private Statement getStatement(String s) {
-        return statementMap.get(s);
-    }
-
-    private void putStatement(String sql, Statement stmt) {
-        statementMap.put(sql, stmt);
-    }
-}
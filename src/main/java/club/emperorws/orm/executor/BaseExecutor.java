@@ -1,23 +1,35 @@
 package club.emperorws.orm.executor;
 
 import club.emperorws.orm.Configuration;
+import club.emperorws.orm.cache.Cache;
+import club.emperorws.orm.cache.CacheKey;
+import club.emperorws.orm.cache.decorators.LruCache;
+import club.emperorws.orm.cache.impl.PerpetualCache;
 import club.emperorws.orm.cursor.Cursor;
+import club.emperorws.orm.dialect.CountSqlBuilder;
+import club.emperorws.orm.dialect.PaginationRewriter;
 import club.emperorws.orm.exception.ErrorContext;
 import club.emperorws.orm.exception.OrmException;
 import club.emperorws.orm.logging.Log;
 import club.emperorws.orm.logging.LogFactory;
 import club.emperorws.orm.logging.jdbc.ConnectionLogger;
 import club.emperorws.orm.mapping.BoundSql;
+import club.emperorws.orm.mapping.KeysetRowBounds;
 import club.emperorws.orm.mapping.MappedStatement;
+import club.emperorws.orm.mapping.ParameterMapping;
 import club.emperorws.orm.mapping.RowBounds;
+import club.emperorws.orm.mapping.SqlCommandType;
+import club.emperorws.orm.parameter.ParameterBindingPlan;
 import club.emperorws.orm.result.BatchResult;
 import club.emperorws.orm.result.ResultHandler;
+import club.emperorws.orm.session.LocalCacheScope;
 import club.emperorws.orm.transaction.Transaction;
 import club.emperorws.orm.util.StatementUtil;
 
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -43,13 +55,30 @@ public abstract class BaseExecutor implements Executor {
      */
     protected Executor wrapper;
 
+    /**
+     * 本地缓存（一级缓存）：CacheKey-->查询结果，LRU淘汰
+     */
+    protected Cache localCache;
+
+    /**
+     * 当前嵌套查询的层数
+     */
+    protected int queryStack;
+
     private boolean closed;
 
+    /**
+     * 分页SQL改写
+     */
+    private final PaginationRewriter paginationRewriter;
+
     protected BaseExecutor(Configuration configuration, Transaction transaction) {
         this.transaction = transaction;
         this.closed = false;
         this.configuration = configuration;
         this.wrapper = this;
+        this.localCache = new LruCache(new PerpetualCache("LocalCache"), configuration.getLocalCacheSize());
+        this.paginationRewriter = new PaginationRewriter(configuration);
     }
 
     @Override
@@ -58,7 +87,18 @@ public abstract class BaseExecutor implements Executor {
         if (closed) {
             throw new OrmException("Executor was closed.");
         }
-        return doUpdate(ms, parameter);
+        clearLocalCache();
+        BoundSql boundSql = ms.getBoundSql(parameter);
+        if (boundSql.getChunks() == null) {
+            return doUpdate(ms, parameter, boundSql);
+        }
+        //集合参数拆分后的多条SQL，依次执行，影响行数累加
+        int updateCount = 0;
+        for (BoundSql chunk : boundSql.getChunks()) {
+            int chunkCount = doUpdate(ms, parameter, chunk);
+            updateCount = chunkCount == BatchExecutor.BATCH_UPDATE_RETURN_VALUE ? chunkCount : updateCount + chunkCount;
+        }
+        return updateCount;
     }
 
     @Override
@@ -67,25 +107,63 @@ public abstract class BaseExecutor implements Executor {
         return query(ms, parameter, rowBounds, resultHandler, boundSql);
     }
 
-    @SuppressWarnings("unchecked")
     @Override
     public <E> List<E> query(MappedStatement ms, Object parameter, RowBounds rowBounds, ResultHandler resultHandler, BoundSql boundSql) throws SQLException {
+        CacheKey key = isLocalCacheable(ms, resultHandler) ? createCacheKey(ms, parameter, rowBounds, boundSql) : null;
+        return query(ms, parameter, rowBounds, resultHandler, key, boundSql);
+    }
+
+    /**
+     * 查询（优先从本地缓存中获取）
+     *
+     * @param cacheKey 本地缓存key，为null时不走本地缓存
+     */
+    @SuppressWarnings("unchecked")
+    @Override
+    public <E> List<E> query(MappedStatement ms, Object parameter, RowBounds rowBounds, ResultHandler resultHandler, CacheKey cacheKey, BoundSql boundSql) throws SQLException {
         ErrorContext.instance().resource(ms.getResource()).activity("executing a query").object(ms.getId());
         if (closed) {
             throw new OrmException("Executor was closed.");
         }
-        return queryFromDatabase(ms, parameter, rowBounds, resultHandler, boundSql);
+        if (cacheKey == null || !isLocalCacheable(ms, resultHandler)) {
+            return queryFromDatabase(ms, parameter, rowBounds, resultHandler, null, boundSql);
+        }
+        List<E> list;
+        try {
+            queryStack++;
+            list = (List<E>) localCache.getObject(cacheKey);
+            if (list != null) {
+                //返回新的List，避免调用方修改缓存
+                list = new ArrayList<>(list);
+            } else {
+                list = queryFromDatabase(ms, parameter, rowBounds, resultHandler, cacheKey, boundSql);
+            }
+        } finally {
+            queryStack--;
+        }
+        if (queryStack == 0 && configuration.getLocalCacheScope() == LocalCacheScope.STATEMENT) {
+            clearLocalCache();
+        }
+        return list;
     }
 
     @Override
     public <E> Cursor<E> queryCursor(MappedStatement ms, Object parameter, RowBounds rowBounds) throws SQLException {
         BoundSql boundSql = ms.getBoundSql(parameter);
+        if (boundSql.getChunks() != null) {
+            throw new OrmException("A collection parameter larger than the IN list chunk size can not be queried with a cursor (statement " + ms.getId() + ").");
+        }
+        PaginationRewriter.PagedSql pagedSql = paginationRewriter.rewrite(ms, boundSql, rowBounds);
+        if (pagedSql != null) {
+            return doQueryCursor(ms, parameter, pagedSql.getRowBounds(), pagedSql.getBoundSql());
+        }
         return doQueryCursor(ms, parameter, rowBounds, boundSql);
     }
 
     @Override
     public void close(boolean forceRollback) {
         try {
+            clearLocalCache();
             try {
                 rollback(forceRollback);
             } finally {
@@ -107,6 +185,7 @@ public abstract class BaseExecutor implements Executor {
         if (closed) {
             throw new OrmException("Cannot commit, transaction is already closed");
         }
+        clearLocalCache();
         flushStatements();
         if (required) {
             transaction.commit();
@@ -117,6 +196,7 @@ public abstract class BaseExecutor implements Executor {
     public void rollback(boolean required) throws SQLException {
         if (!closed) {
             try {
+                clearLocalCache();
                 flushStatements(true);
             } finally {
                 if (required) {
@@ -131,6 +211,47 @@ public abstract class BaseExecutor implements Executor {
         return flushStatements(false);
     }
 
+    @Override
+    public CacheKey createCacheKey(MappedStatement ms, Object parameterObject, RowBounds rowBounds, BoundSql boundSql) {
+        if (closed) {
+            throw new OrmException("Executor was closed.");
+        }
+        CacheKey cacheKey = new CacheKey();
+        cacheKey.update(ms.getId());
+        cacheKey.update(rowBounds.getOffset());
+        cacheKey.update(rowBounds.getLimit());
+        if (rowBounds instanceof KeysetRowBounds) {
+            KeysetRowBounds keysetRowBounds = (KeysetRowBounds) rowBounds;
+            cacheKey.update(keysetRowBounds.getKeyColumns());
+            cacheKey.update(keysetRowBounds.getLastKeys());
+            cacheKey.update(keysetRowBounds.isDescending());
+        }
+        cacheKey.update(boundSql.getSql());
+        //请求参数的值，集合参数拆分为多条SQL时包括所有SQL的参数
+        if (boundSql.getChunks() == null) {
+            updateParameterValues(cacheKey, parameterObject, boundSql);
+        } else {
+            for (BoundSql chunk : boundSql.getChunks()) {
+                cacheKey.update(chunk.getSql());
+                updateParameterValues(cacheKey, parameterObject, chunk);
+            }
+        }
+        return cacheKey;
+    }
+
+    /**
+     * 请求参数的值（与DefaultParameterHandler使用同一个绑定计划取值）
+     */
+    private void updateParameterValues(CacheKey cacheKey, Object parameterObject, BoundSql boundSql) {
+        List<ParameterMapping> parameterMappings = boundSql.getParameterMappings();
+        if (parameterMappings != null && !parameterMappings.isEmpty()) {
+            ParameterBindingPlan plan = configuration.getParameterBindingPlan(boundSql, parameterObject);
+            for (int i = 0; i < plan.size(); i++) {
+                cacheKey.update(plan.getValue(i, parameterObject, boundSql));
+            }
+        }
+    }
+
     public List<BatchResult> flushStatements(boolean isRollBack) throws SQLException {
         if (closed) {
             throw new OrmException("Executor was closed.");
@@ -148,7 +269,7 @@ public abstract class BaseExecutor implements Executor {
         }
     }
 
-    protected abstract int doUpdate(MappedStatement ms, Object parameter) throws SQLException;
+    protected abstract int doUpdate(MappedStatement ms, Object parameter, BoundSql boundSql) throws SQLException;
 
     protected abstract List<BatchResult> doFlushStatements(boolean isRollback) throws SQLException;
 
@@ -167,8 +288,76 @@ public abstract class BaseExecutor implements Executor {
         StatementUtil.applyTransactionTimeout(statement, statement.getQueryTimeout(), transaction.getTimeout());
     }
 
-    private <E> List<E> queryFromDatabase(MappedStatement ms, Object parameter, RowBounds rowBounds, ResultHandler resultHandler, BoundSql boundSql) throws SQLException {
-        return doQuery(ms, parameter, rowBounds, resultHandler, boundSql);
+    /**
+     * 设置游标查询的fetchSize（MappedStatement自己设置了fetchSize时不覆盖）
+     *
+     * @param ms        sql语句的装载体
+     * @param statement 游标查询的statement
+     * @throws SQLException if a database access error occurs, this method is called on a closed <code>Statement</code>
+     * @see Configuration#getCursorFetchSize()
+     */
+    protected void applyCursorFetchSize(MappedStatement ms, Statement statement) throws SQLException {
+        if (ms.getFetchSize() != null) {
+            return;
+        }
+        Integer cursorFetchSize = configuration.getCursorFetchSize();
+        if (cursorFetchSize != null) {
+            statement.setFetchSize(cursorFetchSize);
+        }
+    }
+
+    @Override
+    public void clearLocalCache() {
+        if (!closed) {
+            localCache.clear();
+        }
+    }
+
+    private <E> List<E> queryFromDatabase(MappedStatement ms, Object parameter, RowBounds rowBounds, ResultHandler resultHandler, CacheKey cacheKey, BoundSql boundSql) throws SQLException {
+        List<E> list;
+        if (boundSql.getChunks() != null) {
+            list = queryChunks(ms, parameter, rowBounds, resultHandler, boundSql.getChunks());
+        } else {
+            //分页改写为SQL分页（数据库只返回当前页的记录），不支持时内存分页
+            PaginationRewriter.PagedSql pagedSql = paginationRewriter.rewrite(ms, boundSql, rowBounds);
+            list = pagedSql == null ? doQuery(ms, parameter, rowBounds, resultHandler, boundSql)
+                    : doQuery(ms, parameter, pagedSql.getRowBounds(), resultHandler, pagedSql.getBoundSql());
+        }
+        //结果太大时不缓存，避免一直占用内存
+        if (cacheKey != null && list != null && list.size() <= configuration.getLocalCacheMaxResultSize()) {
+            localCache.putObject(cacheKey, new ArrayList<>(list));
+        }
+        return list;
+    }
+
+    /**
+     * 集合参数拆分后的多条SQL，依次查询，结果按顺序合并
+     * <p>每条SQL单独排序、去重、分组、聚合，所以只支持可以直接合并的简单查询（见{@link CountSqlBuilder#isMergeableSelect(String)}），也不支持分页（offset、limit无法跨SQL计算）</p>
+     */
+    private <E> List<E> queryChunks(MappedStatement ms, Object parameter, RowBounds rowBounds, ResultHandler resultHandler, List<BoundSql> chunks) throws SQLException {
+        if (rowBounds instanceof KeysetRowBounds || rowBounds.getOffset() != RowBounds.NO_ROW_OFFSET || rowBounds.getLimit() != RowBounds.NO_ROW_LIMIT) {
+            throw new OrmException("A collection parameter larger than the IN list chunk size can not be paginated (statement " + ms.getId() + ").");
+        }
+        if (!CountSqlBuilder.isMergeableSelect(chunks.get(0).getSql())) {
+            throw new OrmException("A collection parameter larger than the IN list chunk size splits the query into several statements, "
+                    + "so a top-level ORDER BY, DISTINCT, GROUP BY, HAVING, UNION or aggregate function would only apply to each statement (statement "
+                    + ms.getId() + "). Sort or aggregate the merged results in memory, or increase inListChunkSize.");
+        }
+        List<E> list = new ArrayList<>();
+        for (BoundSql chunk : chunks) {
+            List<E> chunkList = doQuery(ms, parameter, rowBounds, resultHandler, chunk);
+            if (chunkList != null) {
+                list.addAll(chunkList);
+            }
+        }
+        return list;
+    }
+
+    /**
+     * 是否可以使用本地缓存：只缓存没有ResultHandler的SELECT查询
+     */
+    private boolean isLocalCacheable(MappedStatement ms, ResultHandler resultHandler) {
+        return resultHandler == null && SqlCommandType.SELECT == ms.getSqlCommandType();
     }
 
     protected Connection getConnection(Log statementLog) throws SQLException {
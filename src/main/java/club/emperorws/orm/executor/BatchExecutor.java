@@ -3,21 +3,23 @@ package club.emperorws.orm.executor;
 import club.emperorws.orm.Configuration;
 import club.emperorws.orm.cursor.Cursor;
 import club.emperorws.orm.exception.BatchExecutorException;
+import club.emperorws.orm.exception.ErrorContext;
 import club.emperorws.orm.mapping.BoundSql;
 import club.emperorws.orm.mapping.MappedStatement;
+import club.emperorws.orm.mapping.ParameterMapping;
 import club.emperorws.orm.mapping.RowBounds;
+import club.emperorws.orm.mapping.SqlCommandType;
+import club.emperorws.orm.parameter.ParameterBindingPlan;
+import club.emperorws.orm.parameter.ParameterHandler;
 import club.emperorws.orm.result.BatchResult;
 import club.emperorws.orm.result.ResultHandler;
 import club.emperorws.orm.statement.StatementHandler;
 import club.emperorws.orm.transaction.Transaction;
+import club.emperorws.orm.util.SqlTableUtil;
+import club.emperorws.orm.util.StatementUtil;
 
-import java.sql.BatchUpdateException;
-import java.sql.Connection;
-import java.sql.SQLException;
-import java.sql.Statement;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
+import java.sql.*;
+import java.util.*;
 
 /**
  * Batch批处理模式下的SQL语句执行器
@@ -31,61 +33,82 @@ public class BatchExecutor extends BaseExecutor {
     public static final int BATCH_UPDATE_RETURN_VALUE = Integer.MIN_VALUE + 1002;
 
     /**
-     * 需要执行的SQL语句Statement
+     * 待执行的批次（按执行顺序）
      */
-    private final List<Statement> statementList = new ArrayList<>();
+    private final List<PendingBatch> batchList = new ArrayList<>();
 
     /**
-     * Batch批处理SQL执行结果存储器
+     * （MappedStatement id，SQL）-->batchList的下标
      */
-    private final List<BatchResult> batchResultList = new ArrayList<>();
+    private final Map<BatchKey, Integer> batchIndexMap = new HashMap<>();
 
     /**
-     * 当前执行的SQL语句，预编译后的SQL语句
+     * 达到阈值自动flush后，已经执行完成的Batch结果（下一次flushStatements时一并返回）
      */
-    private String currentSql;
+    private final List<BatchResult> flushedBatchResultList = new ArrayList<>();
 
     /**
-     * 当前正在执行的SQL语句对象
+     * 当前缓存的请求参数的估算字节数
      */
-    private MappedStatement currentStatement;
+    private long pendingParameterBytes;
 
     public BatchExecutor(Configuration configuration, Transaction transaction) {
         super(configuration, transaction);
     }
 
     @Override
-    public int doUpdate(MappedStatement ms, Object parameterObject) throws SQLException {
+    public int doUpdate(MappedStatement ms, Object parameterObject, BoundSql boundSql) throws SQLException {
         final Configuration configuration = ms.getConfiguration();
-        final StatementHandler handler = configuration.newStatementHandler(ms, parameterObject, RowBounds.DEFAULT, null, null);
-        final BoundSql boundSql = handler.getBoundSql();
-        final String sql = boundSql.getSql();
-        final Statement stmt;
-        //判断是否是同一批SQL（SQL语句一样）
-        //todo 这里有待优化，如何判定等于
-        if (sql.equals(currentSql) && ms.getId().equals(currentStatement.getId())) {
-            //是同一批，直接设置参数，然后Statement.addBatch()执行即可
-            int last = statementList.size() - 1;
-            stmt = statementList.get(last);
-            applyTransactionTimeout(stmt);
-            //设置SQL的参数（？占位符参数的设置）
-            handler.parameterize(stmt);
-            BatchResult batchResult = batchResultList.get(last);
-            batchResult.addParameterObject(parameterObject);
+        final StatementHandler handler = configuration.newStatementHandler(wrapper, ms, parameterObject, RowBounds.DEFAULT, null, boundSql);
+        final BoundSql handlerBoundSql = handler.getBoundSql();
+        final String sql = handlerBoundSql.getSql();
+        final BatchKey batchKey = new BatchKey(ms.getId(), sql);
+        //判断是否可以合并到已有的同一批（MappedStatement id、SQL语句一样）
+        int index = findBatchIndex(batchKey);
+        if (index == -1 && configuration.getBatchMaxStatements() != null && batchList.size() >= configuration.getBatchMaxStatements()) {
+            //待执行的批次数量达到上限，先执行已缓存的批次
+            autoFlushStatements();
+        }
+        PendingBatch batch;
+        if (index != -1) {
+            //是同一批
+            batch = batchList.get(index);
+            batch.batchResult.addParameterObject(parameterObject);
         } else {
-            //不是同一批
-            Connection connection = getConnection(ms.getStatementLog());
-            //预编译SQL
-            stmt = handler.prepare(connection, transaction.getTimeout());
+            //不是同一批，新建一个批次
+            MultiRowInsertSql multiRowInsertSql = configuration.isBatchRewriteInserts()
+                    ? MultiRowInsertSql.parse(sql, handlerBoundSql.getParameterMappings().size()) : null;
+            Statement stmt = null;
+            if (multiRowInsertSql == null) {
+                //预编译SQL
+                stmt = handler.prepare(getConnection(ms.getStatementLog()), transaction.getTimeout());
+            }
+            final String writeTable = SqlTableUtil.getWriteTable(sql);
+            //合并到更早的批次时才需要判断依赖
+            final Set<String> tables = configuration.isBatchGroupingEnabled() ? SqlTableUtil.getTables(sql) : Collections.emptySet();
+            final boolean insert = ms.getSqlCommandType() == SqlCommandType.INSERT && sql.trim().regionMatches(true, 0, "insert", 0, 6);
+            batch = new PendingBatch(stmt, new BatchResult(ms, sql, parameterObject), writeTable, tables, insert, multiRowInsertSql);
+            index = batchList.size();
+            batchList.add(batch);
+            batchIndexMap.put(batchKey, index);
+        }
+        if (batch.multiRowInsertSql != null) {
+            //多行INSERT改写：参数在执行时才设置
+            batch.rowParameterHandlers.add(handler.getParameterHandler());
+        } else {
+            applyTransactionTimeout(batch.statement);
             //设置SQL的参数（？占位符参数的设置）
-            handler.parameterize(stmt);
-            currentSql = sql;
-            currentStatement = ms;
-            statementList.add(stmt);
-            batchResultList.add(new BatchResult(ms, sql, parameterObject));
+            handler.parameterize(batch.statement);
+            //Statement.addBatch()，后续直接Statement.executeBatch()执行
+            handler.batch(batch.statement);
+        }
+        //达到阈值，自动执行已缓存的批次
+        if (configuration.getBatchMaxBytes() != null) {
+            pendingParameterBytes += estimateParameterBytes(configuration, handlerBoundSql);
+        }
+        if (shouldAutoFlush(configuration, batch)) {
+            autoFlushStatements();
         }
-        //Statement.addBatch()，后续直接Statement.executeBatch()执行
-        handler.batch(stmt);
         return BATCH_UPDATE_RETURN_VALUE;
     }
 
@@ -101,7 +124,7 @@ public class BatchExecutor extends BaseExecutor {
             flushStatements();
             Configuration configuration = ms.getConfiguration();
             //获取SQL语句的执行处理器
-            StatementHandler handler = configuration.newStatementHandler(ms, parameterObject, rowBounds, resultHandler, boundSql);
+            StatementHandler handler = configuration.newStatementHandler(wrapper, ms, parameterObject, rowBounds, resultHandler, boundSql);
             //获取连接
             Connection connection = getConnection(ms.getStatementLog());
             //预编译SQL
@@ -126,13 +149,15 @@ public class BatchExecutor extends BaseExecutor {
         flushStatements();
         Configuration configuration = ms.getConfiguration();
         //获取SQL语句的执行处理器
-        StatementHandler handler = configuration.newStatementHandler(ms, parameter, rowBounds, null, boundSql);
+        StatementHandler handler = configuration.newStatementHandler(wrapper, ms, parameter, rowBounds, null, boundSql);
         //获取连接
         Connection connection = getConnection(ms.getStatementLog());
         //预编译SQL
         Statement stmt = handler.prepare(connection, transaction.getTimeout());
         //设置SQL的参数（？占位符参数的设置）
         handler.parameterize(stmt);
+        //流式读取
+        applyCursorFetchSize(ms, stmt);
         //查询
         Cursor<E> cursor = handler.queryCursor(stmt);
         //close()
@@ -144,50 +169,337 @@ public class BatchExecutor extends BaseExecutor {
      * 真正的Batch批处理的SQL语句执行（Statement.executeBatch()）
      *
      * @param isRollback 是否是Rollback回滚在执行FlushStatements
-     * @return Batch批处理模式的执行结果
+     * @return Batch批处理模式的执行结果（包含之前自动flush的结果）
      * @throws SQLException 异常
      */
     @Override
     public List<BatchResult> doFlushStatements(boolean isRollback) throws SQLException {
         try {
-            List<BatchResult> results = new ArrayList<>();
             if (isRollback) {
                 return Collections.emptyList();
             }
-            for (int i = 0, n = statementList.size(); i < n; i++) {
-                Statement stmt = statementList.get(i);
-                applyTransactionTimeout(stmt);
-                BatchResult batchResult = batchResultList.get(i);
-                try {
+            List<BatchResult> results = new ArrayList<>(flushedBatchResultList);
+            executeBatches(results);
+            return results;
+        } finally {
+            flushedBatchResultList.clear();
+            clearBatches();
+        }
+    }
+
+    /**
+     * 达到阈值时，自动执行已缓存的批次（结果暂存，下一次flushStatements时返回）
+     *
+     * @throws SQLException 异常
+     */
+    private void autoFlushStatements() throws SQLException {
+        try {
+            List<BatchResult> results = new ArrayList<>(flushedBatchResultList);
+            executeBatches(results);
+            flushedBatchResultList.clear();
+            flushedBatchResultList.addAll(results);
+        } finally {
+            clearBatches();
+        }
+    }
+
+    /**
+     * 按顺序执行已缓存的批次
+     *
+     * @param results 执行成功的结果存储器
+     * @throws SQLException 异常
+     */
+    private void executeBatches(List<BatchResult> results) throws SQLException {
+        for (int i = 0, n = batchList.size(); i < n; i++) {
+            PendingBatch batch = batchList.get(i);
+            BatchResult batchResult = batch.batchResult;
+            try {
+                if (batch.multiRowInsertSql != null) {
+                    batchResult.setUpdateCounts(executeMultiRowInsert(batch));
+                } else {
+                    Statement stmt = batch.statement;
+                    applyTransactionTimeout(stmt);
                     batchResult.setUpdateCounts(stmt.executeBatch());
                     //主键回显不要了
                     // Close statement，顺便也不用Statement.clearBatch()
                     closeStatement(stmt);
-                } catch (BatchUpdateException e) {
-                    StringBuilder message = new StringBuilder();
-                    message.append(batchResult.getMappedStatement().getId())
-                            .append(" (batch index #")
-                            .append(i + 1)
-                            .append(")")
-                            .append(" failed.");
-                    if (i > 0) {
-                        message.append(" ")
-                                .append(i)
-                                .append(" prior sub executor(s) completed successfully, but will be rolled back.");
+                }
+            } catch (BatchUpdateException e) {
+                StringBuilder message = new StringBuilder();
+                message.append(batchResult.getMappedStatement().getId())
+                        .append(" (batch index #")
+                        .append(i + 1)
+                        .append(")")
+                        .append(" failed.");
+                if (i > 0) {
+                    message.append(" ")
+                            .append(i)
+                            .append(" prior sub executor(s) completed successfully, but will be rolled back.");
+                }
+                throw new BatchExecutorException(message.toString(), e, results, batchResult);
+            }
+            results.add(batchResult);
+        }
+    }
+
+    /**
+     * 多行INSERT改写后执行：按参数数量上限分块，每块一条多行INSERT语句
+     * <p>每一行的更新数：一块的更新数等于行数时为1，否则为{@link Statement#SUCCESS_NO_INFO}</p>
+     *
+     * @param batch 待执行的批次
+     * @return 每一行的更新数
+     * @throws BatchUpdateException 执行失败（updateCounts为已执行成功的行）
+     */
+    private int[] executeMultiRowInsert(PendingBatch batch) throws BatchUpdateException {
+        MultiRowInsertSql multiRowInsertSql = batch.multiRowInsertSql;
+        MappedStatement ms = batch.batchResult.getMappedStatement();
+        List<ParameterHandler> rows = batch.rowParameterHandlers;
+        int rowCount = rows.size();
+        int parametersPerRow = multiRowInsertSql.getParametersPerRow();
+        int rowsPerChunk = Math.max(1, Math.min(rowCount, configuration.getBatchRewriteMaxParameters() / parametersPerRow));
+        int[] updateCounts = new int[rowCount];
+        int executedRows = 0;
+        PreparedStatement fullChunkStatement = null;
+        try {
+            Connection connection = getConnection(ms.getStatementLog());
+            while (executedRows < rowCount) {
+                int chunkRows = Math.min(rowsPerChunk, rowCount - executedRows);
+                String sql = multiRowInsertSql.getSql(chunkRows);
+                ErrorContext.instance().sql(sql);
+                PreparedStatement ps;
+                if (chunkRows == rowsPerChunk) {
+                    //完整的块SQL都一样，复用同一个PreparedStatement
+                    if (fullChunkStatement == null) {
+                        fullChunkStatement = prepareMultiRowInsert(connection, ms, sql);
+                    }
+                    ps = fullChunkStatement;
+                } else {
+                    ps = prepareMultiRowInsert(connection, ms, sql);
+                }
+                try {
+                    for (int row = 0; row < chunkRows; row++) {
+                        rows.get(executedRows + row).setParameters(ps, row * parametersPerRow);
+                    }
+                    int count = ps.executeUpdate();
+                    Arrays.fill(updateCounts, executedRows, executedRows + chunkRows, count == chunkRows ? 1 : Statement.SUCCESS_NO_INFO);
+                } finally {
+                    if (ps != fullChunkStatement) {
+                        closeStatement(ps);
                     }
-                    throw new BatchExecutorException(message.toString(), e, results, batchResult);
                 }
-                results.add(batchResult);
+                executedRows += chunkRows;
             }
-            return results;
+            return updateCounts;
+        } catch (SQLException e) {
+            throw new BatchUpdateException(e.getMessage(), e.getSQLState(), e.getErrorCode(), Arrays.copyOf(updateCounts, executedRows), e);
         } finally {
-            for (Statement stmt : statementList) {
-                //关闭Statement
-                closeStatement(stmt);
+            closeStatement(fullChunkStatement);
+        }
+    }
+
+    private PreparedStatement prepareMultiRowInsert(Connection connection, MappedStatement ms, String sql) throws SQLException {
+        PreparedStatement ps = connection.prepareStatement(sql);
+        Integer queryTimeout = ms.getTimeout() != null ? ms.getTimeout() : configuration.getDefaultStatementTimeout();
+        if (queryTimeout != null) {
+            ps.setQueryTimeout(queryTimeout);
+        }
+        StatementUtil.applyTransactionTimeout(ps, queryTimeout, transaction.getTimeout());
+        return ps;
+    }
+
+    private void clearBatches() {
+        for (PendingBatch batch : batchList) {
+            //关闭Statement
+            closeStatement(batch.statement);
+        }
+        batchList.clear();
+        batchIndexMap.clear();
+        pendingParameterBytes = 0;
+    }
+
+    /**
+     * 查找可以合并的批次
+     * <p>批次按第一次出现的顺序执行，合并到已有批次相当于把这条记录提前到中间的批次之前执行，所以只有与中间的批次都没有依赖时才允许合并：
+     * 中间的批次不能写入这条SQL涉及的表，不能读写这条SQL写入的表，不能写入这条SQL写入的表引用的表（父表）；
+     * 这条SQL不是INSERT时，中间的批次也不能写入引用它的表（子表）。
+     * 如：交错插入order、order_line时，order可以提前到order_line之前执行，但order_line不会提前到它引用的order之前执行</p>
+     *
+     * @param batchKey （MappedStatement id，SQL）
+     * @return 可以合并的批次下标，没有时返回-1
+     */
+    private int findBatchIndex(BatchKey batchKey) throws SQLException {
+        Integer index = batchIndexMap.get(batchKey);
+        if (index == null) {
+            return -1;
+        }
+        int last = batchList.size() - 1;
+        if (index == last) {
+            return index;
+        }
+        PendingBatch batch = batchList.get(index);
+        if (!configuration.isBatchGroupingEnabled() || batch.writeTable == null) {
+            return -1;
+        }
+        SqlTableUtil.ForeignKeys foreignKeys = getForeignKeys(batch.writeTable);
+        if (!foreignKeys.isResolved()) {
+            return -1;
+        }
+        for (int i = index + 1; i <= last; i++) {
+            PendingBatch between = batchList.get(i);
+            if (between.writeTable == null || batch.tables.contains(between.writeTable) || between.tables.contains(batch.writeTable)
+                    || foreignKeys.getParentTables().contains(between.writeTable)
+                    || (!batch.insert && foreignKeys.getChildTables().contains(between.writeTable))) {
+                return -1;
+            }
+        }
+        return index;
+    }
+
+    /**
+     * 获取表的外键关系（优先从缓存中获取）
+     *
+     * @param table 表名
+     * @return 外键关系，无法识别时返回{@link SqlTableUtil.ForeignKeys#UNRESOLVED}
+     */
+    private SqlTableUtil.ForeignKeys getForeignKeys(String table) throws SQLException {
+        Map<String, SqlTableUtil.ForeignKeys> cache = configuration.getForeignKeysCache();
+        SqlTableUtil.ForeignKeys foreignKeys = cache.get(table);
+        if (foreignKeys == null) {
+            try {
+                foreignKeys = SqlTableUtil.getForeignKeys(transaction.getConnection(), table);
+            } catch (SQLException | AbstractMethodError e) {
+                //驱动不支持时，不合并
+                foreignKeys = SqlTableUtil.ForeignKeys.UNRESOLVED;
+            }
+            cache.put(table, foreignKeys);
+        }
+        return foreignKeys;
+    }
+
+    private boolean shouldAutoFlush(Configuration configuration, PendingBatch batch) {
+        Integer maxRows = configuration.getBatchMaxRows();
+        if (maxRows != null && batch.batchResult.getParameterObjects().size() >= maxRows) {
+            return true;
+        }
+        Long maxBytes = configuration.getBatchMaxBytes();
+        return maxBytes != null && pendingParameterBytes >= maxBytes;
+    }
+
+    /**
+     * 估算一条记录请求参数的字节数
+     *
+     * @param configuration 全局配置单例
+     * @param boundSql      sql语句对象
+     * @return 估算的字节数
+     */
+    private long estimateParameterBytes(Configuration configuration, BoundSql boundSql) {
+        Object parameterObject = boundSql.getParameterObject();
+        List<ParameterMapping> parameterMappings = boundSql.getParameterMappings();
+        long bytes = 0;
+        if (parameterMappings == null || parameterMappings.isEmpty()) {
+            return bytes;
+        }
+        ParameterBindingPlan plan = configuration.getParameterBindingPlan(boundSql, parameterObject);
+        for (int i = 0; i < plan.size(); i++) {
+            bytes += estimateValueBytes(plan.getValue(i, parameterObject, boundSql));
+        }
+        return bytes;
+    }
+
+    private static long estimateValueBytes(Object value) {
+        if (value == null) {
+            return 1;
+        } else if (value instanceof CharSequence) {
+            return 2L * ((CharSequence) value).length();
+        } else if (value instanceof byte[]) {
+            return ((byte[]) value).length;
+        } else if (value instanceof Number || value instanceof Boolean || value instanceof java.util.Date) {
+            return 8;
+        }
+        return 16;
+    }
+
+    /*************************************************inner class*********************************************************/
+
+    /**
+     * 一个待执行的批次
+     */
+    private static final class PendingBatch {
+
+        /**
+         * 预编译的Statement（多行INSERT改写时为null，执行时才预编译）
+         */
+        private final Statement statement;
+
+        private final BatchResult batchResult;
+
+        /**
+         * 写入的目标表，无法识别时为null
+         */
+        private final String writeTable;
+
+        /**
+         * SQL涉及的所有表（不合并批次时为空）
+         */
+        private final Set<String> tables;
+
+        /**
+         * 是否是INSERT语句（只插入新记录，可以提前到引用它的表的批次之前执行）
+         */
+        private final boolean insert;
+
+        /**
+         * 多行INSERT改写信息，不改写时为null
+         */
+        private final MultiRowInsertSql multiRowInsertSql;
+
+        /**
+         * 多行INSERT改写时，每一行的参数处理器
+         */
+        private final List<ParameterHandler> rowParameterHandlers = new ArrayList<>();
+
+        private PendingBatch(Statement statement, BatchResult batchResult, String writeTable, Set<String> tables, boolean insert, MultiRowInsertSql multiRowInsertSql) {
+            this.statement = statement;
+            this.batchResult = batchResult;
+            this.writeTable = writeTable;
+            this.tables = tables;
+            this.insert = insert;
+            this.multiRowInsertSql = multiRowInsertSql;
+        }
+    }
+
+    /**
+     * 批次的key：（MappedStatement id，SQL）
+     */
+    private static final class BatchKey {
+
+        private final String statementId;
+
+        private final String sql;
+
+        private final int hashCode;
+
+        private BatchKey(String statementId, String sql) {
+            this.statementId = statementId;
+            this.sql = sql;
+            this.hashCode = 31 * statementId.hashCode() + sql.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
             }
-            currentSql = null;
-            statementList.clear();
-            batchResultList.clear();
+            if (!(o instanceof BatchKey)) {
+                return false;
+            }
+            BatchKey that = (BatchKey) o;
+            return hashCode == that.hashCode && statementId.equals(that.statementId) && sql.equals(that.sql);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
         }
     }
 }
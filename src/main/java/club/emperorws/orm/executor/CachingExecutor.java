@@ -0,0 +1,251 @@
+package club.emperorws.orm.executor;
+
+import club.emperorws.orm.Configuration;
+import club.emperorws.orm.cache.Cache;
+import club.emperorws.orm.cache.CacheKey;
+import club.emperorws.orm.cache.TableVersionRegistry;
+import club.emperorws.orm.cursor.Cursor;
+import club.emperorws.orm.mapping.BoundSql;
+import club.emperorws.orm.mapping.MappedStatement;
+import club.emperorws.orm.mapping.RowBounds;
+import club.emperorws.orm.result.BatchResult;
+import club.emperorws.orm.result.DefaultResultContext;
+import club.emperorws.orm.result.ResultHandler;
+import club.emperorws.orm.transaction.Transaction;
+import club.emperorws.orm.util.SqlTableUtil;
+
+import java.sql.SQLException;
+import java.util.*;
+
+/**
+ * 查询结果缓存（二级缓存）的SQL执行器装饰器
+ * <p>只缓存标注了{@link club.emperorws.orm.annotations.QueryCache}的查询，缓存按查询涉及的表失效（见{@link TableVersionRegistry}）</p>
+ * <p>失效是事务感知的：事务中写入的表在commit时才失效，rollback时丢弃；事务中查询写入过的表时，不读也不写缓存（要看到自己未提交的修改）</p>
+ *
+ * @author: EmperorWS
+ * @date: 2023/8/17 16:30
+ * @description: CachingExecutor: 查询结果缓存的SQL执行器装饰器
+ */
+public class CachingExecutor implements Executor {
+
+    private final Executor delegate;
+
+    private final TableVersionRegistry tableVersionRegistry;
+
+    /**
+     * 当前事务写入过、还未提交的表
+     */
+    private final Set<String> pendingTables = new HashSet<>();
+
+    public CachingExecutor(Configuration configuration, Executor delegate) {
+        this.delegate = delegate;
+        this.tableVersionRegistry = configuration.getTableVersionRegistry();
+        delegate.setExecutorWrapper(this);
+    }
+
+    @Override
+    public Transaction getTransaction() {
+        return delegate.getTransaction();
+    }
+
+    @Override
+    public void close(boolean forceRollback) {
+        try {
+            delegate.close(forceRollback);
+        } finally {
+            //关闭时无法确定未提交的写入是否生效，保守起见都失效
+            publishPendingTables();
+        }
+    }
+
+    @Override
+    public boolean isClosed() {
+        return delegate.isClosed();
+    }
+
+    @Override
+    public int update(MappedStatement ms, Object parameterObject) throws SQLException {
+        //目标表在MappedStatement构建时已经解析，不再为了它构建一次SQL
+        //即使现在还没有任何查询缓存也要记录：查询缓存是懒创建的，提交前可能已经缓存了写入前的结果
+        String writeTable = ms.getWriteTable();
+        pendingTables.add(writeTable == null ? TableVersionRegistry.ALL_TABLES : writeTable);
+        int updateCount = delegate.update(ms, parameterObject);
+        //自动提交时，写入已经生效（Batch批处理模式要等到flushStatements才真正执行）
+        if (updateCount != BatchExecutor.BATCH_UPDATE_RETURN_VALUE && isAutoCommit()) {
+            publishPendingTables();
+        }
+        return updateCount;
+    }
+
+    @Override
+    public <E> List<E> query(MappedStatement ms, Object parameterObject, RowBounds rowBounds, ResultHandler resultHandler) throws SQLException {
+        BoundSql boundSql = ms.getBoundSql(parameterObject);
+        return query(ms, parameterObject, rowBounds, resultHandler, boundSql);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public <E> List<E> query(MappedStatement ms, Object parameterObject, RowBounds rowBounds, ResultHandler resultHandler, BoundSql boundSql) throws SQLException {
+        Cache cache = ms.getCache();
+        if (cache == null) {
+            return delegate.query(ms, parameterObject, rowBounds, resultHandler, boundSql);
+        }
+        CacheKey key = createCacheKey(ms, parameterObject, rowBounds, boundSql);
+        return query(ms, parameterObject, rowBounds, resultHandler, key, boundSql);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public <E> List<E> query(MappedStatement ms, Object parameterObject, RowBounds rowBounds, ResultHandler resultHandler, CacheKey key, BoundSql boundSql) throws SQLException {
+        Cache cache = ms.getCache();
+        if (cache == null) {
+            //没有标注查询缓存：ResultHandler查询逐行处理，不生成List
+            return delegate.query(ms, parameterObject, rowBounds, resultHandler, key, boundSql);
+        }
+        CachedResult cachedResult = (CachedResult) cache.getObject(key);
+        if (cachedResult != null && !intersectsPendingTables(cachedResult.tables)) {
+            if (tableVersionRegistry.isCurrent(cachedResult.tables, cachedResult.versions)) {
+                return handleCachedResults(new ArrayList<>((List<E>) cachedResult.value), resultHandler);
+            }
+            //表已经被写入过，缓存失效
+            cache.removeObject(key);
+        }
+        String[] tables = resolveTables(ms, boundSql);
+        if (tables.length == 0 || intersectsPendingTables(tables)) {
+            //无法识别涉及的表（无法失效），或者查询的是当前事务写入过的表
+            return delegate.query(ms, parameterObject, rowBounds, resultHandler, key, boundSql);
+        }
+        //版本号必须在查询数据库之前获取
+        long[] versions = tableVersionRegistry.snapshot(tables);
+        //标注了查询缓存的语句，缓存的本来就是完整的List：ResultHandler查询也先查出List写入缓存，再回放给ResultHandler
+        List<E> list = delegate.query(ms, parameterObject, rowBounds, null, key, boundSql);
+        cache.putObject(key, new CachedResult(new ArrayList<>(list), tables, versions));
+        return handleCachedResults(list, resultHandler);
+    }
+
+    @Override
+    public <E> Cursor<E> queryCursor(MappedStatement ms, Object parameter, RowBounds rowBounds) throws SQLException {
+        return delegate.queryCursor(ms, parameter, rowBounds);
+    }
+
+    @Override
+    public List<BatchResult> flushStatements() throws SQLException {
+        List<BatchResult> batchResults = delegate.flushStatements();
+        if (!pendingTables.isEmpty() && isAutoCommit()) {
+            publishPendingTables();
+        }
+        return batchResults;
+    }
+
+    @Override
+    public void commit(boolean required) throws SQLException {
+        delegate.commit(required);
+        publishPendingTables();
+    }
+
+    @Override
+    public void rollback(boolean required) throws SQLException {
+        try {
+            delegate.rollback(required);
+        } finally {
+            //自动提交时，已经执行的写入无法回滚，写入时已经失效过了
+            pendingTables.clear();
+        }
+    }
+
+    @Override
+    public CacheKey createCacheKey(MappedStatement ms, Object parameterObject, RowBounds rowBounds, BoundSql boundSql) {
+        return delegate.createCacheKey(ms, parameterObject, rowBounds, boundSql);
+    }
+
+    @Override
+    public void clearLocalCache() {
+        delegate.clearLocalCache();
+    }
+
+    @Override
+    public void setExecutorWrapper(Executor executor) {
+        throw new UnsupportedOperationException("This method should not be called");
+    }
+
+    /**
+     * 查询涉及的表：SQL解析出来的表+{@link MappedStatement#getCacheTables()}
+     */
+    private String[] resolveTables(MappedStatement ms, BoundSql boundSql) {
+        Set<String> tables = SqlTableUtil.getTables(boundSql.getSql());
+        if (tables.isEmpty()) {
+            return new String[0];
+        }
+        Collections.addAll(tables, ms.getCacheTables());
+        return tables.toArray(new String[0]);
+    }
+
+    /**
+     * 有ResultHandler时，把结果逐个交给ResultHandler处理（与从数据库查询时一样，返回空List）
+     */
+    @SuppressWarnings("unchecked")
+    private <E> List<E> handleCachedResults(List<E> list, ResultHandler resultHandler) {
+        if (resultHandler == null) {
+            return list;
+        }
+        DefaultResultContext<E> resultContext = new DefaultResultContext<>();
+        for (E resultObject : list) {
+            resultContext.nextResultObject(resultObject);
+            resultHandler.handleResult(resultContext);
+            if (resultContext.isStopped()) {
+                break;
+            }
+        }
+        return new ArrayList<>();
+    }
+
+    private boolean intersectsPendingTables(String[] tables) {
+        if (pendingTables.isEmpty()) {
+            return false;
+        }
+        if (pendingTables.contains(TableVersionRegistry.ALL_TABLES)) {
+            return true;
+        }
+        for (String table : tables) {
+            if (pendingTables.contains(table)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void publishPendingTables() {
+        if (!pendingTables.isEmpty()) {
+            tableVersionRegistry.invalidate(pendingTables);
+            pendingTables.clear();
+        }
+    }
+
+    private boolean isAutoCommit() {
+        try {
+            return delegate.getTransaction().getConnection().getAutoCommit();
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    /*************************************************inner class*********************************************************/
+
+    /**
+     * 缓存的查询结果，以及缓存时涉及的表的版本号
+     */
+    private static class CachedResult {
+
+        private final Object value;
+
+        private final String[] tables;
+
+        private final long[] versions;
+
+        private CachedResult(Object value, String[] tables, long[] versions) {
+            this.value = value;
+            this.tables = tables;
+            this.versions = versions;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package club.emperorws.orm.executor;
 
+import club.emperorws.orm.cache.CacheKey;
 import club.emperorws.orm.cursor.Cursor;
 import club.emperorws.orm.mapping.BoundSql;
 import club.emperorws.orm.mapping.MappedStatement;
@@ -24,6 +25,8 @@ public interface Executor {
 
     int update(MappedStatement ms, Object parameter) throws SQLException;
 
+    <E> List<E> query(MappedStatement ms, Object parameter, RowBounds rowBounds, ResultHandler resultHandler, CacheKey cacheKey, BoundSql boundSql) throws SQLException;
+
     <E> List<E> query(MappedStatement ms, Object parameter, RowBounds rowBounds, ResultHandler resultHandler, BoundSql boundSql) throws SQLException;
 
     <E> List<E> query(MappedStatement ms, Object parameter, RowBounds rowBounds, ResultHandler resultHandler) throws SQLException;
@@ -32,6 +35,22 @@ public interface Executor {
 
     List<BatchResult> flushStatements() throws SQLException;
 
+    /**
+     * 创建查询结果的缓存key：（MappedStatement id，RowBounds，SQL，请求参数的值）
+     *
+     * @param ms              sql语句的装载体
+     * @param parameterObject 请求参数
+     * @param rowBounds       分页信息
+     * @param boundSql        SQL语句装载体
+     * @return 缓存key
+     */
+    CacheKey createCacheKey(MappedStatement ms, Object parameterObject, RowBounds rowBounds, BoundSql boundSql);
+
+    /**
+     * 清空本地缓存（一级缓存）
+     */
+    void clearLocalCache();
+
     void commit(boolean required) throws SQLException;
 
     void rollback(boolean required) throws SQLException;
@@ -0,0 +1,131 @@
+package club.emperorws.orm.executor;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 单行INSERT语句改写为多行INSERT：INSERT INTO t (a, b) VALUES (?, ?) --> INSERT INTO t (a, b) VALUES (?, ?),(?, ?),...
+ * <p>只支持以单个VALUES(...)结尾的INSERT语句（不支持INSERT ... SELECT、ON DUPLICATE KEY UPDATE等）</p>
+ *
+ * @author: EmperorWS
+ * @date: 2023/8/16 15:20
+ * @description: MultiRowInsertSql: 单行INSERT语句改写为多行INSERT
+ */
+class MultiRowInsertSql {
+
+    private static final Pattern SINGLE_ROW_INSERT_PATTERN = Pattern.compile("^(\\s*insert\\s+into\\s+.+?\\bvalues\\s*)(\\(.*\\))\\s*;?\\s*$",
+            Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+
+    /**
+     * VALUES之前（包含VALUES）的SQL
+     */
+    private final String prefix;
+
+    /**
+     * 一行记录的占位：(?, ?, ...)
+     */
+    private final String rowValues;
+
+    /**
+     * 每一行记录的参数数量
+     */
+    private final int parametersPerRow;
+
+    private MultiRowInsertSql(String prefix, String rowValues, int parametersPerRow) {
+        this.prefix = prefix;
+        this.rowValues = rowValues;
+        this.parametersPerRow = parametersPerRow;
+    }
+
+    /**
+     * 解析单行INSERT语句
+     *
+     * @param sql            预编译的SQL
+     * @param parameterCount SQL的参数数量
+     * @return 可以改写时返回解析结果，否则返回null
+     */
+    static MultiRowInsertSql parse(String sql, int parameterCount) {
+        if (parameterCount <= 0) {
+            return null;
+        }
+        Matcher matcher = SINGLE_ROW_INSERT_PATTERN.matcher(sql);
+        if (!matcher.matches()) {
+            return null;
+        }
+        String rowValues = matcher.group(2);
+        //VALUES后面必须是单个完整的括号，且SQL的参数全部在括号里
+        if (!isSingleTuple(rowValues) || countPlaceholders(rowValues) != parameterCount) {
+            return null;
+        }
+        return new MultiRowInsertSql(matcher.group(1), rowValues, parameterCount);
+    }
+
+    int getParametersPerRow() {
+        return parametersPerRow;
+    }
+
+    /**
+     * 生成多行INSERT语句
+     *
+     * @param rows 行数
+     * @return 多行INSERT语句
+     */
+    String getSql(int rows) {
+        StringBuilder sql = new StringBuilder(prefix.length() + (rowValues.length() + 1) * rows);
+        sql.append(prefix);
+        for (int i = 0; i < rows; i++) {
+            if (i > 0) {
+                sql.append(',');
+            }
+            sql.append(rowValues);
+        }
+        return sql.toString();
+    }
+
+    /**
+     * 是否是单个完整的括号：第一个左括号与最后一个右括号匹配（忽略引号里的内容）
+     */
+    private static boolean isSingleTuple(String values) {
+        int depth = 0;
+        char quote = 0;
+        for (int i = 0; i < values.length(); i++) {
+            char c = values.charAt(i);
+            if (quote != 0) {
+                if (c == quote) {
+                    quote = 0;
+                }
+            } else if (c == '\'' || c == '"') {
+                quote = c;
+            } else if (c == '(') {
+                depth++;
+            } else if (c == ')') {
+                depth--;
+                if (depth == 0 && i != values.length() - 1) {
+                    return false;
+                }
+            }
+        }
+        return depth == 0 && quote == 0;
+    }
+
+    /**
+     * 统计?占位符的数量（忽略引号里的内容）
+     */
+    private static int countPlaceholders(String values) {
+        int count = 0;
+        char quote = 0;
+        for (int i = 0; i < values.length(); i++) {
+            char c = values.charAt(i);
+            if (quote != 0) {
+                if (c == quote) {
+                    quote = 0;
+                }
+            } else if (c == '\'' || c == '"') {
+                quote = c;
+            } else if (c == '?') {
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,121 @@
+package club.emperorws.orm.executor;
+
+import club.emperorws.orm.Configuration;
+import club.emperorws.orm.cache.BoundedConcurrentCache;
+import club.emperorws.orm.cache.CacheBuilder;
+import club.emperorws.orm.dialect.CountSqlBuilder;
+import club.emperorws.orm.exception.ErrorContext;
+import club.emperorws.orm.exception.OrmException;
+import club.emperorws.orm.mapping.*;
+import club.emperorws.orm.session.ExecutorType;
+import club.emperorws.orm.transaction.Transaction;
+import club.emperorws.orm.util.MapUtil;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+
+/**
+ * 分页查询的总记录数统计：SELECT COUNT(*)（见{@link CountSqlBuilder}），与当前页的查询使用相同的参数
+ * <p>并行统计时，使用数据源的另一个连接（新的事务、SQL执行器）在线程池中执行，与当前页的查询同时进行</p>
+ * <p>当前SqlSession有未提交的写入时，另一个连接看不到这些写入，只能在当前SqlSession中顺序统计；
+ * 另一个连接与当前页的查询不是同一个快照，两次查询之间其它事务提交的写入可能只被其中一个看到</p>
+ *
+ * @author: EmperorWS
+ * @date: 2023/8/26 11:10
+ * @description: PageCounter: 分页查询的总记录数统计
+ */
+public class PageCounter {
+
+    private final Configuration configuration;
+
+    /**
+     * 查询SQL-->统计总记录数的SQL
+     */
+    private final BoundedConcurrentCache<String, String> countSqlCache = new BoundedConcurrentCache<>(1024);
+
+    public PageCounter(Configuration configuration) {
+        this.configuration = configuration;
+    }
+
+    /**
+     * 统计总记录数
+     *
+     * @param executor  当前SqlSession的SQL执行器
+     * @param ms        查询的MappedStatement
+     * @param parameter 请求参数
+     * @param cacheTtl  总记录数的缓存时间（毫秒），小于等于0时不缓存
+     * @param parallel  是否使用另一个连接并行统计
+     * @return 总记录数
+     * @throws SQLException 异常
+     */
+    public Future<Long> count(Executor executor, MappedStatement ms, Object parameter, long cacheTtl, boolean parallel) throws SQLException {
+        final MappedStatement countStatement = getCountStatement(ms, cacheTtl);
+        final BoundSql boundSql = ms.getBoundSql(parameter);
+        final List<BoundSql> countBoundSqls;
+        if (boundSql.getChunks() == null) {
+            countBoundSqls = Collections.singletonList(getCountBoundSql(boundSql));
+        } else {
+            //集合参数拆分为多条SQL时，分别统计后累加（拆分前已去掉重复的元素，一行记录只匹配一条SQL）；DISTINCT、GROUP BY等按SQL统计后不能累加
+            if (!CountSqlBuilder.isMergeableSelect(CountSqlBuilder.removeOrderBy(boundSql.getSql()))) {
+                throw new OrmException("A collection parameter larger than the IN list chunk size splits the query into several statements, "
+                        + "so the total of a query with DISTINCT, GROUP BY, HAVING, UNION or aggregate functions can not be counted (statement " + ms.getId() + ").");
+            }
+            countBoundSqls = new ArrayList<>(boundSql.getChunks().size());
+            for (BoundSql chunk : boundSql.getChunks()) {
+                countBoundSqls.add(getCountBoundSql(chunk));
+            }
+        }
+        final Environment environment = configuration.getEnvironment();
+        if (!parallel || environment == null || !configuration.isParallelPageCount()) {
+            return CompletableFuture.completedFuture(count(executor, countStatement, parameter, countBoundSqls));
+        }
+        return configuration.getPageCountThreadPool().submit(() -> {
+            final Transaction tx = environment.getTransactionFactory().newTransaction(environment.getDataSource(), null, false);
+            final Executor countExecutor = configuration.newExecutor(tx, ExecutorType.SIMPLE);
+            try {
+                return count(countExecutor, countStatement, parameter, countBoundSqls);
+            } finally {
+                countExecutor.close(false);
+                ErrorContext.instance().reset();
+            }
+        });
+    }
+
+    private BoundSql getCountBoundSql(BoundSql boundSql) {
+        final String countSql = countSqlCache.computeIfAbsent(boundSql.getSql(), CountSqlBuilder::getCountSql);
+        return boundSql.copy(configuration, countSql, boundSql.getParameterMappings());
+    }
+
+    private long count(Executor executor, MappedStatement countStatement, Object parameter, List<BoundSql> countBoundSqls) throws SQLException {
+        long total = 0L;
+        for (BoundSql countBoundSql : countBoundSqls) {
+            List<Long> result = executor.query(countStatement, parameter, RowBounds.DEFAULT, Executor.NO_RESULT_HANDLER, countBoundSql);
+            total += result.isEmpty() || result.get(0) == null ? 0L : result.get(0);
+        }
+        return total;
+    }
+
+    /**
+     * 统计总记录数的MappedStatement（每个查询、缓存时间一个），缓存时与查询结果缓存一样按表失效
+     */
+    private MappedStatement getCountStatement(MappedStatement ms, long cacheTtl) {
+        final String id = ms.getId() + "!count" + (cacheTtl > 0 ? "@" + cacheTtl : "");
+        return configuration.getMappedStatementCache().computeIfAbsent(id, key -> {
+            MappedStatement.Builder builder = new MappedStatement.Builder(configuration,
+                    new SqlSource.Builder("").sqlCommandType(SqlCommandType.SELECT).build(), SqlCommandType.SELECT)
+                    .id(key)
+                    .resource(ms.getResource())
+                    .timeout(ms.getTimeout())
+                    .resultMap(new ResultMap.Builder(configuration, Long.class.getName(), Long.class).build());
+            if (cacheTtl > 0) {
+                builder.cache(MapUtil.computeIfAbsent(configuration.getCaches(), key, cacheId -> new CacheBuilder(cacheId).ttl(cacheTtl).build()))
+                        .cacheTables(ms.getCacheTables());
+            }
+            return builder.build();
+        });
+    }
+}
@@ -0,0 +1,120 @@
+package club.emperorws.orm.executor;
+
+import club.emperorws.orm.Configuration;
+import club.emperorws.orm.cache.StatementCache;
+import club.emperorws.orm.cache.StatementCacheRegistry;
+import club.emperorws.orm.cursor.Cursor;
+import club.emperorws.orm.logging.Log;
+import club.emperorws.orm.logging.jdbc.PreparedStatementLogger;
+import club.emperorws.orm.logging.jdbc.StatementLogger;
+import club.emperorws.orm.mapping.BoundSql;
+import club.emperorws.orm.mapping.MappedStatement;
+import club.emperorws.orm.mapping.RowBounds;
+import club.emperorws.orm.result.BatchResult;
+import club.emperorws.orm.result.ResultHandler;
+import club.emperorws.orm.statement.StatementHandler;
+import club.emperorws.orm.transaction.Transaction;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 可重复使用的SQL语句的执行器，不会执行Statement.close()
+ * <p>Statement缓存在物理Connection上（见{@link StatementCacheRegistry}），后续借到同一个物理Connection的SqlSession可以继续复用；
+ * Statement只在被LRU淘汰或物理Connection关闭时才关闭</p>
+ *
+ * @author: EmperorWS
+ * @date: 2023/5/12 16:35
+ * @description: ReuseExecutor: 可重复使用的SQL语句的执行器，不会执行Statement.close()
+ */
+public class ReuseExecutor extends BaseExecutor {
+
+    /**
+     * 当前事务Connection对应的Statement缓存（懒加载）
+     */
+    private StatementCache statementCache;
+
+    /**
+     * statementCache对应的事务Connection
+     */
+    private Connection cachedConnection;
+
+    public ReuseExecutor(Configuration configuration, Transaction transaction) {
+        super(configuration, transaction);
+    }
+
+    @Override
+    public int doUpdate(MappedStatement ms, Object parameter, BoundSql boundSql) throws SQLException {
+        Configuration configuration = ms.getConfiguration();
+        StatementHandler handler = configuration.newStatementHandler(wrapper, ms, parameter, RowBounds.DEFAULT, null, boundSql);
+        Statement stmt = prepareStatement(ms, handler, ms.getStatementLog());
+        return handler.update(stmt);
+    }
+
+    @Override
+    public <E> List<E> doQuery(MappedStatement ms, Object parameter, RowBounds rowBounds, ResultHandler resultHandler, BoundSql boundSql) throws SQLException {
+        Configuration configuration = ms.getConfiguration();
+        StatementHandler handler = configuration.newStatementHandler(wrapper, ms, parameter, rowBounds, resultHandler, boundSql);
+        Statement stmt = prepareStatement(ms, handler, ms.getStatementLog());
+        return handler.query(stmt, resultHandler);
+    }
+
+    /**
+     * Cursor会一直占用Statement，并在关闭时关闭Statement，所以不走Statement缓存
+     */
+    @Override
+    protected <E> Cursor<E> doQueryCursor(MappedStatement ms, Object parameter, RowBounds rowBounds, BoundSql boundSql) throws SQLException {
+        Configuration configuration = ms.getConfiguration();
+        StatementHandler handler = configuration.newStatementHandler(wrapper, ms, parameter, rowBounds, null, boundSql);
+        Statement stmt = handler.prepare(getConnection(ms.getStatementLog()), transaction.getTimeout());
+        handler.parameterize(stmt);
+        applyCursorFetchSize(ms, stmt);
+        Cursor<E> cursor = handler.queryCursor(stmt);
+        stmt.closeOnCompletion();
+        return cursor;
+    }
+
+    /**
+     * 缓存的Statement属于物理Connection，这里不再关闭
+     */
+    @Override
+    public List<BatchResult> doFlushStatements(boolean isRollback) {
+        return Collections.emptyList();
+    }
+
+    private Statement prepareStatement(MappedStatement ms, StatementHandler handler, Log statementLog) throws SQLException {
+        String sql = handler.getBoundSql().getSql();
+        String key = ms.getStatementType() + ":" + ms.getResultSetType() + ":" + sql;
+        Connection connection = transaction.getConnection();
+        StatementCache cache = getStatementCache(connection);
+        Statement stmt = cache.get(key);
+        if (stmt != null) {
+            applyTransactionTimeout(stmt);
+        } else {
+            //在物理Connection上预编译，连接池的代理Connection归还时不会关闭它
+            stmt = handler.prepare(StatementCacheRegistry.unwrapConnection(connection), transaction.getTimeout());
+            cache.put(key, stmt);
+        }
+        //debug模式下，代理Statement，方便打印SQL日志
+        if (statementLog.isDebugEnabled()) {
+            statementLog.debug("==>  Preparing: " + sql);
+            stmt = stmt instanceof PreparedStatement
+                    ? PreparedStatementLogger.newInstance((PreparedStatement) stmt, statementLog)
+                    : StatementLogger.newInstance(stmt, statementLog);
+        }
+        handler.parameterize(stmt);
+        return stmt;
+    }
+
+    private StatementCache getStatementCache(Connection connection) {
+        if (statementCache == null || cachedConnection != connection) {
+            statementCache = configuration.getStatementCacheRegistry().getStatementCache(connection);
+            cachedConnection = connection;
+        }
+        return statementCache;
+    }
+}
@@ -31,12 +31,12 @@ public class SimpleExecutor extends BaseExecutor {
     }
 
     @Override
-    public int doUpdate(MappedStatement ms, Object parameter) throws SQLException {
+    public int doUpdate(MappedStatement ms, Object parameter, BoundSql boundSql) throws SQLException {
         Statement stmt = null;
         try {
             Configuration configuration = ms.getConfiguration();
             // 获取SQL语句的执行处理器
-            StatementHandler handler = configuration.newStatementHandler(ms, parameter, RowBounds.DEFAULT, null, null);
+            StatementHandler handler = configuration.newStatementHandler(wrapper, ms, parameter, RowBounds.DEFAULT, null, boundSql);
             // 预编译SQL，并获取sql对应的Statement
             stmt = prepareStatement(handler, ms.getStatementLog());
             // 执行SQL（内部会关闭ResultSet，每次处理完执行结果，就会ResultSet.close()）
@@ -53,7 +53,7 @@ public class SimpleExecutor extends BaseExecutor {
         try {
             Configuration configuration = ms.getConfiguration();
             // 获取SQL语句的执行处理器
-            StatementHandler handler = configuration.newStatementHandler(ms, parameter, rowBounds, resultHandler, boundSql);
+            StatementHandler handler = configuration.newStatementHandler(wrapper, ms, parameter, rowBounds, resultHandler, boundSql);
             // 预编译SQL，并获取sql对应的Statement
             stmt = prepareStatement(handler, ms.getStatementLog());
             // 执行SQL（内部会关闭ResultSet，每次处理完执行结果，就会ResultSet.close()）
@@ -68,9 +68,11 @@ public class SimpleExecutor extends BaseExecutor {
     protected <E> Cursor<E> doQueryCursor(MappedStatement ms, Object parameter, RowBounds rowBounds, BoundSql boundSql) throws SQLException {
         Configuration configuration = ms.getConfiguration();
         // 获取SQL语句的执行处理器
-        StatementHandler handler = configuration.newStatementHandler(ms, parameter, rowBounds, null, boundSql);
+        StatementHandler handler = configuration.newStatementHandler(wrapper, ms, parameter, rowBounds, null, boundSql);
         // 预编译SQL，并获取sql对应的Statement
         Statement stmt = prepareStatement(handler, ms.getStatementLog());
+        // 流式读取
+        applyCursorFetchSize(ms, stmt);
         // 执行SQL
         Cursor<E> cursor = handler.queryCursor(stmt);
         // 关闭Cursor
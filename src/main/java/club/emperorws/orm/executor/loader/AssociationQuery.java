@@ -0,0 +1,180 @@
+package club.emperorws.orm.executor.loader;
+
+import club.emperorws.orm.Configuration;
+import club.emperorws.orm.exception.OrmException;
+import club.emperorws.orm.executor.Executor;
+import club.emperorws.orm.mapping.*;
+import club.emperorws.orm.metadata.TableModelFieldInfo;
+import club.emperorws.orm.metadata.TableModelInfo;
+import club.emperorws.orm.metadata.TableModelInfoHelper;
+import club.emperorws.orm.reflection.Reflector;
+import club.emperorws.orm.reflection.invoker.Invoker;
+import club.emperorws.orm.util.ExceptionUtil;
+
+import java.math.BigInteger;
+import java.sql.SQLException;
+import java.util.*;
+
+/**
+ * 按key查询关联对象、集合：SELECT ... FROM 关联表 WHERE 关联列 IN (#{keys,collection})
+ * <p>一对多：当前表的列（默认主键）= 集合元素表的外键；一对一：当前表的外键 = 关联表的列（默认主键）</p>
+ * <p>key对应的列、属性来自{@link TableModelInfo}、{@link TableModelFieldInfo}，解析一次后可以查询多次</p>
+ *
+ * @author: EmperorWS
+ * @date: 2023/8/23 15:10
+ * @description: AssociationQuery: 按key查询关联对象、集合
+ */
+class AssociationQuery {
+
+    /**
+     * 关联key集合的参数名称
+     */
+    private static final String KEYS_PARAMETER = "keys";
+
+    private final Configuration configuration;
+
+    private final ResultMapping resultMapping;
+
+    private final String keyProperty;
+
+    private final String nestedKeyProperty;
+
+    private final Invoker keyGetter;
+
+    private final Invoker nestedKeyGetter;
+
+    private final Invoker getter;
+
+    private final Invoker setter;
+
+    private final MappedStatement mappedStatement;
+
+    /**
+     * SELECT ... WHERE 关联列 IN (#{keys,collection})：占位符个数按key的个数补齐为1、2、4、8...，不同批次复用少量SQL文本
+     */
+    private final SqlSource selectSqlSource;
+
+    AssociationQuery(Configuration configuration, TableModelInfo tableInfo, ResultMapping resultMapping) {
+        this.configuration = configuration;
+        this.resultMapping = resultMapping;
+        final ResultMap nestedResultMap = configuration.getNestedResultMap(resultMapping.getNestedResultType());
+        final TableModelInfo nestedTableInfo = TableModelInfoHelper.getTableInfo(resultMapping.getNestedResultType());
+        if (nestedTableInfo == null) {
+            throw new OrmException("Loading property '" + resultMapping.getProperty() + "' of " + tableInfo.getEntityType()
+                    + " requires " + resultMapping.getNestedResultType() + " to be annotated with @AnnModel.Table.");
+        }
+        final String nestedColumn = resultMapping.isCollection() || resultMapping.getForeignColumn() != null
+                ? resultMapping.getForeignColumn() : nestedTableInfo.getPkName();
+        final TableModelFieldInfo keyField = getKeyField(tableInfo, resultMapping.getColumn());
+        final TableModelFieldInfo nestedKeyField = getKeyField(nestedTableInfo, nestedColumn);
+        final Reflector reflector = configuration.getReflectorFactory().findForClass(tableInfo.getEntityType());
+        final Reflector nestedReflector = configuration.getReflectorFactory().findForClass(nestedTableInfo.getEntityType());
+        this.keyProperty = keyField.getProperty();
+        this.nestedKeyProperty = nestedKeyField.getProperty();
+        this.keyGetter = reflector.getGetInvoker(keyProperty);
+        this.nestedKeyGetter = nestedReflector.getGetInvoker(nestedKeyProperty);
+        this.getter = reflector.getGetInvoker(resultMapping.getProperty());
+        this.setter = reflector.getSetInvoker(resultMapping.getProperty());
+        this.selectSqlSource = new SqlSource.Builder("SELECT " + String.join(", ", nestedTableInfo.getColumnList()) + " FROM "
+                + nestedTableInfo.getTableName() + " WHERE " + nestedColumn + " IN (#{" + KEYS_PARAMETER + ",collection})").build();
+        //每个关联属性一个MappedStatement，SQL在执行时按key的个数展开
+        final String id = tableInfo.getEntityType().getName() + "." + resultMapping.getProperty() + "!association";
+        this.mappedStatement = configuration.getMappedStatementCache().computeIfAbsent(id, key -> new MappedStatement.Builder(configuration,
+                new SqlSource.Builder("").sqlCommandType(SqlCommandType.SELECT).build(), SqlCommandType.SELECT)
+                .id(key)
+                .resource(key)
+                .resultMap(nestedResultMap)
+                .build());
+    }
+
+    /**
+     * 执行一次查询：SELECT ... WHERE 关联列 IN (#{keys,collection})
+     *
+     * @param executor SQL执行器
+     * @param keys     关联key
+     * @return 关联对象列表
+     * @throws SQLException 异常
+     */
+    List<Object> query(Executor executor, List<Object> keys) throws SQLException {
+        Map<String, Object> parameter = Collections.singletonMap(KEYS_PARAMETER, keys);
+        BoundSql boundSql = selectSqlSource.getBoundSql(configuration, parameter);
+        return executor.query(mappedStatement, parameter, RowBounds.DEFAULT, Executor.NO_RESULT_HANDLER, boundSql);
+    }
+
+    ResultMapping getResultMapping() {
+        return resultMapping;
+    }
+
+    /**
+     * 获取当前对象的关联key
+     */
+    Object getKey(Object owner) {
+        return normalizeKey(getValue(keyGetter, keyProperty, owner));
+    }
+
+    /**
+     * 获取关联对象的关联key
+     */
+    Object getNestedKey(Object nestedItem) {
+        return normalizeKey(getValue(nestedKeyGetter, nestedKeyProperty, nestedItem));
+    }
+
+    Object getValue(Object owner) {
+        return getValue(getter, resultMapping.getProperty(), owner);
+    }
+
+    void setValue(Object owner, Object value) {
+        try {
+            try {
+                setter.set(owner, value);
+            } catch (Throwable t) {
+                throw ExceptionUtil.unwrapThrowable(t);
+            }
+        } catch (Throwable t) {
+            throw new OrmException("Could not set property '" + resultMapping.getProperty() + "' of '" + owner.getClass() + "' with value '" + value + "'. Cause: " + t, t);
+        }
+    }
+
+    /**
+     * 创建一个空集合（一对多集合属性）
+     */
+    Collection<Object> newCollection() {
+        @SuppressWarnings("unchecked")
+        Collection<Object> collection = (Collection<Object>) configuration.getObjectFactory().create(resultMapping.getJavaType());
+        return collection;
+    }
+
+    private TableModelFieldInfo getKeyField(TableModelInfo tableInfo, String column) {
+        TableModelFieldInfo fieldInfo = column == null ? null : tableInfo.getTableModelFieldInfo(column);
+        if (fieldInfo == null) {
+            throw new OrmException("Loading property '" + resultMapping.getProperty() + "' requires column '" + column
+                    + "' to be mapped by an @AnnModel.AnnField of " + tableInfo.getEntityType());
+        }
+        return fieldInfo;
+    }
+
+    private static Object getValue(Invoker getter, String property, Object target) {
+        try {
+            try {
+                return getter.get(target);
+            } catch (Throwable t) {
+                throw ExceptionUtil.unwrapThrowable(t);
+            }
+        } catch (Throwable t) {
+            throw new OrmException("Could not get property '" + property + "' of '" + target.getClass() + "'. Cause: " + t, t);
+        }
+    }
+
+    /**
+     * 整数类型的key统一为Long（实体中的外键与关联表的主键类型可能不一样，如Integer与Long）
+     */
+    private static Object normalizeKey(Object key) {
+        if (key instanceof Integer || key instanceof Long || key instanceof Short || key instanceof Byte) {
+            return ((Number) key).longValue();
+        }
+        if (key instanceof BigInteger && ((BigInteger) key).bitLength() < Long.SIZE) {
+            return ((BigInteger) key).longValue();
+        }
+        return key;
+    }
+}
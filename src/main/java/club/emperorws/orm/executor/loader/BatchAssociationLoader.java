@@ -0,0 +1,120 @@
+package club.emperorws.orm.executor.loader;
+
+import club.emperorws.orm.Configuration;
+import club.emperorws.orm.exception.OrmException;
+import club.emperorws.orm.executor.Executor;
+import club.emperorws.orm.mapping.FetchType;
+import club.emperorws.orm.mapping.ResultMap;
+import club.emperorws.orm.mapping.ResultMapping;
+import club.emperorws.orm.metadata.TableModelFieldInfo;
+import club.emperorws.orm.metadata.TableModelInfo;
+import club.emperorws.orm.metadata.TableModelInfoHelper;
+
+import java.sql.SQLException;
+import java.util.*;
+
+/**
+ * 分批加载关联对象、集合（{@link FetchType#BATCH}）
+ * <p>当前查询的结果映射完成后，收集所有结果的关联key，按{@link Configuration#getBatchLoadSize()}分批执行WHERE key IN (...)查询，再按key回填</p>
+ * <p>key对应的列、属性来自{@link TableModelInfo}、{@link TableModelFieldInfo}（见{@link AssociationQuery}）；查询复用当前查询的{@link Executor}（同一个事务、同一个本地缓存）</p>
+ * <p>关联对象的查询结果也会分批加载它自己的关联对象，正在加载的实体类型不会再次加载（避免互相引用的实体无限加载）</p>
+ *
+ * @author: EmperorWS
+ * @date: 2023/8/23 10:40
+ * @description: BatchAssociationLoader: 分批加载关联对象、集合
+ */
+public class BatchAssociationLoader {
+
+    /**
+     * 当前线程正在分批加载关联对象的实体类型
+     */
+    private static final ThreadLocal<Set<Class<?>>> LOADING_TYPES = ThreadLocal.withInitial(HashSet::new);
+
+    private final Configuration configuration;
+
+    private final Executor executor;
+
+    public BatchAssociationLoader(Configuration configuration, Executor executor) {
+        this.configuration = configuration;
+        this.executor = executor;
+    }
+
+    /**
+     * 分批加载结果对象的所有{@link FetchType#BATCH}关联对象、集合
+     *
+     * @param resultMap   结果对象的ResultMap
+     * @param resultItems 结果对象列表
+     * @throws SQLException 异常
+     */
+    public void load(ResultMap resultMap, List<?> resultItems) throws SQLException {
+        if (resultItems.isEmpty() || !resultMap.hasBatchResultMappings()) {
+            return;
+        }
+        if (executor == null) {
+            throw new OrmException("Batch loading of " + resultMap.getId() + " requires an executor.");
+        }
+        final Class<?> resultType = resultMap.getType();
+        final TableModelInfo tableInfo = TableModelInfoHelper.getTableInfo(resultType);
+        if (tableInfo == null) {
+            throw new OrmException("Batch loading requires " + resultType + " to be annotated with @AnnModel.Table.");
+        }
+        final Set<Class<?>> loadingTypes = LOADING_TYPES.get();
+        if (!loadingTypes.add(resultType)) {
+            return;
+        }
+        try {
+            for (ResultMapping resultMapping : resultMap.getBatchResultMappings()) {
+                if (!loadingTypes.contains(resultMapping.getNestedResultType())) {
+                    load(tableInfo, resultMapping, resultItems);
+                }
+            }
+        } finally {
+            loadingTypes.remove(resultType);
+            if (loadingTypes.isEmpty()) {
+                LOADING_TYPES.remove();
+            }
+        }
+    }
+
+    private void load(TableModelInfo tableInfo, ResultMapping resultMapping, List<?> resultItems) throws SQLException {
+        final AssociationQuery associationQuery = new AssociationQuery(configuration, tableInfo, resultMapping);
+        //关联key-->结果对象列表
+        final Map<Object, List<Object>> resultItemsByKey = new LinkedHashMap<>();
+        for (Object resultItem : resultItems) {
+            if (resultItem == null) {
+                continue;
+            }
+            if (resultMapping.isCollection()) {
+                //没有集合元素时，也返回空集合
+                associationQuery.setValue(resultItem, associationQuery.newCollection());
+            }
+            Object key = associationQuery.getKey(resultItem);
+            if (key != null) {
+                resultItemsByKey.computeIfAbsent(key, k -> new ArrayList<>(1)).add(resultItem);
+            }
+        }
+        if (resultItemsByKey.isEmpty()) {
+            return;
+        }
+        final List<Object> keys = new ArrayList<>(resultItemsByKey.keySet());
+        final int batchLoadSize = configuration.getBatchLoadSize();
+        for (int from = 0; from < keys.size(); from += batchLoadSize) {
+            List<Object> nestedItems = associationQuery.query(executor, keys.subList(from, Math.min(from + batchLoadSize, keys.size())));
+            for (Object nestedItem : nestedItems) {
+                List<Object> owners = resultItemsByKey.get(associationQuery.getNestedKey(nestedItem));
+                if (owners == null) {
+                    continue;
+                }
+                for (Object owner : owners) {
+                    if (resultMapping.isCollection()) {
+                        @SuppressWarnings("unchecked")
+                        Collection<Object> collection = (Collection<Object>) associationQuery.getValue(owner);
+                        collection.add(nestedItem);
+                    } else {
+                        associationQuery.setValue(owner, nestedItem);
+                    }
+                }
+            }
+        }
+    }
+}
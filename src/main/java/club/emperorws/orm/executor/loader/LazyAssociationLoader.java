@@ -0,0 +1,213 @@
+package club.emperorws.orm.executor.loader;
+
+import club.emperorws.orm.Configuration;
+import club.emperorws.orm.exception.OrmException;
+import club.emperorws.orm.executor.Executor;
+import club.emperorws.orm.mapping.Environment;
+import club.emperorws.orm.mapping.FetchType;
+import club.emperorws.orm.mapping.ResultMap;
+import club.emperorws.orm.mapping.ResultMapping;
+import club.emperorws.orm.metadata.TableModelInfo;
+import club.emperorws.orm.metadata.TableModelInfoHelper;
+import club.emperorws.orm.session.ExecutorType;
+import club.emperorws.orm.transaction.Transaction;
+import club.emperorws.orm.util.ExceptionUtil;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.SQLException;
+import java.util.*;
+
+/**
+ * 延迟加载关联对象、集合（{@link FetchType#LAZY}）
+ * <p>结果对象映射完成后，延迟加载属性设置为代理对象（JDK动态代理，实现属性的接口类型和{@link LazyLoadingProxy}），
+ * 第一次调用代理的方法时才按key查询（见{@link AssociationQuery}），加载后属性替换为真实对象</p>
+ * <p>属性类型必须是接口（如List），实体类属性无法创建代理，在{@link ResultMap.Builder#build()}时拒绝（请使用{@link FetchType#BATCH}）</p>
+ * <p>查询复用原查询的{@link Executor}；它已关闭时，按{@link Configuration#isLazyLoadingWithNewSession()}使用新的事务加载或抛出异常</p>
+ *
+ * @author: EmperorWS
+ * @date: 2023/8/24 10:20
+ * @description: LazyAssociationLoader: 延迟加载关联对象、集合
+ */
+public class LazyAssociationLoader {
+
+    private final Configuration configuration;
+
+    private final Executor executor;
+
+    /**
+     * 延迟加载属性的查询（同一个结果集的所有对象共用）
+     */
+    private final Map<ResultMapping, AssociationQuery> associationQueries = new HashMap<>();
+
+    public LazyAssociationLoader(Configuration configuration, Executor executor) {
+        this.configuration = configuration;
+        this.executor = executor;
+    }
+
+    /**
+     * 给结果对象的所有{@link FetchType#LAZY}属性设置延迟加载的代理对象
+     *
+     * @param resultMap 结果对象的ResultMap
+     * @param rowValue  结果对象
+     * @throws SQLException 异常
+     */
+    public void install(ResultMap resultMap, Object rowValue) throws SQLException {
+        if (rowValue == null || !resultMap.hasLazyResultMappings()) {
+            return;
+        }
+        final TableModelInfo tableInfo = TableModelInfoHelper.getTableInfo(resultMap.getType());
+        if (tableInfo == null) {
+            throw new OrmException("Lazy loading requires " + resultMap.getType() + " to be annotated with @AnnModel.Table.");
+        }
+        final LazyLoadGroup group = configuration.isAggressiveLazyLoading() ? new LazyLoadGroup() : null;
+        for (ResultMapping resultMapping : resultMap.getLazyResultMappings()) {
+            final AssociationQuery associationQuery = associationQueries.computeIfAbsent(resultMapping,
+                    key -> new AssociationQuery(configuration, tableInfo, key));
+            final Object key = associationQuery.getKey(rowValue);
+            if (key == null) {
+                //没有关联key：集合为空集合，关联对象为null
+                if (resultMapping.isCollection()) {
+                    associationQuery.setValue(rowValue, associationQuery.newCollection());
+                }
+                continue;
+            }
+            final Class<?> propertyType = resultMapping.getJavaType();
+            final LazyProperty lazyProperty = new LazyProperty(this, associationQuery, rowValue, key);
+            if (group != null) {
+                group.properties.add(lazyProperty);
+                lazyProperty.group = group;
+            }
+            associationQuery.setValue(rowValue, Proxy.newProxyInstance(rowValue.getClass().getClassLoader(),
+                    new Class<?>[]{propertyType, LazyLoadingProxy.class}, lazyProperty));
+        }
+    }
+
+    /**
+     * 按key查询关联对象、集合
+     */
+    private List<Object> query(AssociationQuery associationQuery, Object key) throws SQLException {
+        final List<Object> keys = Collections.singletonList(key);
+        if (executor != null && !executor.isClosed()) {
+            return associationQuery.query(executor, keys);
+        }
+        if (!configuration.isLazyLoadingWithNewSession()) {
+            throw new OrmException("Could not lazy load property '" + associationQuery.getResultMapping().getProperty()
+                    + "', because the SqlSession was closed. Access it before closing the session, or enable lazyLoadingWithNewSession.");
+        }
+        //原SqlSession已关闭：使用新的事务（连接）加载，加载后立即关闭
+        final Environment environment = configuration.getEnvironment();
+        final Transaction tx = environment.getTransactionFactory().newTransaction(environment.getDataSource(), null, false);
+        final Executor newExecutor = configuration.newExecutor(tx, ExecutorType.SIMPLE);
+        try {
+            return associationQuery.query(newExecutor, keys);
+        } finally {
+            newExecutor.close(false);
+        }
+    }
+
+    /****************************************************inner class****************************************************/
+
+    /**
+     * 一个对象的所有延迟加载属性（aggressiveLazyLoading时，访问任意一个属性都会加载全部）
+     */
+    private static class LazyLoadGroup {
+
+        private final List<LazyProperty> properties = new ArrayList<>();
+
+        private void loadAll() throws SQLException {
+            for (LazyProperty property : properties) {
+                property.load();
+            }
+        }
+    }
+
+    /**
+     * 一个对象的一个延迟加载属性，同时是属性代理对象的InvocationHandler
+     */
+    private static class LazyProperty implements InvocationHandler {
+
+        private final LazyAssociationLoader loader;
+
+        private final AssociationQuery associationQuery;
+
+        private final Object owner;
+
+        private final Object key;
+
+        private LazyLoadGroup group;
+
+        /**
+         * 已加载的真实对象
+         */
+        private volatile Object target;
+
+        private volatile boolean loaded;
+
+        private LazyProperty(LazyAssociationLoader loader, AssociationQuery associationQuery, Object owner, Object key) {
+            this.loader = loader;
+            this.associationQuery = associationQuery;
+            this.owner = owner;
+            this.key = key;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            final String methodName = method.getName();
+            if (LazyLoadingProxy.class.equals(method.getDeclaringClass())) {
+                //序列化、加载状态不触发加载
+                return "writeReplace".equals(methodName) ? target : loaded;
+            }
+            if (!loaded) {
+                if (group != null) {
+                    group.loadAll();
+                } else {
+                    load();
+                }
+            }
+            if (target == null) {
+                //一对一关联对象不存在
+                if ("equals".equals(methodName) && args != null && args.length == 1) {
+                    return proxy == args[0];
+                }
+                if ("hashCode".equals(methodName) && args == null) {
+                    return System.identityHashCode(proxy);
+                }
+                if ("toString".equals(methodName) && args == null) {
+                    return "null";
+                }
+                throw new NullPointerException("Lazy loaded property '" + associationQuery.getResultMapping().getProperty() + "' is null");
+            }
+            try {
+                return method.invoke(target, args);
+            } catch (Throwable t) {
+                throw ExceptionUtil.unwrapThrowable(t);
+            }
+        }
+
+        /**
+         * 加载属性，并把属性替换为真实对象
+         */
+        private synchronized void load() throws SQLException {
+            if (loaded) {
+                return;
+            }
+            final List<Object> nestedItems = loader.query(associationQuery, key);
+            final Object value;
+            if (associationQuery.getResultMapping().isCollection()) {
+                Collection<Object> collection = associationQuery.newCollection();
+                collection.addAll(nestedItems);
+                value = collection;
+            } else if (nestedItems.size() > 1) {
+                throw new OrmException("Expected one result for property '" + associationQuery.getResultMapping().getProperty()
+                        + "' with key '" + key + "', but found: " + nestedItems.size());
+            } else {
+                value = nestedItems.isEmpty() ? null : nestedItems.get(0);
+            }
+            associationQuery.setValue(owner, value);
+            target = value;
+            loaded = true;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package club.emperorws.orm.executor.loader;
+
+import java.io.Serializable;
+
+/**
+ * 延迟加载属性的代理对象实现的接口（{@link club.emperorws.orm.mapping.FetchType#LAZY}）
+ * <p>序列化时代理对象替换为已加载的真实对象，未加载时替换为null，序列化本身不会触发加载</p>
+ *
+ * @author: EmperorWS
+ * @date: 2023/8/24 10:05
+ * @description: LazyLoadingProxy: 延迟加载属性的代理对象实现的接口
+ */
+public interface LazyLoadingProxy extends Serializable {
+
+    /**
+     * 序列化时的替换对象
+     *
+     * @return 已加载的真实对象，未加载时返回null
+     */
+    Object writeReplace();
+
+    /**
+     * 是否已加载
+     *
+     * @return 是否已加载
+     */
+    boolean isLoaded();
+}
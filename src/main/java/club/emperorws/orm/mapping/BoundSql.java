@@ -43,6 +43,11 @@ public class BoundSql {
      */
     private final MetaObject metaParameters;
 
+    /**
+     * 集合参数超过拆分大小时，拆分后的所有SQL（包括当前SQL），需要分别执行后合并结果；不需要拆分时为null
+     */
+    private List<BoundSql> chunks;
+
     public BoundSql(Configuration configuration, String sql, List<ParameterMapping> parameterMappings, Object parameterObject) {
         this.sql = sql;
         this.parameterMappings = parameterMappings;
@@ -51,6 +56,20 @@ public class BoundSql {
         this.metaParameters = configuration.newMetaObject(additionalParameters);
     }
 
+    /**
+     * 复制一个新的BoundSql：替换SQL、参数映射，请求参数、额外参数不变（如分页改写SQL）
+     *
+     * @param configuration     全局配置单例
+     * @param sql               新的SQL
+     * @param parameterMappings 新的参数映射
+     * @return 新的BoundSql
+     */
+    public BoundSql copy(Configuration configuration, String sql, List<ParameterMapping> parameterMappings) {
+        BoundSql boundSql = new BoundSql(configuration, sql, parameterMappings, parameterObject);
+        boundSql.additionalParameters.putAll(additionalParameters);
+        return boundSql;
+    }
+
     public String getSql() {
         return sql;
     }
@@ -75,4 +94,16 @@ public class BoundSql {
     public Object getAdditionalParameter(String name) {
         return metaParameters.getValue(name);
     }
+
+    public Map<String, Object> getAdditionalParameters() {
+        return additionalParameters;
+    }
+
+    public List<BoundSql> getChunks() {
+        return chunks;
+    }
+
+    public void setChunks(List<BoundSql> chunks) {
+        this.chunks = chunks;
+    }
 }
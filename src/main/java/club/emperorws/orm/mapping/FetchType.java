@@ -0,0 +1,27 @@
+package club.emperorws.orm.mapping;
+
+/**
+ * 关联对象、集合的加载方式
+ *
+ * @author: EmperorWS
+ * @date: 2023/8/23 10:20
+ * @description: FetchType: 关联对象、集合的加载方式
+ */
+public enum FetchType {
+
+    /**
+     * JOIN查询：关联对象的列与当前对象的列在同一个结果集中，按列前缀映射
+     */
+    JOIN,
+
+    /**
+     * 分批查询：当前查询的结果映射完成后，所有结果的关联对象按WHERE key IN (...)分批查询（每批一条SQL），再按key回填
+     */
+    BATCH,
+
+    /**
+     * 延迟加载：属性先设置为代理对象，第一次访问代理时才按key查询（见{@link club.emperorws.orm.Configuration#isAggressiveLazyLoading()}）
+     * <p>代理对象由JDK动态代理创建，属性类型必须是接口（如List），否则构建ResultMap时抛出异常</p>
+     */
+    LAZY
+}
@@ -0,0 +1,96 @@
+package club.emperorws.orm.mapping;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 键集（seek）分页：按排序列上一页最后一条记录的值定位下一页，WHERE (k1, k2) &gt; (?, ?) ORDER BY k1, k2
+ * <p>与offset分页不同，深分页时不需要扫描、跳过前面的记录；排序列的组合必须唯一（一般以主键结尾）</p>
+ * <p>排序列是原SQL结果集中的列名（或别名），原SQL作为子查询：SELECT * FROM (原SQL) WHERE ... ORDER BY ...</p>
+ *
+ * @author: EmperorWS
+ * @date: 2023/8/25 11:00
+ * @description: KeysetRowBounds: 键集分页
+ */
+public class KeysetRowBounds extends RowBounds {
+
+    /**
+     * 排序列
+     */
+    private final List<String> keyColumns;
+
+    /**
+     * 上一页最后一条记录的排序列的值，第一页为null
+     */
+    private final List<Object> lastKeys;
+
+    /**
+     * 是否倒序
+     */
+    private final boolean descending;
+
+    private KeysetRowBounds(List<String> keyColumns, List<Object> lastKeys, int limit, boolean descending) {
+        super(NO_ROW_OFFSET, limit);
+        this.keyColumns = keyColumns;
+        this.lastKeys = lastKeys;
+        this.descending = descending;
+    }
+
+    /**
+     * 第一页（升序）
+     *
+     * @param limit      每页记录数
+     * @param keyColumns 排序列
+     * @return 第一页的分页信息
+     */
+    public static KeysetRowBounds first(int limit, String... keyColumns) {
+        if (keyColumns == null || keyColumns.length == 0) {
+            throw new IllegalArgumentException("Keyset pagination requires at least one key column");
+        }
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Keyset pagination limit must be positive, but was " + limit);
+        }
+        return new KeysetRowBounds(Collections.unmodifiableList(Arrays.asList(keyColumns.clone())), null, limit, false);
+    }
+
+    /**
+     * 倒序
+     *
+     * @return 倒序的分页信息
+     */
+    public KeysetRowBounds descending() {
+        return new KeysetRowBounds(keyColumns, lastKeys, getLimit(), true);
+    }
+
+    /**
+     * 下一页
+     *
+     * @param lastKeys 上一页最后一条记录的排序列的值（与排序列一一对应，不能为null）
+     * @return 下一页的分页信息
+     */
+    public KeysetRowBounds after(Object... lastKeys) {
+        if (lastKeys == null || lastKeys.length != keyColumns.size()) {
+            throw new IllegalArgumentException("Expected " + keyColumns.size() + " key values for " + keyColumns
+                    + ", but got " + (lastKeys == null ? 0 : lastKeys.length));
+        }
+        for (Object lastKey : lastKeys) {
+            if (lastKey == null) {
+                throw new IllegalArgumentException("Keyset pagination does not support null key values");
+            }
+        }
+        return new KeysetRowBounds(keyColumns, Collections.unmodifiableList(Arrays.asList(lastKeys.clone())), getLimit(), descending);
+    }
+
+    public List<String> getKeyColumns() {
+        return keyColumns;
+    }
+
+    public List<Object> getLastKeys() {
+        return lastKeys;
+    }
+
+    public boolean isDescending() {
+        return descending;
+    }
+}
@@ -1,8 +1,10 @@
 package club.emperorws.orm.mapping;
 
 import club.emperorws.orm.Configuration;
+import club.emperorws.orm.cache.Cache;
 import club.emperorws.orm.logging.Log;
 import club.emperorws.orm.logging.LogFactory;
+import club.emperorws.orm.util.SqlTableUtil;
 
 /**
  * 一条sql语句的装载体，包括其相关信息
@@ -58,6 +60,21 @@ public class MappedStatement {
      */
     private SqlSource sqlSource;
 
+    /**
+     * 查询结果缓存（二级缓存），null表示不缓存
+     */
+    private Cache cache;
+
+    /**
+     * 查询结果缓存额外依赖的表（统一格式后的表名）
+     */
+    private String[] cacheTables = new String[0];
+
+    /**
+     * 写入语句的目标表（统一格式后的表名），查询语句、无法识别时为null
+     */
+    private String writeTable;
+
     public static class Builder {
         private MappedStatement mappedStatement = new MappedStatement();
 
@@ -68,8 +85,10 @@ public class MappedStatement {
             mappedStatement.statementType = StatementType.PREPARED;
             mappedStatement.resultSetType = ResultSetType.DEFAULT;
             mappedStatement.sqlCommandType = sqlCommandType;
-            mappedStatement.resource = sqlSource.getMapperInterface().getName() + "." + sqlSource.getMethod().getName();
-            mappedStatement.statementLog = LogFactory.getLog(mappedStatement.resource);
+            if (sqlSource.getMapperInterface() != null) {
+                mappedStatement.resource = sqlSource.getMapperInterface().getName() + "." + sqlSource.getMethod().getName();
+                mappedStatement.statementLog = LogFactory.getLog(mappedStatement.resource);
+            }
         }
 
         public Builder id(String id) {
@@ -107,10 +126,28 @@ public class MappedStatement {
             return this;
         }
 
+        public Builder cache(Cache cache) {
+            mappedStatement.cache = cache;
+            return this;
+        }
+
+        public Builder cacheTables(String[] cacheTables) {
+            mappedStatement.cacheTables = cacheTables == null ? new String[0] : cacheTables;
+            return this;
+        }
+
         public MappedStatement build() {
             assert mappedStatement.configuration != null;
             assert mappedStatement.id != null;
             assert mappedStatement.sqlSource != null;
+            if (mappedStatement.statementLog == null) {
+                //框架内部构建的MappedStatement（没有Mapper方法），如分批加载关联对象的查询
+                mappedStatement.statementLog = LogFactory.getLog(mappedStatement.resource != null ? mappedStatement.resource : mappedStatement.id);
+            }
+            if (mappedStatement.sqlCommandType != SqlCommandType.SELECT) {
+                //写入的目标表只取决于SQL语句本身，构建时解析一次
+                mappedStatement.writeTable = SqlTableUtil.getStaticWriteTable(mappedStatement.sqlSource.getDynamicSql());
+            }
             return mappedStatement;
         }
     }
@@ -155,6 +192,18 @@ public class MappedStatement {
         return statementLog;
     }
 
+    public Cache getCache() {
+        return cache;
+    }
+
+    public String[] getCacheTables() {
+        return cacheTables;
+    }
+
+    public String getWriteTable() {
+        return writeTable;
+    }
+
     /**
      * 获取SQL语句装载体
      *
@@ -36,6 +36,16 @@ public class ParameterMapping {
      */
     private TypeHandler<?> typeHandler;
 
+    /**
+     * 是否是集合参数：#{ids,collection}，执行时展开为IN (?, ?, ...)，javaType、typeHandler是集合元素的
+     */
+    private boolean collection;
+
+    /**
+     * 集合参数展开后，当前参数是集合的第几个元素（从0开始），不是集合元素时为-1
+     */
+    private int elementIndex = -1;
+
     private ParameterMapping() {
     }
 
@@ -69,6 +79,16 @@ public class ParameterMapping {
             return this;
         }
 
+        public Builder collection(boolean collection) {
+            parameterMapping.collection = collection;
+            return this;
+        }
+
+        public Builder elementIndex(int elementIndex) {
+            parameterMapping.elementIndex = elementIndex;
+            return this;
+        }
+
         public ParameterMapping build() {
             resolveTypeHandler();
             validate();
@@ -108,6 +128,14 @@ public class ParameterMapping {
         return typeHandler;
     }
 
+    public boolean isCollection() {
+        return collection;
+    }
+
+    public int getElementIndex() {
+        return elementIndex;
+    }
+
     @Override
     public String toString() {
         final StringBuilder sb = new StringBuilder("ParameterMapping{");
@@ -115,6 +143,12 @@ public class ParameterMapping {
         sb.append("property='").append(property).append('\'');
         sb.append(", javaType=").append(javaType);
         sb.append(", jdbcType=").append(jdbcType);
+        if (collection) {
+            sb.append(", collection=true");
+        }
+        if (elementIndex >= 0) {
+            sb.append(", elementIndex=").append(elementIndex);
+        }
         //sb.append(", typeHandler=").append(typeHandler); // typeHandler also doesn't have a useful .toString()
         sb.append('}');
         return sb.toString();
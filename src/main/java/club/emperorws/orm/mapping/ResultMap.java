@@ -42,6 +42,26 @@ public class ResultMap {
      */
     private Boolean autoMapping;
 
+    /**
+     * 主键列名（JOIN查询时按主键去重，见{@link #hasNestedResultMaps()}）
+     */
+    private String idColumn;
+
+    /**
+     * JOIN查询的嵌套结果映射集合（一对一关联、一对多集合）
+     */
+    private List<ResultMapping> nestedResultMappings;
+
+    /**
+     * 分批查询的嵌套结果映射集合（{@link FetchType#BATCH}）
+     */
+    private List<ResultMapping> batchResultMappings;
+
+    /**
+     * 延迟加载的嵌套结果映射集合（{@link FetchType#LAZY}）
+     */
+    private List<ResultMapping> lazyResultMappings;
+
     private ResultMap() {
     }
 
@@ -70,6 +90,11 @@ public class ResultMap {
             resultMap.autoMapping = autoMapping;
         }
 
+        public Builder idColumn(String idColumn) {
+            resultMap.idColumn = idColumn;
+            return this;
+        }
+
         public Class<?> type() {
             return resultMap.type;
         }
@@ -80,9 +105,26 @@ public class ResultMap {
             }
             resultMap.mappedColumns = new HashSet<>();
             resultMap.mappedProperties = new HashSet<>();
+            resultMap.nestedResultMappings = new ArrayList<>();
+            resultMap.batchResultMappings = new ArrayList<>();
+            resultMap.lazyResultMappings = new ArrayList<>();
             for (ResultMapping resultMapping : resultMap.resultMappings) {
                 final String column = resultMapping.getColumn();
-                if (column != null) {
+                if (resultMapping.isNested()) {
+                    //嵌套结果映射的列属于关联关系，不是当前对象的属性列
+                    if (FetchType.BATCH == resultMapping.getFetchType()) {
+                        resultMap.batchResultMappings.add(resultMapping);
+                    } else if (FetchType.LAZY == resultMapping.getFetchType()) {
+                        //延迟加载使用JDK动态代理，只能代理接口类型的属性（实体类属性请使用BATCH）
+                        if (!resultMapping.getJavaType().isInterface()) {
+                            throw new IllegalStateException("Lazy loading requires an interface type, but property '" + resultMapping.getProperty()
+                                    + "' of " + resultMap.type + " is " + resultMapping.getJavaType().getName() + ". Use FetchType.BATCH instead.");
+                        }
+                        resultMap.lazyResultMappings.add(resultMapping);
+                    } else {
+                        resultMap.nestedResultMappings.add(resultMapping);
+                    }
+                } else if (column != null) {
                     resultMap.mappedColumns.add(column.toUpperCase(Locale.ENGLISH));
                 }
                 final String property = resultMapping.getProperty();
@@ -121,4 +163,47 @@ public class ResultMap {
     public Boolean getAutoMapping() {
         return autoMapping;
     }
+
+    public String getIdColumn() {
+        return idColumn;
+    }
+
+    public List<ResultMapping> getNestedResultMappings() {
+        return nestedResultMappings;
+    }
+
+    public List<ResultMapping> getBatchResultMappings() {
+        return batchResultMappings;
+    }
+
+    public List<ResultMapping> getLazyResultMappings() {
+        return lazyResultMappings;
+    }
+
+    /**
+     * 是否有JOIN查询的嵌套结果映射（一对一关联、一对多集合）
+     *
+     * @return 是否有嵌套结果映射
+     */
+    public boolean hasNestedResultMaps() {
+        return !nestedResultMappings.isEmpty();
+    }
+
+    /**
+     * 是否有分批查询的嵌套结果映射
+     *
+     * @return 是否有分批查询的嵌套结果映射
+     */
+    public boolean hasBatchResultMappings() {
+        return !batchResultMappings.isEmpty();
+    }
+
+    /**
+     * 是否有延迟加载的嵌套结果映射
+     *
+     * @return 是否有延迟加载的嵌套结果映射
+     */
+    public boolean hasLazyResultMappings() {
+        return !lazyResultMappings.isEmpty();
+    }
 }
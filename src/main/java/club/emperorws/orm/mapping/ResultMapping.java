@@ -5,6 +5,8 @@ import club.emperorws.orm.type.JdbcType;
 import club.emperorws.orm.type.TypeHandler;
 import club.emperorws.orm.type.TypeHandlerRegistry;
 
+import java.util.Collection;
+
 /**
  * 返回结果列的类型
  *
@@ -32,6 +34,26 @@ public class ResultMapping {
 
     private TypeHandler<?> typeHandler;
 
+    /**
+     * 嵌套结果的实体类型（一对一关联为关联对象的类型，一对多集合为集合元素的类型），为null时是普通的列映射
+     */
+    private Class<?> nestedResultType;
+
+    /**
+     * 嵌套结果的列在结果集中的前缀
+     */
+    private String columnPrefix;
+
+    /**
+     * 嵌套结果对应的表中关联的列名
+     */
+    private String foreignColumn;
+
+    /**
+     * 嵌套结果的加载方式
+     */
+    private FetchType fetchType = FetchType.JOIN;
+
     ResultMapping() {
     }
 
@@ -75,6 +97,26 @@ public class ResultMapping {
             return this;
         }
 
+        public Builder nestedResultType(Class<?> nestedResultType) {
+            resultMapping.nestedResultType = nestedResultType;
+            return this;
+        }
+
+        public Builder columnPrefix(String columnPrefix) {
+            resultMapping.columnPrefix = columnPrefix;
+            return this;
+        }
+
+        public Builder foreignColumn(String foreignColumn) {
+            resultMapping.foreignColumn = foreignColumn;
+            return this;
+        }
+
+        public Builder fetchType(FetchType fetchType) {
+            resultMapping.fetchType = fetchType == null ? FetchType.JOIN : fetchType;
+            return this;
+        }
+
         public ResultMapping build() {
             //获取typeHandler
             resolveTypeHandler();
@@ -84,6 +126,17 @@ public class ResultMapping {
         }
 
         private void validate() {
+            if (resultMapping.nestedResultType != null) {
+                //嵌套结果映射：不需要typeHandler，列可选
+                if (resultMapping.javaType == null) {
+                    throw new IllegalStateException("Nested result mapping is missing javaType attribute for property " + resultMapping.property);
+                }
+                //JOIN查询：没有列前缀时，当前对象的列也会被映射为嵌套对象
+                if (FetchType.JOIN == resultMapping.fetchType && (resultMapping.columnPrefix == null || resultMapping.columnPrefix.trim().isEmpty())) {
+                    throw new IllegalStateException("Nested result mapping fetched by JOIN is missing columnPrefix attribute for property " + resultMapping.property);
+                }
+                return;
+            }
             if (resultMapping.typeHandler == null) {
                 throw new IllegalStateException("No typehandler found for property " + resultMapping.property);
             }
@@ -93,7 +146,7 @@ public class ResultMapping {
         }
 
         private void resolveTypeHandler() {
-            if (resultMapping.typeHandler == null && resultMapping.javaType != null) {
+            if (resultMapping.typeHandler == null && resultMapping.javaType != null && resultMapping.nestedResultType == null) {
                 Configuration configuration = resultMapping.configuration;
                 TypeHandlerRegistry typeHandlerRegistry = configuration.getTypeHandlerRegistry();
                 resultMapping.typeHandler = typeHandlerRegistry.getTypeHandler(resultMapping.javaType, resultMapping.jdbcType);
@@ -121,6 +174,40 @@ public class ResultMapping {
         return typeHandler;
     }
 
+    public Class<?> getNestedResultType() {
+        return nestedResultType;
+    }
+
+    public String getColumnPrefix() {
+        return columnPrefix;
+    }
+
+    public String getForeignColumn() {
+        return foreignColumn;
+    }
+
+    public FetchType getFetchType() {
+        return fetchType;
+    }
+
+    /**
+     * 是否是嵌套结果映射（一对一关联、一对多集合）
+     *
+     * @return 是否是嵌套结果映射
+     */
+    public boolean isNested() {
+        return nestedResultType != null;
+    }
+
+    /**
+     * 是否是一对多集合映射
+     *
+     * @return 是否是一对多集合映射
+     */
+    public boolean isCollection() {
+        return nestedResultType != null && Collection.class.isAssignableFrom(javaType);
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -154,6 +241,8 @@ public class ResultMapping {
         sb.append(", column='").append(column).append('\'');
         sb.append(", javaType=").append(javaType);
         sb.append(", jdbcType=").append(jdbcType);
+        sb.append(", nestedResultType=").append(nestedResultType);
+        sb.append(", columnPrefix='").append(columnPrefix).append('\'');
         //sb.append(", typeHandler=").append(typeHandler); // typeHandler also doesn't have a useful .toString()
         sb.append('}');
         return sb.toString();
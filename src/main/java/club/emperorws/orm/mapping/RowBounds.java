@@ -1,11 +1,12 @@
 package club.emperorws.orm.mapping;
 
 /**
- * 内存分页（我认为可有可无）
+ * 分页信息
+ * <p>有数据库方言时改写为SQL分页（见{@link club.emperorws.orm.dialect.PaginationRewriter}），否则内存分页（跳过offset条记录）</p>
  *
  * @author: EmperorWS
  * @date: 2023/4/28 15:27
- * @description: RowBounds: 内存分页（我认为可有可无）
+ * @description: RowBounds: 分页信息
  */
 public class RowBounds {
 
@@ -2,8 +2,6 @@ package club.emperorws.orm.mapping;
 
 import club.emperorws.orm.Configuration;
 import club.emperorws.orm.bingding.MapperMethod;
-import club.emperorws.orm.parsing.DynamicContext;
-import club.emperorws.orm.parsing.DynamicSqlParser;
 
 import java.lang.reflect.Method;
 import java.nio.charset.StandardCharsets;
@@ -11,6 +9,7 @@ import java.util.UUID;
 
 /**
  * 保存最原始的sql语句对象
+ * <p>不可变对象，可以在多线程之间共享；Mapper方法执行时会生成一个新的、带有MappedStatement id的SqlSource（见{@link MapperMethod}），不会修改调用方传入的SqlSource</p>
  *
  * @author: EmperorWS
  * @date: 2023/4/28 13:57
@@ -21,77 +20,102 @@ public class SqlSource {
     /**
      * 原动态sql
      */
-    private String dynamicSql;
+    private final String dynamicSql;
 
     /**
      * SQL执行的类型（主要用于透传）
      */
-    private SqlCommandType sqlCommandType;
+    private final SqlCommandType sqlCommandType;
 
     /**
      * 执行的mapper类型（主要用于透传）
      */
-    private Class<?> mapperInterface;
+    private final Class<?> mapperInterface;
 
     /**
      * 执行的方法（主要用于透传）
      */
-    private Method method;
+    private final Method method;
 
     /**
      * 返回值类型，可能是别名，可能是class名称（主要用于透传）
      */
-    private String resultType;
+    private final String resultType;
 
     /**
      * MappedStatement的唯一标识符id
      */
-    private String mappedStatementId;
+    private final String mappedStatementId;
+
+    private SqlSource(Builder builder) {
+        this.dynamicSql = builder.dynamicSql;
+        this.sqlCommandType = builder.sqlCommandType;
+        this.mapperInterface = builder.mapperInterface;
+        this.method = builder.method;
+        this.resultType = builder.resultType;
+        this.mappedStatementId = builder.mappedStatementId;
+    }
 
     public static class Builder {
 
-        private SqlSource sqlSource = new SqlSource();
+        private final String dynamicSql;
+        private SqlCommandType sqlCommandType;
+        private Class<?> mapperInterface;
+        private Method method;
+        private String resultType;
+        private String mappedStatementId;
 
         public Builder(String dynamicSql) {
-            sqlSource.dynamicSql = dynamicSql;
+            this.dynamicSql = dynamicSql;
         }
 
+        /**
+         * 根据原SqlSource和Mapper方法的SQL信息，构建一个新的SqlSource（原SqlSource不会被修改）
+         *
+         * @param sqlSource 原SqlSource
+         * @param command   Mapper方法的SQL信息
+         */
         public Builder(SqlSource sqlSource, MapperMethod.SqlCommand command) {
-            this.sqlSource = sqlSource;
-            sqlSource.sqlCommandType = command.getType();
-            sqlSource.mapperInterface = command.getMapperInterface();
-            sqlSource.method = command.getMapperMethod();
-            sqlSource.resultType = command.getAnnotationResultType();
-            sqlSource.mappedStatementId = createId();
+            this.dynamicSql = sqlSource.getDynamicSql();
+            this.sqlCommandType = command.getType();
+            this.mapperInterface = command.getMapperInterface();
+            this.method = command.getMapperMethod();
+            this.resultType = command.getAnnotationResultType();
+            this.mappedStatementId = createId();
         }
 
         public Builder sqlCommandType(SqlCommandType sqlCommandType) {
-            sqlSource.sqlCommandType = sqlCommandType;
+            this.sqlCommandType = sqlCommandType;
             return this;
         }
 
         public Builder mapperInterface(Class<?> mapperInterface) {
-            sqlSource.mapperInterface = mapperInterface;
+            this.mapperInterface = mapperInterface;
             return this;
         }
 
         public Builder method(Method method) {
-            sqlSource.method = method;
+            this.method = method;
+            return this;
+        }
+
+        public Builder resultType(String resultType) {
+            this.resultType = resultType;
             return this;
         }
 
         public String createId() {
-            StringBuilder idBuilder = new StringBuilder(sqlSource.getMapperInterface().getName()).append(".")
-                    .append(sqlSource.getMethod().getName()).append("(");
-            for (Class<?> parameterType : sqlSource.getMethod().getParameterTypes()) {
+            StringBuilder idBuilder = new StringBuilder(mapperInterface.getName()).append(".")
+                    .append(method.getName()).append("(");
+            for (Class<?> parameterType : method.getParameterTypes()) {
                 idBuilder.append(parameterType.getName()).append(",");
             }
-            idBuilder.append(sqlSource.getMethod().getReturnType().getName()).append(")").append(":").append(UUID.nameUUIDFromBytes(sqlSource.getDynamicSql().getBytes(StandardCharsets.UTF_8)));
+            idBuilder.append(method.getReturnType().getName()).append(")").append(":").append(UUID.nameUUIDFromBytes(dynamicSql.getBytes(StandardCharsets.UTF_8)));
             return idBuilder.toString();
         }
 
         public SqlSource build() {
-            return sqlSource;
+            return new SqlSource(this);
         }
     }
 
@@ -127,14 +151,7 @@ public class SqlSource {
      * @return SQL语句装载体
      */
     public BoundSql getBoundSql(Configuration configuration, Object parameterObject) {
-        //准备参数
-        DynamicContext context = new DynamicContext(configuration, parameterObject);
-        DynamicSqlParser sqlParser = new DynamicSqlParser();
-        //开始解析
-        sqlParser.parse(dynamicSql, parameterObject, context);
-        //返回结果
-        BoundSql boundSql = new BoundSql(configuration, sqlParser.getSql(), sqlParser.getParameterMappingList(), parameterObject);
-        context.getBindings().forEach(boundSql::setAdditionalParameter);
-        return boundSql;
+        //预编译的SQL模板（只解析一次），直接填充请求参数
+        return configuration.getSqlTemplate(dynamicSql, parameterObject).getBoundSql(configuration, parameterObject);
     }
 }
@@ -2,9 +2,16 @@ package club.emperorws.orm.metadata;
 
 import club.emperorws.orm.annotations.AnnModel;
 import club.emperorws.orm.Configuration;
+import club.emperorws.orm.exception.OrmException;
 import club.emperorws.orm.mapping.ResultMap;
+import club.emperorws.orm.mapping.ResultMapping;
+import club.emperorws.orm.reflection.TypeParameterResolver;
+import club.emperorws.orm.util.BuilderUtil;
+import club.emperorws.orm.util.StringUtils;
 
 import java.lang.reflect.Field;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -62,6 +69,11 @@ public class TableModelInfo {
      */
     private List<String> propertyList = new ArrayList<>();
 
+    /**
+     * 嵌套结果映射列表（{@link AnnModel.Association}、{@link AnnModel.Collection}）
+     */
+    private List<ResultMapping> nestedResultMappings = new ArrayList<>();
+
     /**
      * 结果集映射关系
      */
@@ -90,11 +102,19 @@ public class TableModelInfo {
         }
 
         public TableModelInfo build() {
-            ResultMap.Builder resultMapBuilder = new ResultMap.Builder(tableModelInfo.configuration, tableModelInfo.entityType.getName(), tableModelInfo.entityType);
+            ResultMap.Builder resultMapBuilder = new ResultMap.Builder(tableModelInfo.configuration, tableModelInfo.entityType.getName(), tableModelInfo.entityType)
+                    .idColumn(tableModelInfo.pkName);
             Class<?> tempClass = tableModelInfo.entityType;
             while (tempClass != null) {
                 Field[] declaredFields = tempClass.getDeclaredFields();
                 for (Field declaredField : declaredFields) {
+                    //一对一关联、一对多集合
+                    ResultMapping nestedResultMapping = buildNestedResultMapping(declaredField);
+                    if (nestedResultMapping != null) {
+                        tableModelInfo.nestedResultMappings.add(nestedResultMapping);
+                        resultMapBuilder.addResultMapping(nestedResultMapping);
+                        continue;
+                    }
                     AnnModel.AnnField annotation = declaredField.getAnnotation(AnnModel.AnnField.class);
                     //跳过没有映射属性的字段
                     if (annotation == null) {
@@ -122,6 +142,62 @@ public class TableModelInfo {
             tableModelInfo.resultMap = resultMapBuilder.build();
             return tableModelInfo;
         }
+
+        /**
+         * 解析{@link AnnModel.Association}、{@link AnnModel.Collection}注解，构建嵌套结果映射
+         * <p>嵌套结果的ResultMap在结果集处理时才解析（关联的实体之间可能互相引用）</p>
+         *
+         * @param field 实体字段
+         * @return 嵌套结果映射，字段没有注解时返回null
+         */
+        private ResultMapping buildNestedResultMapping(Field field) {
+            BuilderUtil builderUtil = tableModelInfo.configuration.getBuilderUtil();
+            AnnModel.Association association = field.getAnnotation(AnnModel.Association.class);
+            if (association != null) {
+                Class<?> javaType = StringUtils.isNotBlank(association.javaType()) ? builderUtil.resolveClass(association.javaType()) : field.getType();
+                return new ResultMapping.Builder(tableModelInfo.configuration, StringUtils.isNotBlank(association.property()) ? association.property() : field.getName())
+                        .javaType(javaType)
+                        .nestedResultType(javaType)
+                        .columnPrefix(association.columnPrefix())
+                        .column(StringUtils.isNotBlank(association.column()) ? association.column() : null)
+                        .foreignColumn(StringUtils.isNotBlank(association.foreignColumn()) ? association.foreignColumn() : null)
+                        .fetchType(association.fetch())
+                        .build();
+            }
+            AnnModel.Collection collection = field.getAnnotation(AnnModel.Collection.class);
+            if (collection != null) {
+                Class<?> ofType = StringUtils.isNotBlank(collection.ofType()) ? builderUtil.resolveClass(collection.ofType()) : resolveElementType(field);
+                return new ResultMapping.Builder(tableModelInfo.configuration, StringUtils.isNotBlank(collection.property()) ? collection.property() : field.getName())
+                        .javaType(field.getType())
+                        .nestedResultType(ofType)
+                        .columnPrefix(collection.columnPrefix())
+                        .column(StringUtils.isNotBlank(collection.column()) ? collection.column() : tableModelInfo.pkName)
+                        .foreignColumn(StringUtils.isNotBlank(collection.foreignColumn()) ? collection.foreignColumn() : null)
+                        .fetchType(collection.fetch())
+                        .build();
+            }
+            return null;
+        }
+
+        /**
+         * 获取集合字段的元素类型（List&lt;Course&gt;-->Course）
+         */
+        private Class<?> resolveElementType(Field field) {
+            if (!java.util.Collection.class.isAssignableFrom(field.getType())) {
+                throw new OrmException("@AnnModel.Collection field '" + field.getName() + "' of " + tableModelInfo.entityType + " must be a java.util.Collection.");
+            }
+            Type fieldType = TypeParameterResolver.resolveFieldType(field, tableModelInfo.entityType);
+            if (fieldType instanceof ParameterizedType) {
+                Type elementType = ((ParameterizedType) fieldType).getActualTypeArguments()[0];
+                if (elementType instanceof Class) {
+                    return (Class<?>) elementType;
+                } else if (elementType instanceof ParameterizedType) {
+                    return (Class<?>) ((ParameterizedType) elementType).getRawType();
+                }
+            }
+            throw new OrmException("Could not resolve the element type of @AnnModel.Collection field '" + field.getName() + "' of "
+                    + tableModelInfo.entityType + ", please specify ofType.");
+        }
     }
 
     public Configuration getConfiguration() {
@@ -164,6 +240,10 @@ public class TableModelInfo {
         return propertyList;
     }
 
+    public List<ResultMapping> getNestedResultMappings() {
+        return nestedResultMappings;
+    }
+
     public ResultMap getResultMap() {
         return resultMap;
     }
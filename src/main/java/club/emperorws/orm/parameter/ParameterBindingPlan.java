@@ -0,0 +1,282 @@
+package club.emperorws.orm.parameter;
+
+import club.emperorws.orm.Configuration;
+import club.emperorws.orm.bingding.MapperMethod.ParamMap;
+import club.emperorws.orm.bingding.MapperMethod.ParamShape;
+import club.emperorws.orm.exception.OrmException;
+import club.emperorws.orm.mapping.BoundSql;
+import club.emperorws.orm.mapping.ParameterMapping;
+import club.emperorws.orm.reflection.invoker.Invoker;
+import club.emperorws.orm.reflection.property.PropertyTokenizer;
+import club.emperorws.orm.reflection.wrapper.DefaultObjectWrapperFactory;
+import club.emperorws.orm.reflection.wrapper.ObjectWrapper;
+import club.emperorws.orm.type.JdbcType;
+import club.emperorws.orm.type.TypeHandler;
+import club.emperorws.orm.util.ExceptionUtil;
+
+import java.sql.PreparedStatement;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 请求参数的绑定计划：按（参数映射列表，请求参数类型）预先解析好每个?的取值方式、TypeHandler、JdbcType
+ * <p>绑定N个参数只需要N次取值、N次setXxx，不再为每个参数解析属性路径、创建MetaObject、查找TypeHandler</p>
+ * <p>额外参数（_parameter、分页参数等）由SQL模板、分页改写决定，同一个参数映射列表的额外参数名称是固定的，编译时即可确定取值来源</p>
+ * <p>缓存见{@link Configuration#getParameterBindingPlan(BoundSql, Object)}</p>
+ *
+ * @author: EmperorWS
+ * @date: 2023/8/27 10:20
+ * @description: ParameterBindingPlan: 请求参数的绑定计划
+ */
+public final class ParameterBindingPlan {
+
+    private final Configuration configuration;
+
+    private final ParameterMapping[] parameterMappings;
+
+    /**
+     * 每个参数的取值方式
+     */
+    private final ValueReader[] valueReaders;
+
+    /**
+     * 每个参数的类型处理器
+     */
+    private final TypeHandler<?>[] typeHandlers;
+
+    /**
+     * 每个参数声明的JDBC类型
+     */
+    private final JdbcType[] jdbcTypes;
+
+    /**
+     * 编译绑定计划
+     *
+     * @param configuration   全局配置单例
+     * @param boundSql        sql语句对象（用于确定哪些参数取自额外参数）
+     * @param parameterObject 请求参数
+     */
+    public ParameterBindingPlan(Configuration configuration, BoundSql boundSql, Object parameterObject) {
+        this.configuration = configuration;
+        List<ParameterMapping> mappings = boundSql.getParameterMappings();
+        int size = mappings == null ? 0 : mappings.size();
+        this.parameterMappings = new ParameterMapping[size];
+        this.valueReaders = new ValueReader[size];
+        this.typeHandlers = new TypeHandler<?>[size];
+        this.jdbcTypes = new JdbcType[size];
+        //自定义ObjectWrapperFactory时，对象的取值方式由工厂决定，只能交给MetaObject
+        boolean directAccess = configuration.getObjectWrapperFactory() instanceof DefaultObjectWrapperFactory;
+        for (int i = 0; i < size; i++) {
+            ParameterMapping parameterMapping = mappings.get(i);
+            parameterMappings[i] = parameterMapping;
+            valueReaders[i] = parameterMapping.getElementIndex() >= 0 ? compileElementReader(parameterMapping)
+                    : compileValueReader(parameterMapping.getProperty(), boundSql, parameterObject, directAccess);
+            typeHandlers[i] = parameterMapping.getTypeHandler();
+            jdbcTypes[i] = parameterMapping.getJdbcType();
+        }
+    }
+
+    /**
+     * 解析一个参数的取值方式（与原逐个参数解析的优先级一致：额外参数 &gt; null &gt; 参数本身 &gt; 参数的属性）
+     */
+    private ValueReader compileValueReader(String propertyName, BoundSql boundSql, Object parameterObject, boolean directAccess) {
+        PropertyTokenizer prop = new PropertyTokenizer(propertyName);
+        boolean indexed = propertyName.indexOf('[') > -1;
+        if (boundSql.getAdditionalParameters().containsKey(prop.getName())) {
+            //额外的参数
+            if (indexed || !directAccess) {
+                return (parameter, bs) -> bs.getAdditionalParameter(propertyName);
+            }
+            final String name = prop.getName();
+            final PropertyStep[] children = compileSteps(prop.getChildren());
+            return (parameter, bs) -> readChildren(bs.getAdditionalParameters().get(name), children);
+        }
+        if (parameterObject == null) {
+            return (parameter, bs) -> null;
+        }
+        if (configuration.getTypeHandlerRegistry().hasTypeHandler(parameterObject.getClass())) {
+            //已注册TypeHandler的类型（如String、Long），参数本身就是值
+            return (parameter, bs) -> parameter;
+        }
+        if (indexed || !directAccess) {
+            return (parameter, bs) -> configuration.newMetaObject(parameter).getValue(propertyName);
+        }
+        final PropertyStep[] steps = compileSteps(propertyName);
+        return (parameter, bs) -> readChildren(parameter, steps);
+    }
+
+    /**
+     * 集合参数展开后的元素参数：额外参数中的List的第elementIndex个元素（占位符补齐的部分重复最后一个元素）
+     */
+    private ValueReader compileElementReader(ParameterMapping parameterMapping) {
+        final String name = parameterMapping.getProperty();
+        final int elementIndex = parameterMapping.getElementIndex();
+        return (parameter, bs) -> {
+            List<?> list = (List<?>) bs.getAdditionalParameters().get(name);
+            return list.get(Math.min(elementIndex, list.size() - 1));
+        };
+    }
+
+    private PropertyStep[] compileSteps(String propertyPath) {
+        if (propertyPath == null) {
+            return new PropertyStep[0];
+        }
+        String[] names = propertyPath.split("\\.");
+        PropertyStep[] steps = new PropertyStep[names.length];
+        for (int i = 0; i < names.length; i++) {
+            steps[i] = new PropertyStep(configuration, names[i]);
+        }
+        return steps;
+    }
+
+    private static Object readChildren(Object value, PropertyStep[] steps) {
+        for (PropertyStep step : steps) {
+            if (value == null) {
+                return null;
+            }
+            value = step.read(value);
+        }
+        return value;
+    }
+
+    /**
+     * 参数个数
+     *
+     * @return 参数个数
+     */
+    public int size() {
+        return parameterMappings.length;
+    }
+
+    /**
+     * 获取第index个参数的值
+     *
+     * @param index           参数下标（从0开始）
+     * @param parameterObject 请求参数
+     * @param boundSql        sql语句对象
+     * @return 参数的值
+     */
+    public Object getValue(int index, Object parameterObject, BoundSql boundSql) {
+        return valueReaders[index].read(parameterObject, boundSql);
+    }
+
+    /**
+     * 设置PreparedStatement的参数
+     *
+     * @param ps              PreparedStatement
+     * @param parameterOffset 参数下标的偏移量
+     * @param parameterObject 请求参数
+     * @param boundSql        sql语句对象
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public void bind(PreparedStatement ps, int parameterOffset, Object parameterObject, BoundSql boundSql) {
+        for (int i = 0; i < parameterMappings.length; i++) {
+            Object value = valueReaders[i].read(parameterObject, boundSql);
+            JdbcType jdbcType = jdbcTypes[i];
+            if (value == null && jdbcType == null) {
+                jdbcType = configuration.getJdbcTypeForNull();
+            }
+            try {
+                ((TypeHandler) typeHandlers[i]).setParameter(ps, parameterOffset + i + 1, value, jdbcType);
+            } catch (Exception e) {
+                throw new OrmException("Could not set parameters for mapping: " + parameterMappings[i] + ". Cause: " + e, e);
+            }
+        }
+    }
+
+    /*************************************************inner class*********************************************************/
+
+    /**
+     * 一个参数的取值方式
+     */
+    @FunctionalInterface
+    private interface ValueReader {
+
+        Object read(Object parameterObject, BoundSql boundSql);
+    }
+
+    /**
+     * 属性路径中的一段（如student.name中的name）
+     * <p>ParamMap按上一次的参数名称（ParamShape）缓存下标；Map直接get；JavaBean按上一次的对象类型缓存get方法（同一个参数位置的对象类型几乎不变）</p>
+     */
+    private static final class PropertyStep {
+
+        private final Configuration configuration;
+
+        private final String name;
+
+        /**
+         * 上一次的对象类型及其get方法（不可变对象，并发时最多重复解析，不需要volatile）
+         */
+        private BeanGetter beanGetter;
+
+        /**
+         * 上一次的ParamMap参数名称及下标（不可变对象，同上）
+         */
+        private ParamSlot paramSlot;
+
+        private PropertyStep(Configuration configuration, String name) {
+            this.configuration = configuration;
+            this.name = name;
+        }
+
+        private Object read(Object target) {
+            if (target instanceof ParamMap) {
+                ParamMap<?> paramMap = (ParamMap<?>) target;
+                ParamSlot slot = paramSlot;
+                if (slot == null || slot.shape != paramMap.getShape()) {
+                    slot = new ParamSlot(paramMap.getShape(), paramMap.getShape().indexOf(name));
+                    paramSlot = slot;
+                }
+                return paramMap.get(slot.index, name);
+            }
+            if (target instanceof Map) {
+                return ((Map<?, ?>) target).get(name);
+            }
+            if (target instanceof Collection || target instanceof ObjectWrapper) {
+                return configuration.newMetaObject(target).getValue(name);
+            }
+            BeanGetter getter = beanGetter;
+            if (getter == null || getter.type != target.getClass()) {
+                getter = new BeanGetter(target.getClass(), configuration.getReflectorFactory().findForClass(target.getClass()).getGetInvoker(name));
+                beanGetter = getter;
+            }
+            try {
+                try {
+                    return getter.invoker.get(target);
+                } catch (Throwable t) {
+                    throw ExceptionUtil.unwrapThrowable(t);
+                }
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Throwable t) {
+                throw new OrmException("Could not get property '" + name + "' from " + target.getClass() + ".  Cause: " + t.toString(), t);
+            }
+        }
+    }
+
+    private static final class ParamSlot {
+
+        private final ParamShape shape;
+
+        private final int index;
+
+        private ParamSlot(ParamShape shape, int index) {
+            this.shape = shape;
+            this.index = index;
+        }
+    }
+
+    private static final class BeanGetter {
+
+        private final Class<?> type;
+
+        private final Invoker invoker;
+
+        private BeanGetter(Class<?> type, Invoker invoker) {
+            this.type = type;
+            this.invoker = invoker;
+        }
+    }
+}
@@ -15,4 +15,13 @@ public interface ParameterHandler {
     Object getParameterObject();
 
     void setParameters(PreparedStatement ps) throws SQLException;
+
+    /**
+     * 从指定的偏移量开始设置PreparedStatement的参数（多行INSERT改写时，每一行的参数依次往后排）
+     *
+     * @param ps              PreparedStatement
+     * @param parameterOffset 参数下标的偏移量（第一个参数的下标为parameterOffset + 1）
+     * @throws SQLException 异常
+     */
+    void setParameters(PreparedStatement ps, int parameterOffset) throws SQLException;
 }
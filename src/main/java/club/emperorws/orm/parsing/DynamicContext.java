@@ -1,6 +1,7 @@
 package club.emperorws.orm.parsing;
 
 import club.emperorws.orm.Configuration;
+import club.emperorws.orm.bingding.MapperMethod.ParamMap;
 import club.emperorws.orm.reflection.MetaObject;
 
 import java.util.HashMap;
@@ -34,11 +35,14 @@ public class DynamicContext {
     public DynamicContext(Configuration configuration, Object parameterObject) {
         this.configuration = configuration;
         if (parameterObject != null && !(parameterObject instanceof Map)) {
-            //parameterObject = ParamMap.class不会进入，但是parameterObject有可能等于实体参数对象（查看代码ParamNameResolver.getNamedParams）
+            //parameterObject有可能等于实体参数对象（查看代码ParamNameResolver.getNamedParams）
             MetaObject metaObject = configuration.newMetaObject(parameterObject);
             //是否是TypeHandlerRegistry已注册的JVM已知类型
             boolean existsTypeHandler = configuration.getTypeHandlerRegistry().hasTypeHandler(parameterObject.getClass());
             bindings = new ContextMap(metaObject, existsTypeHandler);
+        } else if (parameterObject instanceof ParamMap) {
+            //Mapper方法封装后的参数，直接按参数名称取值，不需要MetaObject
+            bindings = new ContextMap((ParamMap<?>) parameterObject);
         } else {
             bindings = new ContextMap(null, false);
         }
@@ -76,9 +80,21 @@ public class DynamicContext {
          */
         private final boolean fallbackParameterObject;
 
+        /**
+         * Mapper方法封装后的参数
+         */
+        private final ParamMap<?> paramMap;
+
         public ContextMap(MetaObject parameterMetaObject, boolean fallbackParameterObject) {
             this.parameterMetaObject = parameterMetaObject;
             this.fallbackParameterObject = fallbackParameterObject;
+            this.paramMap = null;
+        }
+
+        public ContextMap(ParamMap<?> paramMap) {
+            this.parameterMetaObject = null;
+            this.fallbackParameterObject = false;
+            this.paramMap = paramMap;
         }
 
         @Override
@@ -88,6 +104,10 @@ public class DynamicContext {
                 return super.get(strKey);
             }
 
+            if (paramMap != null) {
+                return paramMap.containsKey(strKey) ? paramMap.get(strKey) : null;
+            }
+
             //目测以下代码永远也不会执行
             if (parameterMetaObject == null) {
                 return null;
@@ -1,12 +1,11 @@
 package club.emperorws.orm.parsing;
 
 import club.emperorws.orm.Configuration;
-import club.emperorws.orm.mapping.ParameterMapping;
 
 import java.util.List;
 
 /**
- * 动态SQL语句的解析
+ * 动态SQL语句的解析（编译为{@link SqlTemplate}）
  *
  * @author: EmperorWS
  * @date: 2023/5/6 16:29
@@ -14,26 +13,25 @@ import java.util.List;
  */
 public class DynamicSqlParser {
 
-    private String sql;
-
-    private List<ParameterMapping> parameterMappingList;
-
-    public void parse(String dynamicSql, Object parameterObject, DynamicContext context) {
-        Configuration configuration = context.getConfiguration();
-        //先解析${}
-        ParamJoinTokenHandler paramJoinTokenHandler = new ParamJoinTokenHandler(configuration, context);
-        //再解析#{}
+    /**
+     * 解析动态SQL，编译为可复用的SQL模板
+     * <p>先把#{}替换为?并解析出ParameterMapping，再按${}拆分SQL片段</p>
+     * <p>注意：${}拼接进来的值不会再被解析为#{}</p>
+     *
+     * @param configuration   全局配置单例
+     * @param dynamicSql      原动态sql
+     * @param parameterObject 请求参数（只用于推断参数的JavaType）
+     * @return SQL模板
+     */
+    public SqlTemplate parse(Configuration configuration, String dynamicSql, Object parameterObject) {
+        //准备参数
+        DynamicContext context = new DynamicContext(configuration, parameterObject);
         Class<?> parameterType = parameterObject == null ? Object.class : parameterObject.getClass();
+        //解析#{}
         ParamPlaceHolderTokenHandler paramPlaceHolderTokenHandler = new ParamPlaceHolderTokenHandler(configuration, parameterType, context.getBindings());
-        sql = paramPlaceHolderTokenHandler.handleToken(paramJoinTokenHandler.handleToken(dynamicSql));
-        parameterMappingList = paramPlaceHolderTokenHandler.getParameterMappingList();
-    }
-
-    public String getSql() {
-        return sql;
-    }
-
-    public List<ParameterMapping> getParameterMappingList() {
-        return parameterMappingList;
+        String sql = new GenericTokenParser("#{", "}", paramPlaceHolderTokenHandler).parse(dynamicSql);
+        //拆分${}
+        List<String> parts = new GenericTokenParser("${", "}", null).split(sql);
+        return new SqlTemplate(parts, paramPlaceHolderTokenHandler.getParameterMappingList());
     }
 }
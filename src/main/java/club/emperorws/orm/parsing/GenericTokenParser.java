@@ -0,0 +1,89 @@
+package club.emperorws.orm.parsing;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 通用的SQL占位符片段扫描器（#{}、${}）
+ * <p>单次顺序扫描（indexOf），不使用正则；开始标记前带反斜杠时视为普通文本</p>
+ *
+ * @author: EmperorWS
+ * @date: 2023/8/15 14:10
+ * @description: GenericTokenParser: 通用的SQL占位符片段扫描器
+ */
+public class GenericTokenParser {
+
+    private final String openToken;
+
+    private final String closeToken;
+
+    private final TokenHandler handler;
+
+    public GenericTokenParser(String openToken, String closeToken, TokenHandler handler) {
+        this.openToken = openToken;
+        this.closeToken = closeToken;
+        this.handler = handler;
+    }
+
+    /**
+     * 解析文本：占位符片段替换为{@link TokenHandler#handleToken(String)}的返回值
+     *
+     * @param text 原文本
+     * @return 替换后的文本
+     */
+    public String parse(String text) {
+        List<String> parts = split(text);
+        if (parts.size() == 1) {
+            return parts.get(0);
+        }
+        StringBuilder builder = new StringBuilder(text.length());
+        for (int i = 0; i < parts.size(); i++) {
+            //偶数下标为普通文本，奇数下标为占位符里面的内容
+            builder.append(i % 2 == 0 ? parts.get(i) : handler.handleToken(parts.get(i)));
+        }
+        return builder.toString();
+    }
+
+    /**
+     * 拆分文本：返回[普通文本, 占位符内容, 普通文本, ..., 普通文本]，size必定为奇数
+     *
+     * @param text 原文本
+     * @return 拆分结果
+     */
+    public List<String> split(String text) {
+        List<String> parts = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            parts.add(text == null ? "" : text);
+            return parts;
+        }
+        int start = text.indexOf(openToken);
+        if (start == -1) {
+            parts.add(text);
+            return parts;
+        }
+        int offset = 0;
+        StringBuilder textBuilder = new StringBuilder();
+        while (start > -1) {
+            if (start > 0 && text.charAt(start - 1) == '\\') {
+                //被转义的开始标记，去掉反斜杠后当作普通文本
+                textBuilder.append(text, offset, start - 1).append(openToken);
+                offset = start + openToken.length();
+            } else {
+                int end = text.indexOf(closeToken, start + openToken.length());
+                if (end == -1) {
+                    //没有结束标记，剩下的都是普通文本
+                    break;
+                }
+                textBuilder.append(text, offset, start);
+                parts.add(textBuilder.toString());
+                parts.add(text.substring(start + openToken.length(), end).trim());
+                textBuilder.setLength(0);
+                offset = end + closeToken.length();
+            }
+            start = text.indexOf(openToken, offset);
+        }
+        textBuilder.append(text, offset, text.length());
+        parts.add(textBuilder.toString());
+        return parts;
+    }
+}
@@ -0,0 +1,264 @@
+package club.emperorws.orm.parsing;
+
+import club.emperorws.orm.Configuration;
+import club.emperorws.orm.dialect.CountSqlBuilder;
+import club.emperorws.orm.exception.OrmException;
+import club.emperorws.orm.mapping.BoundSql;
+import club.emperorws.orm.mapping.ParameterMapping;
+import club.emperorws.orm.util.MapUtil;
+
+import java.lang.reflect.Array;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * 集合参数#{ids,collection}的展开：IN (#{ids,collection}) --&gt; IN (?, ?, ?, ?)
+ * <p>占位符个数按1、2、4、8...补齐（不足的重复最后一个值），同一条SQL只会产生少量不同的SQL文本，PreparedStatement缓存更容易命中</p>
+ * <p>集合大小超过{@link Configuration#getInListChunkSize()}时，拆分为多条SQL分别执行，执行结果合并（见{@link BoundSql#getChunks()}）；
+ * 拆分前先去掉重复的元素（一行记录只会匹配一条SQL），NOT IN、没有以AND连接在最外层WHERE中的IN拆分后语义不同，不允许拆分</p>
+ * <p>集合元素以额外参数{@link #IN_LIST_PARAMETER_PREFIX}0、{@link #IN_LIST_PARAMETER_PREFIX}1...绑定（每个集合参数一个List）</p>
+ *
+ * @author: EmperorWS
+ * @date: 2023/8/28 15:30
+ * @description: InListExpander: 集合参数的展开
+ */
+final class InListExpander {
+
+    /**
+     * 集合参数的额外参数名称前缀
+     */
+    static final String IN_LIST_PARAMETER_PREFIX = "_inList";
+
+    /**
+     * 占位符个数-->"?, ?, ..."
+     */
+    private static final Map<Integer, String> PLACEHOLDERS = new ConcurrentHashMap<>();
+
+    /**
+     * 集合参数前的NOT IN (
+     */
+    private static final Pattern NOT_IN = Pattern.compile("\\bnot\\s+in\\s*\\(\\s*$", Pattern.CASE_INSENSITIVE);
+
+    /**
+     * SQL模板的参数映射
+     */
+    private final List<ParameterMapping> parameterMappings;
+
+    /**
+     * 集合参数在parameterMappings中的下标
+     */
+    private final int[] collectionIndexes;
+
+    /**
+     * 每个集合参数的占位符个数（如"4,8"）-->展开后的参数映射（复用同一个实例，才能命中请求参数的绑定计划缓存）
+     */
+    private final Map<String, List<ParameterMapping>> expandedMappings = new ConcurrentHashMap<>();
+
+    private InListExpander(List<ParameterMapping> parameterMappings, int[] collectionIndexes) {
+        this.parameterMappings = parameterMappings;
+        this.collectionIndexes = collectionIndexes;
+    }
+
+    /**
+     * 创建集合参数的展开器
+     *
+     * @param parameterMappings SQL模板的参数映射
+     * @return 集合参数的展开器，没有集合参数时返回null
+     */
+    static InListExpander forMappings(List<ParameterMapping> parameterMappings) {
+        int[] collectionIndexes = new int[parameterMappings.size()];
+        int count = 0;
+        for (int i = 0; i < parameterMappings.size(); i++) {
+            if (parameterMappings.get(i).isCollection()) {
+                collectionIndexes[count++] = i;
+            }
+        }
+        return count == 0 ? null : new InListExpander(parameterMappings, Arrays.copyOf(collectionIndexes, count));
+    }
+
+    /**
+     * 展开集合参数
+     *
+     * @param configuration 全局配置单例
+     * @param boundSql      集合参数未展开的SQL语句对象
+     * @return 展开后的SQL语句对象（需要拆分执行时，为第一条SQL，所有SQL见{@link BoundSql#getChunks()}）
+     */
+    BoundSql expand(Configuration configuration, BoundSql boundSql) {
+        final int chunkSize = configuration.getInListChunkSize();
+        final List<?>[] lists = new List<?>[collectionIndexes.length];
+        int chunkedIndex = -1;
+        for (int i = 0; i < collectionIndexes.length; i++) {
+            String property = parameterMappings.get(collectionIndexes[i]).getProperty();
+            lists[i] = toList(property, getValue(configuration, boundSql, property));
+            if (lists[i].size() > chunkSize) {
+                if (chunkedIndex >= 0) {
+                    throw new OrmException("Only one collection parameter can exceed the IN list chunk size (" + chunkSize + "), but both '"
+                            + parameterMappings.get(collectionIndexes[chunkedIndex]).getProperty() + "' and '" + property + "' do.");
+                }
+                chunkedIndex = i;
+            }
+        }
+        if (chunkedIndex >= 0) {
+            checkChunkable(boundSql.getSql(), chunkedIndex, parameterMappings.get(collectionIndexes[chunkedIndex]).getProperty());
+            //IN中重复的元素不改变结果，去掉后才能保证一行记录只匹配一条SQL
+            lists[chunkedIndex] = new ArrayList<>(new LinkedHashSet<>(lists[chunkedIndex]));
+            if (lists[chunkedIndex].size() <= chunkSize) {
+                chunkedIndex = -1;
+            }
+        }
+        if (chunkedIndex < 0) {
+            return expandChunk(configuration, boundSql, lists, chunkSize);
+        }
+        //拆分为多条SQL：只拆分超过大小的集合参数，其他参数不变
+        final List<?> chunkedList = lists[chunkedIndex];
+        final List<BoundSql> chunks = new ArrayList<>((chunkedList.size() + chunkSize - 1) / chunkSize);
+        for (int from = 0; from < chunkedList.size(); from += chunkSize) {
+            List<?>[] chunkLists = lists.clone();
+            chunkLists[chunkedIndex] = chunkedList.subList(from, Math.min(from + chunkSize, chunkedList.size()));
+            chunks.add(expandChunk(configuration, boundSql, chunkLists, chunkSize));
+        }
+        BoundSql first = chunks.get(0);
+        first.setChunks(Collections.unmodifiableList(chunks));
+        return first;
+    }
+
+    private BoundSql expandChunk(Configuration configuration, BoundSql boundSql, List<?>[] lists, int chunkSize) {
+        final int[] buckets = new int[lists.length];
+        for (int i = 0; i < lists.length; i++) {
+            buckets[i] = bucket(lists[i].size(), chunkSize);
+        }
+        //替换集合参数的标记
+        final String sql = boundSql.getSql();
+        final StringBuilder expandedSql = new StringBuilder(sql.length() + 8 * lists.length);
+        int start = 0;
+        for (int bucket : buckets) {
+            int marker = sql.indexOf(SqlTemplate.IN_LIST_MARKER, start);
+            expandedSql.append(sql, start, marker).append(MapUtil.computeIfAbsent(PLACEHOLDERS, bucket, InListExpander::newPlaceholders));
+            start = marker + SqlTemplate.IN_LIST_MARKER.length();
+        }
+        expandedSql.append(sql, start, sql.length());
+        final List<ParameterMapping> mappings = MapUtil.computeIfAbsent(expandedMappings, bucketKey(buckets),
+                key -> expandMappings(configuration, buckets));
+        final BoundSql expandedBoundSql = boundSql.copy(configuration, expandedSql.toString(), mappings);
+        for (int i = 0; i < lists.length; i++) {
+            expandedBoundSql.setAdditionalParameter(IN_LIST_PARAMETER_PREFIX + i, lists[i]);
+        }
+        return expandedBoundSql;
+    }
+
+    /**
+     * 需要拆分的集合参数只能用于IN (...)：NOT IN拆分后每条SQL只排除一部分元素，合并的结果是错误的；
+     * IN (...)还必须是最外层WHERE中以AND连接的条件，否则一行记录可能匹配多条SQL，合并后重复
+     */
+    private static void checkChunkable(String sql, int collection, String property) {
+        int marker = -1;
+        for (int i = 0; i <= collection; i++) {
+            marker = sql.indexOf(SqlTemplate.IN_LIST_MARKER, marker + 1);
+        }
+        if (NOT_IN.matcher(sql.substring(Math.max(0, marker - 32), marker)).find()) {
+            throw new OrmException("Collection parameter '" + property + "' is larger than the IN list chunk size, but it is used in NOT IN (...), "
+                    + "which can not be split into several statements.");
+        }
+        if (!CountSqlBuilder.isTopLevelAndCondition(sql, marker)) {
+            throw new OrmException("Collection parameter '" + property + "' is larger than the IN list chunk size, but its IN (...) is not an AND condition "
+                    + "of the outermost WHERE (it is nested, or the WHERE has a top-level OR), so a row could match several of the split statements.");
+        }
+    }
+
+    /**
+     * 展开后的参数映射：集合参数替换为bucket个元素参数（第i个元素参数读取集合的第i个元素，超出集合大小时读取最后一个元素）
+     */
+    private List<ParameterMapping> expandMappings(Configuration configuration, int[] buckets) {
+        int size = parameterMappings.size();
+        for (int i = 0; i < buckets.length; i++) {
+            size += buckets[i] - 1;
+        }
+        final List<ParameterMapping> mappings = new ArrayList<>(size);
+        int collection = 0;
+        for (ParameterMapping parameterMapping : parameterMappings) {
+            if (!parameterMapping.isCollection()) {
+                mappings.add(parameterMapping);
+                continue;
+            }
+            for (int i = 0; i < buckets[collection]; i++) {
+                mappings.add(new ParameterMapping.Builder(configuration, IN_LIST_PARAMETER_PREFIX + collection, parameterMapping.getTypeHandler())
+                        .javaType(parameterMapping.getJavaType())
+                        .jdbcType(parameterMapping.getJdbcType())
+                        .elementIndex(i)
+                        .build());
+            }
+            collection++;
+        }
+        return Collections.unmodifiableList(mappings);
+    }
+
+    private static Object getValue(Configuration configuration, BoundSql boundSql, String property) {
+        if (boundSql.hasAdditionalParameter(property)) {
+            return boundSql.getAdditionalParameter(property);
+        }
+        Object parameterObject = boundSql.getParameterObject();
+        return parameterObject == null ? null : configuration.newMetaObject(parameterObject).getValue(property);
+    }
+
+    /**
+     * 集合参数的值转为List（数组、Set等集合；单个值当作只有一个元素的集合）
+     */
+    private static List<?> toList(String property, Object value) {
+        List<?> list;
+        if (value instanceof List && value instanceof RandomAccess) {
+            list = (List<?>) value;
+        } else if (value instanceof Collection) {
+            list = new ArrayList<>((Collection<?>) value);
+        } else if (value instanceof Object[]) {
+            list = Arrays.asList((Object[]) value);
+        } else if (value != null && value.getClass().isArray()) {
+            //基本类型数组
+            int length = Array.getLength(value);
+            List<Object> boxed = new ArrayList<>(length);
+            for (int i = 0; i < length; i++) {
+                boxed.add(Array.get(value, i));
+            }
+            list = boxed;
+        } else if (value != null) {
+            list = Collections.singletonList(value);
+        } else {
+            list = Collections.emptyList();
+        }
+        if (list.isEmpty()) {
+            //IN ()不是合法的SQL，NOT IN时也无法用NULL代替
+            throw new OrmException("Collection parameter '" + property + "' is null or empty, it can not be expanded to IN (...).");
+        }
+        return list;
+    }
+
+    /**
+     * 占位符个数：不小于集合大小的2的幂，且不超过拆分大小
+     */
+    private static int bucket(int size, int chunkSize) {
+        int bucket = 1;
+        while (bucket < size) {
+            bucket <<= 1;
+        }
+        return Math.min(bucket, chunkSize);
+    }
+
+    private static String bucketKey(int[] buckets) {
+        if (buckets.length == 1) {
+            return String.valueOf(buckets[0]);
+        }
+        StringBuilder key = new StringBuilder();
+        for (int bucket : buckets) {
+            key.append(bucket).append(',');
+        }
+        return key.toString();
+    }
+
+    private static String newPlaceholders(int count) {
+        StringBuilder placeholders = new StringBuilder(count * 3);
+        for (int i = 0; i < count; i++) {
+            placeholders.append(i == 0 ? "?" : ", ?");
+        }
+        return placeholders.toString();
+    }
+}
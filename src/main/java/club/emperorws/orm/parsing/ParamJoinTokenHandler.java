@@ -1,11 +1,9 @@
 package club.emperorws.orm.parsing;
 
 import club.emperorws.orm.Configuration;
+import club.emperorws.orm.bingding.MapperMethod.ParamMap;
 import club.emperorws.orm.reflection.MetaObject;
 
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-
 /**
  * ${}请求参数直接拼接到SQL的解析器
  *
@@ -15,11 +13,14 @@ import java.util.regex.Pattern;
  */
 public class ParamJoinTokenHandler implements TokenHandler {
 
-    private static final Pattern SQL_REPLACE_PATTERN = Pattern.compile("$\\{.+?}");
-
     private final Configuration configuration;
 
-    private DynamicContext context;
+    private final DynamicContext context;
+
+    /**
+     * 原请求参数的元对象（懒加载）
+     */
+    private MetaObject parameterMetaObject;
 
     public ParamJoinTokenHandler(Configuration configuration, DynamicContext context) {
         this.configuration = configuration;
@@ -27,33 +28,25 @@ public class ParamJoinTokenHandler implements TokenHandler {
     }
 
     /**
-     * 动态sql语句解析
+     * ${}解析为请求参数的值，直接拼接到SQL
      *
-     * @param dynamicSql 原sql语句
-     * @return 解析后的sql语句
+     * @param content ${}里面的内容
+     * @return 请求参数的值
      */
     @Override
-    public String handleToken(String dynamicSql) {
-        //获取原请求参数
-        Object parameter = context.getBindings().get("_parameter");
-        StringBuffer sqlStr = new StringBuffer();
-        Matcher matcher = SQL_REPLACE_PATTERN.matcher(dynamicSql);
-        while (matcher.find()) {
-            //获取content片段
-            String sqlSegment = matcher.group()
-                    .replace("${", "")
-                    .replace("}", "");
-            //获取content对应的值
-            String value;
-            if (context.getBindings().containsKey(sqlSegment)) {
-                value = String.valueOf(context.getBindings().get(sqlSegment));
-            } else {
-                MetaObject metaObject = configuration.newMetaObject(parameter);
-                value = String.valueOf(metaObject.getValue(sqlSegment));
-            }
-            matcher.appendReplacement(sqlStr, value);
+    public String handleToken(String content) {
+        if (context.getBindings().containsKey(content)) {
+            return String.valueOf(context.getBindings().get(content));
+        }
+        Object parameterObject = context.getBindings().get(DynamicContext.PARAMETER_OBJECT_KEY);
+        if (parameterObject instanceof ParamMap && content.indexOf('.') < 0 && content.indexOf('[') < 0) {
+            //Mapper方法封装后的参数，直接按参数名称取值
+            return String.valueOf(((ParamMap<?>) parameterObject).get(content));
+        }
+        if (parameterMetaObject == null) {
+            //获取原请求参数
+            parameterMetaObject = configuration.newMetaObject(parameterObject);
         }
-        matcher.appendTail(sqlStr);
-        return sqlStr.toString();
+        return String.valueOf(parameterMetaObject.getValue(content));
     }
 }
@@ -15,8 +15,6 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * #{}请求参数替换为?拼接到SQL的解析器
@@ -27,9 +25,7 @@ import java.util.regex.Pattern;
  */
 public class ParamPlaceHolderTokenHandler implements TokenHandler {
 
-    private static final String PARAMETER_PROPERTIES = "javaType,jdbcType,resultMap,typeHandler";
-
-    private static final Pattern SQL_REPLACE_PATTERN = Pattern.compile("#\\{.+?}");
+    private static final String PARAMETER_PROPERTIES = "javaType,jdbcType,resultMap,typeHandler,collection";
 
     private final Configuration configuration;
 
@@ -63,25 +59,17 @@ public class ParamPlaceHolderTokenHandler implements TokenHandler {
     }
 
     /**
-     * 动态sql语句解析
+     * #{}解析为ParameterMapping，并替换为预编译的占位符?
+     * <p>集合参数#{ids,collection}替换为{@link SqlTemplate#IN_LIST_MARKER}，执行时按集合大小展开为?, ?, ...</p>
      *
-     * @param dynamicSql 原sql语句
-     * @return 解析后的sql语句
+     * @param content #{}里面的内容
+     * @return 预编译的占位符?
      */
     @Override
-    public String handleToken(String dynamicSql) {
-        StringBuffer sqlStr = new StringBuffer();
-        Matcher matcher = SQL_REPLACE_PATTERN.matcher(dynamicSql);
-        while (matcher.find()) {
-            String sqlSegment = matcher.group()
-                    .replace("#{", "")
-                    .replace("}", "");
-            parameterMappingList.add(buildParameterMapping(sqlSegment));
-            matcher.appendReplacement(sqlStr, "?");
-        }
-        matcher.appendTail(sqlStr);
-        //返回预编译的SQL
-        return sqlStr.toString();
+    public String handleToken(String content) {
+        ParameterMapping parameterMapping = buildParameterMapping(content);
+        parameterMappingList.add(parameterMapping);
+        return parameterMapping.isCollection() ? SqlTemplate.IN_LIST_MARKER : "?";
     }
 
     /**
@@ -94,9 +82,13 @@ public class ParamPlaceHolderTokenHandler implements TokenHandler {
         //解析content
         Map<String, String> propertiesMap = parseParameterMapping(content);
         String property = propertiesMap.get("property");
+        boolean collection = Boolean.parseBoolean(propertiesMap.get("collection"));
         //先根据属性名称，获取JavaType
         Class<?> propertyType;
-        if (metaParameters.hasGetter(property)) {
+        if (collection) {
+            //集合参数的JavaType是集合元素的类型，只能通过javaType指定，否则运行时按值的类型处理
+            propertyType = Object.class;
+        } else if (metaParameters.hasGetter(property)) {
             propertyType = metaParameters.getGetterType(property);
         } else if (typeHandlerRegistry.hasTypeHandler(parameterType)) {
             propertyType = parameterType;
@@ -112,7 +104,7 @@ public class ParamPlaceHolderTokenHandler implements TokenHandler {
                 propertyType = Object.class;
             }
         }
-        ParameterMapping.Builder builder = new ParameterMapping.Builder(configuration, property, propertyType);
+        ParameterMapping.Builder builder = new ParameterMapping.Builder(configuration, property, propertyType).collection(collection);
         //根据解析出来的值设置属性
         Class<?> javaType = propertyType;
         String typeHandlerAlias = null;
@@ -126,7 +118,7 @@ public class ParamPlaceHolderTokenHandler implements TokenHandler {
                 builder.jdbcType(builderUtil.resolveJdbcType(value));
             } else if ("typeHandler".equals(name)) {
                 typeHandlerAlias = value;
-            } else if ("property".equals(name)) {
+            } else if ("property".equals(name) || "collection".equals(name)) {
                 // Do Nothing
             } else if ("expression".equals(name)) {
                 throw new OrmException("Expression based parameters are not supported yet");
@@ -153,8 +145,11 @@ public class ParamPlaceHolderTokenHandler implements TokenHandler {
         propertiesMap.put("property", pairs[0]);
         //剩下的为其他属性
         for (int i = 1; i < pairs.length; i++) {
-            String[] keyValue = pairs[i].split("=");
-            if (ArrayUtil.isNotEmpty(keyValue)) {
+            String[] keyValue = pairs[i].trim().split("=");
+            if (keyValue.length == 1) {
+                //没有值的标记，如#{ids,collection}
+                propertiesMap.put(keyValue[0], Boolean.TRUE.toString());
+            } else if (ArrayUtil.isNotEmpty(keyValue)) {
                 propertiesMap.put(keyValue[0], keyValue[1]);
             }
         }
@@ -0,0 +1,139 @@
+package club.emperorws.orm.parsing;
+
+import club.emperorws.orm.Configuration;
+import club.emperorws.orm.mapping.BoundSql;
+import club.emperorws.orm.mapping.ParameterMapping;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * 预编译（只解析一次）的动态SQL模板
+ * <p>#{}在编译时已替换为?，并解析为ParameterMapping；${}按片段保存，执行时再拼接</p>
+ * <p>集合参数#{ids,collection}编译为{@link #IN_LIST_MARKER}，执行时由{@link InListExpander}展开</p>
+ * <p>按（SQL文本，请求参数类型）缓存，见{@link Configuration#getSqlTemplate(String, Object)}</p>
+ *
+ * @author: EmperorWS
+ * @date: 2023/8/15 14:40
+ * @description: SqlTemplate: 预编译的动态SQL模板
+ */
+public class SqlTemplate {
+
+    /**
+     * 集合参数在编译后SQL中的标记（SQL文本中不会出现的字符），执行时替换为?, ?, ...
+     */
+    public static final String IN_LIST_MARKER = "\u0000";
+
+    /**
+     * SQL片段：${}拆分出来的普通SQL片段（#{}已替换为?）
+     */
+    private final String[] sqlSegments;
+
+    /**
+     * ${}里面的内容，joinExpressions[i]位于sqlSegments[i]与sqlSegments[i + 1]之间
+     */
+    private final String[] joinExpressions;
+
+    /**
+     * sql参数的相关信息（只读）
+     */
+    private final List<ParameterMapping> parameterMappings;
+
+    /**
+     * 集合参数的展开器，没有集合参数时为null
+     */
+    private final InListExpander inListExpander;
+
+    public SqlTemplate(List<String> parts, List<ParameterMapping> parameterMappings) {
+        int joinCount = parts.size() / 2;
+        this.sqlSegments = new String[joinCount + 1];
+        this.joinExpressions = new String[joinCount];
+        for (int i = 0; i < parts.size(); i++) {
+            if (i % 2 == 0) {
+                sqlSegments[i / 2] = parts.get(i);
+            } else {
+                joinExpressions[i / 2] = parts.get(i);
+            }
+        }
+        this.parameterMappings = Collections.unmodifiableList(parameterMappings);
+        this.inListExpander = InListExpander.forMappings(this.parameterMappings);
+    }
+
+    /**
+     * 是否是静态SQL（没有${}）
+     *
+     * @return 是否是静态SQL
+     */
+    public boolean isStatic() {
+        return joinExpressions.length == 0;
+    }
+
+    public List<ParameterMapping> getParameterMappings() {
+        return parameterMappings;
+    }
+
+    /**
+     * 获取SQL语句装载体
+     *
+     * @param configuration   全局配置单例
+     * @param parameterObject 请求参数
+     * @return SQL语句装载体
+     */
+    public BoundSql getBoundSql(Configuration configuration, Object parameterObject) {
+        BoundSql boundSql;
+        if (isStatic()) {
+            //静态SQL，不需要再准备动态参数上下文
+            boundSql = new BoundSql(configuration, sqlSegments[0], parameterMappings, parameterObject);
+            boundSql.setAdditionalParameter(DynamicContext.PARAMETER_OBJECT_KEY, parameterObject);
+            boundSql.setAdditionalParameter(DynamicContext.DATABASE_ID_KEY, configuration.getDatabaseId());
+        } else {
+            DynamicContext context = new DynamicContext(configuration, parameterObject);
+            ParamJoinTokenHandler joinTokenHandler = new ParamJoinTokenHandler(configuration, context);
+            StringBuilder sql = new StringBuilder(sqlSegments[0]);
+            for (int i = 0; i < joinExpressions.length; i++) {
+                sql.append(joinTokenHandler.handleToken(joinExpressions[i])).append(sqlSegments[i + 1]);
+            }
+            boundSql = new BoundSql(configuration, sql.toString(), parameterMappings, parameterObject);
+            context.getBindings().forEach(boundSql::setAdditionalParameter);
+        }
+        return inListExpander == null ? boundSql : inListExpander.expand(configuration, boundSql);
+    }
+
+    /*************************************************inner class*********************************************************/
+
+    /**
+     * SQL模板的缓存key：（SQL文本，请求参数类型）
+     */
+    public static final class TemplateKey {
+
+        private final String dynamicSql;
+
+        private final Class<?> parameterType;
+
+        private final int hashCode;
+
+        public TemplateKey(String dynamicSql, Class<?> parameterType) {
+            this.dynamicSql = dynamicSql;
+            this.parameterType = parameterType;
+            this.hashCode = 31 * dynamicSql.hashCode() + Objects.hashCode(parameterType);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof TemplateKey)) {
+                return false;
+            }
+            TemplateKey that = (TemplateKey) o;
+            return hashCode == that.hashCode && parameterType == that.parameterType && dynamicSql.equals(that.dynamicSql);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+}
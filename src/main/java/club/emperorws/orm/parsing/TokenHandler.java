@@ -10,10 +10,10 @@ package club.emperorws.orm.parsing;
 public interface TokenHandler {
 
     /**
-     * 动态sql语句解析
+     * 动态sql片段解析
      *
-     * @param dynamicSql 原sql语句
-     * @return 解析后的sql语句
+     * @param content 占位符（#{}、${}）里面的内容
+     * @return 替换占位符的sql片段
      */
-    String handleToken(String dynamicSql);
+    String handleToken(String content);
 }
@@ -3,8 +3,8 @@ package club.emperorws.orm.plugin;
 import java.util.Properties;
 
 /**
- * todo 等待后续完成
  * 插件拦截器功能，通过反射代理实现
+ * <p>通过{@link Intercepts}声明要拦截的方法，只有匹配的目标对象才会被代理</p>
  *
  * @author: EmperorWS
  * @date: 2023/4/28 14:51
@@ -15,8 +15,7 @@ public interface Interceptor {
     Object intercept(Invocation invocation) throws Throwable;
 
     default Object plugin(Object target) {
-        //return Plugin.wrap(target, this);
-        return target;
+        return Plugin.wrap(target, this);
     }
 
     default void setProperties(Properties properties) {
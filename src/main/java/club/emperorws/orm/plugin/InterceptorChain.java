@@ -1,11 +1,17 @@
 package club.emperorws.orm.plugin;
 
+import club.emperorws.orm.util.MapUtil;
+
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * 插件拦截器的执行链
+ * <p>按目标类缓存需要执行的拦截器：没有拦截器匹配的目标类（最常见的情况）直接返回目标对象，不会有任何反射开销</p>
  *
  * @author: EmperorWS
  * @date: 2023/4/28 15:02
@@ -13,10 +19,21 @@ import java.util.List;
  */
 public class InterceptorChain {
 
-    private final List<Interceptor> interceptors = new ArrayList<>();
+    private static final Interceptor[] NO_INTERCEPTORS = new Interceptor[0];
+
+    private final List<Interceptor> interceptors = new CopyOnWriteArrayList<>();
+
+    /**
+     * 目标类-->需要执行的拦截器
+     */
+    private final Map<Class<?>, Interceptor[]> applicableInterceptorsCache = new ConcurrentHashMap<>();
 
     public Object pluginAll(Object target) {
-        for (Interceptor interceptor : interceptors) {
+        if (interceptors.isEmpty()) {
+            return target;
+        }
+        Interceptor[] applicableInterceptors = MapUtil.computeIfAbsent(applicableInterceptorsCache, target.getClass(), this::resolveApplicableInterceptors);
+        for (Interceptor interceptor : applicableInterceptors) {
             target = interceptor.plugin(target);
         }
         return target;
@@ -24,10 +41,24 @@ public class InterceptorChain {
 
     public void addInterceptor(Interceptor interceptor) {
         interceptors.add(interceptor);
+        applicableInterceptorsCache.clear();
     }
 
     public List<Interceptor> getInterceptors() {
         return Collections.unmodifiableList(interceptors);
     }
 
+    /**
+     * 需要执行的拦截器：声明了{@link Intercepts}且匹配目标类的，以及没有声明{@link Intercepts}的（自定义了plugin方法）
+     */
+    private Interceptor[] resolveApplicableInterceptors(Class<?> type) {
+        List<Interceptor> applicableInterceptors = new ArrayList<>();
+        for (Interceptor interceptor : interceptors) {
+            if (!Plugin.isAnnotated(interceptor) || Plugin.matches(interceptor, type)) {
+                applicableInterceptors.add(interceptor);
+            }
+        }
+        return applicableInterceptors.isEmpty() ? NO_INTERCEPTORS : applicableInterceptors.toArray(NO_INTERCEPTORS);
+    }
+
 }
@@ -0,0 +1,38 @@
+package club.emperorws.orm.plugin;
+
+import java.lang.annotation.*;
+
+/**
+ * 插件拦截器要拦截的方法
+ * <p>
+ * <b>How to use:</b>
+ *
+ * <pre>
+ * &#064;Intercepts({&#064;Signature(type = Executor.class, method = "update", args = {MappedStatement.class, Object.class})})
+ * public class ExamplePlugin implements Interceptor {
+ *   &#064;Override
+ *   public Object intercept(Invocation invocation) throws Throwable {
+ *     // implement pre-processing if needed
+ *     Object returnObject = invocation.proceed();
+ *     // implement post-processing if needed
+ *     return returnObject;
+ *   }
+ * }
+ * </pre>
+ *
+ * @author: EmperorWS
+ * @date: 2023/8/18 14:20
+ * @description: Intercepts: 插件拦截器要拦截的方法
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface Intercepts {
+
+    /**
+     * 要拦截的方法签名
+     *
+     * @return 方法签名
+     */
+    Signature[] value();
+}
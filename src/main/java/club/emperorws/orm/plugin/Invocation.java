@@ -1,6 +1,5 @@
 package club.emperorws.orm.plugin;
 
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 
 /**
@@ -34,7 +33,13 @@ public class Invocation {
         return args;
     }
 
-    public Object proceed() throws InvocationTargetException, IllegalAccessException {
-        return method.invoke(target, args);
+    /**
+     * 继续执行被拦截的方法（通过缓存的MethodHandle执行，方法抛出的异常原样抛出）
+     *
+     * @return 执行结果
+     * @throws Throwable 方法本身抛出的异常
+     */
+    public Object proceed() throws Throwable {
+        return Plugin.invokeMethod(target, method, args);
     }
 }
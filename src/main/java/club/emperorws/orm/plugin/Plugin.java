@@ -0,0 +1,173 @@
+package club.emperorws.orm.plugin;
+
+import club.emperorws.orm.exception.PluginException;
+import club.emperorws.orm.util.MapUtil;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 插件拦截器的动态代理
+ * <p>方法签名只解析一次：拦截器类-->{@link Intercepts}声明的方法，（拦截器类，目标类）-->需要代理的接口，都会缓存下来</p>
+ * <p>没有匹配的方法签名时不创建代理，直接返回目标对象</p>
+ *
+ * @author: EmperorWS
+ * @date: 2023/8/18 14:30
+ * @description: Plugin: 插件拦截器的动态代理
+ */
+public class Plugin implements InvocationHandler {
+
+    private static final Class<?>[] NO_INTERFACES = new Class<?>[0];
+
+    private static final Object[] NO_ARGS = new Object[0];
+
+    /**
+     * 拦截器类-->（接口-->要拦截的方法）
+     */
+    private static final Map<Class<?>, Map<Class<?>, Set<Method>>> SIGNATURE_MAP_CACHE = new ConcurrentHashMap<>();
+
+    /**
+     * 拦截器类-->（目标类-->需要代理的接口）
+     */
+    private static final Map<Class<?>, Map<Class<?>, Class<?>[]>> INTERFACES_CACHE = new ConcurrentHashMap<>();
+
+    /**
+     * 方法-->展开参数后的MethodHandle：(Object target, Object[] args)Object
+     */
+    private static final Map<Method, MethodHandle> METHOD_HANDLE_CACHE = new ConcurrentHashMap<>();
+
+    private final Object target;
+    private final Interceptor interceptor;
+    private final Map<Class<?>, Set<Method>> signatureMap;
+
+    private Plugin(Object target, Interceptor interceptor, Map<Class<?>, Set<Method>> signatureMap) {
+        this.target = target;
+        this.interceptor = interceptor;
+        this.signatureMap = signatureMap;
+    }
+
+    /**
+     * 为目标对象创建拦截器的动态代理
+     *
+     * @param target      目标对象
+     * @param interceptor 插件拦截器
+     * @return 动态代理，没有匹配的方法签名时返回目标对象本身
+     */
+    public static Object wrap(Object target, Interceptor interceptor) {
+        Class<?>[] interfaces = getInterfaces(interceptor, target.getClass());
+        if (interfaces.length == 0) {
+            return target;
+        }
+        Class<?> type = target.getClass();
+        return Proxy.newProxyInstance(type.getClassLoader(), interfaces, new Plugin(target, interceptor, getSignatureMap(interceptor)));
+    }
+
+    /**
+     * 拦截器是否需要代理目标类
+     *
+     * @param interceptor 插件拦截器
+     * @param type        目标类
+     * @return 是否需要代理
+     */
+    public static boolean matches(Interceptor interceptor, Class<?> type) {
+        return getInterfaces(interceptor, type).length > 0;
+    }
+
+    /**
+     * 拦截器是否声明了{@link Intercepts}
+     *
+     * @param interceptor 插件拦截器
+     * @return 是否声明了{@link Intercepts}
+     */
+    public static boolean isAnnotated(Interceptor interceptor) {
+        return interceptor.getClass().isAnnotationPresent(Intercepts.class);
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        Set<Method> methods = signatureMap.get(method.getDeclaringClass());
+        if (methods != null && methods.contains(method)) {
+            return interceptor.intercept(new Invocation(target, method, args));
+        }
+        return invokeMethod(target, method, args);
+    }
+
+    /**
+     * 通过缓存的MethodHandle执行方法（异常不会被InvocationTargetException包装）
+     *
+     * @param target 目标对象
+     * @param method 方法
+     * @param args   参数
+     * @return 执行结果
+     * @throws Throwable 方法本身抛出的异常
+     */
+    static Object invokeMethod(Object target, Method method, Object[] args) throws Throwable {
+        MethodHandle methodHandle = MapUtil.computeIfAbsent(METHOD_HANDLE_CACHE, method, Plugin::createMethodHandle);
+        Object[] arguments = args == null ? NO_ARGS : args;
+        return methodHandle.invokeExact(target, arguments);
+    }
+
+    private static MethodHandle createMethodHandle(Method method) {
+        try {
+            MethodHandle methodHandle;
+            try {
+                methodHandle = MethodHandles.publicLookup().unreflect(method);
+            } catch (IllegalAccessException e) {
+                method.setAccessible(true);
+                methodHandle = MethodHandles.lookup().unreflect(method);
+            }
+            int parameterCount = method.getParameterCount();
+            return methodHandle.asType(MethodType.genericMethodType(parameterCount + 1))
+                    .asSpreader(Object[].class, parameterCount);
+        } catch (Exception e) {
+            throw new PluginException("Could not create method handle for " + method + ". Cause: " + e, e);
+        }
+    }
+
+    private static Class<?>[] getInterfaces(Interceptor interceptor, Class<?> type) {
+        Map<Class<?>, Class<?>[]> interfacesMap = MapUtil.computeIfAbsent(INTERFACES_CACHE, interceptor.getClass(), key -> new ConcurrentHashMap<>());
+        return MapUtil.computeIfAbsent(interfacesMap, type, key -> getAllInterfaces(key, getSignatureMap(interceptor)));
+    }
+
+    private static Map<Class<?>, Set<Method>> getSignatureMap(Interceptor interceptor) {
+        return MapUtil.computeIfAbsent(SIGNATURE_MAP_CACHE, interceptor.getClass(), Plugin::resolveSignatureMap);
+    }
+
+    private static Map<Class<?>, Set<Method>> resolveSignatureMap(Class<?> interceptorClass) {
+        Intercepts interceptsAnnotation = interceptorClass.getAnnotation(Intercepts.class);
+        if (interceptsAnnotation == null) {
+            throw new PluginException("No @Intercepts annotation was found in interceptor " + interceptorClass.getName());
+        }
+        Signature[] sigs = interceptsAnnotation.value();
+        Map<Class<?>, Set<Method>> signatureMap = new HashMap<>();
+        for (Signature sig : sigs) {
+            Set<Method> methods = MapUtil.computeIfAbsent(signatureMap, sig.type(), k -> new HashSet<>());
+            try {
+                Method method = sig.type().getMethod(sig.method(), sig.args());
+                methods.add(method);
+            } catch (NoSuchMethodException e) {
+                throw new PluginException("Could not find method on " + sig.type() + " named " + sig.method() + ". Cause: " + e, e);
+            }
+        }
+        return signatureMap;
+    }
+
+    private static Class<?>[] getAllInterfaces(Class<?> type, Map<Class<?>, Set<Method>> signatureMap) {
+        Set<Class<?>> interfaces = new LinkedHashSet<>();
+        while (type != null) {
+            for (Class<?> c : type.getInterfaces()) {
+                if (signatureMap.containsKey(c)) {
+                    interfaces.add(c);
+                }
+            }
+            type = type.getSuperclass();
+        }
+        return interfaces.isEmpty() ? NO_INTERFACES : interfaces.toArray(new Class<?>[0]);
+    }
+}
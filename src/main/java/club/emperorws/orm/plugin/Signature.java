@@ -0,0 +1,37 @@
+package club.emperorws.orm.plugin;
+
+import java.lang.annotation.*;
+
+/**
+ * 插件拦截器要拦截的方法签名
+ *
+ * @author: EmperorWS
+ * @date: 2023/8/18 14:20
+ * @description: Signature: 插件拦截器要拦截的方法签名
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({})
+public @interface Signature {
+
+    /**
+     * 要拦截的接口（Executor、StatementHandler、ParameterHandler、ResultSetHandler）
+     *
+     * @return 要拦截的接口
+     */
+    Class<?> type();
+
+    /**
+     * 方法名
+     *
+     * @return 方法名
+     */
+    String method();
+
+    /**
+     * 方法的参数类型
+     *
+     * @return 方法的参数类型
+     */
+    Class<?>[] args();
+}
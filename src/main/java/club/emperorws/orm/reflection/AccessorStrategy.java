@@ -0,0 +1,28 @@
+package club.emperorws.orm.reflection;
+
+/**
+ * 属性访问器（get、set）的生成策略
+ *
+ * @author: EmperorWS
+ * @date: 2023/8/18 17:20
+ * @description: AccessorStrategy: 属性访问器（get、set）的生成策略
+ */
+public enum AccessorStrategy {
+
+    /**
+     * 反射：Method.invoke、Field.get/set（每次调用都要分配参数数组，并做访问检查）
+     */
+    REFLECTION,
+
+    /**
+     * MethodHandle：创建Reflector时把get、set方法（或Field）转换成MethodHandle，之后直接调用；
+     * 无法访问的成员（如模块化后的JDK内部类）自动回退到反射
+     */
+    METHOD_HANDLE,
+
+    /**
+     * LambdaMetafactory：get、set方法生成Function、BiConsumer，调用开销与直接调用接近；
+     * 无法生成时回退到反射（LambdaMetafactory无法直接操作Field，没有get、set方法的属性仍然使用反射）
+     */
+    LAMBDA
+}
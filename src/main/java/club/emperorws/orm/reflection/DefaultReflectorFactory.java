@@ -16,6 +16,12 @@ public class DefaultReflectorFactory implements ReflectorFactory {
 
     private boolean classCacheEnabled = true;
 
+    /**
+     * get、set访问器的生成策略，默认LambdaMetafactory（无法生成时自动回退到反射）
+     * <p>不缓存Reflector时LambdaMetafactory不生效：每次都会生成新的隐藏类，占用Metaspace，且比反射更慢</p>
+     */
+    private volatile AccessorStrategy accessorStrategy = AccessorStrategy.LAMBDA;
+
     /**
      * class-Reflector之间的映射集合缓存
      */
@@ -34,12 +40,29 @@ public class DefaultReflectorFactory implements ReflectorFactory {
         this.classCacheEnabled = classCacheEnabled;
     }
 
+    @Override
+    public AccessorStrategy getAccessorStrategy() {
+        return accessorStrategy;
+    }
+
+    /**
+     * 设置get、set访问器的生成策略（已缓存的Reflector会被清空）
+     *
+     * @param accessorStrategy 访问器的生成策略
+     */
+    @Override
+    public void setAccessorStrategy(AccessorStrategy accessorStrategy) {
+        this.accessorStrategy = accessorStrategy;
+        reflectorMap.clear();
+    }
+
     @Override
     public Reflector findForClass(Class<?> type) {
         if (classCacheEnabled) {
-            return MapUtil.computeIfAbsent(reflectorMap, type, Reflector::new);
+            return MapUtil.computeIfAbsent(reflectorMap, type, clazz -> new Reflector(clazz, accessorStrategy));
         } else {
-            return new Reflector(type);
+            //不缓存时生成的访问器用完即弃，改用反射
+            return new Reflector(type, accessorStrategy == AccessorStrategy.LAMBDA ? AccessorStrategy.REFLECTION : accessorStrategy);
         }
     }
 }
@@ -2,10 +2,13 @@ package club.emperorws.orm.reflection;
 
 import club.emperorws.orm.reflection.invoker.GetFieldInvoker;
 import club.emperorws.orm.reflection.invoker.Invoker;
+import club.emperorws.orm.reflection.invoker.LambdaInvoker;
+import club.emperorws.orm.reflection.invoker.MethodHandleInvoker;
 import club.emperorws.orm.reflection.invoker.MethodInvoker;
 import club.emperorws.orm.reflection.property.PropertyTokenizer;
 
 import java.lang.reflect.Field;
+import java.lang.reflect.Member;
 import java.lang.reflect.Method;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
@@ -173,6 +176,14 @@ public class MetaClass {
                 declaredField.setAccessible(true);
                 Field field = (Field) declaredField.get(invoker);
                 return TypeParameterResolver.resolveFieldType(field, reflector.getType());
+            } else if (invoker instanceof LambdaInvoker) {
+                return TypeParameterResolver.resolveReturnType(((LambdaInvoker) invoker).getMethod(), reflector.getType());
+            } else if (invoker instanceof MethodHandleInvoker) {
+                Member member = ((MethodHandleInvoker) invoker).getMember();
+                if (member instanceof Method) {
+                    return TypeParameterResolver.resolveReturnType((Method) member, reflector.getType());
+                }
+                return TypeParameterResolver.resolveFieldType((Field) member, reflector.getType());
             }
         } catch (NoSuchFieldException | IllegalAccessException e) {
             // Ignored
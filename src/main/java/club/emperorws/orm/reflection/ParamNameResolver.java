@@ -3,6 +3,7 @@ package club.emperorws.orm.reflection;
 import club.emperorws.orm.Configuration;
 import club.emperorws.orm.annotations.Param;
 import club.emperorws.orm.bingding.MapperMethod.ParamMap;
+import club.emperorws.orm.bingding.MapperMethod.ParamShape;
 import club.emperorws.orm.mapping.RowBounds;
 import club.emperorws.orm.mapping.SqlSource;
 import club.emperorws.orm.result.ResultHandler;
@@ -31,6 +32,10 @@ public class ParamNameResolver {
      */
     public static final String GENERIC_NAME_PREFIX = "param";
 
+    private static final ParamShape COLLECTION_SHAPE = new ParamShape("collection");
+    private static final ParamShape LIST_SHAPE = new ParamShape("collection", "list");
+    private static final ParamShape ARRAY_SHAPE = new ParamShape("array");
+
     /**
      * 是否直接使用方法的参数名称当作DAO（Mapper）方法的参数名
      */
@@ -52,6 +57,23 @@ public class ParamNameResolver {
      */
     private boolean hasParamAnnotation;
 
+    /**
+     * 封装后的请求参数的名称（@Param的名称、param1、param2...），解析方法签名时确定
+     */
+    private final ParamShape paramShape;
+
+    /**
+     * paramShape中每个参数名称对应的实际请求参数index
+     */
+    private final int[] argIndexes;
+
+    /**
+     * 单个集合、数组参数再封装时的参数名称（只有一个参数且没有使用@Param注解时才有）
+     */
+    private final ParamShape collectionShape;
+    private final ParamShape listShape;
+    private final ParamShape arrayShape;
+
     public ParamNameResolver(Configuration config, Method method) {
         this.useActualParamName = config.isUseActualParamName();
         final Class<?>[] paramTypes = method.getParameterTypes();
@@ -87,6 +109,30 @@ public class ParamNameResolver {
             map.put(paramIndex, name);
         }
         names = Collections.unmodifiableSortedMap(map);
+        //解析封装后的请求参数的名称：@Param的名称、默认的参数名称 (param1, param2, ...)
+        final Map<String, Integer> shapeMap = new LinkedHashMap<>();
+        int i = 0;
+        for (Map.Entry<Integer, String> entry : names.entrySet()) {
+            shapeMap.put(entry.getValue(), entry.getKey());
+            final String genericParamName = GENERIC_NAME_PREFIX + (i + 1);
+            // 不要覆盖@Param的名称
+            if (!names.containsValue(genericParamName)) {
+                shapeMap.put(genericParamName, entry.getKey());
+            }
+            i++;
+        }
+        this.paramShape = new ParamShape(shapeMap.keySet().toArray(new String[0]));
+        this.argIndexes = shapeMap.values().stream().mapToInt(Integer::intValue).toArray();
+        String actualParamName = !hasParamAnnotation && names.size() == 1 && useActualParamName ? names.get(0) : null;
+        if (actualParamName != null) {
+            this.collectionShape = newWrapperShape(actualParamName, "collection");
+            this.listShape = newWrapperShape(actualParamName, "collection", "list");
+            this.arrayShape = newWrapperShape(actualParamName, "array");
+        } else {
+            this.collectionShape = COLLECTION_SHAPE;
+            this.listShape = LIST_SHAPE;
+            this.arrayShape = ARRAY_SHAPE;
+        }
     }
 
     /**
@@ -104,21 +150,14 @@ public class ParamNameResolver {
             //注意这里，没有使用@Param注解，且参数数量只有一个，则直接返回‘对象’本体
             Object value = args[names.firstKey()];
             //自己封装一下参数（特别处理集合）
-            return wrapToMapIfCollection(value, useActualParamName ? names.get(0) : null);
+            return wrapToMapIfCollection(value, collectionShape, listShape, arrayShape);
         } else {
-            final Map<String, Object> param = new ParamMap<>();
-            int i = 0;
-            for (Map.Entry<Integer, String> entry : names.entrySet()) {
-                param.put(entry.getValue(), args[entry.getKey()]);
-                // 生成默认的参数名称 (param1, param2, ...)
-                final String genericParamName = GENERIC_NAME_PREFIX + (i + 1);
-                // 不要覆盖@Param的名称
-                if (!names.containsValue(genericParamName)) {
-                    param.put(genericParamName, args[entry.getKey()]);
-                }
-                i++;
+            //参数名称已预先解析，只需要按下标复制参数
+            final Object[] values = new Object[argIndexes.length];
+            for (int i = 0; i < argIndexes.length; i++) {
+                values[i] = args[argIndexes[i]];
             }
-            return param;
+            return new ParamMap<>(paramShape, values);
         }
     }
 
@@ -130,21 +169,36 @@ public class ParamNameResolver {
      * @return 包装后集合参数
      */
     public static Object wrapToMapIfCollection(Object object, String actualParamName) {
-        if (object instanceof Collection) {
-            ParamMap<Object> map = new ParamMap<>();
-            map.put("collection", object);
-            if (object instanceof List) {
-                map.put("list", object);
-            }
-            Optional.ofNullable(actualParamName).ifPresent(name -> map.put(name, object));
-            return map;
+        if (actualParamName == null) {
+            return wrapToMapIfCollection(object, COLLECTION_SHAPE, LIST_SHAPE, ARRAY_SHAPE);
+        }
+        return wrapToMapIfCollection(object, newWrapperShape(actualParamName, "collection"),
+                newWrapperShape(actualParamName, "collection", "list"), newWrapperShape(actualParamName, "array"));
+    }
+
+    private static Object wrapToMapIfCollection(Object object, ParamShape collectionShape, ParamShape listShape, ParamShape arrayShape) {
+        ParamShape shape;
+        if (object instanceof List) {
+            shape = listShape;
+        } else if (object instanceof Collection) {
+            shape = collectionShape;
         } else if (object != null && object.getClass().isArray()) {
-            ParamMap<Object> map = new ParamMap<>();
-            map.put("array", object);
-            Optional.ofNullable(actualParamName).ifPresent(name -> map.put(name, object));
-            return map;
+            shape = arrayShape;
+        } else {
+            return object;
         }
-        return object;
+        Object[] values = new Object[shape.size()];
+        Arrays.fill(values, object);
+        return new ParamMap<>(shape, values);
+    }
+
+    /**
+     * 集合、数组参数再封装时的参数名称（实际参数名称与固定名称相同时只保留一个）
+     */
+    private static ParamShape newWrapperShape(String actualParamName, String... fixedNames) {
+        Set<String> shapeNames = new LinkedHashSet<>(Arrays.asList(fixedNames));
+        shapeNames.add(actualParamName);
+        return new ParamShape(shapeNames.toArray(new String[0]));
     }
 
     /**
@@ -1,5 +1,7 @@
 package club.emperorws.orm.reflection;
 
+import club.emperorws.orm.annotations.AutomapConstructor;
+import club.emperorws.orm.annotations.Param;
 import club.emperorws.orm.exception.OrmException;
 import club.emperorws.orm.reflection.invoker.*;
 import club.emperorws.orm.reflection.property.PropertyNamer;
@@ -32,11 +34,22 @@ public class Reflector {
      */
     private final Class<?> type;
 
+    /**
+     * get、set访问器的生成策略
+     */
+    private final AccessorStrategy accessorStrategy;
+
     /**
      * type的默认构造器（即：无参构造器）
      */
     private Constructor<?> defaultConstructor;
 
+    /**
+     * 查询结果映射使用的构造器（不可变对象），以及构造器参数对应的属性名称（无法获取名称时为null）
+     */
+    private Constructor<?> automapConstructor;
+    private String[] automapConstructorParamNames;
+
     /**
      * 允许get的属性名称
      */
@@ -73,9 +86,16 @@ public class Reflector {
     private Map<String, String> caseInsensitivePropertyMap = new HashMap<>();
 
     public Reflector(Class<?> clazz) {
+        this(clazz, AccessorStrategy.REFLECTION);
+    }
+
+    public Reflector(Class<?> clazz, AccessorStrategy accessorStrategy) {
         type = clazz;
+        this.accessorStrategy = accessorStrategy;
         //获取默认构造器
         addDefaultConstructor(clazz);
+        //获取查询结果映射使用的构造器
+        addAutomapConstructor(clazz);
         Method[] classMethods = getClassMethods(clazz);
         if (isRecord(type)) {
             //获取Record的get方法：we can ignore
@@ -102,6 +122,50 @@ public class Reflector {
                 .findAny().ifPresent(constructor -> this.defaultConstructor = constructor);
     }
 
+    /**
+     * 查询结果映射使用的构造器：标注了{@link AutomapConstructor}的构造器-->Record的规范构造器-->没有无参构造器时唯一的构造器
+     */
+    private void addAutomapConstructor(Class<?> clazz) {
+        Constructor<?>[] constructors = clazz.getDeclaredConstructors();
+        Constructor<?> constructor = Arrays.stream(constructors).filter(c -> c.isAnnotationPresent(AutomapConstructor.class))
+                .findFirst().orElse(null);
+        String[] recordComponentNames = null;
+        if (isRecord(clazz)) {
+            Object[] recordComponents = getRecordComponents(clazz);
+            Class<?>[] componentTypes = new Class<?>[recordComponents.length];
+            recordComponentNames = new String[recordComponents.length];
+            for (int i = 0; i < recordComponents.length; i++) {
+                componentTypes[i] = (Class<?>) invokeNoArgs(recordComponents[i], "getType");
+                recordComponentNames[i] = (String) invokeNoArgs(recordComponents[i], "getName");
+            }
+            if (constructor == null) {
+                constructor = Arrays.stream(constructors).filter(c -> Arrays.equals(c.getParameterTypes(), componentTypes))
+                        .findFirst().orElse(null);
+            }
+        }
+        if (constructor == null && defaultConstructor == null && constructors.length == 1) {
+            constructor = constructors[0];
+        }
+        if (constructor == null) {
+            return;
+        }
+        Parameter[] parameters = constructor.getParameters();
+        boolean canonical = recordComponentNames != null && recordComponentNames.length == parameters.length;
+        String[] paramNames = new String[parameters.length];
+        for (int i = 0; i < parameters.length; i++) {
+            Param param = parameters[i].getAnnotation(Param.class);
+            if (param != null) {
+                paramNames[i] = param.value();
+            } else if (canonical) {
+                paramNames[i] = recordComponentNames[i];
+            } else if (parameters[i].isNamePresent()) {
+                paramNames[i] = parameters[i].getName();
+            }
+        }
+        automapConstructor = constructor;
+        automapConstructorParamNames = paramNames;
+    }
+
     /**
      * This method returns an array containing all methods
      * declared in this class and any superclass.
@@ -182,18 +246,18 @@ public class Reflector {
     }
 
     private void addGetMethod(String name, Method method, boolean isAmbiguous) {
-        MethodInvoker invoker = isAmbiguous
+        Invoker invoker = isAmbiguous
                 ? new AmbiguousMethodInvoker(method, MessageFormat.format(
                 "Illegal overloaded getter method with ambiguous type for property ''{0}'' in class ''{1}''. This breaks the JavaBeans specification and can cause unpredictable results.",
                 name, method.getDeclaringClass().getName()))
-                : new MethodInvoker(method);
+                : newMethodInvoker(method);
         getMethods.put(name, invoker);
         Type returnType = TypeParameterResolver.resolveReturnType(method, type);
         getTypes.put(name, typeToClass(returnType));
     }
 
     private void addSetMethod(String name, Method method) {
-        MethodInvoker invoker = new MethodInvoker(method);
+        Invoker invoker = newMethodInvoker(method);
         setMethods.put(name, invoker);
         Type[] paramTypes = TypeParameterResolver.resolveParamTypes(method, type);
         setTypes.put(name, typeToClass(paramTypes[0]));
@@ -201,7 +265,7 @@ public class Reflector {
 
     private void addGetField(Field field) {
         if (isValidPropertyName(field.getName())) {
-            getMethods.put(field.getName(), new GetFieldInvoker(field));
+            getMethods.put(field.getName(), newGetFieldInvoker(field));
             Type fieldType = TypeParameterResolver.resolveFieldType(field, type);
             getTypes.put(field.getName(), typeToClass(fieldType));
         }
@@ -209,12 +273,54 @@ public class Reflector {
 
     private void addSetField(Field field) {
         if (isValidPropertyName(field.getName())) {
-            setMethods.put(field.getName(), new SetFieldInvoker(field));
+            setMethods.put(field.getName(), newSetFieldInvoker(field));
             Type fieldType = TypeParameterResolver.resolveFieldType(field, type);
             setTypes.put(field.getName(), typeToClass(fieldType));
         }
     }
 
+    /**
+     * 按访问器策略创建get、set方法的执行器，无法创建时逐级回退（LambdaMetafactory、MethodHandle-->反射）
+     */
+    private Invoker newMethodInvoker(Method method) {
+        if (accessorStrategy == AccessorStrategy.LAMBDA) {
+            try {
+                return LambdaInvoker.forMethod(method);
+            } catch (Throwable t) {
+                // Ignored. 回退到反射
+            }
+        } else if (accessorStrategy == AccessorStrategy.METHOD_HANDLE) {
+            try {
+                return MethodHandleInvoker.forMethod(method);
+            } catch (IllegalAccessException | RuntimeException e) {
+                // Ignored. 回退到反射
+            }
+        }
+        return new MethodInvoker(method);
+    }
+
+    private Invoker newGetFieldInvoker(Field field) {
+        if (accessorStrategy == AccessorStrategy.METHOD_HANDLE) {
+            try {
+                return MethodHandleInvoker.forGetField(field);
+            } catch (IllegalAccessException | RuntimeException e) {
+                // Ignored. 回退到反射（包括static属性）
+            }
+        }
+        return new GetFieldInvoker(field);
+    }
+
+    private Invoker newSetFieldInvoker(Field field) {
+        if (accessorStrategy == AccessorStrategy.METHOD_HANDLE) {
+            try {
+                return MethodHandleInvoker.forSetField(field);
+            } catch (IllegalAccessException | RuntimeException e) {
+                // Ignored. 回退到反射（包括final属性）
+            }
+        }
+        return new SetFieldInvoker(field);
+    }
+
     private void addMethodConflict(Map<String, List<Method>> conflictingMethods, String name, Method method) {
         //是有效的属性名称
         if (isValidPropertyName(name)) {
@@ -383,6 +489,10 @@ public class Reflector {
         return type;
     }
 
+    public AccessorStrategy getAccessorStrategy() {
+        return accessorStrategy;
+    }
+
     public Constructor<?> getDefaultConstructor() {
         if (defaultConstructor != null) {
             return defaultConstructor;
@@ -395,6 +505,24 @@ public class Reflector {
         return defaultConstructor != null;
     }
 
+    /**
+     * 查询结果映射使用的构造器
+     *
+     * @return 构造器，没有时返回null（使用无参构造器+set方法）
+     */
+    public Constructor<?> getAutomapConstructor() {
+        return automapConstructor;
+    }
+
+    /**
+     * 查询结果映射使用的构造器的参数名称
+     *
+     * @return 参数名称，无法获取名称的参数为null（按下标匹配列）
+     */
+    public String[] getAutomapConstructorParamNames() {
+        return automapConstructorParamNames;
+    }
+
     public Invoker getSetInvoker(String propertyName) {
         Invoker method = setMethods.get(propertyName);
         if (method == null) {
@@ -512,6 +640,25 @@ public class Reflector {
         }
     }
 
+    /**
+     * Class.getRecordComponents() alternative for Java 15 and older.
+     */
+    private static Object[] getRecordComponents(Class<?> clazz) {
+        try {
+            return (Object[]) Class.class.getMethod("getRecordComponents").invoke(clazz);
+        } catch (ReflectiveOperationException e) {
+            throw new OrmException("Failed to invoke 'Class.getRecordComponents()'.", e);
+        }
+    }
+
+    private static Object invokeNoArgs(Object target, String methodName) {
+        try {
+            return target.getClass().getMethod(methodName).invoke(target);
+        } catch (ReflectiveOperationException e) {
+            throw new OrmException("Failed to invoke '" + methodName + "()' on " + target.getClass() + ".", e);
+        }
+    }
+
     private void addRecordGetMethods(Method[] methods) {
         Arrays.stream(methods).filter(m -> m.getParameterTypes().length == 0)
                 .forEach(m -> addGetMethod(m.getName(), m, false));
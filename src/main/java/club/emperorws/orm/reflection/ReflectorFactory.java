@@ -13,5 +13,9 @@ public interface ReflectorFactory {
 
     void setClassCacheEnabled(boolean classCacheEnabled);
 
+    AccessorStrategy getAccessorStrategy();
+
+    void setAccessorStrategy(AccessorStrategy accessorStrategy);
+
     Reflector findForClass(Class<?> type);
 }
@@ -13,4 +13,24 @@ public interface Invoker {
     Object invoke(Object target, Object[] args) throws IllegalAccessException, InvocationTargetException;
 
     Class<?> getType();
+
+    /**
+     * 执行get（实现类可以覆盖，避免分配参数数组）
+     *
+     * @param target 实际对象
+     * @return 值
+     */
+    default Object get(Object target) throws IllegalAccessException, InvocationTargetException {
+        return invoke(target, null);
+    }
+
+    /**
+     * 执行set（实现类可以覆盖，避免分配参数数组）
+     *
+     * @param target 实际对象
+     * @param value  值
+     */
+    default void set(Object target, Object value) throws IllegalAccessException, InvocationTargetException {
+        invoke(target, new Object[]{value});
+    }
 }
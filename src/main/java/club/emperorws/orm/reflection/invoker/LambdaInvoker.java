@@ -0,0 +1,126 @@
+package club.emperorws.orm.reflection.invoker;
+
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * 通过LambdaMetafactory生成的函数执行get、set方法
+ * <p>get方法生成{@link Function}，set方法生成{@link BiConsumer}，调用时就是一次普通的接口调用（JIT可以内联），没有反射和参数数组</p>
+ * <p>每个方法会生成一个很小的类，只适合Reflector缓存开启（默认）时使用</p>
+ *
+ * @author: EmperorWS
+ * @date: 2023/8/18 17:40
+ * @description: LambdaInvoker: 通过LambdaMetafactory生成的函数执行get、set方法
+ */
+public class LambdaInvoker implements Invoker {
+
+    private static final MethodType GETTER_FACTORY_TYPE = MethodType.methodType(Function.class);
+
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+    private static final MethodType SETTER_FACTORY_TYPE = MethodType.methodType(BiConsumer.class);
+
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    private final Method method;
+
+    private final Class<?> type;
+
+    private final Function<Object, Object> getter;
+
+    private final BiConsumer<Object, Object> setter;
+
+    private LambdaInvoker(Method method, Class<?> type, Function<Object, Object> getter, BiConsumer<Object, Object> setter) {
+        this.method = method;
+        this.type = type;
+        this.getter = getter;
+        this.setter = setter;
+    }
+
+    /**
+     * 创建get、set方法的执行器
+     *
+     * @param method get、set方法
+     * @return 执行器
+     * @throws Throwable 无法访问该方法，或当前JVM无法生成函数
+     */
+    @SuppressWarnings("unchecked")
+    public static LambdaInvoker forMethod(Method method) throws Throwable {
+        MethodHandles.Lookup lookup = privateLookupIn(method.getDeclaringClass());
+        MethodHandle handle = lookup.unreflect(method);
+        if (method.getParameterTypes().length == 1) {
+            //set方法的返回值（链式set）直接丢弃
+            MethodType instantiatedType = handle.type().wrap().changeReturnType(void.class);
+            BiConsumer<Object, Object> setter = (BiConsumer<Object, Object>) LambdaMetafactory.metafactory(lookup, "accept",
+                    SETTER_FACTORY_TYPE, SETTER_TYPE, handle, instantiatedType).getTarget().invokeExact();
+            return new LambdaInvoker(method, method.getParameterTypes()[0], null, setter);
+        }
+        Function<Object, Object> getter = (Function<Object, Object>) LambdaMetafactory.metafactory(lookup, "apply",
+                GETTER_FACTORY_TYPE, GETTER_TYPE, handle, handle.type().wrap()).getTarget().invokeExact();
+        return new LambdaInvoker(method, method.getReturnType(), getter, null);
+    }
+
+    /**
+     * 获取对targetClass有私有访问权限的Lookup（生成的函数类与targetClass在同一个ClassLoader中）
+     * <p>Java 9+使用MethodHandles.privateLookupIn，Java 8使用Lookup的私有构造器</p>
+     */
+    private static MethodHandles.Lookup privateLookupIn(Class<?> targetClass) throws ReflectiveOperationException {
+        try {
+            Method privateLookupIn = MethodHandles.class.getMethod("privateLookupIn", Class.class, MethodHandles.Lookup.class);
+            return (MethodHandles.Lookup) privateLookupIn.invoke(null, targetClass, MethodHandles.lookup());
+        } catch (NoSuchMethodException e) {
+            Constructor<MethodHandles.Lookup> constructor = MethodHandles.Lookup.class.getDeclaredConstructor(Class.class, int.class);
+            constructor.setAccessible(true);
+            int allModes = MethodHandles.Lookup.PUBLIC | MethodHandles.Lookup.PRIVATE | MethodHandles.Lookup.PROTECTED | MethodHandles.Lookup.PACKAGE;
+            return constructor.newInstance(targetClass, allModes);
+        }
+    }
+
+    @Override
+    public Object invoke(Object target, Object[] args) throws InvocationTargetException {
+        if (getter != null) {
+            return get(target);
+        }
+        set(target, args[0]);
+        return null;
+    }
+
+    @Override
+    public Object get(Object target) throws InvocationTargetException {
+        try {
+            return getter.apply(target);
+        } catch (Throwable t) {
+            throw new InvocationTargetException(t);
+        }
+    }
+
+    @Override
+    public void set(Object target, Object value) throws InvocationTargetException {
+        try {
+            setter.accept(target, value);
+        } catch (Throwable t) {
+            throw new InvocationTargetException(t);
+        }
+    }
+
+    @Override
+    public Class<?> getType() {
+        return type;
+    }
+
+    /**
+     * 原始的get、set方法
+     *
+     * @return 方法
+     */
+    public Method getMethod() {
+        return method;
+    }
+}
@@ -0,0 +1,156 @@
+package club.emperorws.orm.reflection.invoker;
+
+import club.emperorws.orm.reflection.Reflector;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+
+/**
+ * 通过MethodHandle执行get、set方法（或直接操作Field）
+ * <p>MethodHandle在创建时统一转换为(Object)Object、(Object, Object)void的签名，调用时不需要分配参数数组，也没有反射的访问检查</p>
+ *
+ * @author: EmperorWS
+ * @date: 2023/8/18 17:25
+ * @description: MethodHandleInvoker: 通过MethodHandle执行get、set方法
+ */
+public class MethodHandleInvoker implements Invoker {
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    /**
+     * 原始的方法或Field
+     */
+    private final Member member;
+
+    private final Class<?> type;
+
+    /**
+     * get：(Object)Object
+     */
+    private final MethodHandle getter;
+
+    /**
+     * set：(Object, Object)void
+     */
+    private final MethodHandle setter;
+
+    private MethodHandleInvoker(Member member, Class<?> type, MethodHandle getter, MethodHandle setter) {
+        this.member = member;
+        this.type = type;
+        this.getter = getter;
+        this.setter = setter;
+    }
+
+    /**
+     * 创建get、set方法的执行器
+     *
+     * @param method get、set方法
+     * @return 执行器
+     * @throws IllegalAccessException 无法访问该方法
+     */
+    public static MethodHandleInvoker forMethod(Method method) throws IllegalAccessException {
+        MethodHandle handle = unreflect(method, () -> LOOKUP.unreflect(method));
+        if (method.getParameterTypes().length == 1) {
+            return new MethodHandleInvoker(method, method.getParameterTypes()[0], null, handle.asType(SETTER_TYPE));
+        }
+        return new MethodHandleInvoker(method, method.getReturnType(), handle.asType(GETTER_TYPE), null);
+    }
+
+    /**
+     * 创建直接读取Field的执行器
+     *
+     * @param field 属性
+     * @return 执行器
+     * @throws IllegalAccessException 无法访问该属性
+     */
+    public static MethodHandleInvoker forGetField(Field field) throws IllegalAccessException {
+        MethodHandle handle = unreflect(field, () -> LOOKUP.unreflectGetter(field));
+        return new MethodHandleInvoker(field, field.getType(), handle.asType(GETTER_TYPE), null);
+    }
+
+    /**
+     * 创建直接设置Field的执行器
+     *
+     * @param field 属性
+     * @return 执行器
+     * @throws IllegalAccessException 无法访问该属性（包括final属性）
+     */
+    public static MethodHandleInvoker forSetField(Field field) throws IllegalAccessException {
+        MethodHandle handle = unreflect(field, () -> LOOKUP.unreflectSetter(field));
+        return new MethodHandleInvoker(field, field.getType(), null, handle.asType(SETTER_TYPE));
+    }
+
+    /**
+     * 先按正常的访问权限转换，失败时再尝试setAccessible(true)
+     */
+    private static <T extends AccessibleObject & Member> MethodHandle unreflect(T member, Unreflector unreflector) throws IllegalAccessException {
+        try {
+            return unreflector.unreflect();
+        } catch (IllegalAccessException e) {
+            if (Reflector.canControlMemberAccessible()) {
+                member.setAccessible(true);
+                return unreflector.unreflect();
+            } else {
+                throw e;
+            }
+        }
+    }
+
+    @Override
+    public Object invoke(Object target, Object[] args) throws InvocationTargetException {
+        if (getter != null) {
+            return get(target);
+        }
+        set(target, args[0]);
+        return null;
+    }
+
+    @Override
+    public Object get(Object target) throws InvocationTargetException {
+        try {
+            return getter.invokeExact(target);
+        } catch (Throwable t) {
+            throw new InvocationTargetException(t);
+        }
+    }
+
+    @Override
+    public void set(Object target, Object value) throws InvocationTargetException {
+        try {
+            setter.invokeExact(target, value);
+        } catch (Throwable t) {
+            throw new InvocationTargetException(t);
+        }
+    }
+
+    @Override
+    public Class<?> getType() {
+        return type;
+    }
+
+    /**
+     * 原始的方法（{@link Method}）或属性（{@link Field}）
+     *
+     * @return 方法或属性
+     */
+    public Member getMember() {
+        return member;
+    }
+
+    /*************************************************inner class*********************************************************/
+
+    @FunctionalInterface
+    private interface Unreflector {
+        MethodHandle unreflect() throws IllegalAccessException;
+    }
+}
@@ -20,17 +20,22 @@ public class SetFieldInvoker implements Invoker {
 
     @Override
     public Object invoke(Object target, Object[] args) throws IllegalAccessException {
+        set(target, args[0]);
+        return null;
+    }
+
+    @Override
+    public void set(Object target, Object value) throws IllegalAccessException {
         try {
-            field.set(target, args[0]);
+            field.set(target, value);
         } catch (IllegalAccessException e) {
             if (Reflector.canControlMemberAccessible()) {
                 field.setAccessible(true);
-                field.set(target, args[0]);
+                field.set(target, value);
             } else {
                 throw e;
             }
         }
-        return null;
     }
 
     @Override
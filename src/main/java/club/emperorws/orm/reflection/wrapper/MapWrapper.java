@@ -101,11 +101,8 @@ public class MapWrapper extends BaseWrapper {
                 return metaValue.getSetterType(prop.getChildren());
             }
         } else {
-            if (map.get(name) != null) {
-                return map.get(name).getClass();
-            } else {
-                return Object.class;
-            }
+            Object value = map.get(name);
+            return value != null ? value.getClass() : Object.class;
         }
     }
 
@@ -126,11 +123,8 @@ public class MapWrapper extends BaseWrapper {
                 return metaValue.getGetterType(prop.getChildren());
             }
         } else {
-            if (map.get(name) != null) {
-                return map.get(name).getClass();
-            } else {
-                return Object.class;
-            }
+            Object value = map.get(name);
+            return value != null ? value.getClass() : Object.class;
         }
     }
 
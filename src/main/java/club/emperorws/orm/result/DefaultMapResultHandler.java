@@ -25,10 +25,21 @@ public class DefaultMapResultHandler<K, V> implements ResultHandler<V> {
 
     @SuppressWarnings("unchecked")
     public DefaultMapResultHandler(String mapKey, ObjectFactory objectFactory, ObjectWrapperFactory objectWrapperFactory, ReflectorFactory reflectorFactory) {
+        this(mapKey, objectFactory.create(Map.class), objectFactory, objectWrapperFactory, reflectorFactory);
+    }
+
+    /**
+     * @param mapKey        哪一个属性作为键
+     * @param mappedResults 存放结果的Map（调用方指定的Map实现或预设容量的Map）
+     */
+    public DefaultMapResultHandler(String mapKey, Map<K, V> mappedResults, ObjectFactory objectFactory, ObjectWrapperFactory objectWrapperFactory, ReflectorFactory reflectorFactory) {
+        if (mappedResults == null) {
+            throw new IllegalArgumentException("The map to store the results must not be null");
+        }
         this.objectFactory = objectFactory;
         this.objectWrapperFactory = objectWrapperFactory;
         this.reflectorFactory = reflectorFactory;
-        this.mappedResults = objectFactory.create(Map.class);
+        this.mappedResults = mappedResults;
         this.mapKey = mapKey;
     }
 
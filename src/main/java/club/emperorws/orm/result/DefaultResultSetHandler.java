@@ -1,24 +1,32 @@
 package club.emperorws.orm.result;
 
 import club.emperorws.orm.Configuration;
+import club.emperorws.orm.cache.CacheKey;
 import club.emperorws.orm.cursor.Cursor;
+import club.emperorws.orm.cursor.defaults.DefaultCursor;
 import club.emperorws.orm.exception.OrmException;
+import club.emperorws.orm.executor.Executor;
+import club.emperorws.orm.executor.loader.BatchAssociationLoader;
+import club.emperorws.orm.executor.loader.LazyAssociationLoader;
 import club.emperorws.orm.mapping.MappedStatement;
 import club.emperorws.orm.mapping.ResultMap;
 import club.emperorws.orm.mapping.ResultMapping;
 import club.emperorws.orm.mapping.RowBounds;
 import club.emperorws.orm.reflection.MetaClass;
-import club.emperorws.orm.reflection.MetaObject;
+import club.emperorws.orm.reflection.Reflector;
 import club.emperorws.orm.reflection.ReflectorFactory;
 import club.emperorws.orm.reflection.factory.ObjectFactory;
+import club.emperorws.orm.reflection.invoker.Invoker;
 import club.emperorws.orm.type.TypeHandler;
 import club.emperorws.orm.type.TypeHandlerRegistry;
+import club.emperorws.orm.util.ExceptionUtil;
 
 import java.sql.CallableStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.*;
+import java.util.function.Function;
 
 /**
  * 默认的ResultSetHandler
@@ -31,6 +39,11 @@ public class DefaultResultSetHandler implements ResultSetHandler {
 
     private final Configuration configuration;
 
+    /**
+     * 执行当前查询的SQL执行器（分批加载、延迟加载关联对象时复用它的事务）
+     */
+    private final Executor executor;
+
     private final MappedStatement mappedStatement;
 
     private final RowBounds rowBounds;
@@ -44,12 +57,22 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     private final ReflectorFactory reflectorFactory;
 
     /**
-     * 自动映射相关信息缓存
+     * 当前结果集的行映射状态（同一个结果集只解析一次）
      */
-    private final Map<String, List<UnMappedColumnAutoMapping>> autoMappingsCache = new HashMap<>();
+    private ResultSetWrapper currentRsw;
+    private ResultMap currentResultMap;
+    private boolean primitiveResultObject;
+    private Reflector constructorReflector;
+    private RowMappingPlan rowMappingPlan;
 
-    public DefaultResultSetHandler(MappedStatement mappedStatement, ResultHandler<?> resultHandler, RowBounds rowBounds) {
+    /**
+     * 延迟加载属性的代理安装器（有延迟加载属性时才创建）
+     */
+    private LazyAssociationLoader lazyAssociationLoader;
+
+    public DefaultResultSetHandler(Executor executor, MappedStatement mappedStatement, ResultHandler<?> resultHandler, RowBounds rowBounds) {
         this.configuration = mappedStatement.getConfiguration();
+        this.executor = executor;
         this.mappedStatement = mappedStatement;
         this.rowBounds = rowBounds;
         this.typeHandlerRegistry = configuration.getTypeHandlerRegistry();
@@ -74,21 +97,55 @@ public class DefaultResultSetHandler implements ResultSetHandler {
         if (rsw != null) {
             //获取返回结果信息
             ResultMap resultMap = mappedStatement.getResultMap();
+            if (resultMap.hasBatchResultMappings() && resultHandler != null && !(resultHandler instanceof DefaultMapResultHandler)) {
+                //结果对象逐个交给ResultHandler后不再持有，结果集关闭后无法再分批加载关联对象
+                closeResultSet(rsw.getResultSet());
+                throw new OrmException("BATCH associations of " + resultMap.getId() + " cannot be loaded for results passed to a ResultHandler ("
+                        + resultHandler.getClass().getName() + "), use selectList or selectMap instead.");
+            }
             //处理查询结果
             handleResultSet(rsw, resultMap, multipleResults);
+            if (resultMap.hasBatchResultMappings()) {
+                //结果集关闭后，再分批加载所有结果的关联对象（复用当前的SQL执行器、事务）
+                if (resultHandler == null) {
+                    new BatchAssociationLoader(configuration, executor).load(resultMap, (List<?>) multipleResults.get(0));
+                } else if (resultHandler instanceof DefaultMapResultHandler) {
+                    //selectMap：结果对象都在Map中
+                    new BatchAssociationLoader(configuration, executor).load(resultMap,
+                            new ArrayList<>(((DefaultMapResultHandler<?, ?>) resultHandler).getMappedResults().values()));
+                }
+            }
         }
         //返回结果集
         return collapseSingleResultList(multipleResults);
     }
 
     /**
-     * 流式查询游标结果集处理，ignore
+     * 流式查询游标结果集处理
+     * <p>只包装ResultSet，不会读取任何记录，记录在游标遍历时逐行映射</p>
      *
      * @param stmt Statement执行sql
+     * @return 游标
+     * @throws SQLException 异常
      */
     @Override
     public <E> Cursor<E> handleCursorResultSets(Statement stmt) throws SQLException {
-        return null;
+        ResultSetWrapper rsw = getFirstResultSet(stmt);
+        if (rsw == null) {
+            throw new OrmException("Cursor results cannot be obtained, because the statement returned no ResultSet.");
+        }
+        ResultMap resultMap = mappedStatement.getResultMap();
+        if (resultMap.hasNestedResultMaps()) {
+            //游标逐行映射，无法合并同一个对象的多行记录
+            closeResultSet(rsw.getResultSet());
+            throw new OrmException("Cursor results cannot be obtained for nested result maps (" + resultMap.getId() + "), use selectList instead.");
+        }
+        if (resultMap.hasBatchResultMappings()) {
+            //游标逐行映射，结果集关闭前无法分批加载关联对象
+            closeResultSet(rsw.getResultSet());
+            throw new OrmException("Cursor results cannot be obtained for result maps with BATCH associations (" + resultMap.getId() + "), use selectList instead.");
+        }
+        return new DefaultCursor<>(this, resultMap, rsw, rowBounds);
     }
 
     /**
@@ -116,9 +173,29 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     }
 
     public void handleRowValues(ResultSetWrapper rsw, ResultMap resultMap, ResultHandler<?> resultHandler, RowBounds rowBounds) throws SQLException {
-        //if嵌套查询：暂不写复杂查询
-        //else简单查询
-        handleRowValuesForSimpleResultMap(rsw, resultMap, resultHandler, rowBounds);
+        if (resultHandler instanceof ResultSetRowHandler) {
+            //直接处理结果集的每一行，不做结果映射
+            handleRawRows(rsw, (ResultSetRowHandler) resultHandler, rowBounds);
+            return;
+        }
+        if (resultMap.hasNestedResultMaps()) {
+            //嵌套结果映射：JOIN查询的多行记录合并为对象图
+            handleRowValuesForNestedResultMap(rsw, resultMap, resultHandler, rowBounds);
+        } else {
+            handleRowValuesForSimpleResultMap(rsw, resultMap, resultHandler, rowBounds);
+        }
+    }
+
+    private void handleRawRows(ResultSetWrapper rsw, ResultSetRowHandler rowHandler, RowBounds rowBounds) throws SQLException {
+        ResultSet resultSet = rsw.getResultSet();
+        //内存分页
+        skipRows(resultSet, rowBounds);
+        rowHandler.prepare(rsw);
+        int rowCount = 0;
+        while (rowCount < rowBounds.getLimit() && !resultSet.isClosed() && resultSet.next()) {
+            rowHandler.handleRow(resultSet);
+            rowCount++;
+        }
     }
 
     private void handleRowValuesForSimpleResultMap(ResultSetWrapper rsw, ResultMap resultMap, ResultHandler<?> resultHandler, RowBounds rowBounds) throws SQLException {
@@ -132,23 +209,278 @@ public class DefaultResultSetHandler implements ResultSetHandler {
         while (shouldProcessMoreRows(resultContext, rowBounds) && !resultSet.isClosed() && resultSet.next()) {
             //获取记录的映射对象
             Object rowValue = getRowValue(rsw, resultMap);
+            installLazyLoaders(resultMap, rowValue);
             storeObject(resultHandler, resultContext, rowValue, resultSet);
         }
     }
 
+    /**
+     * 嵌套结果映射：按主键（{@link ResultMap#getIdColumn()}）去重，同一个对象只创建一次，之后的记录只补充它的关联对象、集合元素
+     * <p>去重索引（行key-->对象）只在处理当前结果集时存在，元素个数不超过结果中的对象个数，处理完成后立即释放</p>
+     * <p>达到RowBounds的limit后，继续读取属于已有对象的记录，遇到新对象时停止（JOIN结果按父对象排序时，最后一个对象也是完整的）</p>
+     * <p>父对象在遇到下一个新对象（或结果集结束）时才交给ResultHandler，此时它的关联对象、集合元素已经填充完成（JOIN结果需要按父对象排序）</p>
+     */
+    private void handleRowValuesForNestedResultMap(ResultSetWrapper rsw, ResultMap resultMap, ResultHandler<?> resultHandler, RowBounds rowBounds) throws SQLException {
+        final DefaultResultContext<Object> resultContext = new DefaultResultContext<>();
+        final ResultSet resultSet = rsw.getResultSet();
+        final NestedResultPlan resultPlan = compileNestedResultPlan(rsw, resultMap, null, false, new HashSet<>());
+        final Map<CacheKey, Object> nestedResultObjects = new HashMap<>();
+        //还在填充关联对象、未交给ResultHandler的父对象
+        Object previousRowValue = null;
+        try {
+            skipRows(resultSet, rowBounds);
+            while (!resultContext.isStopped() && !resultSet.isClosed() && resultSet.next()) {
+                final CacheKey rowKey = createRowKey(resultPlan, resultSet, null);
+                Object rowValue = rowKey == null ? null : nestedResultObjects.get(rowKey);
+                if (rowValue == null) {
+                    //新对象：上一个父对象的记录已经结束
+                    if (previousRowValue != null) {
+                        storeObject(resultHandler, resultContext, previousRowValue, resultSet);
+                        previousRowValue = null;
+                    }
+                    if (!shouldProcessMoreRows(resultContext, rowBounds)) {
+                        break;
+                    }
+                    rowValue = createNestedRowValue(rsw, resultPlan);
+                    if (rowValue == null) {
+                        storeObject(resultHandler, resultContext, null, resultSet);
+                        continue;
+                    }
+                    if (rowKey != null) {
+                        nestedResultObjects.put(rowKey, rowValue);
+                    }
+                    previousRowValue = rowValue;
+                }
+                applyNestedResultMappings(rsw, resultPlan, rowValue, rowKey, nestedResultObjects);
+            }
+            if (previousRowValue != null) {
+                storeObject(resultHandler, resultContext, previousRowValue, resultSet);
+            }
+        } finally {
+            nestedResultObjects.clear();
+        }
+    }
+
+    /**
+     * 处理当前记录中的关联对象、集合元素（递归处理多层嵌套）
+     */
+    @SuppressWarnings("unchecked")
+    private void applyNestedResultMappings(ResultSetWrapper rsw, NestedResultPlan parentPlan, Object parentValue, CacheKey parentKey,
+                                           Map<CacheKey, Object> nestedResultObjects) throws SQLException {
+        for (NestedProperty nestedProperty : parentPlan.nestedProperties) {
+            Collection<Object> collection = null;
+            if (nestedProperty.collection) {
+                //LEFT JOIN没有匹配的记录时，也返回空集合
+                collection = (Collection<Object>) instantiateCollectionIfEmpty(parentValue, nestedProperty);
+            }
+            final CacheKey nestedKey = createRowKey(nestedProperty.resultPlan, rsw.getResultSet(), parentKey);
+            if (nestedKey == null) {
+                //关联的列都为null：LEFT JOIN没有匹配的记录
+                continue;
+            }
+            Object nestedValue = nestedResultObjects.get(nestedKey);
+            if (nestedValue == null) {
+                nestedValue = createNestedRowValue(rsw, nestedProperty.resultPlan);
+                if (nestedValue == null) {
+                    continue;
+                }
+                nestedResultObjects.put(nestedKey, nestedValue);
+                if (collection != null) {
+                    collection.add(nestedValue);
+                } else {
+                    setNestedProperty(nestedProperty, parentValue, nestedValue);
+                }
+            }
+            applyNestedResultMappings(rsw, nestedProperty.resultPlan, nestedValue, nestedKey, nestedResultObjects);
+        }
+    }
+
+    /**
+     * 创建嵌套结果映射中的一个对象，并设置它的属性（不包括嵌套结果）
+     *
+     * @return 对象，所有列都为null且returnInstanceForEmptyRow=false时返回null
+     */
+    private Object createNestedRowValue(ResultSetWrapper rsw, NestedResultPlan resultPlan) throws SQLException {
+        final ResultMap resultMap = resultPlan.resultMap;
+        final Class<?> resultType = resultMap.getType();
+        if (!resultType.isInterface() && !MetaClass.forClass(resultType, reflectorFactory).hasDefaultConstructor()) {
+            throw new OrmException("Nested result maps require a default constructor, but " + resultType + " does not have one.");
+        }
+        final Object rowValue = objectFactory.create(resultType);
+        if (resultPlan.rowMappingPlan == null) {
+            resultPlan.rowMappingPlan = getRowMappingPlan(rsw, resultPlan.planKey, key -> RowMappingPlan.compile(configuration, rsw, resultMap,
+                    configuration.newMetaObject(rowValue), shouldApplyAutomaticMappings(resultMap, resultPlan.nested), resultPlan.columnPrefix));
+        }
+        boolean foundValues = resultPlan.rowMappingPlan.apply(configuration, rsw.getResultSet(), rowValue);
+        if (!foundValues && !configuration.isReturnInstanceForEmptyRow()) {
+            return null;
+        }
+        installLazyLoaders(resultMap, rowValue);
+        return rowValue;
+    }
+
+    /**
+     * 给结果对象的延迟加载属性设置代理对象
+     */
+    private void installLazyLoaders(ResultMap resultMap, Object rowValue) throws SQLException {
+        if (rowValue == null || !resultMap.hasLazyResultMappings()) {
+            return;
+        }
+        if (lazyAssociationLoader == null) {
+            lazyAssociationLoader = new LazyAssociationLoader(configuration, executor);
+        }
+        lazyAssociationLoader.install(resultMap, rowValue);
+    }
+
+    /**
+     * 行key：（ResultMap，列前缀，主键列的值，父对象的行key），主键列都为null时返回null
+     */
+    private CacheKey createRowKey(NestedResultPlan resultPlan, ResultSet rs, CacheKey parentKey) throws SQLException {
+        final CacheKey rowKey = new CacheKey();
+        rowKey.update(resultPlan.planKey);
+        boolean foundValues = false;
+        for (int columnIndex : resultPlan.keyColumnIndexes) {
+            Object value = rs.getObject(columnIndex);
+            foundValues = foundValues || value != null;
+            rowKey.update(value);
+        }
+        if (!foundValues) {
+            return null;
+        }
+        if (parentKey != null) {
+            rowKey.update(parentKey);
+        }
+        return rowKey;
+    }
+
+    private Object instantiateCollectionIfEmpty(Object parentValue, NestedProperty nestedProperty) {
+        Object collection;
+        try {
+            try {
+                collection = nestedProperty.getter.get(parentValue);
+            } catch (Throwable t) {
+                throw ExceptionUtil.unwrapThrowable(t);
+            }
+        } catch (Throwable t) {
+            throw new OrmException("Could not get property '" + nestedProperty.property + "' of '" + parentValue.getClass() + "'. Cause: " + t, t);
+        }
+        if (collection == null) {
+            collection = objectFactory.create(nestedProperty.javaType);
+            setNestedProperty(nestedProperty, parentValue, collection);
+        }
+        return collection;
+    }
+
+    private void setNestedProperty(NestedProperty nestedProperty, Object parentValue, Object value) {
+        try {
+            try {
+                nestedProperty.setter.set(parentValue, value);
+            } catch (Throwable t) {
+                throw ExceptionUtil.unwrapThrowable(t);
+            }
+        } catch (Throwable t) {
+            throw new OrmException("Could not set property '" + nestedProperty.property + "' of '" + parentValue.getClass() + "' with value '" + value + "'. Cause: " + t, t);
+        }
+    }
+
+    /**
+     * 编译嵌套结果映射计划：解析每一层的主键列下标、关联对象和集合元素
+     * <p>嵌套结果的列在结果集中不存在，或者与某一层祖先的（ResultMap，列前缀）相同（互相引用的实体）时，不再继续解析</p>
+     *
+     * @param rsw          ResultSet的包装器
+     * @param resultMap    当前层的结果映射
+     * @param columnPrefix 当前层的列前缀（包括所有祖先的前缀）
+     * @param nested       是否是嵌套的层
+     * @param ancestors    所有祖先的计划key
+     * @return 嵌套结果映射计划，当前层的列在结果集中不存在时返回null
+     */
+    private NestedResultPlan compileNestedResultPlan(ResultSetWrapper rsw, ResultMap resultMap, String columnPrefix, boolean nested,
+                                                     Set<String> ancestors) {
+        final String prefix = columnPrefix == null ? "" : columnPrefix;
+        final String planKey = nested ? resultMap.getId() + ":" + prefix : resultMap.getId();
+        if (!ancestors.add(planKey)) {
+            return null;
+        }
+        try {
+            final int[] keyColumnIndexes = resolveKeyColumnIndexes(rsw, resultMap, prefix);
+            if (keyColumnIndexes.length == 0) {
+                return null;
+            }
+            final NestedResultPlan resultPlan = new NestedResultPlan(resultMap, planKey, prefix, nested, keyColumnIndexes);
+            final Reflector reflector = reflectorFactory.findForClass(resultMap.getType());
+            for (ResultMapping nestedResultMapping : resultMap.getNestedResultMappings()) {
+                final String property = nestedResultMapping.getProperty();
+                if (!reflector.hasSetter(property) || (nestedResultMapping.isCollection() && !reflector.hasGetter(property))) {
+                    throw new OrmException("No setter/getter found for nested result property '" + property + "' of " + resultMap.getType());
+                }
+                final String nestedPrefix = nestedResultMapping.getColumnPrefix() == null ? prefix : prefix + nestedResultMapping.getColumnPrefix();
+                final ResultMap nestedResultMap = configuration.getNestedResultMap(nestedResultMapping.getNestedResultType());
+                final NestedResultPlan nestedResultPlan = compileNestedResultPlan(rsw, nestedResultMap, nestedPrefix, true, ancestors);
+                if (nestedResultPlan != null) {
+                    resultPlan.nestedProperties.add(new NestedProperty(nestedResultMapping, nestedResultPlan,
+                            reflector.getSetInvoker(property), nestedResultMapping.isCollection() ? reflector.getGetInvoker(property) : null));
+                }
+            }
+            return resultPlan;
+        } finally {
+            ancestors.remove(planKey);
+        }
+    }
+
+    /**
+     * 行key使用的列：主键列；没有主键列时使用ResultMap中映射的列；都没有时使用所有有列前缀的列
+     *
+     * @return 列下标数组（从1开始），当前层的列在结果集中不存在时为空数组
+     */
+    private int[] resolveKeyColumnIndexes(ResultSetWrapper rsw, ResultMap resultMap, String prefix) {
+        if (resultMap.getIdColumn() != null) {
+            int idColumnIndex = rsw.findColumnIndex(prefix + resultMap.getIdColumn());
+            if (idColumnIndex > 0) {
+                return new int[]{idColumnIndex};
+            }
+        }
+        List<Integer> columnIndexes = new ArrayList<>();
+        for (ResultMapping resultMapping : resultMap.getResultMappings()) {
+            if (!resultMapping.isNested() && resultMapping.getColumn() != null) {
+                int columnIndex = rsw.findColumnIndex(prefix + resultMapping.getColumn());
+                if (columnIndex > 0) {
+                    columnIndexes.add(columnIndex);
+                }
+            }
+        }
+        if (columnIndexes.isEmpty()) {
+            List<String> columnNames = rsw.getColumnNames();
+            for (int i = 0; i < columnNames.size(); i++) {
+                if (columnNames.get(i).toUpperCase(Locale.ENGLISH).startsWith(prefix.toUpperCase(Locale.ENGLISH))) {
+                    columnIndexes.add(i + 1);
+                }
+            }
+        }
+        return columnIndexes.stream().mapToInt(Integer::intValue).toArray();
+    }
+
     private Object getRowValue(ResultSetWrapper rsw, ResultMap resultMap) throws SQLException {
+        prepareRowMapping(rsw, resultMap);
+        if (constructorReflector != null) {
+            //不可变对象、Record：通过构造器一次性创建对象
+            if (rowMappingPlan == null) {
+                final Reflector reflector = constructorReflector;
+                rowMappingPlan = getRowMappingPlan(rsw, resultMap.getId(), key -> RowMappingPlan.compileConstructor(configuration, rsw, resultMap, reflector,
+                        shouldApplyAutomaticMappings(resultMap, false)));
+            }
+            return rowMappingPlan.createResultObject(configuration, rsw.getResultSet());
+        }
         //创建一个空对象
         Object rowValue = createResultObject(rsw, resultMap);
         //给空对象set值
-        if (rowValue != null && !hasTypeHandlerForResultObject(rsw, resultMap.getType())) {
-            final MetaObject metaObject = configuration.newMetaObject(rowValue);
-            boolean foundValues = false;
-            if (shouldApplyAutomaticMappings(resultMap, false)) {
-                //未定义的字段-->自动映射
-                foundValues = applyAutomaticMappings(rsw, resultMap, metaObject);
+        if (rowValue != null && !primitiveResultObject) {
+            if (rowMappingPlan == null) {
+                final Object firstRowValue = rowValue;
+                rowMappingPlan = getRowMappingPlan(rsw, resultMap.getId(), key -> RowMappingPlan.compile(configuration, rsw, resultMap,
+                        configuration.newMetaObject(firstRowValue), shouldApplyAutomaticMappings(resultMap, false)));
             }
-            //真正的结果集映射，设置rowValue的属性
-            foundValues = applyPropertyMappings(rsw, resultMap, metaObject) || foundValues;
+            //按预编译的行映射计划设置rowValue的属性（包括自动映射）
+            boolean foundValues = rowMappingPlan.apply(configuration, rsw.getResultSet(), rowValue);
             //如果所有列都为空，返回空实例还是null
             rowValue = foundValues || configuration.isReturnInstanceForEmptyRow() ? rowValue : null;
         }
@@ -156,7 +488,31 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     }
 
     /**
-     * 通过构造器的方式创建一个空对象（忽略通过构造器的方式创建对象，没有实现！！！）
+     * 结果集变化时，重新解析结果集相关的映射状态
+     */
+    private void prepareRowMapping(ResultSetWrapper rsw, ResultMap resultMap) {
+        if (currentRsw != rsw || currentResultMap != resultMap) {
+            currentRsw = rsw;
+            currentResultMap = resultMap;
+            primitiveResultObject = hasTypeHandlerForResultObject(rsw, resultMap.getType());
+            Reflector reflector = primitiveResultObject ? null : reflectorFactory.findForClass(resultMap.getType());
+            constructorReflector = reflector != null && reflector.getAutomapConstructor() != null ? reflector : null;
+            rowMappingPlan = null;
+        }
+    }
+
+    /**
+     * 获取行映射计划：先从结果集结构中获取，没有时再按（ResultMap，结果集列签名）从Configuration中获取（不同SQL结构相同时共用）
+     *
+     * @param planKey 行映射计划的key：ResultMap的id（嵌套结果映射还包括列前缀）
+     */
+    private RowMappingPlan getRowMappingPlan(ResultSetWrapper rsw, String planKey, Function<String, RowMappingPlan> compiler) {
+        return rsw.getRowMappingPlan(planKey, key -> configuration.getRowMappingPlanCache()
+                .computeIfAbsent(key + "#" + rsw.getColumnSignature(), compiler));
+    }
+
+    /**
+     * 通过无参构造器的方式创建一个空对象（构造器映射见{@link RowMappingPlan#compileConstructor}）
      *
      * @param rsw       ResultSet
      * @param resultMap 结果映射
@@ -165,11 +521,12 @@ public class DefaultResultSetHandler implements ResultSetHandler {
      */
     private Object createResultObject(ResultSetWrapper rsw, ResultMap resultMap) throws SQLException {
         final Class<?> resultType = resultMap.getType();
-        final MetaClass metaType = MetaClass.forClass(resultType, reflectorFactory);
-        if (hasTypeHandlerForResultObject(rsw, resultType)) {
+        if (primitiveResultObject) {
             //目测resultType是基本类型时（初始化就注册的TypeHandler），才会为true，且返回结果只有一列
             return createPrimitiveResultObject(rsw, resultMap);
-        } else if (resultType.isInterface() || metaType.hasDefaultConstructor()) {
+        }
+        final MetaClass metaType = MetaClass.forClass(resultType, reflectorFactory);
+        if (resultType.isInterface() || metaType.hasDefaultConstructor()) {
             return objectFactory.create(resultType);
         }
         throw new OrmException("Do not know how to create an instance of " + resultType);
@@ -197,115 +554,6 @@ public class DefaultResultSetHandler implements ResultSetHandler {
         return typeHandler.getResult(rsw.getResultSet(), columnName);
     }
 
-    /**
-     * 自动映射未定义的属性
-     *
-     * @param rsw        ResultSet
-     * @param resultMap  结果值映射信息
-     * @param metaObject 元对象
-     * @return 是否自动映射成功
-     * @throws SQLException 异常
-     */
-    private boolean applyAutomaticMappings(ResultSetWrapper rsw, ResultMap resultMap, MetaObject metaObject) throws SQLException {
-        List<UnMappedColumnAutoMapping> autoMapping = createAutomaticMappings(rsw, resultMap, metaObject);
-        boolean foundValues = false;
-        if (!autoMapping.isEmpty()) {
-            for (UnMappedColumnAutoMapping mapping : autoMapping) {
-                final Object value = mapping.typeHandler.getResult(rsw.getResultSet(), mapping.column);
-                if (value != null) {
-                    foundValues = true;
-                }
-                if (value != null || (configuration.isCallSettersOnNulls() && !mapping.primitive)) {
-                    metaObject.setValue(mapping.property, value);
-                }
-            }
-        }
-        return foundValues;
-    }
-
-    /**
-     * 获取未定义的属性映射
-     *
-     * @param rsw        ResultSet
-     * @param resultMap  结果值映射信息
-     * @param metaObject 元对象
-     * @return 未定义的属性映射
-     * @throws SQLException 异常
-     */
-    private List<UnMappedColumnAutoMapping> createAutomaticMappings(ResultSetWrapper rsw, ResultMap resultMap, MetaObject metaObject) throws SQLException {
-        final String mapKey = resultMap.getId();
-        List<UnMappedColumnAutoMapping> autoMapping = autoMappingsCache.get(mapKey);
-        if (autoMapping == null) {
-            autoMapping = new ArrayList<>();
-            final List<String> unmappedColumnNames = rsw.getUnmappedColumnNames(resultMap);
-            for (String columnName : unmappedColumnNames) {
-                String propertyName = columnName;
-                final String property = metaObject.findProperty(propertyName, configuration.isMapUnderscoreToCamelCase());
-                if (property != null && metaObject.hasSetter(property)) {
-                    //映射已存在
-                    if (resultMap.getMappedProperties().contains(property)) {
-                        continue;
-                    }
-                    //映射不存在
-                    final Class<?> propertyType = metaObject.getSetterType(property);
-                    if (typeHandlerRegistry.hasTypeHandler(propertyType, rsw.getJdbcType(columnName))) {
-                        final TypeHandler<?> typeHandler = rsw.getTypeHandler(propertyType, columnName);
-                        autoMapping.add(new UnMappedColumnAutoMapping(columnName, property, typeHandler, propertyType.isPrimitive()));
-                    }
-                }
-            }
-            autoMappingsCache.put(mapKey, autoMapping);
-        }
-        return autoMapping;
-    }
-
-    /**
-     * 结果集映射，设置值
-     *
-     * @param rsw        结果集
-     * @param resultMap  映射信息
-     * @param metaObject 元对象
-     * @return 是否映射成功
-     * @throws SQLException 异常
-     */
-    private boolean applyPropertyMappings(ResultSetWrapper rsw, ResultMap resultMap, MetaObject metaObject) throws SQLException {
-        final List<String> mappedColumnNames = rsw.getMappedColumnNames(resultMap);
-        boolean foundValues = false;
-        final List<ResultMapping> propertyMappings = resultMap.getResultMappings();
-        for (ResultMapping propertyMapping : propertyMappings) {
-            String column = propertyMapping.getColumn();
-            if (column != null && mappedColumnNames.contains(column.toUpperCase(Locale.ENGLISH))) {
-                //获取记录列的值
-                Object value = getPropertyMappingValue(rsw.getResultSet(), propertyMapping);
-                final String property = propertyMapping.getProperty();
-                if (property == null) {
-                    continue;
-                }
-                if (value != null) {
-                    foundValues = true;
-                }
-                if (value != null || (configuration.isCallSettersOnNulls() && !metaObject.getSetterType(property).isPrimitive())) {
-                    metaObject.setValue(property, value);
-                }
-            }
-        }
-        return foundValues;
-    }
-
-    /**
-     * 获取记录列的值
-     *
-     * @param rs              ResultSet
-     * @param propertyMapping 列名
-     * @return 记录列的值
-     * @throws SQLException 异常
-     */
-    private Object getPropertyMappingValue(ResultSet rs, ResultMapping propertyMapping) throws SQLException {
-        final TypeHandler<?> typeHandler = propertyMapping.getTypeHandler();
-        final String column = propertyMapping.getColumn();
-        return typeHandler.getResult(rs, column);
-    }
-
     /**
      * 返回SQL执行结果，一般用此方法即可
      *
@@ -327,7 +575,7 @@ public class DefaultResultSetHandler implements ResultSetHandler {
                 }
             }
         }
-        return rs != null ? new ResultSetWrapper(rs, configuration) : null;
+        return rs != null ? new ResultSetWrapper(rs, configuration, mappedStatement.getId()) : null;
     }
 
     /**
@@ -453,17 +701,70 @@ public class DefaultResultSetHandler implements ResultSetHandler {
 
     /*************************************************inner class*********************************************************/
 
-    private static class UnMappedColumnAutoMapping {
-        private final String column;
+    /**
+     * 嵌套结果映射中一层的映射计划
+     */
+    private static class NestedResultPlan {
+
+        private final ResultMap resultMap;
+
+        /**
+         * 行映射计划、行key的key：ResultMap的id（嵌套的层还包括列前缀）
+         */
+        private final String planKey;
+
+        private final String columnPrefix;
+
+        private final boolean nested;
+
+        /**
+         * 行key使用的列下标（从1开始）
+         */
+        private final int[] keyColumnIndexes;
+
+        private final List<NestedProperty> nestedProperties = new ArrayList<>();
+
+        /**
+         * 当前层属性的行映射计划（创建第一个对象时编译）
+         */
+        private RowMappingPlan rowMappingPlan;
+
+        private NestedResultPlan(ResultMap resultMap, String planKey, String columnPrefix, boolean nested, int[] keyColumnIndexes) {
+            this.resultMap = resultMap;
+            this.planKey = planKey;
+            this.columnPrefix = columnPrefix;
+            this.nested = nested;
+            this.keyColumnIndexes = keyColumnIndexes;
+        }
+    }
+
+    /**
+     * 关联对象、集合属性
+     */
+    private static class NestedProperty {
+
         private final String property;
-        private final TypeHandler<?> typeHandler;
-        private final boolean primitive;
-
-        public UnMappedColumnAutoMapping(String column, String property, TypeHandler<?> typeHandler, boolean primitive) {
-            this.column = column;
-            this.property = property;
-            this.typeHandler = typeHandler;
-            this.primitive = primitive;
+
+        private final Class<?> javaType;
+
+        private final boolean collection;
+
+        private final NestedResultPlan resultPlan;
+
+        private final Invoker setter;
+
+        /**
+         * 集合属性的getter，关联对象为null
+         */
+        private final Invoker getter;
+
+        private NestedProperty(ResultMapping resultMapping, NestedResultPlan resultPlan, Invoker setter, Invoker getter) {
+            this.property = resultMapping.getProperty();
+            this.javaType = resultMapping.getJavaType();
+            this.collection = resultMapping.isCollection();
+            this.resultPlan = resultPlan;
+            this.setter = setter;
+            this.getter = getter;
         }
     }
 }
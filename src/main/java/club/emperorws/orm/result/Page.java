@@ -0,0 +1,102 @@
+package club.emperorws.orm.result;
+
+import club.emperorws.orm.mapping.RowBounds;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * 分页查询结果：当前页的记录+总记录数
+ * <p>总记录数由查询SQL自动生成的SELECT COUNT(*)统计（见{@link club.emperorws.orm.dialect.CountSqlBuilder}），不统计时为{@link #UNKNOWN_TOTAL}</p>
+ *
+ * @author: EmperorWS
+ * @date: 2023/8/26 10:40
+ * @description: Page: 分页查询结果
+ */
+public class Page<T> implements Serializable {
+
+    private static final long serialVersionUID = 4309217658204471273L;
+
+    /**
+     * 没有统计总记录数
+     */
+    public static final long UNKNOWN_TOTAL = -1L;
+
+    /**
+     * 当前页的记录
+     */
+    private final List<T> content;
+
+    /**
+     * 总记录数
+     */
+    private final long total;
+
+    private final int offset;
+
+    private final int limit;
+
+    public Page(List<T> content, long total, RowBounds rowBounds) {
+        this.content = content;
+        this.total = total;
+        this.offset = rowBounds.getOffset();
+        this.limit = rowBounds.getLimit();
+    }
+
+    public List<T> getContent() {
+        return content;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    /**
+     * 是否统计了总记录数
+     *
+     * @return 是否统计了总记录数
+     */
+    public boolean hasTotal() {
+        return total != UNKNOWN_TOTAL;
+    }
+
+    public int getOffset() {
+        return offset;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * 总页数（没有统计总记录数时返回-1；不限制每页记录数时所有记录在一页中，没有记录时为0页）
+     *
+     * @return 总页数
+     */
+    public long getPages() {
+        if (!hasTotal() || limit <= 0) {
+            return -1L;
+        }
+        if (limit == RowBounds.NO_ROW_LIMIT) {
+            return total == 0L ? 0L : 1L;
+        }
+        return (total + limit - 1) / limit;
+    }
+
+    /**
+     * 是否还有下一页（没有统计总记录数时，按当前页是否满页判断）
+     *
+     * @return 是否还有下一页
+     */
+    public boolean hasNext() {
+        if (hasTotal()) {
+            return (long) offset + content.size() < total;
+        }
+        return limit != RowBounds.NO_ROW_LIMIT && content.size() >= limit;
+    }
+
+    @Override
+    public String toString() {
+        return "Page{offset=" + offset + ", limit=" + limit + ", total=" + total + ", content=" + content + '}';
+    }
+}
@@ -27,7 +27,12 @@ public interface ResultSetHandler {
     <E> List<E> handleResultSets(Statement stmt) throws SQLException;
 
     /**
-     * 流式查询游标结果集处理，ignore
+     * 流式查询游标结果集处理
+     *
+     * @param stmt Statement执行sql
+     * @param <E>  结果类型
+     * @return 游标，遍历时逐行映射记录
+     * @throws SQLException 异常
      */
     <E> Cursor<E> handleCursorResultSets(Statement stmt) throws SQLException;
 
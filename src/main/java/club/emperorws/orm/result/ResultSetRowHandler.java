@@ -0,0 +1,38 @@
+package club.emperorws.orm.result;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * 直接处理结果集每一行的ResultHandler：跳过结果映射，不为每一行创建对象
+ * <p>适合单列基本类型、列式存储等不需要行对象的结果；内存分页（RowBounds）仍然生效</p>
+ *
+ * @author: EmperorWS
+ * @date: 2023/8/21 16:20
+ * @description: ResultSetRowHandler: 直接处理结果集每一行的ResultHandler
+ */
+public interface ResultSetRowHandler extends ResultHandler<Object> {
+
+    /**
+     * 开始处理一个结果集（在第一行之前调用）
+     * <p>集合参数拆分为多条SQL时，同一个处理器会依次处理多个结果集，每个结果集调用一次，不能清空已经收集的行</p>
+     *
+     * @param rsw ResultSet的包装器（列名、JDBC类型、TypeHandler）
+     * @throws SQLException 异常
+     */
+    default void prepare(ResultSetWrapper rsw) throws SQLException {
+    }
+
+    /**
+     * 处理当前行
+     *
+     * @param rs 结果集（已定位到当前行）
+     * @throws SQLException 异常
+     */
+    void handleRow(ResultSet rs) throws SQLException;
+
+    @Override
+    default void handleResult(ResultContext<?> resultContext) {
+        throw new UnsupportedOperationException("ResultSetRowHandler handles raw rows, use handleRow(ResultSet) instead.");
+    }
+}
@@ -0,0 +1,192 @@
+package club.emperorws.orm.result;
+
+import club.emperorws.orm.Configuration;
+import club.emperorws.orm.io.Resources;
+import club.emperorws.orm.type.*;
+import club.emperorws.orm.util.MapUtil;
+
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+/**
+ * 结果集的结构：列名、JDBC类型、Java类型，以及按结构解析好的TypeHandler、行映射计划
+ * <p>不可变（缓存部分是线程安全的），按MappedStatement缓存在Configuration中，同一个SQL的结果集结构一样时可以跨查询复用，
+ * 每次查询只需要对比一次结构（见{@link #matches(ResultSetMetaData, boolean)}）</p>
+ *
+ * @author: EmperorWS
+ * @date: 2023/8/21 14:30
+ * @description: ResultSetSchema: 结果集的结构
+ */
+public class ResultSetSchema {
+
+    private final TypeHandlerRegistry typeHandlerRegistry;
+
+    private final String[] columnNames;
+
+    private final int[] columnTypes;
+
+    private final String[] classNames;
+
+    private final List<String> columnNameList;
+
+    private final List<JdbcType> jdbcTypeList;
+
+    private final List<String> classNameList;
+
+    /**
+     * 列名（大写）-->列下标（从0开始），同名列取第一个
+     */
+    private final Map<String, Integer> columnIndexMap = new HashMap<>();
+
+    /**
+     * 列签名：列名、JDBC类型、Java类型
+     */
+    private final String columnSignature;
+
+    /**
+     * 列名--列的class类型--TypeHandler之间的映射关系集合
+     */
+    private final ConcurrentMap<String, ConcurrentMap<Class<?>, TypeHandler<?>>> typeHandlerMap = new ConcurrentHashMap<>();
+
+    /**
+     * ResultMap的id-->行映射计划
+     */
+    private final ConcurrentMap<String, RowMappingPlan> rowMappingPlanMap = new ConcurrentHashMap<>();
+
+    public ResultSetSchema(ResultSetMetaData metaData, Configuration configuration) throws SQLException {
+        this.typeHandlerRegistry = configuration.getTypeHandlerRegistry();
+        final int columnCount = metaData.getColumnCount();
+        this.columnNames = new String[columnCount];
+        this.columnTypes = new int[columnCount];
+        this.classNames = new String[columnCount];
+        JdbcType[] jdbcTypes = new JdbcType[columnCount];
+        StringBuilder signature = new StringBuilder(columnCount * 24);
+        for (int i = 0; i < columnCount; i++) {
+            columnNames[i] = configuration.isUseColumnLabel() ? metaData.getColumnLabel(i + 1) : metaData.getColumnName(i + 1);
+            columnTypes[i] = metaData.getColumnType(i + 1);
+            classNames[i] = metaData.getColumnClassName(i + 1);
+            jdbcTypes[i] = JdbcType.forCode(columnTypes[i]);
+            signature.append(columnNames[i]).append(':').append(jdbcTypes[i]).append(':').append(classNames[i]).append(',');
+        }
+        for (int i = columnCount - 1; i >= 0; i--) {
+            columnIndexMap.put(columnNames[i].toUpperCase(Locale.ENGLISH), i);
+        }
+        this.columnNameList = Collections.unmodifiableList(Arrays.asList(columnNames));
+        this.jdbcTypeList = Collections.unmodifiableList(Arrays.asList(jdbcTypes));
+        this.classNameList = Collections.unmodifiableList(Arrays.asList(classNames));
+        this.columnSignature = signature.toString();
+    }
+
+    /**
+     * 结果集的结构是否与当前结构一致（只读取ResultSetMetaData，不创建任何对象）
+     *
+     * @param metaData       结果集的元数据
+     * @param useColumnLabel 是否使用列的别名
+     * @return 是否一致
+     * @throws SQLException 异常
+     */
+    public boolean matches(ResultSetMetaData metaData, boolean useColumnLabel) throws SQLException {
+        final int columnCount = metaData.getColumnCount();
+        if (columnCount != columnNames.length) {
+            return false;
+        }
+        for (int i = 0; i < columnCount; i++) {
+            String columnName = useColumnLabel ? metaData.getColumnLabel(i + 1) : metaData.getColumnName(i + 1);
+            if (!columnNames[i].equals(columnName) || columnTypes[i] != metaData.getColumnType(i + 1)
+                    || !Objects.equals(classNames[i], metaData.getColumnClassName(i + 1))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public TypeHandler<?> getTypeHandler(Class<?> propertyType, String columnName) {
+        Map<Class<?>, TypeHandler<?>> columnHandlers = MapUtil.computeIfAbsent(typeHandlerMap, columnName, k -> new ConcurrentHashMap<>());
+        return MapUtil.computeIfAbsent(columnHandlers, propertyType, type -> resolveTypeHandler(type, columnName));
+    }
+
+    /**
+     * 获取行映射计划（同一个结果集结构，每个ResultMap只解析一次）
+     *
+     * @param resultMapId ResultMap的id
+     * @param compiler    行映射计划的编译方法
+     * @return 行映射计划
+     */
+    public RowMappingPlan getRowMappingPlan(String resultMapId, Function<String, RowMappingPlan> compiler) {
+        return MapUtil.computeIfAbsent(rowMappingPlanMap, resultMapId, compiler);
+    }
+
+    private TypeHandler<?> resolveTypeHandler(Class<?> propertyType, String columnName) {
+        JdbcType jdbcType = getJdbcType(columnName);
+        TypeHandler<?> handler = typeHandlerRegistry.getTypeHandler(propertyType, jdbcType);
+        // same：UnknownTypeHandler#resolveTypeHandler
+        if (handler == null || handler instanceof UnknownTypeHandler) {
+            Integer index = columnIndexMap.get(columnName.toUpperCase(Locale.ENGLISH));
+            final Class<?> javaType = index == null ? null : resolveClass(classNames[index]);
+            if (javaType != null && jdbcType != null) {
+                handler = typeHandlerRegistry.getTypeHandler(javaType, jdbcType);
+            } else if (javaType != null) {
+                handler = typeHandlerRegistry.getTypeHandler(javaType);
+            } else if (jdbcType != null) {
+                handler = typeHandlerRegistry.getTypeHandler(jdbcType);
+            }
+        }
+        if (handler == null || handler instanceof UnknownTypeHandler) {
+            handler = new ObjectTypeHandler();
+        }
+        return handler;
+    }
+
+    /**
+     * 根据class name 获取Class
+     *
+     * @param className class name
+     * @return class name对应的Class
+     */
+    private Class<?> resolveClass(String className) {
+        try {
+            if (className != null) {
+                return Resources.classForName(className);
+            }
+        } catch (ClassNotFoundException e) {
+            // ignore
+        }
+        return null;
+    }
+
+    public List<String> getColumnNames() {
+        return columnNameList;
+    }
+
+    public List<String> getClassNames() {
+        return classNameList;
+    }
+
+    public List<JdbcType> getJdbcTypes() {
+        return jdbcTypeList;
+    }
+
+    public JdbcType getJdbcType(String columnName) {
+        Integer index = columnIndexMap.get(columnName.toUpperCase(Locale.ENGLISH));
+        return index == null ? null : jdbcTypeList.get(index);
+    }
+
+    /**
+     * 获取列下标
+     *
+     * @param columnName 列名（忽略大小写）
+     * @return 列下标（从1开始），没有此列时返回-1
+     */
+    public int findColumnIndex(String columnName) {
+        Integer index = columnIndexMap.get(columnName.toUpperCase(Locale.ENGLISH));
+        return index == null ? -1 : index + 1;
+    }
+
+    public String getColumnSignature() {
+        return columnSignature;
+    }
+}
@@ -1,18 +1,19 @@
 package club.emperorws.orm.result;
 
 import club.emperorws.orm.Configuration;
-import club.emperorws.orm.io.Resources;
-import club.emperorws.orm.mapping.ResultMap;
-import club.emperorws.orm.type.*;
-import club.emperorws.orm.util.CollectionUtil;
+import club.emperorws.orm.cache.BoundedConcurrentCache;
+import club.emperorws.orm.type.JdbcType;
+import club.emperorws.orm.type.TypeHandler;
 
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
-import java.util.*;
+import java.util.List;
+import java.util.function.Function;
 
 /**
  * ResultSet结果集的包装器
+ * <p>结果集的结构（列名、JDBC类型、TypeHandler、行映射计划）见{@link ResultSetSchema}，按MappedStatement跨查询复用</p>
  *
  * @author: EmperorWS
  * @date: 2023/4/28 17:27
@@ -26,126 +27,51 @@ public class ResultSetWrapper {
     private final ResultSet resultSet;
 
     /**
-     * 类型处理器的注册器
+     * 结果集的结构
      */
-    private final TypeHandlerRegistry typeHandlerRegistry;
+    private final ResultSetSchema schema;
 
-    /**
-     * 查询结果列名集合
-     */
-    private final List<String> columnNames = new ArrayList<>();
-
-    /**
-     * 查询结果列对应的class类型名称
-     */
-    private final List<String> classNames = new ArrayList<>();
-
-    /**
-     * 查询结果列对应的JDBC的类型集合
-     */
-    private final List<JdbcType> jdbcTypes = new ArrayList<>();
-
-    /**
-     * 列名--列的class类型--TypeHandler之间的映射关系集合
-     */
-    private final Map<String, Map<Class<?>, TypeHandler<?>>> typeHandlerMap = new HashMap<>();
-
-    /**
-     * 已指定的结果映射
-     */
-    private final List<String> mappedColumnNames = new ArrayList<>();
+    public ResultSetWrapper(ResultSet rs, Configuration configuration) throws SQLException {
+        this(rs, configuration, null);
+    }
 
     /**
-     * 未已指定的结果映射
+     * @param rs            结果集
+     * @param configuration 全局配置单例
+     * @param schemaKey     结果集结构的缓存key（一般是MappedStatement的id），为null时不缓存
+     * @throws SQLException 异常
      */
-    private final List<String> unMappedColumnNames = new ArrayList<>();
-
-    public ResultSetWrapper(ResultSet rs, Configuration configuration) throws SQLException {
-        this.typeHandlerRegistry = configuration.getTypeHandlerRegistry();
+    public ResultSetWrapper(ResultSet rs, Configuration configuration, String schemaKey) throws SQLException {
         this.resultSet = rs;
         final ResultSetMetaData metaData = rs.getMetaData();
-        final int columnCount = metaData.getColumnCount();
-        for (int i = 1; i <= columnCount; i++) {
-            columnNames.add(configuration.isUseColumnLabel() ? metaData.getColumnLabel(i) : metaData.getColumnName(i));
-            jdbcTypes.add(JdbcType.forCode(metaData.getColumnType(i)));
-            classNames.add(metaData.getColumnClassName(i));
+        if (schemaKey == null) {
+            this.schema = new ResultSetSchema(metaData, configuration);
+            return;
         }
-    }
-
-    public TypeHandler<?> getTypeHandler(Class<?> propertyType, String columnName) {
-        TypeHandler<?> handler = null;
-        Map<Class<?>, TypeHandler<?>> columnHandlers = typeHandlerMap.get(columnName);
-        if (columnHandlers == null) {
-            columnHandlers = new HashMap<>();
-            typeHandlerMap.put(columnName, columnHandlers);
+        BoundedConcurrentCache<String, ResultSetSchema> schemaCache = configuration.getResultSetSchemaCache();
+        ResultSetSchema cachedSchema = schemaCache.get(schemaKey);
+        if (cachedSchema != null && cachedSchema.matches(metaData, configuration.isUseColumnLabel())) {
+            this.schema = cachedSchema;
         } else {
-            handler = columnHandlers.get(propertyType);
-        }
-        //获取TypeHandler
-        if (handler == null) {
-            JdbcType jdbcType = getJdbcType(columnName);
-            handler = typeHandlerRegistry.getTypeHandler(propertyType, jdbcType);
-            // same：UnknownTypeHandler#resolveTypeHandler
-            if (handler == null || handler instanceof UnknownTypeHandler) {
-                final int index = columnNames.indexOf(columnName);
-                final Class<?> javaType = resolveClass(classNames.get(index));
-                if (javaType != null && jdbcType != null) {
-                    handler = typeHandlerRegistry.getTypeHandler(javaType, jdbcType);
-                } else if (javaType != null) {
-                    handler = typeHandlerRegistry.getTypeHandler(javaType);
-                } else if (jdbcType != null) {
-                    handler = typeHandlerRegistry.getTypeHandler(jdbcType);
-                }
-            }
-            if (handler == null || handler instanceof UnknownTypeHandler) {
-                handler = new ObjectTypeHandler();
-            }
-            columnHandlers.put(propertyType, handler);
-        }
-        return handler;
-    }
-
-    private void loadMappedAndUnmappedColumnNames(ResultMap resultMap) throws SQLException {
-        final Set<String> mappedColumns = resultMap.getMappedColumns();
-        for (String columnName : columnNames) {
-            final String upperColumnName = columnName.toUpperCase(Locale.ENGLISH);
-            if (mappedColumns.contains(upperColumnName)) {
-                mappedColumnNames.add(upperColumnName);
-            } else {
-                unMappedColumnNames.add(columnName);
-            }
+            //第一次查询，或者结果集结构变了（如动态SQL查询的列不一样）
+            this.schema = new ResultSetSchema(metaData, configuration);
+            schemaCache.put(schemaKey, schema);
         }
     }
 
-    public List<String> getMappedColumnNames(ResultMap resultMap) throws SQLException {
-        if (CollectionUtil.isEmpty(mappedColumnNames)) {
-            loadMappedAndUnmappedColumnNames(resultMap);
-        }
-        return mappedColumnNames;
-    }
-
-    public List<String> getUnmappedColumnNames(ResultMap resultMap) throws SQLException {
-        if (CollectionUtil.isEmpty(unMappedColumnNames)) {
-            loadMappedAndUnmappedColumnNames(resultMap);
-        }
-        return unMappedColumnNames;
+    public TypeHandler<?> getTypeHandler(Class<?> propertyType, String columnName) {
+        return schema.getTypeHandler(propertyType, columnName);
     }
 
     /**
-     * 根据class name 获取Class
+     * 获取行映射计划（同一个结果集结构，每个ResultMap只解析一次）
      *
-     * @param className class name
-     * @return class name对应的Class
+     * @param resultMapId ResultMap的id
+     * @param compiler    行映射计划的编译方法
+     * @return 行映射计划
      */
-    private Class<?> resolveClass(String className) {
-        try {
-            if (className != null) {
-                return Resources.classForName(className);
-            }
-        } catch (ClassNotFoundException e) {
-            // ignore
-        }
-        return null;
+    public RowMappingPlan getRowMappingPlan(String resultMapId, Function<String, RowMappingPlan> compiler) {
+        return schema.getRowMappingPlan(resultMapId, compiler);
     }
 
     public ResultSet getResultSet() {
@@ -153,23 +79,37 @@ public class ResultSetWrapper {
     }
 
     public List<String> getColumnNames() {
-        return this.columnNames;
+        return schema.getColumnNames();
     }
 
     public List<String> getClassNames() {
-        return Collections.unmodifiableList(classNames);
+        return schema.getClassNames();
     }
 
     public List<JdbcType> getJdbcTypes() {
-        return jdbcTypes;
+        return schema.getJdbcTypes();
     }
 
     public JdbcType getJdbcType(String columnName) {
-        for (int i = 0; i < columnNames.size(); i++) {
-            if (columnNames.get(i).equalsIgnoreCase(columnName)) {
-                return jdbcTypes.get(i);
-            }
-        }
-        return null;
+        return schema.getJdbcType(columnName);
+    }
+
+    /**
+     * 获取列下标
+     *
+     * @param columnName 列名（忽略大小写）
+     * @return 列下标（从1开始），没有此列时返回-1
+     */
+    public int findColumnIndex(String columnName) {
+        return schema.findColumnIndex(columnName);
+    }
+
+    /**
+     * 列签名：列名、JDBC类型、Java类型（同一个ResultMap，列签名一样时可以复用同一个行映射计划）
+     *
+     * @return 列签名
+     */
+    public String getColumnSignature() {
+        return schema.getColumnSignature();
     }
 }
@@ -0,0 +1,436 @@
+package club.emperorws.orm.result;
+
+import club.emperorws.orm.Configuration;
+import club.emperorws.orm.exception.OrmException;
+import club.emperorws.orm.mapping.ResultMap;
+import club.emperorws.orm.mapping.ResultMapping;
+import club.emperorws.orm.reflection.MetaObject;
+import club.emperorws.orm.reflection.Reflector;
+import club.emperorws.orm.reflection.invoker.Invoker;
+import club.emperorws.orm.reflection.wrapper.BeanWrapper;
+import club.emperorws.orm.type.TypeHandler;
+import club.emperorws.orm.type.TypeHandlerRegistry;
+import club.emperorws.orm.util.ExceptionUtil;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.*;
+
+/**
+ * 预编译的行映射计划：按（ResultMap，结果集列签名）编译一次，之后每一行只按列下标取值、直接调用setter
+ * <p>每一行不再有列名转大写、List.contains、按列名取值，也不再创建MetaObject（嵌套属性、Map结果等无法直接调用setter的情况除外）</p>
+ * <p>先执行自动映射，再执行ResultMap中定义的映射（与原逻辑的顺序一致）</p>
+ * <p>不可变对象、Record使用构造器映射计划：构造器参数预先解析为列下标，每一行只调用一次构造器；构造器没有使用的列再按setter映射</p>
+ *
+ * @author: EmperorWS
+ * @date: 2023/8/18 16:10
+ * @description: RowMappingPlan: 预编译的行映射计划
+ */
+public class RowMappingPlan {
+
+    private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(Object.class, Object[].class);
+
+    private final ColumnMapping[] columnMappings;
+
+    /**
+     * 是否有属性需要通过MetaObject设置值
+     */
+    private final boolean requiresMetaObject;
+
+    /**
+     * 构造器映射：(Object[])Object，为null时使用set方法映射
+     */
+    private final MethodHandle constructor;
+
+    /**
+     * 构造器映射：基本类型参数的列为null时使用的默认值
+     */
+    private final Object[] defaultArguments;
+
+    /**
+     * 构造器映射：构造器没有使用的列，创建对象后再通过setter设置值（可变对象上标注{@link club.emperorws.orm.annotations.AutomapConstructor}时）
+     */
+    private final ColumnMapping[] propertyMappings;
+
+    private RowMappingPlan(List<ColumnMapping> columnMappings) {
+        this.columnMappings = columnMappings.toArray(new ColumnMapping[0]);
+        boolean metaObjectRequired = false;
+        for (ColumnMapping columnMapping : this.columnMappings) {
+            metaObjectRequired = metaObjectRequired || columnMapping.setter == null;
+        }
+        this.requiresMetaObject = metaObjectRequired;
+        this.constructor = null;
+        this.defaultArguments = null;
+        this.propertyMappings = null;
+    }
+
+    private RowMappingPlan(List<ColumnMapping> columnMappings, MethodHandle constructor, Object[] defaultArguments, List<ColumnMapping> propertyMappings) {
+        this.columnMappings = columnMappings.toArray(new ColumnMapping[0]);
+        this.requiresMetaObject = false;
+        this.constructor = constructor;
+        this.defaultArguments = defaultArguments;
+        this.propertyMappings = propertyMappings.toArray(new ColumnMapping[0]);
+    }
+
+    /**
+     * 编译行映射计划
+     *
+     * @param configuration     全局配置单例
+     * @param rsw               ResultSet的包装器
+     * @param resultMap         结果映射
+     * @param metaObject        第一行结果对象的元对象（用于解析属性）
+     * @param applyAutoMappings 是否开启自动映射
+     * @return 行映射计划
+     */
+    public static RowMappingPlan compile(Configuration configuration, ResultSetWrapper rsw, ResultMap resultMap, MetaObject metaObject,
+                                         boolean applyAutoMappings) {
+        return compile(configuration, rsw, resultMap, metaObject, applyAutoMappings, null);
+    }
+
+    /**
+     * 编译行映射计划（嵌套结果映射：ResultMap中的列名加上列前缀后，才是结果集中的列名）
+     *
+     * @param configuration     全局配置单例
+     * @param rsw               ResultSet的包装器
+     * @param resultMap         结果映射
+     * @param metaObject        第一行结果对象的元对象（用于解析属性）
+     * @param applyAutoMappings 是否开启自动映射
+     * @param columnPrefix      列前缀，可以为null
+     * @return 行映射计划（不包括嵌套结果映射）
+     */
+    public static RowMappingPlan compile(Configuration configuration, ResultSetWrapper rsw, ResultMap resultMap, MetaObject metaObject,
+                                         boolean applyAutoMappings, String columnPrefix) {
+        final String prefix = columnPrefix == null ? "" : columnPrefix.toUpperCase(Locale.ENGLISH);
+        List<ColumnMapping> columnMappings = new ArrayList<>();
+        List<String> columnNames = rsw.getColumnNames();
+        //列名（大写）-->列下标（从1开始），同名列取第一个
+        Map<String, Integer> columnIndexMap = new HashMap<>();
+        for (int i = columnNames.size() - 1; i >= 0; i--) {
+            columnIndexMap.put(columnNames.get(i).toUpperCase(Locale.ENGLISH), i + 1);
+        }
+        if (applyAutoMappings) {
+            addAutomaticMappings(configuration, rsw, resultMap, metaObject, prefix, columnMappings);
+        }
+        for (ResultMapping propertyMapping : resultMap.getResultMappings()) {
+            String column = propertyMapping.getColumn();
+            String property = propertyMapping.getProperty();
+            if (column == null || property == null || propertyMapping.isNested()) {
+                continue;
+            }
+            Integer columnIndex = columnIndexMap.get(prefix + column.toUpperCase(Locale.ENGLISH));
+            if (columnIndex != null) {
+                boolean primitive = metaObject.getSetterType(property).isPrimitive();
+                columnMappings.add(new ColumnMapping(columnIndex, property, propertyMapping.getTypeHandler(), primitive, resolveSetter(metaObject, property)));
+            }
+        }
+        return new RowMappingPlan(columnMappings);
+    }
+
+    /**
+     * 编译构造器映射计划（不可变对象、Record）：构造器参数按名称（或下标）解析为列下标，每一行只调用一次构造器
+     * <p>构造器没有使用的列，按ResultMap中定义的映射和自动映射解析为setter，创建对象后再设置值</p>
+     *
+     * @param configuration     全局配置单例
+     * @param rsw               ResultSet的包装器
+     * @param resultMap         结果映射
+     * @param reflector         结果类型的反射信息（{@link Reflector#getAutomapConstructor()}不为null）
+     * @param applyAutoMappings 是否开启自动映射（只影响构造器没有使用的列）
+     * @return 行映射计划
+     */
+    public static RowMappingPlan compileConstructor(Configuration configuration, ResultSetWrapper rsw, ResultMap resultMap, Reflector reflector,
+                                                    boolean applyAutoMappings) {
+        Constructor<?> automapConstructor = reflector.getAutomapConstructor();
+        String[] paramNames = reflector.getAutomapConstructorParamNames();
+        Class<?>[] paramTypes = automapConstructor.getParameterTypes();
+        List<String> columnNames = rsw.getColumnNames();
+        //列名（大写）-->列下标（从1开始），开启驼峰映射时同时登记去掉下划线的列名
+        Map<String, Integer> columnIndexMap = new HashMap<>();
+        for (int i = columnNames.size() - 1; i >= 0; i--) {
+            String columnName = columnNames.get(i).toUpperCase(Locale.ENGLISH);
+            if (configuration.isMapUnderscoreToCamelCase()) {
+                columnIndexMap.put(columnName.replace("_", ""), i + 1);
+            }
+            columnIndexMap.put(columnName, i + 1);
+        }
+        List<ColumnMapping> columnMappings = new ArrayList<>(paramTypes.length);
+        Object[] defaultArguments = new Object[paramTypes.length];
+        for (int i = 0; i < paramTypes.length; i++) {
+            String paramName = paramNames[i];
+            ResultMapping propertyMapping = findResultMapping(resultMap, paramName);
+            Integer columnIndex;
+            if (propertyMapping != null && propertyMapping.getColumn() != null) {
+                columnIndex = columnIndexMap.get(propertyMapping.getColumn().toUpperCase(Locale.ENGLISH));
+            } else if (paramName != null) {
+                columnIndex = columnIndexMap.get(paramName.toUpperCase(Locale.ENGLISH));
+            } else {
+                columnIndex = i < columnNames.size() ? i + 1 : null;
+            }
+            if (columnIndex == null) {
+                throw new OrmException("Could not find a column for constructor parameter " + (paramName == null ? "#" + i : "'" + paramName + "'")
+                        + " of " + reflector.getType() + ". Columns: " + columnNames);
+            }
+            TypeHandler<?> typeHandler = propertyMapping != null && propertyMapping.getTypeHandler() != null
+                    ? propertyMapping.getTypeHandler() : rsw.getTypeHandler(paramTypes[i], columnNames.get(columnIndex - 1));
+            if (typeHandler == null) {
+                throw new OrmException("No TypeHandler found for constructor parameter " + (paramName == null ? "#" + i : "'" + paramName + "'")
+                        + " of " + reflector.getType() + " with javaType " + paramTypes[i].getName());
+            }
+            columnMappings.add(new ColumnMapping(columnIndex, paramName, typeHandler, paramTypes[i].isPrimitive(), null));
+            if (paramTypes[i].isPrimitive()) {
+                defaultArguments[i] = Array.get(Array.newInstance(paramTypes[i], 1), 0);
+            }
+        }
+        return new RowMappingPlan(columnMappings, unreflectConstructor(automapConstructor), defaultArguments,
+                compileConstructorPropertyMappings(configuration, rsw, resultMap, reflector, columnMappings, applyAutoMappings));
+    }
+
+    /**
+     * 构造器没有使用的列：先自动映射，再ResultMap中定义的映射（与setter映射的顺序一致），只映射有setter的简单属性
+     */
+    private static List<ColumnMapping> compileConstructorPropertyMappings(Configuration configuration, ResultSetWrapper rsw, ResultMap resultMap,
+                                                                          Reflector reflector, List<ColumnMapping> constructorMappings,
+                                                                          boolean applyAutoMappings) {
+        Set<Integer> consumedColumns = new HashSet<>();
+        Set<String> consumedProperties = new HashSet<>();
+        for (ColumnMapping constructorMapping : constructorMappings) {
+            consumedColumns.add(constructorMapping.columnIndex);
+            if (constructorMapping.property != null) {
+                consumedProperties.add(constructorMapping.property);
+            }
+        }
+        List<ColumnMapping> propertyMappings = new ArrayList<>();
+        List<String> columnNames = rsw.getColumnNames();
+        if (applyAutoMappings) {
+            final TypeHandlerRegistry typeHandlerRegistry = configuration.getTypeHandlerRegistry();
+            final Set<String> mappedColumns = resultMap.getMappedColumns();
+            for (int i = 0; i < columnNames.size(); i++) {
+                String columnName = columnNames.get(i);
+                if (consumedColumns.contains(i + 1) || mappedColumns.contains(columnName.toUpperCase(Locale.ENGLISH))) {
+                    continue;
+                }
+                String property = reflector.findPropertyName(configuration.isMapUnderscoreToCamelCase() ? columnName.replace("_", "") : columnName);
+                if (property == null || !reflector.hasSetter(property) || consumedProperties.contains(property)
+                        || resultMap.getMappedProperties().contains(property)) {
+                    continue;
+                }
+                final Class<?> propertyType = reflector.getSetterType(property);
+                if (typeHandlerRegistry.hasTypeHandler(propertyType, rsw.getJdbcTypes().get(i))) {
+                    propertyMappings.add(new ColumnMapping(i + 1, property, rsw.getTypeHandler(propertyType, columnName), propertyType.isPrimitive(),
+                            reflector.getSetInvoker(property)));
+                }
+            }
+        }
+        for (ResultMapping propertyMapping : resultMap.getResultMappings()) {
+            String column = propertyMapping.getColumn();
+            String property = propertyMapping.getProperty();
+            if (column == null || property == null || propertyMapping.isNested() || consumedProperties.contains(property) || !reflector.hasSetter(property)) {
+                continue;
+            }
+            int columnIndex = rsw.findColumnIndex(column);
+            if (columnIndex > 0) {
+                propertyMappings.add(new ColumnMapping(columnIndex, property, propertyMapping.getTypeHandler(), reflector.getSetterType(property).isPrimitive(),
+                        reflector.getSetInvoker(property)));
+            }
+        }
+        return propertyMappings;
+    }
+
+    /**
+     * 是否是构造器映射计划
+     *
+     * @return 是否是构造器映射计划
+     */
+    public boolean isConstructorMapping() {
+        return constructor != null;
+    }
+
+    /**
+     * 按构造器映射计划创建结果对象
+     *
+     * @param configuration 全局配置单例
+     * @param rs            结果集（已定位到当前行）
+     * @return 结果对象，所有列都为null且returnInstanceForEmptyRow=false时返回null
+     * @throws SQLException 异常
+     */
+    public Object createResultObject(Configuration configuration, ResultSet rs) throws SQLException {
+        final Object[] args = new Object[columnMappings.length];
+        boolean foundValues = false;
+        for (int i = 0; i < columnMappings.length; i++) {
+            Object value = columnMappings[i].typeHandler.getResult(rs, columnMappings[i].columnIndex);
+            if (value != null) {
+                foundValues = true;
+            } else {
+                value = defaultArguments[i];
+            }
+            args[i] = value;
+        }
+        Object[] propertyValues = null;
+        if (propertyMappings.length > 0) {
+            propertyValues = new Object[propertyMappings.length];
+            for (int i = 0; i < propertyMappings.length; i++) {
+                propertyValues[i] = propertyMappings[i].typeHandler.getResult(rs, propertyMappings[i].columnIndex);
+                foundValues = foundValues || propertyValues[i] != null;
+            }
+        }
+        if (!foundValues && !configuration.isReturnInstanceForEmptyRow()) {
+            return null;
+        }
+        Object rowValue;
+        try {
+            rowValue = (Object) constructor.invokeExact(args);
+        } catch (Throwable t) {
+            throw new OrmException("Error instantiating result object with arguments " + Arrays.toString(args) + ". Cause: " + t, t);
+        }
+        if (propertyValues != null) {
+            final boolean callSettersOnNulls = configuration.isCallSettersOnNulls();
+            for (int i = 0; i < propertyMappings.length; i++) {
+                if (propertyValues[i] != null || (callSettersOnNulls && !propertyMappings[i].primitive)) {
+                    setValue(propertyMappings[i], rowValue, propertyValues[i]);
+                }
+            }
+        }
+        return rowValue;
+    }
+
+    /**
+     * 按计划给结果对象设置值
+     *
+     * @param configuration 全局配置单例
+     * @param rs            结果集（已定位到当前行）
+     * @param rowValue      结果对象
+     * @return 是否有非null的列
+     * @throws SQLException 异常
+     */
+    public boolean apply(Configuration configuration, ResultSet rs, Object rowValue) throws SQLException {
+        final boolean callSettersOnNulls = configuration.isCallSettersOnNulls();
+        final MetaObject metaObject = requiresMetaObject ? configuration.newMetaObject(rowValue) : null;
+        boolean foundValues = false;
+        for (ColumnMapping mapping : columnMappings) {
+            final Object value = mapping.typeHandler.getResult(rs, mapping.columnIndex);
+            if (value != null) {
+                foundValues = true;
+            }
+            if (value != null || (callSettersOnNulls && !mapping.primitive)) {
+                if (mapping.setter != null) {
+                    setValue(mapping, rowValue, value);
+                } else {
+                    metaObject.setValue(mapping.property, value);
+                }
+            }
+        }
+        return foundValues;
+    }
+
+    private static void addAutomaticMappings(Configuration configuration, ResultSetWrapper rsw, ResultMap resultMap, MetaObject metaObject,
+                                             String prefix, List<ColumnMapping> columnMappings) {
+        final TypeHandlerRegistry typeHandlerRegistry = configuration.getTypeHandlerRegistry();
+        final List<String> columnNames = rsw.getColumnNames();
+        final Set<String> mappedColumns = resultMap.getMappedColumns();
+        for (int i = 0; i < columnNames.size(); i++) {
+            final String upperColumnName = columnNames.get(i).toUpperCase(Locale.ENGLISH);
+            //有列前缀时，只映射有此前缀的列
+            if (!upperColumnName.startsWith(prefix)) {
+                continue;
+            }
+            String columnName = columnNames.get(i).substring(prefix.length());
+            if (columnName.isEmpty() || mappedColumns.contains(upperColumnName.substring(prefix.length()))) {
+                continue;
+            }
+            final String property = metaObject.findProperty(columnName, configuration.isMapUnderscoreToCamelCase());
+            if (property == null || !metaObject.hasSetter(property) || resultMap.getMappedProperties().contains(property)) {
+                continue;
+            }
+            final Class<?> propertyType = metaObject.getSetterType(property);
+            if (typeHandlerRegistry.hasTypeHandler(propertyType, rsw.getJdbcTypes().get(i))) {
+                final TypeHandler<?> typeHandler = rsw.getTypeHandler(propertyType, columnNames.get(i));
+                columnMappings.add(new ColumnMapping(i + 1, property, typeHandler, propertyType.isPrimitive(), resolveSetter(metaObject, property)));
+            }
+        }
+    }
+
+    private static ResultMapping findResultMapping(ResultMap resultMap, String property) {
+        if (property != null) {
+            for (ResultMapping resultMapping : resultMap.getResultMappings()) {
+                if (property.equals(resultMapping.getProperty())) {
+                    return resultMapping;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static MethodHandle unreflectConstructor(Constructor<?> constructor) {
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        MethodHandle handle;
+        try {
+            try {
+                handle = lookup.unreflectConstructor(constructor);
+            } catch (IllegalAccessException e) {
+                if (!Reflector.canControlMemberAccessible()) {
+                    throw e;
+                }
+                constructor.setAccessible(true);
+                handle = lookup.unreflectConstructor(constructor);
+            }
+        } catch (IllegalAccessException | RuntimeException e) {
+            throw new OrmException("Could not access constructor " + constructor + ". Cause: " + e, e);
+        }
+        return handle.asSpreader(Object[].class, constructor.getParameterCount()).asType(CONSTRUCTOR_TYPE);
+    }
+
+    /**
+     * 可以直接调用的setter：只有普通JavaBean的简单属性才可以，否则返回null（通过MetaObject设置值）
+     */
+    private static Invoker resolveSetter(MetaObject metaObject, String property) {
+        if (!(metaObject.getObjectWrapper() instanceof BeanWrapper) || property.indexOf('.') >= 0 || property.indexOf('[') >= 0) {
+            return null;
+        }
+        return metaObject.getReflectorFactory().findForClass(metaObject.getOriginalObject().getClass()).getSetInvoker(property);
+    }
+
+    private static void setValue(ColumnMapping mapping, Object rowValue, Object value) {
+        try {
+            try {
+                mapping.setter.set(rowValue, value);
+            } catch (Throwable t) {
+                throw ExceptionUtil.unwrapThrowable(t);
+            }
+        } catch (Throwable t) {
+            throw new OrmException("Could not set property '" + mapping.property + "' of '" + rowValue.getClass() + "' with value '" + value + "' Cause: " + t.toString(), t);
+        }
+    }
+
+    /*************************************************inner class*********************************************************/
+
+    /**
+     * 一列的映射：（列下标，TypeHandler，setter）
+     */
+    private static class ColumnMapping {
+
+        /**
+         * 列下标（从1开始）
+         */
+        private final int columnIndex;
+        private final String property;
+        private final TypeHandler<?> typeHandler;
+        private final boolean primitive;
+
+        /**
+         * 直接调用的setter，为null时通过MetaObject设置值
+         */
+        private final Invoker setter;
+
+        private ColumnMapping(int columnIndex, String property, TypeHandler<?> typeHandler, boolean primitive, Invoker setter) {
+            this.columnIndex = columnIndex;
+            this.property = property;
+            this.typeHandler = typeHandler;
+            this.primitive = primitive;
+            this.setter = setter;
+        }
+    }
+}
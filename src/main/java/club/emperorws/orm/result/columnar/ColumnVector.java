@@ -0,0 +1,201 @@
+package club.emperorws.orm.result.columnar;
+
+import club.emperorws.orm.type.JdbcType;
+
+import java.util.BitSet;
+
+/**
+ * 列式结果的一列：按列连续存储的值+null位图
+ * <p>整数列使用long[]，浮点数列使用double[]，字符串列使用字典编码（int[]编码+String[]字典），其他类型使用TypeHandler转换后的Object[]</p>
+ *
+ * @author: EmperorWS
+ * @date: 2023/8/22 10:10
+ * @description: ColumnVector: 列式结果的一列
+ */
+public abstract class ColumnVector {
+
+    protected final String name;
+
+    protected final JdbcType jdbcType;
+
+    protected final int size;
+
+    /**
+     * null位图：第i位为1表示第i行为null
+     */
+    protected final BitSet nulls;
+
+    protected ColumnVector(String name, JdbcType jdbcType, int size, BitSet nulls) {
+        this.name = name;
+        this.jdbcType = jdbcType;
+        this.size = size;
+        this.nulls = nulls;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public JdbcType getJdbcType() {
+        return jdbcType;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isNull(int row) {
+        return nulls.get(row);
+    }
+
+    public int getNullCount() {
+        return nulls.cardinality();
+    }
+
+    /**
+     * 获取某一行的值（装箱，尽量使用具体类型的方法）
+     *
+     * @param row 行下标（从0开始）
+     * @return 值，null时返回null
+     */
+    public abstract Object getObject(int row);
+
+    /*************************************************inner class*********************************************************/
+
+    /**
+     * 整数列（TINYINT、SMALLINT、INTEGER、BIGINT），null行的值为0
+     */
+    public static class LongVector extends ColumnVector {
+
+        private final long[] values;
+
+        LongVector(String name, JdbcType jdbcType, int size, BitSet nulls, long[] values) {
+            super(name, jdbcType, size, nulls);
+            this.values = values;
+        }
+
+        public long getLong(int row) {
+            return values[row];
+        }
+
+        /**
+         * 所有行的值（不复制，长度==行数）
+         *
+         * @return 所有行的值
+         */
+        public long[] getValues() {
+            return values;
+        }
+
+        @Override
+        public Object getObject(int row) {
+            return isNull(row) ? null : values[row];
+        }
+    }
+
+    /**
+     * 浮点数列（FLOAT、REAL、DOUBLE），null行的值为0
+     */
+    public static class DoubleVector extends ColumnVector {
+
+        private final double[] values;
+
+        DoubleVector(String name, JdbcType jdbcType, int size, BitSet nulls, double[] values) {
+            super(name, jdbcType, size, nulls);
+            this.values = values;
+        }
+
+        public double getDouble(int row) {
+            return values[row];
+        }
+
+        /**
+         * 所有行的值（不复制，长度==行数）
+         *
+         * @return 所有行的值
+         */
+        public double[] getValues() {
+            return values;
+        }
+
+        @Override
+        public Object getObject(int row) {
+            return isNull(row) ? null : values[row];
+        }
+    }
+
+    /**
+     * 字典编码的字符串列（CHAR、VARCHAR等）：每行存字典下标，相同的字符串只存一份，null行的编码为-1
+     */
+    public static class StringVector extends ColumnVector {
+
+        private final int[] codes;
+
+        private final String[] dictionary;
+
+        StringVector(String name, JdbcType jdbcType, int size, BitSet nulls, int[] codes, String[] dictionary) {
+            super(name, jdbcType, size, nulls);
+            this.codes = codes;
+            this.dictionary = dictionary;
+        }
+
+        public String getString(int row) {
+            int code = codes[row];
+            return code < 0 ? null : dictionary[code];
+        }
+
+        public int getCode(int row) {
+            return codes[row];
+        }
+
+        /**
+         * 所有行的字典编码（不复制，长度==行数）
+         *
+         * @return 所有行的字典编码
+         */
+        public int[] getCodes() {
+            return codes;
+        }
+
+        /**
+         * 字典（不复制）
+         *
+         * @return 字典
+         */
+        public String[] getDictionary() {
+            return dictionary;
+        }
+
+        @Override
+        public Object getObject(int row) {
+            return getString(row);
+        }
+    }
+
+    /**
+     * 其他类型的列（DECIMAL、日期时间等），值通过TypeHandler转换
+     */
+    public static class ObjectVector extends ColumnVector {
+
+        private final Object[] values;
+
+        ObjectVector(String name, JdbcType jdbcType, int size, BitSet nulls, Object[] values) {
+            super(name, jdbcType, size, nulls);
+            this.values = values;
+        }
+
+        /**
+         * 所有行的值（不复制，长度==行数）
+         *
+         * @return 所有行的值
+         */
+        public Object[] getValues() {
+            return values;
+        }
+
+        @Override
+        public Object getObject(int row) {
+            return values[row];
+        }
+    }
+}
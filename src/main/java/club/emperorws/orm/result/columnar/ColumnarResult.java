@@ -0,0 +1,102 @@
+package club.emperorws.orm.result.columnar;
+
+import club.emperorws.orm.exception.OrmException;
+
+import java.util.*;
+
+/**
+ * 列式存储的查询结果：每列一个数组（见{@link ColumnVector}），不为每一行创建对象
+ * <p>适合大结果集的统计分析：内存占用比行对象小得多，也方便按列循环计算</p>
+ *
+ * <p>
+ * <b>怎么使用:</b>
+ *
+ * <pre>
+ * ColumnarResult result = sqlSession.selectColumnar(sqlSource, param);
+ * long[] counts = result.getLongVector("cnt").getValues();
+ * ColumnVector.StringVector cities = result.getStringVector("city");
+ * </pre>
+ *
+ * @author: EmperorWS
+ * @date: 2023/8/22 10:30
+ * @description: ColumnarResult: 列式存储的查询结果
+ */
+public class ColumnarResult {
+
+    private final int rowCount;
+
+    private final ColumnVector[] columns;
+
+    private final List<String> columnNames;
+
+    /**
+     * 列名（大写）-->列下标，同名列取第一个
+     */
+    private final Map<String, Integer> columnIndexMap = new HashMap<>();
+
+    public ColumnarResult(int rowCount, ColumnVector[] columns) {
+        this.rowCount = rowCount;
+        this.columns = columns;
+        String[] names = new String[columns.length];
+        for (int i = columns.length - 1; i >= 0; i--) {
+            names[i] = columns[i].getName();
+            columnIndexMap.put(names[i].toUpperCase(Locale.ENGLISH), i);
+        }
+        this.columnNames = Collections.unmodifiableList(Arrays.asList(names));
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    public int getColumnCount() {
+        return columns.length;
+    }
+
+    public List<String> getColumnNames() {
+        return columnNames;
+    }
+
+    public ColumnVector getColumn(int columnIndex) {
+        return columns[columnIndex];
+    }
+
+    /**
+     * 按列名获取列（不区分大小写）
+     *
+     * @param columnName 列名
+     * @return 列
+     */
+    public ColumnVector getColumn(String columnName) {
+        Integer index = columnIndexMap.get(columnName.toUpperCase(Locale.ENGLISH));
+        if (index == null) {
+            throw new OrmException("There is no column named '" + columnName + "'. Available columns are " + columnNames);
+        }
+        return columns[index];
+    }
+
+    public ColumnVector.LongVector getLongVector(String columnName) {
+        return getColumn(columnName, ColumnVector.LongVector.class);
+    }
+
+    public ColumnVector.DoubleVector getDoubleVector(String columnName) {
+        return getColumn(columnName, ColumnVector.DoubleVector.class);
+    }
+
+    public ColumnVector.StringVector getStringVector(String columnName) {
+        return getColumn(columnName, ColumnVector.StringVector.class);
+    }
+
+    public ColumnVector.ObjectVector getObjectVector(String columnName) {
+        return getColumn(columnName, ColumnVector.ObjectVector.class);
+    }
+
+    private <T extends ColumnVector> T getColumn(String columnName, Class<T> vectorType) {
+        ColumnVector column = getColumn(columnName);
+        if (!vectorType.isInstance(column)) {
+            throw new OrmException("Column '" + columnName + "' (" + column.getJdbcType() + ") is stored as "
+                    + column.getClass().getSimpleName() + ", not " + vectorType.getSimpleName());
+        }
+        return vectorType.cast(column);
+    }
+}
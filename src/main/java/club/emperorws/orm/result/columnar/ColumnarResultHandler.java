@@ -0,0 +1,249 @@
+package club.emperorws.orm.result.columnar;
+
+import club.emperorws.orm.exception.OrmException;
+import club.emperorws.orm.result.ResultSetRowHandler;
+import club.emperorws.orm.result.ResultSetWrapper;
+import club.emperorws.orm.type.JdbcType;
+import club.emperorws.orm.type.TypeHandler;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.*;
+
+/**
+ * 按列收集结果集，生成{@link ColumnarResult}
+ * <p>每一列按JDBC类型选择存储方式：整数-->long[]，浮点数-->double[]，字符串-->字典编码，其他-->TypeHandler转换后的Object[]</p>
+ *
+ * @author: EmperorWS
+ * @date: 2023/8/22 10:50
+ * @description: ColumnarResultHandler: 按列收集结果集
+ */
+public class ColumnarResultHandler implements ResultSetRowHandler {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private static final Set<JdbcType> LONG_TYPES = EnumSet.of(JdbcType.TINYINT, JdbcType.SMALLINT, JdbcType.INTEGER, JdbcType.BIGINT);
+
+    private static final Set<JdbcType> DOUBLE_TYPES = EnumSet.of(JdbcType.FLOAT, JdbcType.REAL, JdbcType.DOUBLE);
+
+    private static final Set<JdbcType> STRING_TYPES = EnumSet.of(JdbcType.CHAR, JdbcType.VARCHAR, JdbcType.LONGVARCHAR,
+            JdbcType.NCHAR, JdbcType.NVARCHAR, JdbcType.LONGNVARCHAR);
+
+    private ColumnBuilder[] builders;
+
+    private int rowCount;
+
+    /**
+     * 集合参数拆分为多条SQL时，每个结果集都会调用一次：后面的结果集继续追加到已有的列中（列必须一致）
+     */
+    @Override
+    public void prepare(ResultSetWrapper rsw) {
+        List<String> columnNames = rsw.getColumnNames();
+        List<JdbcType> jdbcTypes = rsw.getJdbcTypes();
+        List<String> classNames = rsw.getClassNames();
+        if (builders != null) {
+            checkColumns(columnNames, jdbcTypes);
+            return;
+        }
+        builders = new ColumnBuilder[columnNames.size()];
+        for (int i = 0; i < builders.length; i++) {
+            String columnName = columnNames.get(i);
+            JdbcType jdbcType = jdbcTypes.get(i);
+            //BIGINT UNSIGNED等超出long范围的列按对象存储
+            boolean bigInteger = "java.math.BigInteger".equals(classNames.get(i));
+            if (jdbcType != null && LONG_TYPES.contains(jdbcType) && !bigInteger) {
+                builders[i] = new LongColumnBuilder(columnName, jdbcType, i + 1);
+            } else if (jdbcType != null && DOUBLE_TYPES.contains(jdbcType)) {
+                builders[i] = new DoubleColumnBuilder(columnName, jdbcType, i + 1);
+            } else if (jdbcType != null && STRING_TYPES.contains(jdbcType)) {
+                builders[i] = new StringColumnBuilder(columnName, jdbcType, i + 1);
+            } else {
+                builders[i] = new ObjectColumnBuilder(columnName, jdbcType, i + 1, rsw.getTypeHandler(Object.class, columnName));
+            }
+        }
+    }
+
+    private void checkColumns(List<String> columnNames, List<JdbcType> jdbcTypes) {
+        boolean sameColumns = columnNames.size() == builders.length;
+        for (int i = 0; sameColumns && i < builders.length; i++) {
+            sameColumns = builders[i].name.equals(columnNames.get(i)) && builders[i].jdbcType == jdbcTypes.get(i);
+        }
+        if (!sameColumns) {
+            throw new OrmException("The columns " + columnNames + " of the result set differ from the columns already collected, "
+                    + "a ColumnarResultHandler can only collect result sets with the same columns.");
+        }
+    }
+
+    @Override
+    public void handleRow(ResultSet rs) throws SQLException {
+        for (ColumnBuilder builder : builders) {
+            builder.append(rs, rowCount);
+        }
+        rowCount++;
+    }
+
+    /**
+     * 获取收集的列式结果
+     *
+     * @return 列式结果
+     */
+    public ColumnarResult getResult() {
+        if (builders == null) {
+            return new ColumnarResult(0, new ColumnVector[0]);
+        }
+        ColumnVector[] columns = new ColumnVector[builders.length];
+        for (int i = 0; i < builders.length; i++) {
+            columns[i] = builders[i].build(rowCount);
+        }
+        return new ColumnarResult(rowCount, columns);
+    }
+
+    private static int grow(int capacity) {
+        return Math.max(capacity + (capacity >> 1), INITIAL_CAPACITY);
+    }
+
+    /*************************************************inner class*********************************************************/
+
+    private abstract static class ColumnBuilder {
+
+        protected final String name;
+
+        protected final JdbcType jdbcType;
+
+        protected final int columnIndex;
+
+        protected final BitSet nulls = new BitSet();
+
+        private ColumnBuilder(String name, JdbcType jdbcType, int columnIndex) {
+            this.name = name;
+            this.jdbcType = jdbcType;
+            this.columnIndex = columnIndex;
+        }
+
+        abstract void append(ResultSet rs, int row) throws SQLException;
+
+        abstract ColumnVector build(int size);
+    }
+
+    private static class LongColumnBuilder extends ColumnBuilder {
+
+        private long[] values = new long[INITIAL_CAPACITY];
+
+        private LongColumnBuilder(String name, JdbcType jdbcType, int columnIndex) {
+            super(name, jdbcType, columnIndex);
+        }
+
+        @Override
+        void append(ResultSet rs, int row) throws SQLException {
+            if (row == values.length) {
+                values = Arrays.copyOf(values, grow(values.length));
+            }
+            long value = rs.getLong(columnIndex);
+            if (value == 0 && rs.wasNull()) {
+                nulls.set(row);
+            }
+            values[row] = value;
+        }
+
+        @Override
+        ColumnVector build(int size) {
+            return new ColumnVector.LongVector(name, jdbcType, size, nulls, Arrays.copyOf(values, size));
+        }
+    }
+
+    private static class DoubleColumnBuilder extends ColumnBuilder {
+
+        private double[] values = new double[INITIAL_CAPACITY];
+
+        private DoubleColumnBuilder(String name, JdbcType jdbcType, int columnIndex) {
+            super(name, jdbcType, columnIndex);
+        }
+
+        @Override
+        void append(ResultSet rs, int row) throws SQLException {
+            if (row == values.length) {
+                values = Arrays.copyOf(values, grow(values.length));
+            }
+            double value = rs.getDouble(columnIndex);
+            if (value == 0 && rs.wasNull()) {
+                nulls.set(row);
+            }
+            values[row] = value;
+        }
+
+        @Override
+        ColumnVector build(int size) {
+            return new ColumnVector.DoubleVector(name, jdbcType, size, nulls, Arrays.copyOf(values, size));
+        }
+    }
+
+    private static class StringColumnBuilder extends ColumnBuilder {
+
+        private int[] codes = new int[INITIAL_CAPACITY];
+
+        /**
+         * 字符串-->字典编码
+         */
+        private final Map<String, Integer> dictionaryIndex = new HashMap<>();
+
+        private final List<String> dictionary = new ArrayList<>();
+
+        private StringColumnBuilder(String name, JdbcType jdbcType, int columnIndex) {
+            super(name, jdbcType, columnIndex);
+        }
+
+        @Override
+        void append(ResultSet rs, int row) throws SQLException {
+            if (row == codes.length) {
+                codes = Arrays.copyOf(codes, grow(codes.length));
+            }
+            String value = rs.getString(columnIndex);
+            if (value == null) {
+                nulls.set(row);
+                codes[row] = -1;
+                return;
+            }
+            Integer code = dictionaryIndex.get(value);
+            if (code == null) {
+                code = dictionary.size();
+                dictionary.add(value);
+                dictionaryIndex.put(value, code);
+            }
+            codes[row] = code;
+        }
+
+        @Override
+        ColumnVector build(int size) {
+            return new ColumnVector.StringVector(name, jdbcType, size, nulls, Arrays.copyOf(codes, size), dictionary.toArray(new String[0]));
+        }
+    }
+
+    private static class ObjectColumnBuilder extends ColumnBuilder {
+
+        private final TypeHandler<?> typeHandler;
+
+        private Object[] values = new Object[INITIAL_CAPACITY];
+
+        private ObjectColumnBuilder(String name, JdbcType jdbcType, int columnIndex, TypeHandler<?> typeHandler) {
+            super(name, jdbcType, columnIndex);
+            this.typeHandler = typeHandler;
+        }
+
+        @Override
+        void append(ResultSet rs, int row) throws SQLException {
+            if (row == values.length) {
+                values = Arrays.copyOf(values, grow(values.length));
+            }
+            Object value = typeHandler.getResult(rs, columnIndex);
+            if (value == null) {
+                nulls.set(row);
+            }
+            values[row] = value;
+        }
+
+        @Override
+        ColumnVector build(int size) {
+            return new ColumnVector.ObjectVector(name, jdbcType, size, nulls, Arrays.copyOf(values, size));
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package club.emperorws.orm.result.primitive;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.function.DoubleConsumer;
+import java.util.stream.DoubleStream;
+
+/**
+ * 可扩容的double列表（不装箱），可以作为Mapper方法的返回值类型（查询单列DOUBLE）
+ *
+ * @author: EmperorWS
+ * @date: 2023/8/21 16:44
+ * @description: DoubleList: 可扩容的double列表
+ */
+public class DoubleList implements Serializable {
+
+    private static final long serialVersionUID = 8212880931647391957L;
+
+    private static final int DEFAULT_CAPACITY = 10;
+
+    private double[] elements;
+
+    private int size;
+
+    public DoubleList() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public DoubleList(int initialCapacity) {
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException("Illegal capacity: " + initialCapacity);
+        }
+        this.elements = new double[initialCapacity];
+    }
+
+    public void add(double value) {
+        if (size == elements.length) {
+            elements = Arrays.copyOf(elements, Math.max(size + (size >> 1), DEFAULT_CAPACITY));
+        }
+        elements[size++] = value;
+    }
+
+    public double get(int index) {
+        checkIndex(index);
+        return elements[index];
+    }
+
+    public void set(int index, double value) {
+        checkIndex(index);
+        elements[index] = value;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * 转换为数组（复制）
+     *
+     * @return 数组
+     */
+    public double[] toArray() {
+        return Arrays.copyOf(elements, size);
+    }
+
+    public DoubleStream stream() {
+        return Arrays.stream(elements, 0, size);
+    }
+
+    public void forEach(DoubleConsumer action) {
+        for (int i = 0; i < size; i++) {
+            action.accept(elements[i]);
+        }
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof DoubleList)) {
+            return false;
+        }
+        DoubleList other = (DoubleList) o;
+        if (size != other.size) {
+            return false;
+        }
+        for (int i = 0; i < size; i++) {
+            if (Double.compare(elements[i], other.elements[i]) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = 1;
+        for (int i = 0; i < size; i++) {
+            result = 31 * result + Double.hashCode(elements[i]);
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(elements[i]);
+        }
+        return sb.append(']').toString();
+    }
+}
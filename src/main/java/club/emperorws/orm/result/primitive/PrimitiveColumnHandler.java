@@ -0,0 +1,154 @@
+package club.emperorws.orm.result.primitive;
+
+import club.emperorws.orm.exception.OrmException;
+import club.emperorws.orm.result.ResultSetRowHandler;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * 单列基本类型结果的收集器：通过ResultSet.getLong(1)等方法直接读取到基本类型的缓冲区，不装箱
+ * <p>支持的返回值类型：long[]、int[]、double[]、{@link LongList}、{@link IntList}、{@link DoubleList}；列的值不允许为null</p>
+ *
+ * @author: EmperorWS
+ * @date: 2023/8/21 16:50
+ * @description: PrimitiveColumnHandler: 单列基本类型结果的收集器
+ */
+public abstract class PrimitiveColumnHandler implements ResultSetRowHandler {
+
+    /**
+     * 是否返回数组（否则返回列表）
+     */
+    protected final boolean returnsArray;
+
+    protected PrimitiveColumnHandler(boolean returnsArray) {
+        this.returnsArray = returnsArray;
+    }
+
+    /**
+     * 是否支持该返回值类型
+     *
+     * @param returnType 返回值类型
+     * @return 是否支持
+     */
+    public static boolean isSupported(Class<?> returnType) {
+        return getElementType(returnType) != null;
+    }
+
+    /**
+     * 返回值类型对应的元素类型（long、int、double）
+     *
+     * @param returnType 返回值类型
+     * @return 元素类型，不支持时返回null
+     */
+    public static Class<?> getElementType(Class<?> returnType) {
+        if (long[].class.equals(returnType) || LongList.class.equals(returnType)) {
+            return long.class;
+        } else if (int[].class.equals(returnType) || IntList.class.equals(returnType)) {
+            return int.class;
+        } else if (double[].class.equals(returnType) || DoubleList.class.equals(returnType)) {
+            return double.class;
+        }
+        return null;
+    }
+
+    /**
+     * 创建返回值类型对应的收集器
+     *
+     * @param returnType 返回值类型
+     * @return 收集器
+     */
+    public static PrimitiveColumnHandler forReturnType(Class<?> returnType) {
+        Class<?> elementType = getElementType(returnType);
+        if (elementType == long.class) {
+            return new LongColumnHandler(returnType.isArray());
+        } else if (elementType == int.class) {
+            return new IntColumnHandler(returnType.isArray());
+        } else if (elementType == double.class) {
+            return new DoubleColumnHandler(returnType.isArray());
+        }
+        throw new OrmException("Unsupported primitive result type: " + returnType);
+    }
+
+    /**
+     * 获取收集的结果（数组或列表）
+     *
+     * @return 收集的结果
+     */
+    public abstract Object getResult();
+
+    protected static SQLException nullValue(ResultSet rs, String typeName) throws SQLException {
+        return new SQLException("Column '" + rs.getMetaData().getColumnLabel(1) + "' returned null, which cannot be stored as " + typeName + ".");
+    }
+
+    /*************************************************inner class*********************************************************/
+
+    private static class LongColumnHandler extends PrimitiveColumnHandler {
+
+        private final LongList values = new LongList();
+
+        private LongColumnHandler(boolean returnsArray) {
+            super(returnsArray);
+        }
+
+        @Override
+        public void handleRow(ResultSet rs) throws SQLException {
+            long value = rs.getLong(1);
+            if (value == 0 && rs.wasNull()) {
+                throw nullValue(rs, "long");
+            }
+            values.add(value);
+        }
+
+        @Override
+        public Object getResult() {
+            return returnsArray ? values.toArray() : values;
+        }
+    }
+
+    private static class IntColumnHandler extends PrimitiveColumnHandler {
+
+        private final IntList values = new IntList();
+
+        private IntColumnHandler(boolean returnsArray) {
+            super(returnsArray);
+        }
+
+        @Override
+        public void handleRow(ResultSet rs) throws SQLException {
+            int value = rs.getInt(1);
+            if (value == 0 && rs.wasNull()) {
+                throw nullValue(rs, "int");
+            }
+            values.add(value);
+        }
+
+        @Override
+        public Object getResult() {
+            return returnsArray ? values.toArray() : values;
+        }
+    }
+
+    private static class DoubleColumnHandler extends PrimitiveColumnHandler {
+
+        private final DoubleList values = new DoubleList();
+
+        private DoubleColumnHandler(boolean returnsArray) {
+            super(returnsArray);
+        }
+
+        @Override
+        public void handleRow(ResultSet rs) throws SQLException {
+            double value = rs.getDouble(1);
+            if (value == 0 && rs.wasNull()) {
+                throw nullValue(rs, "double");
+            }
+            values.add(value);
+        }
+
+        @Override
+        public Object getResult() {
+            return returnsArray ? values.toArray() : values;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package club.emperorws.orm.session;
+
+/**
+ * 本地缓存（一级缓存）的作用范围
+ *
+ * @author: EmperorWS
+ * @date: 2023/8/18 10:10
+ * @description: LocalCacheScope: 本地缓存（一级缓存）的作用范围
+ */
+public enum LocalCacheScope {
+
+    /**
+     * 整个SqlSession内有效（增删改、commit、rollback、close时清空）
+     */
+    SESSION,
+
+    /**
+     * 只在一次查询内有效（相当于关闭本地缓存）
+     */
+    STATEMENT
+}
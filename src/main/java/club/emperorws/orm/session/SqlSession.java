@@ -5,7 +5,9 @@ import club.emperorws.orm.cursor.Cursor;
 import club.emperorws.orm.mapping.RowBounds;
 import club.emperorws.orm.mapping.SqlSource;
 import club.emperorws.orm.result.BatchResult;
+import club.emperorws.orm.result.Page;
 import club.emperorws.orm.result.ResultHandler;
+import club.emperorws.orm.result.columnar.ColumnarResult;
 
 import java.io.Closeable;
 import java.sql.Connection;
@@ -108,7 +110,22 @@ public interface SqlSession extends Closeable {
     <K, V> Map<K, V> selectMap(SqlSource sqlSource, Object parameter, String mapKey, RowBounds rowBounds);
 
     /**
-     * 游标查询，暂不实现ignore
+     * 返回多行值的结果List--->放入指定的Map（有请求参数、内存分页信息）
+     * <p>可以传入其它Map实现（如LinkedHashMap、TreeMap）；记录逐行放入Map，不生成List，不使用一级缓存；标注了查询缓存的语句才会读写二级缓存</p>
+     *
+     * @param <K>       键类型
+     * @param <V>       值类型
+     * @param sqlSource 执行sql的语句
+     * @param parameter 整合的请求参数
+     * @param mapKey    哪一个属性作为键
+     * @param rowBounds 内存分页信息
+     * @param resultMap 存放结果的Map
+     * @return 返回resultMap
+     */
+    <K, V> Map<K, V> selectMap(SqlSource sqlSource, Object parameter, String mapKey, RowBounds rowBounds, Map<K, V> resultMap);
+
+    /**
+     * 游标查询（流式逐行读取，Session关闭时会一并关闭未消费完的游标）
      *
      * @param <T>       返回值类型
      * @param sqlSource 执行sql的语句
@@ -117,7 +134,7 @@ public interface SqlSession extends Closeable {
     <T> Cursor<T> selectCursor(SqlSource sqlSource);
 
     /**
-     * 游标查询，暂不实现ignore
+     * 游标查询（流式逐行读取，Session关闭时会一并关闭未消费完的游标）
      *
      * @param <T>       返回值类型
      * @param sqlSource 执行sql的语句
@@ -127,7 +144,7 @@ public interface SqlSession extends Closeable {
     <T> Cursor<T> selectCursor(SqlSource sqlSource, Object parameter);
 
     /**
-     * 游标查询，暂不实现ignore
+     * 游标查询（流式逐行读取，Session关闭时会一并关闭未消费完的游标）
      *
      * @param <T>       返回值类型
      * @param sqlSource 执行sql的语句
@@ -137,6 +154,51 @@ public interface SqlSession extends Closeable {
      */
     <T> Cursor<T> selectCursor(SqlSource sqlSource, Object parameter, RowBounds rowBounds);
 
+    /**
+     * 列式查询：每列存储为一个数组，不为每一行创建对象（适合大结果集的统计分析）
+     *
+     * @param sqlSource 执行sql的语句
+     * @param parameter 整合的请求参数
+     * @return 列式存储的查询结果
+     */
+    ColumnarResult selectColumnar(SqlSource sqlSource, Object parameter);
+
+    /**
+     * 列式查询：每列存储为一个数组，不为每一行创建对象（适合大结果集的统计分析）
+     *
+     * @param sqlSource 执行sql的语句
+     * @param parameter 整合的请求参数
+     * @param rowBounds 内存分页信息
+     * @return 列式存储的查询结果
+     */
+    ColumnarResult selectColumnar(SqlSource sqlSource, Object parameter, RowBounds rowBounds);
+
+    /**
+     * 分页查询：当前页的记录+总记录数（自动生成的SELECT COUNT(*)，可以与当前页的查询并行执行）
+     * <p>并行统计使用另一个连接（另一个事务），与当前页的查询不是同一个快照：两次查询之间其它事务提交的写入可能只被其中一个看到，
+     * 总记录数与当前页可能不一致；需要一致时关闭{@link club.emperorws.orm.Configuration#isParallelPageCount()}。统计按查询的超时时间等待</p>
+     *
+     * @param <E>       结果类型
+     * @param sqlSource 执行sql的语句
+     * @param parameter 整合的请求参数
+     * @param rowBounds 分页信息
+     * @return 分页查询结果
+     */
+    <E> Page<E> selectPage(SqlSource sqlSource, Object parameter, RowBounds rowBounds);
+
+    /**
+     * 分页查询：当前页的记录+总记录数
+     *
+     * @param <E>           结果类型
+     * @param sqlSource     执行sql的语句
+     * @param parameter     整合的请求参数
+     * @param rowBounds     分页信息
+     * @param countTotal    是否统计总记录数
+     * @param countCacheTtl 总记录数的缓存时间（毫秒），小于等于0时不缓存
+     * @return 分页查询结果
+     */
+    <E> Page<E> selectPage(SqlSource sqlSource, Object parameter, RowBounds rowBounds, boolean countTotal, long countCacheTtl);
+
     /**
      * 没有返回值的查询
      * using a {@code ResultHandler}.
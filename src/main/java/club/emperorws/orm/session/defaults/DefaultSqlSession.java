@@ -12,16 +12,24 @@ import club.emperorws.orm.mapping.SqlSource;
 import club.emperorws.orm.reflection.ParamNameResolver;
 import club.emperorws.orm.result.BatchResult;
 import club.emperorws.orm.result.DefaultMapResultHandler;
-import club.emperorws.orm.result.DefaultResultContext;
+import club.emperorws.orm.result.Page;
 import club.emperorws.orm.result.ResultHandler;
+import club.emperorws.orm.result.columnar.ColumnarResult;
+import club.emperorws.orm.result.columnar.ColumnarResultHandler;
 import club.emperorws.orm.session.SqlSession;
 
 import java.io.IOException;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * 默认的SqlSession
@@ -32,12 +40,22 @@ import java.util.Map;
  */
 public class DefaultSqlSession implements SqlSession {
 
+    /**
+     * selectMap按分页limit预设Map容量的上限（limit很大时不预先分配过大的数组）
+     */
+    private static final int MAX_PRESIZED_MAP_ENTRIES = 1 << 16;
+
     private final Configuration configuration;
     private final Executor executor;
 
     private final boolean autoCommit;
     private List<Cursor<?>> cursorList;
 
+    /**
+     * 是否有未提交的写入（有时分页查询的总记录数不能在另一个连接上统计）
+     */
+    private boolean dirty;
+
     public DefaultSqlSession(Configuration configuration, Executor executor, boolean autoCommit) {
         this.configuration = configuration;
         this.executor = executor;
@@ -77,18 +95,30 @@ public class DefaultSqlSession implements SqlSession {
 
     @Override
     public <K, V> Map<K, V> selectMap(SqlSource sqlSource, Object parameter, String mapKey, RowBounds rowBounds) {
-        final List<? extends V> list = selectList(sqlSource, parameter, rowBounds);
-        //List转Map
-        final DefaultMapResultHandler<K, V> mapResultHandler = new DefaultMapResultHandler<>(mapKey,
+        return selectMap(sqlSource, parameter, mapKey, rowBounds, newResultMap(rowBounds));
+    }
+
+    @Override
+    public <K, V> Map<K, V> selectMap(SqlSource sqlSource, Object parameter, String mapKey, RowBounds rowBounds, Map<K, V> resultMap) {
+        //结果对象逐行放入Map，不再先生成List（二级缓存由CachingExecutor按ResultHandler回放/写入）
+        final DefaultMapResultHandler<K, V> mapResultHandler = new DefaultMapResultHandler<>(mapKey, resultMap,
                 configuration.getObjectFactory(), configuration.getObjectWrapperFactory(), configuration.getReflectorFactory());
-        final DefaultResultContext<V> context = new DefaultResultContext<>();
-        for (V o : list) {
-            context.nextResultObject(o);
-            mapResultHandler.handleResult(context);
-        }
+        select(sqlSource, parameter, rowBounds, mapResultHandler);
         return mapResultHandler.getMappedResults();
     }
 
+    /**
+     * 创建存放selectMap结果的Map：有分页limit时按limit预设容量（避免扩容时重新hash），否则使用默认容量
+     */
+    private <K, V> Map<K, V> newResultMap(RowBounds rowBounds) {
+        final int limit = rowBounds.getLimit();
+        if (limit == RowBounds.NO_ROW_LIMIT) {
+            return configuration.getObjectFactory().create(Map.class);
+        }
+        final int initialCapacity = (int) (Math.min(limit, MAX_PRESIZED_MAP_ENTRIES) / 0.75f) + 1;
+        return configuration.getObjectFactory().create(Map.class, Collections.singletonList(int.class), Collections.singletonList(initialCapacity));
+    }
+
     @Override
     public <T> Cursor<T> selectCursor(SqlSource sqlSource) {
         return selectCursor(sqlSource, null);
@@ -140,6 +170,63 @@ public class DefaultSqlSession implements SqlSession {
         }
     }
 
+    @Override
+    public ColumnarResult selectColumnar(SqlSource sqlSource, Object parameter) {
+        return selectColumnar(sqlSource, parameter, RowBounds.DEFAULT);
+    }
+
+    @Override
+    public ColumnarResult selectColumnar(SqlSource sqlSource, Object parameter, RowBounds rowBounds) {
+        ColumnarResultHandler handler = new ColumnarResultHandler();
+        select(sqlSource, parameter, rowBounds, handler);
+        return handler.getResult();
+    }
+
+    @Override
+    public <E> Page<E> selectPage(SqlSource sqlSource, Object parameter, RowBounds rowBounds) {
+        return selectPage(sqlSource, parameter, rowBounds, true, 0L);
+    }
+
+    @Override
+    public <E> Page<E> selectPage(SqlSource sqlSource, Object parameter, RowBounds rowBounds, boolean countTotal, long countCacheTtl) {
+        try {
+            MappedStatement ms = configuration.getMappedStatement(sqlSource);
+            Object param = wrapCollection(parameter);
+            //先提交总记录数的统计（并行时在另一个连接上执行），再查询当前页
+            Future<Long> total = countTotal ? configuration.getPageCounter().count(executor, ms, param, countCacheTtl, !dirty) : null;
+            List<E> content;
+            try {
+                content = executor.query(ms, param, rowBounds, Executor.NO_RESULT_HANDLER);
+            } catch (Exception e) {
+                if (total != null) {
+                    total.cancel(false);
+                }
+                throw e;
+            }
+            return new Page<>(content, total == null ? Page.UNKNOWN_TOTAL : getTotal(ms, total), rowBounds);
+        } catch (Exception e) {
+            throw ExceptionFactory.wrapException("Error querying database.  Cause: " + e, e);
+        } finally {
+            ErrorContext.instance().reset();
+        }
+    }
+
+    /**
+     * 获取总记录数：按查询的超时时间（秒）等待并行统计的结果，超时后取消统计
+     */
+    private long getTotal(MappedStatement ms, Future<Long> total) throws Exception {
+        final Integer timeout = ms.getTimeout() != null ? ms.getTimeout() : configuration.getDefaultStatementTimeout();
+        try {
+            return timeout == null || timeout <= 0 ? total.get() : total.get(timeout, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            total.cancel(true);
+            throw new SQLTimeoutException("Counting the total of statement " + ms.getId() + " timed out after " + timeout + " seconds.", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof Exception ? (Exception) cause : e;
+        }
+    }
+
     @SuppressWarnings("rawtypes")
     @Override
     public void select(SqlSource sqlSource, Object parameter, ResultHandler handler) {
@@ -177,6 +264,7 @@ public class DefaultSqlSession implements SqlSession {
     public int update(SqlSource sqlSource, Object parameter) {
         try {
             MappedStatement ms = configuration.getMappedStatement(sqlSource);
+            dirty = true;
             return executor.update(ms, wrapCollection(parameter));
         } catch (Exception e) {
             throw ExceptionFactory.wrapException("Error updating database.  Cause: " + e, e);
@@ -204,6 +292,7 @@ public class DefaultSqlSession implements SqlSession {
     public void commit(boolean force) {
         try {
             executor.commit(isCommitOrRollbackRequired(force));
+            dirty = false;
         } catch (Exception e) {
             throw ExceptionFactory.wrapException("Error committing transaction.  Cause: " + e, e);
         } finally {
@@ -220,6 +309,7 @@ public class DefaultSqlSession implements SqlSession {
     public void rollback(boolean force) {
         try {
             executor.rollback(isCommitOrRollbackRequired(force));
+            dirty = false;
         } catch (Exception e) {
             throw ExceptionFactory.wrapException("Error rolling back transaction.  Cause: " + e, e);
         } finally {
@@ -241,8 +331,12 @@ public class DefaultSqlSession implements SqlSession {
     @Override
     public void close() {
         try {
-            executor.close(isCommitOrRollbackRequired(false));
-            closeCursors();
+            //先关闭游标，再归还连接
+            try {
+                closeCursors();
+            } finally {
+                executor.close(isCommitOrRollbackRequired(false));
+            }
         } finally {
             ErrorContext.instance().reset();
         }
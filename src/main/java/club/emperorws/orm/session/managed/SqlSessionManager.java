@@ -6,7 +6,9 @@ import club.emperorws.orm.exception.OrmException;
 import club.emperorws.orm.mapping.RowBounds;
 import club.emperorws.orm.mapping.SqlSource;
 import club.emperorws.orm.result.BatchResult;
+import club.emperorws.orm.result.Page;
 import club.emperorws.orm.result.ResultHandler;
+import club.emperorws.orm.result.columnar.ColumnarResult;
 import club.emperorws.orm.session.ExecutorType;
 import club.emperorws.orm.session.SqlSession;
 import club.emperorws.orm.session.SqlSessionFactory;
@@ -153,6 +155,11 @@ public class SqlSessionManager implements SqlSessionFactory, SqlSession {
         return sqlSessionProxy.selectMap(sqlSource, parameter, mapKey, rowBounds);
     }
 
+    @Override
+    public <K, V> Map<K, V> selectMap(SqlSource sqlSource, Object parameter, String mapKey, RowBounds rowBounds, Map<K, V> resultMap) {
+        return sqlSessionProxy.selectMap(sqlSource, parameter, mapKey, rowBounds, resultMap);
+    }
+
     @Override
     public <T> Cursor<T> selectCursor(SqlSource sqlSource) {
         return sqlSessionProxy.selectCursor(sqlSource);
@@ -183,6 +190,26 @@ public class SqlSessionManager implements SqlSessionFactory, SqlSession {
         return sqlSessionProxy.selectList(sqlSource, parameter, rowBounds);
     }
 
+    @Override
+    public ColumnarResult selectColumnar(SqlSource sqlSource, Object parameter) {
+        return sqlSessionProxy.selectColumnar(sqlSource, parameter);
+    }
+
+    @Override
+    public ColumnarResult selectColumnar(SqlSource sqlSource, Object parameter, RowBounds rowBounds) {
+        return sqlSessionProxy.selectColumnar(sqlSource, parameter, rowBounds);
+    }
+
+    @Override
+    public <E> Page<E> selectPage(SqlSource sqlSource, Object parameter, RowBounds rowBounds) {
+        return sqlSessionProxy.selectPage(sqlSource, parameter, rowBounds);
+    }
+
+    @Override
+    public <E> Page<E> selectPage(SqlSource sqlSource, Object parameter, RowBounds rowBounds, boolean countTotal, long countCacheTtl) {
+        return sqlSessionProxy.selectPage(sqlSource, parameter, rowBounds, countTotal, countCacheTtl);
+    }
+
     @SuppressWarnings("rawtypes")
     @Override
     public void select(SqlSource sqlSource, ResultHandler handler) {
@@ -3,6 +3,7 @@ package club.emperorws.orm.statement;
 import club.emperorws.orm.Configuration;
 import club.emperorws.orm.exception.ErrorContext;
 import club.emperorws.orm.exception.OrmException;
+import club.emperorws.orm.executor.Executor;
 import club.emperorws.orm.mapping.BoundSql;
 import club.emperorws.orm.mapping.MappedStatement;
 import club.emperorws.orm.mapping.RowBounds;
@@ -27,6 +28,7 @@ import java.sql.Statement;
 public abstract class BaseStatementHandler implements StatementHandler {
 
     protected final Configuration configuration;
+    protected final Executor executor;
     protected final ObjectFactory objectFactory;
     protected final TypeHandlerRegistry typeHandlerRegistry;
     protected final ResultSetHandler resultSetHandler;
@@ -37,8 +39,9 @@ public abstract class BaseStatementHandler implements StatementHandler {
 
     protected BoundSql boundSql;
 
-    protected BaseStatementHandler(MappedStatement mappedStatement, Object parameterObject, RowBounds rowBounds, ResultHandler resultHandler, BoundSql boundSql) {
+    protected BaseStatementHandler(Executor executor, MappedStatement mappedStatement, Object parameterObject, RowBounds rowBounds, ResultHandler resultHandler, BoundSql boundSql) {
         this.configuration = mappedStatement.getConfiguration();
+        this.executor = executor;
         this.mappedStatement = mappedStatement;
         this.rowBounds = rowBounds;
 
@@ -54,7 +57,7 @@ public abstract class BaseStatementHandler implements StatementHandler {
         this.boundSql = boundSql;
 
         this.parameterHandler = configuration.newParameterHandler(mappedStatement, parameterObject, boundSql);
-        this.resultSetHandler = configuration.newResultSetHandler(mappedStatement, rowBounds, resultHandler);
+        this.resultSetHandler = configuration.newResultSetHandler(executor, mappedStatement, rowBounds, resultHandler);
     }
 
     @Override
@@ -1,6 +1,7 @@
 package club.emperorws.orm.statement;
 
 import club.emperorws.orm.cursor.Cursor;
+import club.emperorws.orm.executor.Executor;
 import club.emperorws.orm.mapping.BoundSql;
 import club.emperorws.orm.mapping.MappedStatement;
 import club.emperorws.orm.mapping.ResultSetType;
@@ -19,8 +20,8 @@ import java.util.List;
  */
 public class PreparedStatementHandler extends BaseStatementHandler {
 
-    public PreparedStatementHandler(MappedStatement mappedStatement, Object parameter, RowBounds rowBounds, ResultHandler resultHandler, BoundSql boundSql) {
-        super(mappedStatement, parameter, rowBounds, resultHandler, boundSql);
+    public PreparedStatementHandler(Executor executor, MappedStatement mappedStatement, Object parameter, RowBounds rowBounds, ResultHandler resultHandler, BoundSql boundSql) {
+        super(executor, mappedStatement, parameter, rowBounds, resultHandler, boundSql);
     }
 
     @Override
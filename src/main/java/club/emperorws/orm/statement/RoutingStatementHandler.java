@@ -2,6 +2,7 @@ package club.emperorws.orm.statement;
 
 import club.emperorws.orm.cursor.Cursor;
 import club.emperorws.orm.exception.OrmException;
+import club.emperorws.orm.executor.Executor;
 import club.emperorws.orm.mapping.BoundSql;
 import club.emperorws.orm.mapping.MappedStatement;
 import club.emperorws.orm.mapping.RowBounds;
@@ -24,13 +25,13 @@ public class RoutingStatementHandler implements StatementHandler {
 
     private final StatementHandler delegate;
 
-    public RoutingStatementHandler(MappedStatement ms, Object parameter, RowBounds rowBounds, ResultHandler resultHandler, BoundSql boundSql) {
+    public RoutingStatementHandler(Executor executor, MappedStatement ms, Object parameter, RowBounds rowBounds, ResultHandler resultHandler, BoundSql boundSql) {
         switch (ms.getStatementType()) {
             case STATEMENT:
-                delegate = new SimpleStatementHandler(ms, parameter, rowBounds, resultHandler, boundSql);
+                delegate = new SimpleStatementHandler(executor, ms, parameter, rowBounds, resultHandler, boundSql);
                 break;
             case PREPARED:
-                delegate = new PreparedStatementHandler(ms, parameter, rowBounds, resultHandler, boundSql);
+                delegate = new PreparedStatementHandler(executor, ms, parameter, rowBounds, resultHandler, boundSql);
                 break;
             case CALLABLE:
                 //暂时不做
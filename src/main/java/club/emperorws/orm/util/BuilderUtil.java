@@ -8,6 +8,9 @@ import club.emperorws.orm.exception.OrmException;
 import club.emperorws.orm.mapping.ResultSetType;
 import club.emperorws.orm.reflection.MetaClass;
 import club.emperorws.orm.reflection.TypeParameterResolver;
+import club.emperorws.orm.result.Page;
+import club.emperorws.orm.result.columnar.ColumnarResult;
+import club.emperorws.orm.result.primitive.PrimitiveColumnHandler;
 import club.emperorws.orm.type.JdbcType;
 import club.emperorws.orm.type.TypeAliasRegistry;
 import club.emperorws.orm.type.TypeHandler;
@@ -214,7 +217,13 @@ public class BuilderUtil {
         Type resolvedReturnType = TypeParameterResolver.resolveReturnType(method, type);
         if (resolvedReturnType instanceof Class) {
             returnType = (Class<?>) resolvedReturnType;
-            if (returnType.isArray()) {
+            if (PrimitiveColumnHandler.isSupported(returnType)) {
+                //long[]、LongList等单列基本类型结果
+                returnType = PrimitiveColumnHandler.getElementType(returnType);
+            } else if (ColumnarResult.class.equals(returnType)) {
+                //列式结果不按行映射，行类型按Map处理
+                returnType = Map.class;
+            } else if (returnType.isArray()) {
                 returnType = returnType.getComponentType();
             }
             if (void.class.equals(returnType)) {
@@ -226,7 +235,7 @@ public class BuilderUtil {
         } else if (resolvedReturnType instanceof ParameterizedType) {
             ParameterizedType parameterizedType = (ParameterizedType) resolvedReturnType;
             Class<?> rawType = (Class<?>) parameterizedType.getRawType();
-            if (Collection.class.isAssignableFrom(rawType) || Cursor.class.isAssignableFrom(rawType)) {
+            if (Collection.class.isAssignableFrom(rawType) || Cursor.class.isAssignableFrom(rawType) || Page.class.equals(rawType)) {
                 Type[] actualTypeArguments = parameterizedType.getActualTypeArguments();
                 if (actualTypeArguments != null && actualTypeArguments.length == 1) {
                     Type returnTypeParameter = actualTypeArguments[0];
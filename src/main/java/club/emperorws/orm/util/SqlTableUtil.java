@@ -0,0 +1,210 @@
+package club.emperorws.orm.util;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * SQL语句涉及的表名的轻量级解析（只做正则匹配，不做完整的SQL语法解析）
+ *
+ * @author: EmperorWS
+ * @date: 2023/8/16 10:05
+ * @description: SqlTableUtil: SQL语句涉及的表名的轻量级解析
+ */
+public class SqlTableUtil {
+
+    /**
+     * insert、update、delete、merge写入的目标表
+     */
+    private static final Pattern WRITE_TABLE_PATTERN = Pattern.compile(
+            "^\\s*(?:insert\\s+(?:ignore\\s+)?into|replace\\s+into|merge\\s+into|update|delete\\s+from)\\s+([`\"\\[]?[\\w.$]+[`\"\\]]?)",
+            Pattern.CASE_INSENSITIVE);
+
+    /**
+     * 表名（可以带引号、schema）
+     */
+    private static final String TABLE_NAME = "[`\"\\[]?[\\w.$]+[`\"\\]]?";
+
+    /**
+     * from、join、update、into后面的表（包括from a, b这种逗号分隔的多个表）
+     */
+    private static final Pattern TABLE_PATTERN = Pattern.compile(
+            "\\b(?:from|join|update|into)\\s+(" + TABLE_NAME + "(?:\\s+(?:as\\s+)?\\w+)?(?:\\s*,\\s*" + TABLE_NAME + "(?:\\s+(?:as\\s+)?\\w+)?)*)",
+            Pattern.CASE_INSENSITIVE);
+
+    private static final Pattern TABLE_SEPARATOR_PATTERN = Pattern.compile("\\s*,\\s*");
+
+    private SqlTableUtil() {
+        super();
+    }
+
+    /**
+     * 获取DML语句写入的目标表名
+     *
+     * @param sql sql语句
+     * @return 目标表名（小写、去掉引号），无法识别时返回null
+     */
+    public static String getWriteTable(String sql) {
+        if (sql == null) {
+            return null;
+        }
+        Matcher matcher = WRITE_TABLE_PATTERN.matcher(sql);
+        return matcher.find() ? normalizeTableName(matcher.group(1)) : null;
+    }
+
+    /**
+     * 获取动态SQL（${}还未替换）写入的目标表名，只解析SQL语句本身，不需要请求参数
+     *
+     * @param dynamicSql 动态sql
+     * @return 目标表名（小写、去掉引号），无法识别或者表名由${}拼接时返回null
+     */
+    public static String getStaticWriteTable(String dynamicSql) {
+        if (dynamicSql == null) {
+            return null;
+        }
+        Matcher matcher = WRITE_TABLE_PATTERN.matcher(dynamicSql);
+        if (!matcher.find()) {
+            return null;
+        }
+        //insert into ${table}、insert into t_${suffix}：表名匹配到$为止，下一个字符是{
+        int end = matcher.end(1);
+        if (end < dynamicSql.length() && dynamicSql.charAt(end) == '{') {
+            return null;
+        }
+        return normalizeTableName(matcher.group(1));
+    }
+
+    /**
+     * 表名统一格式：去掉引号、转为小写
+     *
+     * @param tableName 表名
+     * @return 统一格式后的表名
+     */
+    public static String normalizeTableName(String tableName) {
+        if (tableName == null) {
+            return null;
+        }
+        return tableName.replace("`", "").replace("\"", "").replace("[", "").replace("]", "").toLowerCase(Locale.ENGLISH);
+    }
+
+    /**
+     * 获取SQL语句涉及的所有表名（from、join、update、into后面的表，包括子查询里的表）
+     *
+     * @param sql sql语句
+     * @return 表名（小写、去掉引号），无法识别时返回空集合
+     */
+    public static Set<String> getTables(String sql) {
+        Set<String> tables = new LinkedHashSet<>();
+        if (sql == null) {
+            return tables;
+        }
+        Matcher matcher = TABLE_PATTERN.matcher(sql);
+        while (matcher.find()) {
+            for (String tableWithAlias : TABLE_SEPARATOR_PATTERN.split(matcher.group(1))) {
+                String tableName = tableWithAlias.trim().split("\\s+")[0];
+                if (!tableName.isEmpty()) {
+                    tables.add(normalizeTableName(tableName));
+                }
+            }
+        }
+        return tables;
+    }
+
+    /**
+     * 获取表的外键关系（它引用的表、引用它的表），通过JDBC的{@link DatabaseMetaData}查询
+     *
+     * @param connection 数据库连接
+     * @param tableName  表名（统一格式，见{@link #normalizeTableName(String)}）
+     * @return 外键关系，表不存在、表名带schema等无法识别时返回{@link ForeignKeys#UNRESOLVED}
+     * @throws SQLException 异常
+     */
+    public static ForeignKeys getForeignKeys(Connection connection, String tableName) throws SQLException {
+        if (tableName == null || tableName.indexOf('.') >= 0) {
+            return ForeignKeys.UNRESOLVED;
+        }
+        final DatabaseMetaData metaData = connection.getMetaData();
+        final String catalog = connection.getCatalog();
+        final String schema = connection.getSchema();
+        final String name = findTableName(metaData, catalog, schema, tableName);
+        if (name == null) {
+            return ForeignKeys.UNRESOLVED;
+        }
+        Set<String> parentTables = new HashSet<>();
+        try (ResultSet rs = metaData.getImportedKeys(catalog, schema, name)) {
+            while (rs.next()) {
+                parentTables.add(normalizeTableName(rs.getString("PKTABLE_NAME")));
+            }
+        }
+        Set<String> childTables = new HashSet<>();
+        try (ResultSet rs = metaData.getExportedKeys(catalog, schema, name)) {
+            while (rs.next()) {
+                childTables.add(normalizeTableName(rs.getString("FKTABLE_NAME")));
+            }
+        }
+        return new ForeignKeys(parentTables, childTables);
+    }
+
+    /**
+     * 数据库中实际的表名（大小写以数据库为准）
+     */
+    private static String findTableName(DatabaseMetaData metaData, String catalog, String schema, String tableName) throws SQLException {
+        for (String candidate : new String[]{tableName, tableName.toUpperCase(Locale.ENGLISH)}) {
+            try (ResultSet rs = metaData.getTables(catalog, schema, candidate, null)) {
+                while (rs.next()) {
+                    String name = rs.getString("TABLE_NAME");
+                    if (tableName.equalsIgnoreCase(name)) {
+                        return name;
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    /****************************************************inner class****************************************************/
+
+    /**
+     * 表的外键关系
+     */
+    public static final class ForeignKeys {
+
+        /**
+         * 无法识别外键关系
+         */
+        public static final ForeignKeys UNRESOLVED = new ForeignKeys(null, null);
+
+        /**
+         * 它引用的表（父表）
+         */
+        private final Set<String> parentTables;
+
+        /**
+         * 引用它的表（子表）
+         */
+        private final Set<String> childTables;
+
+        private ForeignKeys(Set<String> parentTables, Set<String> childTables) {
+            this.parentTables = parentTables;
+            this.childTables = childTables;
+        }
+
+        public boolean isResolved() {
+            return this != UNRESOLVED;
+        }
+
+        public Set<String> getParentTables() {
+            return parentTables;
+        }
+
+        public Set<String> getChildTables() {
+            return childTables;
+        }
+    }
+}
@@ -0,0 +1,1168 @@
+package club.emperorws.orm;
+
+import club.emperorws.orm.annotations.AnnModel;
+import club.emperorws.orm.bingding.MapperMethod;
+import club.emperorws.orm.cache.BoundedConcurrentCache;
+import club.emperorws.orm.cache.StatementCacheRegistry;
+import club.emperorws.orm.config.MockDataSource;
+import club.emperorws.orm.cursor.Cursor;
+import club.emperorws.orm.dialect.SqlServerDialect;
+import club.emperorws.orm.entity.Clazz;
+import club.emperorws.orm.entity.Grade;
+import club.emperorws.orm.entity.Student;
+import club.emperorws.orm.entity.StudentCard;
+import club.emperorws.orm.entity.Teacher;
+import club.emperorws.orm.exception.OrmException;
+import club.emperorws.orm.mapper.ClazzMapper;
+import club.emperorws.orm.mapper.GradeMapper;
+import club.emperorws.orm.mapper.StudentMapper;
+import club.emperorws.orm.mapper.TeacherMapper;
+import club.emperorws.orm.mapping.BoundSql;
+import club.emperorws.orm.mapping.Environment;
+import club.emperorws.orm.mapping.FetchType;
+import club.emperorws.orm.mapping.KeysetRowBounds;
+import club.emperorws.orm.mapping.MappedStatement;
+import club.emperorws.orm.mapping.ResultMapping;
+import club.emperorws.orm.mapping.RowBounds;
+import club.emperorws.orm.mapping.SqlSource;
+import club.emperorws.orm.metadata.TableModelInfo;
+import club.emperorws.orm.metadata.TableModelInfoHelper;
+import club.emperorws.orm.parameter.ParameterBindingPlan;
+import club.emperorws.orm.parsing.GenericTokenParser;
+import club.emperorws.orm.parsing.SqlTemplate;
+import club.emperorws.orm.plugin.Interceptor;
+import club.emperorws.orm.plugin.InterceptorChain;
+import club.emperorws.orm.plugin.Intercepts;
+import club.emperorws.orm.plugin.Invocation;
+import club.emperorws.orm.plugin.Plugin;
+import club.emperorws.orm.plugin.Signature;
+import club.emperorws.orm.reflection.AccessorStrategy;
+import club.emperorws.orm.reflection.DefaultReflectorFactory;
+import club.emperorws.orm.reflection.ParamNameResolver;
+import club.emperorws.orm.reflection.Reflector;
+import club.emperorws.orm.result.BatchResult;
+import club.emperorws.orm.result.Page;
+import club.emperorws.orm.result.ResultSetSchema;
+import club.emperorws.orm.result.RowMappingPlan;
+import club.emperorws.orm.result.columnar.ColumnVector;
+import club.emperorws.orm.result.columnar.ColumnarResult;
+import club.emperorws.orm.result.primitive.LongList;
+import club.emperorws.orm.session.ExecutorType;
+import club.emperorws.orm.session.LocalCacheScope;
+import club.emperorws.orm.session.SqlSession;
+import club.emperorws.orm.session.defaults.DefaultSqlSessionFactory;
+import club.emperorws.orm.transaction.jdbc.JdbcTransactionFactory;
+import club.emperorws.orm.util.SqlTableUtil;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * my-orm的执行过程测试（模拟数据源，不需要数据库）
+ *
+ * @author: EmperorWS
+ * @date: 2023/8/29 14:30
+ * @description: MockOrmTest: my-orm的执行过程测试
+ */
+@Tag("执行过程测试@Tag")
+@DisplayName("执行过程测试@DisplayName")
+public class MockOrmTest {
+
+    /**
+     * 所有测试共用的模拟数据源（每个测试执行前清空执行记录、查询结果）
+     */
+    private static MockDataSource dataSource;
+
+    /**
+     * 每个测试独立的全局配置（测试会断言缓存的命中数等状态）
+     */
+    private Configuration configuration;
+
+    @BeforeAll
+    static void setUp() {
+        dataSource = new MockDataSource("MySQL");
+    }
+
+    @BeforeEach
+    void resetConfiguration() {
+        dataSource.reset();
+        dataSource.onQuery(execution -> MockDataSource.table());
+        configuration = newConfiguration(dataSource);
+    }
+
+    /**
+     * 打开当前测试配置的SqlSession
+     */
+    private SqlSession openSession(ExecutorType executorType) {
+        return new DefaultSqlSessionFactory(configuration).openSession(executorType);
+    }
+
+    private static Configuration newConfiguration(DataSource dataSource) {
+        Configuration configuration = new Configuration();
+        configuration.setEnvironment(new Environment(new JdbcTransactionFactory(), dataSource));
+        configuration.addMapperPackages("club.emperorws.orm.mapper");
+        return configuration;
+    }
+
+    private static Object[][] studentRows(int from, int to) {
+        Object[][] rows = new Object[to - from][];
+        for (int i = from; i < to; i++) {
+            rows[i - from] = new Object[]{i, "name" + i};
+        }
+        return rows;
+    }
+
+    @DisplayName("Cursor游标查询的流式fetchSize、分页下标测试")
+    @Test
+    public void cursorFetchSizeAndIndexTest() throws Exception {
+        dataSource.onQuery(execution -> MockDataSource.table("id, name", studentRows(2, 5)));
+        for (ExecutorType executorType : ExecutorType.values()) {
+            dataSource.reset();
+            try (SqlSession session = openSession(executorType)) {
+                List<Integer> indexes = new ArrayList<>();
+                StudentMapper studentMapper = session.getMapper(StudentMapper.class);
+                try (Cursor<Student> cursor = studentMapper.selectCursorPage(new SqlSource.Builder("select id, name from student").build(), "a", new RowBounds(2, 3))) {
+                    Assertions.assertEquals(-1, cursor.getCurrentIndex());
+                    for (Student student : cursor) {
+                        indexes.add(cursor.getCurrentIndex());
+                        Assertions.assertEquals(cursor.getCurrentIndex(), student.getId());
+                    }
+                }
+                //MySQL方言：逐行流式读取；分页改写到SQL中，下标仍从offset开始
+                Assertions.assertEquals(Arrays.asList(2, 3, 4), indexes, executorType.name());
+                MockDataSource.Execution query = dataSource.getQueries().get(0);
+                Assertions.assertEquals(Integer.MIN_VALUE, query.getFetchSize(), executorType.name());
+                Assertions.assertEquals("select id, name from student LIMIT ? OFFSET ?", query.getSql());
+                Assertions.assertEquals(Arrays.asList(3, 2), query.getParameters());
+            }
+        }
+        //显式设置的游标fetchSize优先于方言
+        dataSource.reset();
+        configuration.setCursorFetchSize(100);
+        try (SqlSession session = openSession(ExecutorType.SIMPLE);
+             Cursor<Student> cursor = session.getMapper(StudentMapper.class).selectCursor(new SqlSource.Builder("select id, name from student").build(), "a")) {
+            cursor.forEach(student -> Assertions.assertNotNull(student.getName()));
+            Assertions.assertEquals(100, dataSource.getQueries().get(0).getFetchSize());
+        }
+    }
+
+    @DisplayName("Batch批处理交错插入父表、子表的执行顺序测试")
+    @Test
+    public void batchDependencyOrderTest() {
+        final String insertOrder = "insert into orders(id, parent_id) values(#{id}, #{parentId})";
+        final String insertLine = "insert into order_line(id, order_id) values(#{id}, #{parentId})";
+        final String orderBatch = "BATCH insert into orders(id, parent_id) values(?, ?) ";
+        final String lineBatch = "BATCH insert into order_line(id, order_id) values(?, ?) ";
+        MockDataSource foreignKeys = new MockDataSource("MySQL").foreignKey("order_line", "orders");
+        DefaultSqlSessionFactory sqlSessionFactory = new DefaultSqlSessionFactory(newConfiguration(foreignKeys));
+        //order_line(l0)、orders(o1)、order_line(l1-->o1)：l1不能提前到o1之前
+        try (SqlSession session = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+            StudentMapper mapper = session.getMapper(StudentMapper.class);
+            mapper.insert(new SqlSource.Builder(insertLine).build(), 10, 0);
+            mapper.insert(new SqlSource.Builder(insertOrder).build(), 1, null);
+            mapper.insert(new SqlSource.Builder(insertLine).build(), 11, 1);
+            session.flushStatements();
+            Assertions.assertEquals(Arrays.asList(
+                    lineBatch + "[[10, 0]]",
+                    orderBatch + "[[1, null]]",
+                    lineBatch + "[[11, 1]]"), executionLog(foreignKeys));
+        }
+        //orders(o1)、order_line(l1-->o1)、orders(o2)、order_line(l2-->o2)：父表可以提前，合并为两批，父表先执行
+        foreignKeys.reset();
+        try (SqlSession session = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+            StudentMapper mapper = session.getMapper(StudentMapper.class);
+            for (int order = 1; order <= 2; order++) {
+                mapper.insert(new SqlSource.Builder(insertOrder).build(), order, null);
+                mapper.insert(new SqlSource.Builder(insertLine).build(), 10 + order, order);
+            }
+            session.flushStatements();
+            Assertions.assertEquals(Arrays.asList(
+                    orderBatch + "[[1, null], [2, null]]",
+                    lineBatch + "[[11, 1], [12, 2]]"), executionLog(foreignKeys));
+        }
+        //数据库元数据中没有这两张表（无法识别外键）时，只追加到最后一个批次
+        try (SqlSession session = openSession(ExecutorType.BATCH)) {
+            StudentMapper mapper = session.getMapper(StudentMapper.class);
+            for (int order = 1; order <= 2; order++) {
+                mapper.insert(new SqlSource.Builder(insertOrder).build(), order, null);
+                mapper.insert(new SqlSource.Builder(insertLine).build(), 10 + order, order);
+                mapper.insert(new SqlSource.Builder(insertLine).build(), 20 + order, order);
+            }
+            session.flushStatements();
+            Assertions.assertEquals(Arrays.asList(
+                    orderBatch + "[[1, null]]",
+                    lineBatch + "[[11, 1], [21, 1]]",
+                    orderBatch + "[[2, null]]",
+                    lineBatch + "[[12, 2], [22, 2]]"), executionLog(dataSource));
+        }
+    }
+
+    private static List<String> executionLog(MockDataSource mockDataSource) {
+        List<String> log = new ArrayList<>();
+        mockDataSource.getExecutions().forEach(execution -> log.add(execution.toString()));
+        return log;
+    }
+
+    @DisplayName("查询结果缓存（二级缓存）按写入的表失效测试")
+    @Test
+    public void queryCacheInvalidationTest() {
+        dataSource.onQuery(execution -> MockDataSource.table("id, name", studentRows(1, 3)));
+        DefaultSqlSessionFactory sqlSessionFactory = new DefaultSqlSessionFactory(configuration);
+        final String select = "select id, name from student where name like concat('%',#{keyword},'%')";
+        for (int i = 0; i < 2; i++) {
+            try (SqlSession session = sqlSessionFactory.openSession()) {
+                List<Student> students = session.getMapper(StudentMapper.class).selectCachedList(new SqlSource.Builder(select).build(), "a");
+                Assertions.assertEquals(2, students.size());
+            }
+        }
+        //第二个SqlSession命中缓存
+        Assertions.assertEquals(1, dataSource.getQueries().size());
+        try (SqlSession session = sqlSessionFactory.openSession()) {
+            long templateLookups = configuration.getSqlTemplateCache().getHitCount() + configuration.getSqlTemplateCache().getMissCount();
+            session.getMapper(StudentMapper.class).update(new SqlSource.Builder("update student set name = #{name} where id = #{id}").build(), 1, "b");
+            //写入的表取自MappedStatement，只构建一次SQL
+            Assertions.assertEquals(templateLookups + 1, configuration.getSqlTemplateCache().getHitCount() + configuration.getSqlTemplateCache().getMissCount());
+            session.commit();
+        }
+        try (SqlSession session = sqlSessionFactory.openSession()) {
+            session.getMapper(StudentMapper.class).selectCachedList(new SqlSource.Builder(select).build(), "a");
+        }
+        //student表被写入后，缓存失效
+        Assertions.assertEquals(2, dataSource.getQueries().size());
+        //写入时还没有任何查询缓存：提交前其它SqlSession缓存的结果，提交后仍然失效
+        DefaultSqlSessionFactory lazyCacheFactory = new DefaultSqlSessionFactory(newConfiguration(dataSource));
+        dataSource.reset();
+        try (SqlSession writeSession = lazyCacheFactory.openSession()) {
+            writeSession.getMapper(StudentMapper.class).update(new SqlSource.Builder("update student set name = #{name} where id = #{id}").build(), 1, "b");
+            try (SqlSession session = lazyCacheFactory.openSession()) {
+                session.getMapper(StudentMapper.class).selectCachedList(new SqlSource.Builder(select).build(), "a");
+            }
+            writeSession.commit();
+        }
+        try (SqlSession session = lazyCacheFactory.openSession()) {
+            session.getMapper(StudentMapper.class).selectCachedList(new SqlSource.Builder(select).build(), "a");
+        }
+        Assertions.assertEquals(2, dataSource.getQueries().size());
+        //表名由${}拼接时无法静态识别（执行时按所有表失效）
+        Assertions.assertEquals("student", SqlTableUtil.getStaticWriteTable("update `student` set name = #{name}"));
+        Assertions.assertNull(SqlTableUtil.getStaticWriteTable("insert into ${table}(id) values(#{id})"));
+        Assertions.assertNull(SqlTableUtil.getStaticWriteTable("delete from t_${suffix} where id = #{id}"));
+    }
+
+    @DisplayName("Reflector访问器生成策略测试")
+    @Test
+    public void reflectorAccessorStrategyTest() throws Throwable {
+        Student student = new Student();
+        student.setName("a");
+        DefaultReflectorFactory reflectorFactory = new DefaultReflectorFactory();
+        Reflector cached = reflectorFactory.findForClass(Student.class);
+        Assertions.assertEquals(AccessorStrategy.LAMBDA, cached.getAccessorStrategy());
+        Assertions.assertSame(cached, reflectorFactory.findForClass(Student.class));
+        Assertions.assertEquals("a", cached.getGetInvoker("name").get(student));
+        //不缓存Reflector时，不再每次生成LambdaMetafactory访问器
+        reflectorFactory.setClassCacheEnabled(false);
+        Reflector uncached = reflectorFactory.findForClass(Student.class);
+        Assertions.assertEquals(AccessorStrategy.REFLECTION, uncached.getAccessorStrategy());
+        uncached.getSetInvoker("name").set(student, "b");
+        Assertions.assertEquals("b", student.getName());
+        reflectorFactory.setAccessorStrategy(AccessorStrategy.METHOD_HANDLE);
+        Assertions.assertEquals(AccessorStrategy.METHOD_HANDLE, reflectorFactory.findForClass(Student.class).getAccessorStrategy());
+    }
+
+    @DisplayName("构造器映射的可变对象：构造器没有使用的列通过set方法映射")
+    @Test
+    public void constructorMappingWithSettersTest() {
+        dataSource.onQuery(execution -> MockDataSource.table("id, name, email",
+                new Object[]{1, "name1", "a@b.c"}, new Object[]{2, "name2", null}));
+        try (SqlSession session = openSession(ExecutorType.SIMPLE)) {
+            List<StudentCard> cards = session.getMapper(StudentMapper.class).selectCardList(new SqlSource.Builder("select id, name, email from student").build(), "a");
+            Assertions.assertEquals(2, cards.size());
+            Assertions.assertEquals(1, cards.get(0).getId());
+            Assertions.assertEquals("name1", cards.get(0).getName());
+            Assertions.assertEquals("a@b.c", cards.get(0).getEmail());
+            Assertions.assertEquals("name2", cards.get(1).getName());
+            Assertions.assertNull(cards.get(1).getEmail());
+        }
+    }
+
+    @DisplayName("JOIN查询的嵌套结果映射必须指定列前缀")
+    @Test
+    public void nestedJoinColumnPrefixTest() {
+        IllegalStateException e = Assertions.assertThrows(IllegalStateException.class,
+                () -> new TableModelInfo.Builder(configuration).entityType(StudentWithClazz.class).tableName("student").pkName("id").build());
+        Assertions.assertTrue(e.getMessage().contains("columnPrefix"), e.getMessage());
+        Assertions.assertThrows(IllegalStateException.class, () -> new ResultMapping.Builder(configuration, "clazz")
+                .javaType(Student.class).nestedResultType(Student.class).columnPrefix(" ").build());
+        //BATCH、LAZY按列查询关联表，不需要列前缀
+        ResultMapping batchMapping = new ResultMapping.Builder(configuration, "clazz").javaType(Student.class).nestedResultType(Student.class)
+                .column("clazz_id").fetchType(FetchType.BATCH).build();
+        Assertions.assertEquals(FetchType.BATCH, batchMapping.getFetchType());
+        ResultMapping joinMapping = new ResultMapping.Builder(configuration, "clazz").javaType(Student.class).nestedResultType(Student.class)
+                .columnPrefix("clazz_").build();
+        Assertions.assertEquals("clazz_", joinMapping.getColumnPrefix());
+    }
+
+    @DisplayName("延迟加载：只代理接口类型的属性，第一次访问时才查询")
+    @Test
+    public void lazyLoadingQueryCountTest() {
+        dataSource.onQuery(execution -> execution.getSql().toLowerCase().contains("from clazz")
+                ? MockDataSource.table("id, name, monitor_id", new Object[]{1, "clazz1", 11}, new Object[]{2, "clazz2", 12}, new Object[]{3, "clazz3", 13})
+                : MockDataSource.table("id, name", new Object[]{11, "name11"}));
+        TableModelInfoHelper.addTableModelInfo(configuration, Clazz.class);
+        try (SqlSession session = openSession(ExecutorType.SIMPLE)) {
+            List<Clazz> clazzes = session.getMapper(ClazzMapper.class).selectList(new SqlSource.Builder("select id, name, monitor_id from clazz").build());
+            Assertions.assertEquals(3, clazzes.size());
+            //映射结果时不查询关联表
+            Assertions.assertEquals(1, dataSource.getQueries().size());
+            Assertions.assertEquals(1, clazzes.get(0).getMonitors().size());
+            Assertions.assertEquals("name11", clazzes.get(0).getMonitors().get(0).getName());
+            Assertions.assertEquals(2, dataSource.getQueries().size());
+            Assertions.assertTrue(dataSource.getQueries().get(1).getSql().contains("WHERE id IN ("), dataSource.getQueries().get(1).getSql());
+        }
+        //延迟加载的代理对象绑定了创建它的SqlSession：结果不放入二级缓存，每个SqlSession各自查询、各自加载
+        dataSource.reset();
+        for (int i = 0; i < 2; i++) {
+            try (SqlSession session = openSession(ExecutorType.SIMPLE)) {
+                List<Clazz> clazzes = session.getMapper(ClazzMapper.class).selectCachedList(new SqlSource.Builder("select id, name, monitor_id from clazz").build());
+                Assertions.assertEquals("name11", clazzes.get(0).getMonitors().get(0).getName());
+            }
+        }
+        Assertions.assertEquals(4, dataSource.getQueries().size());
+        Assertions.assertTrue(configuration.getCaches().isEmpty());
+        //实体类属性无法代理：构建ResultMap时拒绝，而不是逐行立即加载
+        IllegalStateException e = Assertions.assertThrows(IllegalStateException.class,
+                () -> new TableModelInfo.Builder(new Configuration()).entityType(StudentWithLazyClazz.class).tableName("student").pkName("id").build());
+        Assertions.assertTrue(e.getMessage().contains("FetchType.BATCH"), e.getMessage());
+    }
+
+    @DisplayName("selectMap逐行放入Map，只有标注了查询缓存的语句才使用二级缓存")
+    @Test
+    public void selectMapCacheTest() {
+        dataSource.onQuery(execution -> MockDataSource.table("id, name", studentRows(1, 4)));
+        DefaultSqlSessionFactory sqlSessionFactory = new DefaultSqlSessionFactory(configuration);
+        final String select = "select id, name from student where name like concat('%',#{keyword},'%')";
+        try (SqlSession session = sqlSessionFactory.openSession()) {
+            StudentMapper studentMapper = session.getMapper(StudentMapper.class);
+            Map<Integer, Student> students = studentMapper.selectMap(new SqlSource.Builder(select).build(), "a");
+            Assertions.assertEquals(Arrays.asList(1, 2, 3), new ArrayList<>(students.keySet()));
+            Assertions.assertEquals("name2", students.get(2).getName());
+            //没有标注查询缓存：记录逐行放入Map，不生成List，也不使用一级缓存
+            Assertions.assertEquals(students.keySet(), studentMapper.selectMap(new SqlSource.Builder(select).build(), "a").keySet());
+            Assertions.assertEquals(2, dataSource.getQueries().size());
+        }
+        dataSource.reset();
+        for (int i = 0; i < 2; i++) {
+            try (SqlSession session = sqlSessionFactory.openSession()) {
+                LinkedHashMap<Integer, Student> students = session.getMapper(StudentMapper.class).selectCachedMap(new SqlSource.Builder(select).build(), "a");
+                Assertions.assertEquals(Arrays.asList(1, 2, 3), new ArrayList<>(students.keySet()));
+            }
+        }
+        //标注了查询缓存：第二个SqlSession命中二级缓存，缓存的结果回放到Map中
+        Assertions.assertEquals(1, dataSource.getQueries().size());
+    }
+
+    @DisplayName("分页改写：键集分页去掉原ORDER BY、databaseId只识别一次、SQL Server按最外层ORDER BY判断")
+    @Test
+    public void paginationRewriteTest() {
+        dataSource.onQuery(execution -> MockDataSource.table("id, name", studentRows(3, 5)));
+        //设置Environment时不获取连接，第一次使用时识别databaseId，之后不再获取连接
+        int connectionCount = dataSource.getConnectionCount();
+        newConfiguration(dataSource);
+        Assertions.assertEquals(connectionCount, dataSource.getConnectionCount());
+        Assertions.assertEquals("MYSQL", configuration.getDatabaseId());
+        Assertions.assertNotNull(configuration.getDialect());
+        Assertions.assertEquals(connectionCount + 1, dataSource.getConnectionCount());
+        //数据库无法连接：设置Environment不报错，databaseId为null（内存分页），下次使用时再识别
+        AtomicInteger connectAttempts = new AtomicInteger();
+        DataSource unreachable = (DataSource) Proxy.newProxyInstance(DataSource.class.getClassLoader(), new Class<?>[]{DataSource.class}, (proxy, method, args) -> {
+            connectAttempts.incrementAndGet();
+            throw new SQLException("Connection refused");
+        });
+        Configuration unreachableConfiguration = newConfiguration(unreachable);
+        Assertions.assertEquals(0, connectAttempts.get());
+        Assertions.assertNull(unreachableConfiguration.getDatabaseId());
+        Assertions.assertNull(unreachableConfiguration.getDialect());
+        Assertions.assertEquals(2, connectAttempts.get());
+        try (SqlSession session = openSession(ExecutorType.SIMPLE)) {
+            String sql = "select id, name from student where name like concat('%',#{keyword},'%') order by name";
+            List<Student> page = session.getMapper(StudentMapper.class).selectPage(new SqlSource.Builder(sql).build(), "a",
+                    KeysetRowBounds.first(2, "id").after(1));
+            Assertions.assertEquals(2, page.size());
+            String pageSql = dataSource.getQueries().get(0).getSql();
+            Assertions.assertTrue(pageSql.startsWith("SELECT * FROM (select id, name from student where name like concat('%',?,'%')) keyset_t WHERE"), pageSql);
+            Assertions.assertFalse(pageSql.contains("order by name"), pageSql);
+            //参数：keyword、上一页最后的key、limit
+            Assertions.assertEquals(Arrays.asList("a", 1, 2), dataSource.getQueries().get(0).getParameters());
+        }
+        SqlServerDialect sqlServerDialect = new SqlServerDialect();
+        List<String> pageParameters = new ArrayList<>();
+        Assertions.assertEquals("select id from student order by id OFFSET ? ROWS FETCH NEXT ? ROWS ONLY",
+                sqlServerDialect.getPageSql("select id from student order by id", true, true, pageParameters));
+        Assertions.assertEquals("select id, row_number() over(order by id) rn from student ORDER BY (SELECT NULL) OFFSET ? ROWS",
+                sqlServerDialect.getPageSql("select id, row_number() over(order by id) rn from student", true, false, pageParameters));
+        Assertions.assertEquals("select id from student where name = 'order by' ORDER BY (SELECT NULL) OFFSET ? ROWS",
+                sqlServerDialect.getPageSql("select id from student where name = 'order by'", true, false, pageParameters));
+    }
+
+    @DisplayName("集合参数超过拆分大小时，多条SQL的结果按顺序合并")
+    @Test
+    public void inListChunkMergeTest() {
+        //按参数的顺序返回记录（补齐的占位符重复最后一个值）
+        dataSource.onQuery(execution -> MockDataSource.table("id, name",
+                new LinkedHashSet<>(execution.getParameters()).stream().map(id -> new Object[]{id, "name" + id}).toArray(Object[][]::new)));
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 1; i <= 10; i++) {
+            ids.add(i);
+        }
+        //重复的元素在拆分前去掉
+        ids.add(3);
+        final String select = "select id, name from student where id in (#{ids,collection})";
+        configuration.setInListChunkSize(4);
+        try (SqlSession session = openSession(ExecutorType.SIMPLE)) {
+            StudentMapper studentMapper = session.getMapper(StudentMapper.class);
+            List<Student> students = studentMapper.selectByIds(new SqlSource.Builder(select).build(), ids);
+            Assertions.assertEquals(10, students.size());
+            for (int i = 0; i < students.size(); i++) {
+                Assertions.assertEquals(i + 1, students.get(i).getId());
+            }
+            Assertions.assertEquals(3, dataSource.getQueries().size());
+            //列式结果：每个结果集追加到已有的列中
+            ColumnarResult columnar = studentMapper.selectColumnarByIds(new SqlSource.Builder(select).build(), ids);
+            Assertions.assertEquals(10, columnar.getRowCount());
+            Assertions.assertEquals(1L, columnar.getLongVector("id").getLong(0));
+            Assertions.assertEquals(10L, columnar.getLongVector("id").getLong(9));
+            Assertions.assertEquals("name10", columnar.getStringVector("name").getObject(9));
+            //IN与其它条件以AND连接（OR在括号内）：一行记录只匹配一条SQL，可以拆分
+            Assertions.assertEquals(10, studentMapper.selectByIds(new SqlSource.Builder(
+                    "select id, name from student where (name like 'name%' or name is null) and id in (#{ids,collection})").build(), ids).size());
+            //排序、去重、聚合只在每条SQL内生效，不允许拆分；NOT IN拆分后语义不同；IN与其它条件以OR连接、在括号或子查询内时，一行记录可能匹配多条SQL
+            for (String sql : Arrays.asList(select + " order by id", "select distinct id, name from student where id in (#{ids,collection})",
+                    "select count(*) id from student where id in (#{ids,collection})",
+                    "select id, name from student where id not in (#{ids,collection})",
+                    "select id, name from student where id in (#{ids,collection}) or name = 'name1'",
+                    "select id, name from student where name = 'name1' or id in (#{ids,collection})",
+                    "select id, name from student where (id in (#{ids,collection}) or name = 'name1')",
+                    "select id, name from student where clazz_id in (select id from clazz where monitor_id in (#{ids,collection}))")) {
+                RuntimeException e = Assertions.assertThrows(RuntimeException.class, () -> studentMapper.selectByIds(new SqlSource.Builder(sql).build(), ids), sql);
+                Assertions.assertTrue(e.getMessage().contains("IN list chunk size"), e.getMessage());
+            }
+        }
+    }
+
+    @DisplayName("分页总记录数：集合参数拆分时的统计、总页数、统计超时")
+    @Test
+    public void pageCountTest() {
+        Assertions.assertEquals(1L, new Page<>(Collections.emptyList(), 5L, RowBounds.DEFAULT).getPages());
+        Assertions.assertEquals(0L, new Page<>(Collections.emptyList(), 0L, RowBounds.DEFAULT).getPages());
+        Assertions.assertEquals(3L, new Page<>(Collections.emptyList(), 5L, new RowBounds(0, 2)).getPages());
+        Assertions.assertEquals(-1L, new Page<>(Collections.emptyList(), Page.UNKNOWN_TOTAL, new RowBounds(0, 2)).getPages());
+        //统计SQL返回每条SQL匹配的key的个数，查询SQL按参数返回记录
+        dataSource.onQuery(execution -> {
+            Set<Object> keys = new LinkedHashSet<>(execution.getParameters());
+            if (execution.getSql().startsWith("SELECT COUNT(*)")) {
+                if (execution.getSql().contains("sleep")) {
+                    try {
+                        Thread.sleep(3000L);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                return MockDataSource.table("total", new Object[]{(long) keys.size()});
+            }
+            return MockDataSource.table("id, name", keys.stream().map(id -> new Object[]{id, "name" + id}).toArray(Object[][]::new));
+        });
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 1; i <= 10; i++) {
+            ids.add(i);
+        }
+        configuration.setInListChunkSize(4);
+        configuration.setDefaultStatementTimeout(1);
+        try (SqlSession session = openSession(ExecutorType.SIMPLE)) {
+            StudentMapper studentMapper = session.getMapper(StudentMapper.class);
+            Page<Student> page = studentMapper.selectPageByIds(new SqlSource.Builder("select id, name from student where id in (#{ids,collection})").build(),
+                    ids, RowBounds.DEFAULT);
+            Assertions.assertEquals(10L, page.getTotal());
+            Assertions.assertEquals(10, page.getContent().size());
+            Assertions.assertEquals(1L, page.getPages());
+            //DISTINCT、GROUP BY按每条SQL统计后不能累加
+            RuntimeException e = Assertions.assertThrows(RuntimeException.class, () -> studentMapper.selectPageByIds(
+                    new SqlSource.Builder("select distinct id, name from student where id in (#{ids,collection})").build(), ids, RowBounds.DEFAULT));
+            Assertions.assertTrue(e.getMessage().contains("can not be counted"), e.getMessage());
+            //并行统计按查询的超时时间等待
+            long start = System.currentTimeMillis();
+            e = Assertions.assertThrows(RuntimeException.class, () -> studentMapper.selectPageByIds(
+                    new SqlSource.Builder("select id, name from student where id in (#{ids,collection}) and name <> 'sleep'").build(), Arrays.asList(1, 2), new RowBounds(0, 2)));
+            Assertions.assertTrue(e.getMessage().contains("timed out"), e.getMessage());
+            Assertions.assertTrue(System.currentTimeMillis() - start < 2500L);
+        }
+    }
+
+    @DisplayName("MappedStatement缓存：同一个Mapper方法、同一条SQL只构建一次，缓存有容量上限")
+    @Test
+    public void mappedStatementCacheTest() {
+        dataSource.onQuery(execution -> MockDataSource.table("id, name", studentRows(1, 3)));
+        configuration.setMappedStatementCacheSize(2);
+        try (SqlSession session = openSession(ExecutorType.SIMPLE)) {
+            BoundedConcurrentCache<String, MappedStatement> mappedStatementCache = configuration.getMappedStatementCache();
+            StudentMapper studentMapper = session.getMapper(StudentMapper.class);
+            final String select = "select id, name from student where name like concat('%',#{keyword},'%')";
+            Assertions.assertEquals(2, studentMapper.selectList(new SqlSource.Builder(select).build(), "a").size());
+            Assertions.assertEquals(1, mappedStatementCache.size());
+            long missCount = mappedStatementCache.getMissCount();
+            Assertions.assertEquals(2, studentMapper.selectList(new SqlSource.Builder(select).build(), "b").size());
+            Assertions.assertEquals(1, mappedStatementCache.size());
+            Assertions.assertEquals(missCount, mappedStatementCache.getMissCount());
+            Assertions.assertTrue(mappedStatementCache.getHitCount() > 0);
+            //不同的SQL是不同的MappedStatement，超过容量上限时淘汰
+            for (int i = 0; i < 4; i++) {
+                studentMapper.selectList(new SqlSource.Builder(select + " and id > " + i).build(), "a");
+            }
+            Assertions.assertTrue(mappedStatementCache.size() <= 2, mappedStatementCache.toString());
+            Assertions.assertTrue(mappedStatementCache.getEvictionCount() > 0, mappedStatementCache.toString());
+        }
+    }
+
+    @DisplayName("SQL模板：按（SQL文本，请求参数类型）只编译一次，#{}编译为?，${}执行时拼接")
+    @Test
+    public void sqlTemplateTest() {
+        final String sql = "select id, name from student where name = #{keyword} and id > #{minId} order by ${orderBy}";
+        Map<String, Object> params = new LinkedHashMap<>();
+        params.put("keyword", "a");
+        params.put("minId", 1);
+        params.put("orderBy", "name desc");
+        SqlTemplate template = configuration.getSqlTemplate(sql, params);
+        Assertions.assertFalse(template.isStatic());
+        Assertions.assertEquals(Arrays.asList("keyword", "minId"), Arrays.asList(template.getParameterMappings().get(0).getProperty(),
+                template.getParameterMappings().get(1).getProperty()));
+        BoundSql boundSql = template.getBoundSql(configuration, params);
+        Assertions.assertEquals("select id, name from student where name = ? and id > ? order by name desc", boundSql.getSql());
+        //同一条SQL、同一种请求参数类型命中缓存
+        params.put("orderBy", "id");
+        Assertions.assertSame(template, configuration.getSqlTemplate(sql, params));
+        Assertions.assertEquals("select id, name from student where name = ? and id > ? order by id", template.getBoundSql(configuration, params).getSql());
+        Assertions.assertEquals(1, configuration.getSqlTemplateCache().size());
+        Assertions.assertEquals(1L, configuration.getSqlTemplateCache().getHitCount());
+        //静态SQL不需要拼接
+        SqlTemplate staticTemplate = configuration.getSqlTemplate("select id from student where id = #{id}", 1);
+        Assertions.assertTrue(staticTemplate.isStatic());
+        Assertions.assertEquals("select id from student where id = ?", staticTemplate.getBoundSql(configuration, 1).getSql());
+        Assertions.assertEquals(2, configuration.getSqlTemplateCache().size());
+        //转义的开始标记是普通文本，${}拼接的值不会再解析#{}
+        Assertions.assertEquals(Arrays.asList("select '#{x}' from student where id = ", "id", ""),
+                new GenericTokenParser("#{", "}", content -> "?").split("select '\\#{x}' from student where id = #{ id }"));
+        params.put("orderBy", "#{keyword}");
+        Assertions.assertEquals("select id, name from student where name = ? and id > ? order by #{keyword}", template.getBoundSql(configuration, params).getSql());
+    }
+
+    @DisplayName("SqlSource不可变：Mapper方法执行时生成带id的新SqlSource，不修改调用方传入的SqlSource")
+    @Test
+    public void immutableSqlSourceTest() throws Exception {
+        dataSource.onQuery(execution -> MockDataSource.table("id, name", studentRows(1, 3)));
+        try (SqlSession session = openSession(ExecutorType.SIMPLE)) {
+            StudentMapper studentMapper = session.getMapper(StudentMapper.class);
+            SqlSource sqlSource = new SqlSource.Builder("select id, name from student where name like concat('%',#{keyword},'%')").build();
+            Assertions.assertEquals(2, studentMapper.selectList(sqlSource, "a").size());
+            Assertions.assertEquals(2, studentMapper.selectList(sqlSource, "b").size());
+            Assertions.assertNull(sqlSource.getMappedStatementId());
+            Assertions.assertNull(sqlSource.getMethod());
+            //id由Mapper方法签名+SQL生成，同一个方法、同一条SQL共用一个MappedStatement
+            Method method = StudentMapper.class.getMethod("selectList", SqlSource.class, String.class);
+            SqlSource identified = new SqlSource.Builder(sqlSource, new MapperMethod.SqlCommand(StudentMapper.class, method)).build();
+            Assertions.assertTrue(identified.getMappedStatementId().startsWith(StudentMapper.class.getName() + ".selectList("), identified.getMappedStatementId());
+            MappedStatement ms = session.getConfiguration().getMappedStatementCache().get(identified.getMappedStatementId());
+            Assertions.assertNotNull(ms);
+            Assertions.assertSame(ms, session.getConfiguration().getMappedStatement(identified));
+            Assertions.assertEquals(1, session.getConfiguration().getMappedStatementCache().size());
+            //缺少SqlSource参数
+            OrmException e = Assertions.assertThrows(OrmException.class, () -> studentMapper.selectList(null, "a"));
+            Assertions.assertTrue(e.getMessage().contains("requires a SqlSource"), e.getMessage());
+        }
+    }
+
+    @DisplayName("Batch批处理：单行INSERT改写为多行INSERT，按参数数量上限分块")
+    @Test
+    public void batchRewriteInsertsTest() {
+        final String insertOrder = "insert into orders(id, parent_id) values(#{id}, #{parentId})";
+        configuration.setBatchRewriteInserts(true);
+        configuration.setBatchRewriteMaxParameters(4);
+        try (SqlSession session = openSession(ExecutorType.BATCH)) {
+            StudentMapper mapper = session.getMapper(StudentMapper.class);
+            for (int order = 1; order <= 5; order++) {
+                mapper.insert(new SqlSource.Builder(insertOrder).build(), order, null);
+            }
+            List<BatchResult> results = session.flushStatements();
+            //每块最多4个参数（2行），最后一块1行
+            Assertions.assertEquals(Arrays.asList(
+                    "UPDATE insert into orders(id, parent_id) values(?, ?),(?, ?) [[1, null, 2, null]]",
+                    "UPDATE insert into orders(id, parent_id) values(?, ?),(?, ?) [[3, null, 4, null]]",
+                    "UPDATE insert into orders(id, parent_id) values(?, ?) [[5, null]]"), executionLog(dataSource));
+            Assertions.assertEquals(1, results.size());
+            //模拟数据源每条语句返回1：多行的块无法确定每一行的更新数
+            Assertions.assertArrayEquals(new int[]{Statement.SUCCESS_NO_INFO, Statement.SUCCESS_NO_INFO, Statement.SUCCESS_NO_INFO,
+                    Statement.SUCCESS_NO_INFO, 1}, results.get(0).getUpdateCounts());
+        }
+        //不是单个VALUES(...)的INSERT语句仍然使用JDBC批处理
+        dataSource.reset();
+        try (SqlSession session = openSession(ExecutorType.BATCH)) {
+            StudentMapper mapper = session.getMapper(StudentMapper.class);
+            for (int order = 1; order <= 2; order++) {
+                mapper.insert(new SqlSource.Builder("insert into orders(id, parent_id) select #{id}, #{parentId} from dual").build(), order, 0);
+            }
+            session.flushStatements();
+            Assertions.assertEquals(Collections.singletonList("BATCH insert into orders(id, parent_id) select ?, ? from dual [[1, 0], [2, 0]]"),
+                    executionLog(dataSource));
+        }
+    }
+
+    @DisplayName("REUSE执行器：Statement按物理Connection缓存，超过容量上限时按LRU淘汰")
+    @Test
+    public void reuseStatementCacheTest() {
+        dataSource.onQuery(execution -> MockDataSource.table("id, name", studentRows(1, 3)));
+        final String selectByName = "select id, name from student where name = #{keyword}";
+        final String selectById = "select id, name from student where id = #{keyword}";
+        configuration.setStatementCacheSize(1);
+        try (SqlSession session = openSession(ExecutorType.REUSE)) {
+            StatementCacheRegistry registry = session.getConfiguration().getStatementCacheRegistry();
+            StudentMapper studentMapper = session.getMapper(StudentMapper.class);
+            //参数不同，不命中一级缓存
+            for (String keyword : Arrays.asList("a", "b", "c")) {
+                Assertions.assertEquals(2, studentMapper.selectList(new SqlSource.Builder(selectByName).build(), keyword).size());
+            }
+            Assertions.assertEquals(3, dataSource.getQueries().size());
+            Assertions.assertEquals(Collections.singletonList("select id, name from student where name = ?"), dataSource.getPreparedSql());
+            Assertions.assertEquals(2L, registry.getHitCount());
+            Assertions.assertEquals(1, registry.size());
+            //每个Connection只缓存1个Statement：交替执行两条SQL时，每次都淘汰另一条
+            studentMapper.selectList(new SqlSource.Builder(selectById).build(), "1");
+            studentMapper.selectList(new SqlSource.Builder(selectByName).build(), "d");
+            Assertions.assertEquals(3, dataSource.getPreparedSql().size());
+            Assertions.assertEquals(2L, registry.getEvictionCount());
+            Assertions.assertEquals(2L, registry.getHitCount());
+        }
+    }
+
+    @DisplayName("一级缓存：同一个SqlSession的重复查询不访问数据库，写操作后清空")
+    @Test
+    public void localCacheTest() {
+        dataSource.onQuery(execution -> MockDataSource.table("id, name", studentRows(1, 3)));
+        final String select = "select id, name from student where name like concat('%',#{keyword},'%')";
+        try (SqlSession session = openSession(ExecutorType.SIMPLE)) {
+            StudentMapper studentMapper = session.getMapper(StudentMapper.class);
+            List<Student> students = studentMapper.selectList(new SqlSource.Builder(select).build(), "a");
+            students.clear();
+            //命中时返回缓存结果的副本
+            Assertions.assertEquals(2, studentMapper.selectList(new SqlSource.Builder(select).build(), "a").size());
+            Assertions.assertEquals(1, dataSource.getQueries().size());
+            //参数不同不命中
+            studentMapper.selectList(new SqlSource.Builder(select).build(), "b");
+            Assertions.assertEquals(2, dataSource.getQueries().size());
+            //写操作清空一级缓存
+            studentMapper.update(new SqlSource.Builder("update student set name = #{name} where id = #{id}").build(), 1, "c");
+            studentMapper.selectList(new SqlSource.Builder(select).build(), "a");
+            Assertions.assertEquals(3, dataSource.getQueries().size());
+        }
+        //STATEMENT范围：每次查询后清空；结果行数超过上限：不缓存
+        for (Consumer<Configuration> customizer : Arrays.<Consumer<Configuration>>asList(
+                configuration -> configuration.setLocalCacheScope(LocalCacheScope.STATEMENT),
+                configuration -> configuration.setLocalCacheMaxResultSize(1))) {
+            dataSource.reset();
+            configuration = newConfiguration(dataSource);
+            customizer.accept(configuration);
+            try (SqlSession session = openSession(ExecutorType.SIMPLE)) {
+                StudentMapper studentMapper = session.getMapper(StudentMapper.class);
+                studentMapper.selectList(new SqlSource.Builder(select).build(), "a");
+                studentMapper.selectList(new SqlSource.Builder(select).build(), "a");
+                Assertions.assertEquals(2, dataSource.getQueries().size());
+            }
+        }
+    }
+
+    @DisplayName("行映射计划：按（ResultMap，结果集列签名）编译一次，逐行按列下标映射")
+    @Test
+    public void rowMappingPlanTest() {
+        dataSource.onQuery(execution -> {
+            String sql = execution.getSql();
+            if (sql.startsWith("select id from")) {
+                return MockDataSource.table("id", new Object[]{1L}, new Object[]{2L});
+            }
+            return sql.contains("email")
+                    ? MockDataSource.table("id, name, email", new Object[]{1, "name1", "a@b.c"}, new Object[]{2, null, null})
+                    : MockDataSource.table("id, name", new Object[]{1, "name1"}, new Object[]{2, null});
+        });
+        final String select = "select id, name from student where name like concat('%',#{keyword},'%')";
+        try (SqlSession session = openSession(ExecutorType.SIMPLE)) {
+            BoundedConcurrentCache<String, RowMappingPlan> planCache = session.getConfiguration().getRowMappingPlanCache();
+            StudentMapper studentMapper = session.getMapper(StudentMapper.class);
+            List<Student> students = studentMapper.selectList(new SqlSource.Builder(select).build(), "a");
+            Assertions.assertEquals(2, students.size());
+            Assertions.assertEquals(1, students.get(0).getId());
+            Assertions.assertEquals("name1", students.get(0).getName());
+            Assertions.assertEquals(2, students.get(1).getId());
+            Assertions.assertNull(students.get(1).getName());
+            Assertions.assertNull(students.get(0).getEmail());
+            Assertions.assertEquals(1, planCache.size());
+            //同一个ResultMap、不同的列：编译新的计划
+            List<Student> withEmail = studentMapper.selectList(new SqlSource.Builder("select id, name, email from student where name = #{keyword}").build(), "a");
+            Assertions.assertEquals("a@b.c", withEmail.get(0).getEmail());
+            Assertions.assertNull(withEmail.get(1).getEmail());
+            Assertions.assertEquals(2, planCache.size());
+            //单列的基本类型结果
+            Assertions.assertArrayEquals(new long[]{1L, 2L}, studentMapper.selectIds(new SqlSource.Builder("select id from student where name = #{keyword}").build(), "a"));
+        }
+    }
+
+    @DisplayName("结果集结构按MappedStatement跨查询复用，行映射计划缓存在结构上")
+    @Test
+    public void resultSetSchemaCacheTest() throws Exception {
+        dataSource.onQuery(execution -> execution.getSql().startsWith("select id, name, email")
+                ? MockDataSource.table("id, name, email", new Object[]{1, "name1", "a@b.c"})
+                : MockDataSource.table("id, name", studentRows(1, 3)));
+        final String select = "select id, name from student where name like concat('%',#{keyword},'%')";
+        try (SqlSession session = openSession(ExecutorType.SIMPLE)) {
+            BoundedConcurrentCache<String, ResultSetSchema> schemaCache = configuration.getResultSetSchemaCache();
+            BoundedConcurrentCache<String, RowMappingPlan> planCache = configuration.getRowMappingPlanCache();
+            StudentMapper studentMapper = session.getMapper(StudentMapper.class);
+            for (String keyword : Arrays.asList("a", "b", "c")) {
+                Assertions.assertEquals(2, studentMapper.selectList(new SqlSource.Builder(select).build(), keyword).size());
+            }
+            Method selectList = StudentMapper.class.getMethod("selectList", SqlSource.class, String.class);
+            String statementId = new SqlSource.Builder(new SqlSource.Builder(select).build(), new MapperMethod.SqlCommand(StudentMapper.class, selectList))
+                    .build().getMappedStatementId();
+            ResultSetSchema schema = schemaCache.get(statementId);
+            Assertions.assertEquals(Arrays.asList("id", "name"), schema.getColumnNames());
+            Assertions.assertEquals(1, schemaCache.size());
+            //重复查询使用结构上的行映射计划，不再查找全局的行映射计划缓存
+            Assertions.assertEquals(1L, planCache.getMissCount());
+            Assertions.assertEquals(0L, planCache.getHitCount());
+            //另一个MappedStatement、同样的列：新的结构，共用全局的行映射计划
+            studentMapper.selectPage(new SqlSource.Builder(select).build(), "a", RowBounds.DEFAULT);
+            Assertions.assertEquals(2, schemaCache.size());
+            Assertions.assertEquals(1, planCache.size());
+            Assertions.assertEquals(1L, planCache.getHitCount());
+            //动态SQL查询的列变了：重建这个MappedStatement的结构
+            final String dynamicSelect = "select ${keyword} from student";
+            studentMapper.selectList(new SqlSource.Builder(dynamicSelect).build(), "id, name");
+            String dynamicStatementId = new SqlSource.Builder(new SqlSource.Builder(dynamicSelect).build(), new MapperMethod.SqlCommand(StudentMapper.class, selectList))
+                    .build().getMappedStatementId();
+            ResultSetSchema dynamicSchema = schemaCache.get(dynamicStatementId);
+            List<Student> students = studentMapper.selectList(new SqlSource.Builder(dynamicSelect).build(), "id, name, email");
+            Assertions.assertEquals("a@b.c", students.get(0).getEmail());
+            Assertions.assertNotSame(dynamicSchema, schemaCache.get(dynamicStatementId));
+            Assertions.assertEquals(Arrays.asList("id", "name", "email"), schemaCache.get(dynamicStatementId).getColumnNames());
+            Assertions.assertSame(schema, schemaCache.get(statementId));
+        }
+    }
+
+    @DisplayName("分批加载关联对象：每批关联key执行一次IN查询，按key回填")
+    @Test
+    public void batchAssociationLoadTest() {
+        dataSource.onQuery(execution -> {
+            if (execution.getSql().contains("from grade")) {
+                return MockDataSource.table("id, name, leader_id", new Object[]{1, "grade1", 11}, new Object[]{2, "grade2", 12},
+                        new Object[]{3, "grade3", 11}, new Object[]{4, "grade4", 13}, new Object[]{5, "grade5", null});
+            }
+            //学生表只有11、12
+            List<Object[]> rows = new ArrayList<>();
+            for (Object id : execution.getParameters()) {
+                if (!"13".equals(String.valueOf(id))) {
+                    rows.add(new Object[]{id, "name" + id});
+                }
+            }
+            return MockDataSource.table("id, name", rows.toArray(new Object[0][]));
+        });
+        configuration.setBatchLoadSize(2);
+        TableModelInfoHelper.addTableModelInfo(configuration, Grade.class);
+        try (SqlSession session = openSession(ExecutorType.SIMPLE)) {
+            List<Grade> grades = session.getMapper(GradeMapper.class).selectList(new SqlSource.Builder("select id, name, leader_id from grade").build());
+            Assertions.assertEquals(5, grades.size());
+            //不同的key：11、12、13，每批2个，共2次IN查询
+            Assertions.assertEquals(3, dataSource.getQueries().size());
+            Assertions.assertTrue(dataSource.getQueries().get(1).getSql().contains("WHERE id IN (?, ?)"), dataSource.getQueries().get(1).getSql());
+            Assertions.assertEquals("[11, 12]", dataSource.getQueries().get(1).getParameters().toString());
+            Assertions.assertEquals("[13]", dataSource.getQueries().get(2).getParameters().toString());
+            Assertions.assertEquals("name11", grades.get(0).getLeader().getName());
+            Assertions.assertEquals("name12", grades.get(1).getLeader().getName());
+            Assertions.assertSame(grades.get(0).getLeader(), grades.get(2).getLeader());
+            Assertions.assertNull(grades.get(3).getLeader());
+            Assertions.assertNull(grades.get(4).getLeader());
+        }
+        //selectMap逐行放入Map，结果集关闭后按Map中的结果对象分批加载；key集合按1、2、4...补齐占位符（3个key-->4个占位符）
+        dataSource.reset();
+        configuration.setBatchLoadSize(4);
+        try (SqlSession session = openSession(ExecutorType.SIMPLE)) {
+            Map<Integer, Grade> grades = session.getMapper(GradeMapper.class).selectMap(new SqlSource.Builder("select id, name, leader_id from grade").build());
+            Assertions.assertEquals(5, grades.size());
+            Assertions.assertEquals(2, dataSource.getQueries().size());
+            Assertions.assertTrue(dataSource.getQueries().get(1).getSql().contains("WHERE id IN (?, ?, ?, ?)"), dataSource.getQueries().get(1).getSql());
+            Assertions.assertEquals("[11, 12, 13, 13]", dataSource.getQueries().get(1).getParameters().toString());
+            Assertions.assertEquals("name11", grades.get(1).getLeader().getName());
+            Assertions.assertSame(grades.get(1).getLeader(), grades.get(3).getLeader());
+            Assertions.assertNull(grades.get(4).getLeader());
+        }
+        //ResultHandler、游标逐个处理结果对象，无法在结果集关闭后分批加载：直接拒绝，而不是返回没有关联对象的结果
+        try (SqlSession session = openSession(ExecutorType.SIMPLE)) {
+            GradeMapper gradeMapper = session.getMapper(GradeMapper.class);
+            List<Grade> handled = new ArrayList<>();
+            OrmException e = Assertions.assertThrows(OrmException.class,
+                    () -> gradeMapper.select(new SqlSource.Builder("select id, name, leader_id from grade").build(), context -> handled.add(context.getResultObject())));
+            Assertions.assertTrue(e.getMessage().contains("BATCH associations"), e.getMessage());
+            Assertions.assertTrue(handled.isEmpty());
+            e = Assertions.assertThrows(OrmException.class, () -> gradeMapper.selectCursor(new SqlSource.Builder("select id, name, leader_id from grade").build()));
+            Assertions.assertTrue(e.getMessage().contains("BATCH associations"), e.getMessage());
+        }
+        //二级缓存：关联对象的表也作为缓存依赖的表，关联表被写入后缓存失效
+        dataSource.reset();
+        DefaultSqlSessionFactory sqlSessionFactory = new DefaultSqlSessionFactory(configuration);
+        for (int i = 0; i < 2; i++) {
+            try (SqlSession session = sqlSessionFactory.openSession()) {
+                List<Grade> grades = session.getMapper(GradeMapper.class).selectCachedList(new SqlSource.Builder("select id, name, leader_id from grade").build());
+                Assertions.assertEquals("name11", grades.get(0).getLeader().getName());
+            }
+        }
+        Assertions.assertEquals(2, dataSource.getQueries().size());
+        try (SqlSession session = sqlSessionFactory.openSession()) {
+            session.getMapper(StudentMapper.class).update(new SqlSource.Builder("update student set name = #{name} where id = #{id}").build(), 11, "b");
+            session.commit();
+        }
+        try (SqlSession session = sqlSessionFactory.openSession()) {
+            session.getMapper(GradeMapper.class).selectCachedList(new SqlSource.Builder("select id, name, leader_id from grade").build());
+        }
+        Assertions.assertEquals(4, dataSource.getQueries().size());
+    }
+
+    @DisplayName("参数绑定计划：按（参数映射列表，请求参数类型）编译一次，按计划读取参数值")
+    @Test
+    public void parameterBindingPlanTest() {
+        final String sql = "update student set name = #{student.name}, email = #{student.email} where id = #{id} and #{_parameter.id} > 0";
+        Student student = new Student();
+        student.setName("name1");
+        Map<String, Object> params = new HashMap<>();
+        params.put("student", student);
+        params.put("id", 1);
+        BoundSql boundSql = configuration.getSqlTemplate(sql, params).getBoundSql(configuration, params);
+        ParameterBindingPlan plan = configuration.getParameterBindingPlan(boundSql, params);
+        Assertions.assertEquals(4, plan.size());
+        //嵌套的JavaBean属性、Map的key、额外参数
+        Assertions.assertEquals("name1", plan.getValue(0, params, boundSql));
+        Assertions.assertNull(plan.getValue(1, params, boundSql));
+        Assertions.assertEquals(1, plan.getValue(2, params, boundSql));
+        Assertions.assertEquals(1, plan.getValue(3, params, boundSql));
+        //同样的参数映射、同样的请求参数类型：命中缓存，按新的参数取值
+        Map<String, Object> otherParams = new HashMap<>();
+        otherParams.put("student", null);
+        otherParams.put("id", 2);
+        BoundSql otherBoundSql = configuration.getSqlTemplate(sql, otherParams).getBoundSql(configuration, otherParams);
+        Assertions.assertSame(plan, configuration.getParameterBindingPlan(otherBoundSql, otherParams));
+        Assertions.assertNull(plan.getValue(0, otherParams, otherBoundSql));
+        Assertions.assertEquals(2, plan.getValue(2, otherParams, otherBoundSql));
+        //请求参数类型不同：另一个绑定计划
+        Map<String, Object> linkedParams = new LinkedHashMap<>(params);
+        Assertions.assertNotSame(plan, configuration.getParameterBindingPlan(configuration.getSqlTemplate(sql, linkedParams).getBoundSql(configuration, linkedParams), linkedParams));
+        //单个参数：参数本身就是值
+        BoundSql scalarBoundSql = configuration.getSqlTemplate("select id from student where name = #{keyword}", "a").getBoundSql(configuration, "a");
+        Assertions.assertEquals("a", configuration.getParameterBindingPlan(scalarBoundSql, "a").getValue(0, "a", scalarBoundSql));
+        //执行时按计划设置PreparedStatement的参数
+        try (SqlSession session = openSession(ExecutorType.SIMPLE)) {
+            session.getMapper(StudentMapper.class).update(new SqlSource.Builder("update student set name = #{name} where id = #{id}").build(), 1, null);
+            Assertions.assertEquals(Arrays.asList(null, 1), dataSource.getExecutions().get(0).getParameters());
+        }
+    }
+
+    @DisplayName("Mapper请求参数：参数名称（@Param名称、param1...）按方法只解析一次，每次调用只复制参数值")
+    @Test
+    @SuppressWarnings("unchecked")
+    public void paramMapShapeTest() throws Exception {
+        Method update = StudentMapper.class.getMethod("update", SqlSource.class, Integer.class, String.class);
+        ParamNameResolver resolver = new ParamNameResolver(new Configuration(), update);
+        SqlSource sqlSource = new SqlSource.Builder("update student set name = #{name} where id = #{id}").build();
+        MapperMethod.ParamMap<Object> params = (MapperMethod.ParamMap<Object>) resolver.getNamedParams(new Object[]{sqlSource, 1, "a"});
+        Assertions.assertEquals("[id, param1, name, param2]", params.getShape().toString());
+        Map<String, Object> expected = new LinkedHashMap<>();
+        expected.put("id", 1);
+        expected.put("param1", 1);
+        expected.put("name", "a");
+        expected.put("param2", "a");
+        Assertions.assertEquals(expected, params);
+        Assertions.assertEquals(new ArrayList<>(expected.keySet()), new ArrayList<>(params.keySet()));
+        //同一个方法的所有调用共用参数名称
+        MapperMethod.ParamMap<?> otherParams = (MapperMethod.ParamMap<?>) resolver.getNamedParams(new Object[]{sqlSource, 2, null});
+        Assertions.assertSame(params.getShape(), otherParams.getShape());
+        Assertions.assertNull(otherParams.get("name"));
+        Assertions.assertTrue(otherParams.containsKey("name"));
+        OrmException e = Assertions.assertThrows(OrmException.class, () -> params.get("keyword"));
+        Assertions.assertTrue(e.getMessage().contains("[id, param1, name, param2]"), e.getMessage());
+        //手动添加、移除参数
+        params.put("keyword", "b");
+        params.remove("param2");
+        Assertions.assertEquals(4, params.size());
+        Assertions.assertEquals("b", params.get("keyword"));
+        Assertions.assertFalse(params.containsKey("param2"));
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(params);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            Assertions.assertEquals(params, in.readObject());
+        }
+        //单个集合参数
+        Map<?, ?> wrapped = (Map<?, ?>) ParamNameResolver.wrapToMapIfCollection(Arrays.asList(1, 2), null);
+        Assertions.assertEquals(new LinkedHashSet<>(Arrays.asList("collection", "list")), wrapped.keySet());
+        //SQL中按@Param名称、param1...取值
+        try (SqlSession session = openSession(ExecutorType.SIMPLE)) {
+            session.getMapper(StudentMapper.class).update(new SqlSource.Builder("update student set name = #{param2} where id = #{id} and ${param1} > 0").build(), 3, "c");
+            Assertions.assertEquals("update student set name = ? where id = ? and 3 > 0", dataSource.getExecutions().get(0).getSql());
+            Assertions.assertEquals(Arrays.asList("c", 3), dataSource.getExecutions().get(0).getParameters());
+        }
+    }
+
+    @DisplayName("单列基本类型结果：直接读取到long[]、LongList，列的值为null时报错")
+    @Test
+    public void primitiveResultTest() {
+        final String sql = "select id from student where name like concat('%',#{keyword},'%')";
+        dataSource.onQuery(execution -> MockDataSource.table("id", new Object[]{3}, new Object[]{1L}, new Object[]{2}));
+        try (SqlSession session = openSession(ExecutorType.SIMPLE)) {
+            StudentMapper studentMapper = session.getMapper(StudentMapper.class);
+            Assertions.assertArrayEquals(new long[]{3, 1, 2}, studentMapper.selectIds(new SqlSource.Builder(sql).build(), "a"));
+            LongList idList = studentMapper.selectIdList(new SqlSource.Builder(sql).build(), "a");
+            Assertions.assertEquals(3, idList.size());
+            Assertions.assertEquals(1L, idList.get(1));
+            Assertions.assertArrayEquals(new long[]{3, 1, 2}, idList.toArray());
+        }
+        //没有记录：空数组
+        dataSource.onQuery(execution -> MockDataSource.table("id"));
+        try (SqlSession session = openSession(ExecutorType.SIMPLE)) {
+            Assertions.assertEquals(0, session.getMapper(StudentMapper.class).selectIds(new SqlSource.Builder(sql).build(), "a").length);
+        }
+        //null无法存为基本类型：报错，而不是当作0
+        dataSource.onQuery(execution -> MockDataSource.table("id", new Object[]{1}, new Object[]{null}));
+        try (SqlSession session = openSession(ExecutorType.SIMPLE)) {
+            OrmException e = Assertions.assertThrows(OrmException.class,
+                    () -> session.getMapper(StudentMapper.class).selectIds(new SqlSource.Builder(sql).build(), "a"));
+            Assertions.assertTrue(e.getMessage().contains("Column 'id' returned null, which cannot be stored as long"), e.getMessage());
+        }
+    }
+
+    @DisplayName("列式结果：整数、浮点数、字典编码的字符串列，null位图，超出long范围的整数和DECIMAL按对象存储")
+    @Test
+    public void columnarResultTest() {
+        dataSource.onQuery(execution -> MockDataSource.table("id, name, score, amount, big_id",
+                new Object[]{1, "a", 1.5, new BigDecimal("1.10"), new BigInteger("18446744073709551615")},
+                new Object[]{null, "b", null, null, null},
+                new Object[]{3, "a", 2.5, new BigDecimal("2.20"), BigInteger.ONE},
+                new Object[]{4, null, 0.0, BigDecimal.ZERO, BigInteger.ZERO}));
+        try (SqlSession session = openSession(ExecutorType.SIMPLE)) {
+            ColumnarResult result = session.getMapper(StudentMapper.class).selectColumnar(
+                    new SqlSource.Builder("select id, name, score, amount, big_id from student where name like concat('%',#{keyword},'%')").build(), "a");
+            Assertions.assertEquals(4, result.getRowCount());
+            Assertions.assertEquals(Arrays.asList("id", "name", "score", "amount", "big_id"), result.getColumnNames());
+            //整数列：long[] + null位图
+            ColumnVector.LongVector id = result.getLongVector("id");
+            Assertions.assertEquals(4, id.getValues().length);
+            Assertions.assertEquals(3L, id.getLong(2));
+            Assertions.assertTrue(id.isNull(1));
+            Assertions.assertFalse(id.isNull(0));
+            Assertions.assertEquals(1, id.getNullCount());
+            Assertions.assertNull(id.getObject(1));
+            //字符串列：字典编码，null的编码为-1
+            ColumnVector.StringVector name = result.getStringVector("name");
+            Assertions.assertArrayEquals(new String[]{"a", "b"}, name.getDictionary());
+            Assertions.assertArrayEquals(new int[]{0, 1, 0, -1}, name.getCodes());
+            Assertions.assertEquals("a", name.getString(2));
+            Assertions.assertTrue(name.isNull(3));
+            Assertions.assertNull(name.getString(3));
+            //浮点数列：0.0不是null
+            ColumnVector.DoubleVector score = result.getDoubleVector("score");
+            Assertions.assertEquals(2.5, score.getDouble(2));
+            Assertions.assertTrue(score.isNull(1));
+            Assertions.assertFalse(score.isNull(3));
+            //DECIMAL、超出long范围的整数（BIGINT UNSIGNED）：按对象存储，不丢失精度
+            ColumnVector.ObjectVector amount = result.getObjectVector("amount");
+            Assertions.assertEquals(new BigDecimal("1.10"), amount.getObject(0));
+            Assertions.assertTrue(amount.isNull(1));
+            ColumnVector.ObjectVector bigId = result.getObjectVector("big_id");
+            Assertions.assertEquals(new BigInteger("18446744073709551615"), bigId.getObject(0));
+            Assertions.assertTrue(bigId.isNull(1));
+        }
+    }
+
+    @DisplayName("嵌套结果映射：父对象的记录结束后才交给ResultHandler，集合已经填充完成")
+    @Test
+    public void nestedResultHandlerTest() {
+        dataSource.onQuery(execution -> MockDataSource.table("id, name, student_id, student_name",
+                new Object[]{1, "teacher1", 11, "name11"}, new Object[]{1, "teacher1", 12, "name12"},
+                new Object[]{2, "teacher2", 13, "name13"},
+                new Object[]{3, "teacher3", null, null}, new Object[]{3, "teacher3", 14, "name14"}, new Object[]{3, "teacher3", 15, "name15"}));
+        TableModelInfoHelper.addTableModelInfo(configuration, Teacher.class);
+        final String sql = "select t.id, t.name, s.id student_id, s.name student_name from teacher t left join student s on s.teacher_id = t.id order by t.id";
+        try (SqlSession session = openSession(ExecutorType.SIMPLE)) {
+            TeacherMapper teacherMapper = session.getMapper(TeacherMapper.class);
+            //交给ResultHandler时记录集合的大小
+            List<String> handled = new ArrayList<>();
+            teacherMapper.select(new SqlSource.Builder(sql).build(),
+                    context -> handled.add(context.getResultObject().getName() + ":" + context.getResultObject().getStudents().size()));
+            Assertions.assertEquals(Arrays.asList("teacher1:2", "teacher2:1", "teacher3:2"), handled);
+            //ResultHandler停止后不再处理后面的父对象
+            handled.clear();
+            teacherMapper.select(new SqlSource.Builder(sql).build(), context -> {
+                handled.add(context.getResultObject().getName() + ":" + context.getResultObject().getStudents().size());
+                context.stop();
+            });
+            Assertions.assertEquals(Collections.singletonList("teacher1:2"), handled);
+            //limit：最后一个父对象也是完整的
+            List<Teacher> teachers = teacherMapper.selectList(new SqlSource.Builder(sql).build(), new RowBounds(0, 2));
+            Assertions.assertEquals(2, teachers.size());
+            Assertions.assertEquals(2, teachers.get(0).getStudents().size());
+            Assertions.assertEquals("name13", teachers.get(1).getStudents().get(0).getName());
+        }
+    }
+
+    @DisplayName("插件：只代理匹配@Intercepts的目标，proceed原样抛出目标方法的异常，添加拦截器后重新匹配目标类")
+    @Test
+    @SuppressWarnings("unchecked")
+    public void interceptorChainTest() throws Exception {
+        InterceptorChain interceptorChain = new InterceptorChain();
+        CallCountInterceptor callInterceptor = new CallCountInterceptor();
+        interceptorChain.addInterceptor(callInterceptor);
+        //匹配的目标返回代理，拦截器拦截声明的方法
+        Callable<String> callable = (Callable<String>) interceptorChain.pluginAll((Callable<String>) () -> "called");
+        Assertions.assertTrue(Proxy.isProxyClass(callable.getClass()));
+        Assertions.assertEquals("called", callable.call());
+        Assertions.assertEquals(1, callInterceptor.count.get());
+        //不匹配的目标原样返回
+        Runnable runnable = () -> {
+        };
+        Assertions.assertSame(runnable, interceptorChain.pluginAll(runnable));
+        Assertions.assertSame(runnable, Plugin.wrap(runnable, callInterceptor));
+        //目标方法的异常原样抛出，不会被InvocationTargetException、UndeclaredThrowableException包装
+        IOException failure = new IOException("call failed");
+        Callable<String> failing = (Callable<String>) interceptorChain.pluginAll((Callable<String>) () -> {
+            throw failure;
+        });
+        Assertions.assertSame(failure, Assertions.assertThrows(IOException.class, failing::call));
+        Assertions.assertEquals(2, callInterceptor.count.get());
+        //添加拦截器时清空按目标类缓存的匹配结果：之前不匹配的目标类也会被代理
+        RunCountInterceptor runInterceptor = new RunCountInterceptor();
+        interceptorChain.addInterceptor(runInterceptor);
+        Runnable pluggedRunnable = (Runnable) interceptorChain.pluginAll(runnable);
+        Assertions.assertNotSame(runnable, pluggedRunnable);
+        pluggedRunnable.run();
+        Assertions.assertEquals(1, runInterceptor.count.get());
+        Assertions.assertEquals(2, callInterceptor.count.get());
+    }
+
+    /*************************************************inner class*********************************************************/
+
+    /**
+     * JOIN查询的关联对象没有指定列前缀
+     */
+    public static class StudentWithClazz {
+
+        @AnnModel.AnnField(column = "id", property = "id", jdbcType = "INTEGER")
+        private Integer id;
+
+        @AnnModel.Association
+        private Student clazz;
+
+        public Integer getId() {
+            return id;
+        }
+
+        public void setId(Integer id) {
+            this.id = id;
+        }
+
+        public Student getClazz() {
+            return clazz;
+        }
+
+        public void setClazz(Student clazz) {
+            this.clazz = clazz;
+        }
+    }
+
+    /**
+     * 延迟加载的关联对象是实体类
+     */
+    public static class StudentWithLazyClazz {
+
+        @AnnModel.AnnField(column = "clazz_id", property = "clazzId", jdbcType = "INTEGER")
+        private Integer clazzId;
+
+        @AnnModel.Association(column = "clazz_id", fetch = FetchType.LAZY)
+        private Clazz clazz;
+
+        public Integer getClazzId() {
+            return clazzId;
+        }
+
+        public void setClazzId(Integer clazzId) {
+            this.clazzId = clazzId;
+        }
+
+        public Clazz getClazz() {
+            return clazz;
+        }
+
+        public void setClazz(Clazz clazz) {
+            this.clazz = clazz;
+        }
+    }
+
+    /**
+     * 拦截Callable#call的插件
+     */
+    @Intercepts({@Signature(type = Callable.class, method = "call", args = {})})
+    public static class CallCountInterceptor implements Interceptor {
+
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Object intercept(Invocation invocation) throws Throwable {
+            count.incrementAndGet();
+            return invocation.proceed();
+        }
+    }
+
+    /**
+     * 拦截Runnable#run的插件
+     */
+    @Intercepts({@Signature(type = Runnable.class, method = "run", args = {})})
+    public static class RunCountInterceptor implements Interceptor {
+
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Object intercept(Invocation invocation) throws Throwable {
+            count.incrementAndGet();
+            return invocation.proceed();
+        }
+    }
+}
@@ -1,12 +1,17 @@
 package club.emperorws.orm;
 
 import club.emperorws.orm.config.HikariDataSourceFactory;
+import club.emperorws.orm.cursor.Cursor;
 import club.emperorws.orm.entity.Student;
 import club.emperorws.orm.logging.Log;
 import club.emperorws.orm.logging.LogFactory;
 import club.emperorws.orm.mapper.StudentMapper;
 import club.emperorws.orm.mapping.Environment;
+import club.emperorws.orm.mapping.KeysetRowBounds;
+import club.emperorws.orm.mapping.RowBounds;
 import club.emperorws.orm.mapping.SqlSource;
+import club.emperorws.orm.result.Page;
+import club.emperorws.orm.result.columnar.ColumnarResult;
 import club.emperorws.orm.session.SqlSession;
 import club.emperorws.orm.session.defaults.DefaultSqlSessionFactory;
 import club.emperorws.orm.transaction.jdbc.JdbcTransactionFactory;
@@ -16,6 +21,7 @@ import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
 
 import javax.sql.DataSource;
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -62,4 +68,103 @@ public class MySqlOrmTest {
             log.error("mysqlSelectTest has an error.", e);
         }
     }
+
+    @DisplayName("MySQL的Cursor游标查询测试")
+    @Test
+    public void mysqlSelectCursorTest() {
+        String sql = "select * from student where name like concat('%',#{keyword},'%')";
+        StudentMapper studentMapper = sqlSession.getMapper(StudentMapper.class);
+        try (Cursor<Student> cursor = studentMapper.selectCursor(new SqlSource.Builder(sql).build(), "a")) {
+            cursor.forEach(student -> log.debug(cursor.getCurrentIndex() + ": " + student));
+        } catch (Exception e) {
+            log.error("mysqlSelectCursorTest has an error.", e);
+        }
+    }
+
+    @DisplayName("MySQL的查询结果缓存（二级缓存）测试")
+    @Test
+    public void mysqlQueryCacheTest() {
+        try {
+            String sql = "select * from student where name like concat('%',#{keyword},'%')";
+            StudentMapper studentMapper = sqlSession.getMapper(StudentMapper.class);
+            List<Student> firstList = studentMapper.selectCachedList(new SqlSource.Builder(sql).build(), "a");
+            //第二次查询命中缓存，不再查询数据库
+            List<Student> secondList = studentMapper.selectCachedList(new SqlSource.Builder(sql).build(), "a");
+            log.debug("first size: " + firstList.size() + ", second size: " + secondList.size());
+        } catch (Exception e) {
+            log.error("mysqlQueryCacheTest has an error.", e);
+        }
+    }
+
+    @DisplayName("MySQL的单列基本类型结果（不装箱）测试")
+    @Test
+    public void mysqlPrimitiveResultTest() {
+        try {
+            String sql = "select id from student where name like concat('%',#{keyword},'%')";
+            StudentMapper studentMapper = sqlSession.getMapper(StudentMapper.class);
+            long[] ids = studentMapper.selectIds(new SqlSource.Builder(sql).build(), "a");
+            log.debug("ids: " + Arrays.toString(ids));
+        } catch (Exception e) {
+            log.error("mysqlPrimitiveResultTest has an error.", e);
+        }
+    }
+
+    @DisplayName("MySQL的列式结果测试")
+    @Test
+    public void mysqlColumnarResultTest() {
+        try {
+            String sql = "select id, name from student where name like concat('%',#{keyword},'%')";
+            StudentMapper studentMapper = sqlSession.getMapper(StudentMapper.class);
+            ColumnarResult result = studentMapper.selectColumnar(new SqlSource.Builder(sql).build(), "a");
+            log.debug("row count: " + result.getRowCount() + ", distinct names: " + result.getStringVector("name").getDictionary().length);
+        } catch (Exception e) {
+            log.error("mysqlColumnarResultTest has an error.", e);
+        }
+    }
+
+    @DisplayName("MySQL的分页查询（LIMIT/OFFSET、键集分页）测试")
+    @Test
+    public void mysqlPageTest() {
+        try {
+            String sql = "select * from student where name like concat('%',#{keyword},'%')";
+            StudentMapper studentMapper = sqlSession.getMapper(StudentMapper.class);
+            List<Student> page = studentMapper.selectPage(new SqlSource.Builder(sql).build(), "a", new RowBounds(2, 2));
+            page.forEach(student -> log.debug("offset page: " + student));
+            KeysetRowBounds keyset = KeysetRowBounds.first(2, "id");
+            page = studentMapper.selectPage(new SqlSource.Builder(sql).build(), "a", keyset);
+            if (!page.isEmpty()) {
+                page = studentMapper.selectPage(new SqlSource.Builder(sql).build(), "a", keyset.after(page.get(page.size() - 1).getId()));
+            }
+            page.forEach(student -> log.debug("keyset page: " + student));
+        } catch (Exception e) {
+            log.error("mysqlPageTest has an error.", e);
+        }
+    }
+
+    @DisplayName("MySQL的分页查询（带总记录数）测试")
+    @Test
+    public void mysqlPageWithTotalTest() {
+        try {
+            String sql = "select * from student where name like concat('%',#{keyword},'%') order by id";
+            StudentMapper studentMapper = sqlSession.getMapper(StudentMapper.class);
+            Page<Student> page = studentMapper.selectPageWithTotal(new SqlSource.Builder(sql).build(), "a", new RowBounds(0, 2));
+            log.debug("page: " + page);
+            page.getContent().forEach(student -> log.debug("page content: " + student));
+        } catch (Exception e) {
+            log.error("mysqlPageWithTotalTest has an error.", e);
+        }
+    }
+
+    @DisplayName("MySQL的集合参数IN查询测试")
+    @Test
+    public void mysqlInListTest() {
+        try {
+            String sql = "select * from student where id in (#{ids,collection}) order by id";
+            StudentMapper studentMapper = sqlSession.getMapper(StudentMapper.class);
+            List<Student> studentList = studentMapper.selectByIds(new SqlSource.Builder(sql).build(), Arrays.asList(1, 2, 3));
+            studentList.forEach(student -> log.debug("in list: " + student));
+        } catch (Exception e) {
+            log.error("mysqlInListTest has an error.", e);
+        }
+    }
 }
@@ -0,0 +1,587 @@
+package club.emperorws.orm.config;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.*;
+import java.util.*;
+import java.util.function.Function;
+import java.util.logging.Logger;
+
+/**
+ * 记录SQL执行过程的模拟数据源（不需要数据库）
+ * <p>Connection、PreparedStatement、ResultSet都是动态代理：记录预编译、参数、执行顺序，查询结果由{@link #onQuery(Function)}提供</p>
+ *
+ * @author: EmperorWS
+ * @date: 2023/8/29 14:00
+ * @description: MockDataSource: 记录SQL执行过程的模拟数据源
+ */
+public class MockDataSource implements DataSource {
+
+    private final String productName;
+
+    /**
+     * 按执行顺序记录的SQL（查询、更新、批量执行）
+     */
+    private final List<Execution> executions = Collections.synchronizedList(new ArrayList<>());
+
+    /**
+     * 预编译过的SQL
+     */
+    private final List<String> preparedSql = Collections.synchronizedList(new ArrayList<>());
+
+    private volatile Function<Execution, Table> queryResults = execution -> table();
+
+    /**
+     * 外键：{子表, 父表}
+     */
+    private final List<String[]> foreignKeys = new ArrayList<>();
+
+    private int connectionCount;
+
+    public MockDataSource(String productName) {
+        this.productName = productName;
+    }
+
+    /**
+     * 设置查询结果
+     *
+     * @param queryResults 查询--&gt;结果表
+     * @return this
+     */
+    public MockDataSource onQuery(Function<Execution, Table> queryResults) {
+        this.queryResults = queryResults;
+        return this;
+    }
+
+    /**
+     * 添加外键（{@link DatabaseMetaData#getImportedKeys(String, String, String)}等元数据）
+     *
+     * @param childTable  引用的表
+     * @param parentTable 被引用的表
+     * @return this
+     */
+    public MockDataSource foreignKey(String childTable, String parentTable) {
+        foreignKeys.add(new String[]{childTable, parentTable});
+        return this;
+    }
+
+    public List<Execution> getExecutions() {
+        synchronized (executions) {
+            return new ArrayList<>(executions);
+        }
+    }
+
+    public List<Execution> getQueries() {
+        List<Execution> queries = new ArrayList<>();
+        for (Execution execution : getExecutions()) {
+            if (execution.getType() == ExecutionType.QUERY) {
+                queries.add(execution);
+            }
+        }
+        return queries;
+    }
+
+    public List<String> getPreparedSql() {
+        synchronized (preparedSql) {
+            return new ArrayList<>(preparedSql);
+        }
+    }
+
+    public synchronized int getConnectionCount() {
+        return connectionCount;
+    }
+
+    public void reset() {
+        executions.clear();
+        preparedSql.clear();
+    }
+
+    /**
+     * 结果表
+     *
+     * @param columns 列名（逗号分隔），没有列时为空结果
+     * @param rows    每行的值
+     * @return 结果表
+     */
+    public static Table table(String columns, Object[]... rows) {
+        return new Table(columns.isEmpty() ? new String[0] : columns.split("\\s*,\\s*"), Arrays.asList(rows));
+    }
+
+    public static Table table() {
+        return new Table(new String[0], Collections.emptyList());
+    }
+
+    @Override
+    public Connection getConnection() {
+        synchronized (this) {
+            connectionCount++;
+        }
+        return proxy(Connection.class, new ConnectionHandler());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) {
+        return getConnection();
+    }
+
+    @Override
+    public PrintWriter getLogWriter() {
+        return null;
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) {
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) {
+    }
+
+    @Override
+    public int getLoginTimeout() {
+        return 0;
+    }
+
+    @Override
+    public Logger getParentLogger() {
+        return Logger.getGlobal();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        throw new SQLException("Not a wrapper");
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) {
+        return false;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(MockDataSource.class.getClassLoader(), new Class[]{type}, handler);
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        if (type == boolean.class) {
+            return false;
+        } else if (type == int.class) {
+            return 0;
+        } else if (type == long.class) {
+            return 0L;
+        } else if (type == double.class) {
+            return 0D;
+        } else if (type == float.class) {
+            return 0F;
+        } else if (type == short.class) {
+            return (short) 0;
+        } else if (type == byte.class) {
+            return (byte) 0;
+        }
+        return null;
+    }
+
+    private static boolean isQuery(String sql) {
+        String trimmed = sql.trim().toLowerCase(Locale.ENGLISH);
+        return trimmed.startsWith("select") || trimmed.startsWith("with") || trimmed.startsWith("(");
+    }
+
+    /*************************************************inner class*********************************************************/
+
+    public enum ExecutionType {
+        QUERY, UPDATE, BATCH
+    }
+
+    /**
+     * 一次SQL执行
+     */
+    public static class Execution {
+
+        private final ExecutionType type;
+
+        private final String sql;
+
+        /**
+         * 参数（BATCH时为每一批的参数）
+         */
+        private final List<List<Object>> parameterSets;
+
+        private final Integer fetchSize;
+
+        private Execution(ExecutionType type, String sql, List<List<Object>> parameterSets, Integer fetchSize) {
+            this.type = type;
+            this.sql = sql;
+            this.parameterSets = parameterSets;
+            this.fetchSize = fetchSize;
+        }
+
+        public ExecutionType getType() {
+            return type;
+        }
+
+        public String getSql() {
+            return sql;
+        }
+
+        public List<Object> getParameters() {
+            return parameterSets.get(0);
+        }
+
+        public List<List<Object>> getParameterSets() {
+            return parameterSets;
+        }
+
+        public Integer getFetchSize() {
+            return fetchSize;
+        }
+
+        @Override
+        public String toString() {
+            return type + " " + sql + " " + parameterSets;
+        }
+    }
+
+    /**
+     * 查询结果表
+     */
+    public static class Table {
+
+        private final String[] columns;
+
+        private final List<Object[]> rows;
+
+        private Table(String[] columns, List<Object[]> rows) {
+            this.columns = columns;
+            this.rows = rows;
+        }
+
+        private int indexOf(String column) throws SQLException {
+            for (int i = 0; i < columns.length; i++) {
+                if (columns[i].equalsIgnoreCase(column)) {
+                    return i;
+                }
+            }
+            throw new SQLException("Column '" + column + "' not found.");
+        }
+
+        private Class<?> getColumnClass(int index) {
+            for (Object[] row : rows) {
+                if (row[index] != null) {
+                    return row[index].getClass();
+                }
+            }
+            return Object.class;
+        }
+
+        private int getColumnType(int index) {
+            Class<?> type = getColumnClass(index);
+            if (type == Integer.class) {
+                return Types.INTEGER;
+            } else if (type == Long.class || type == BigInteger.class) {
+                return Types.BIGINT;
+            } else if (type == Double.class) {
+                return Types.DOUBLE;
+            } else if (type == String.class) {
+                return Types.VARCHAR;
+            } else if (type == BigDecimal.class) {
+                return Types.DECIMAL;
+            } else if (type == Timestamp.class) {
+                return Types.TIMESTAMP;
+            }
+            return Types.OTHER;
+        }
+    }
+
+    private class ConnectionHandler implements InvocationHandler {
+
+        private boolean autoCommit = true;
+
+        private boolean closed;
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "prepareStatement":
+                    preparedSql.add((String) args[0]);
+                    PreparedStatementHandler handler = new PreparedStatementHandler((Connection) proxy, (String) args[0]);
+                    return proxy(PreparedStatement.class, handler);
+                case "getMetaData":
+                    return proxy(DatabaseMetaData.class, (p, m, a) -> {
+                        switch (m.getName()) {
+                            case "getDatabaseProductName":
+                                return productName;
+                            case "getTables":
+                                return newResultSet(null, table("TABLE_NAME", getTableRows((String) a[2])));
+                            case "getImportedKeys":
+                                return newResultSet(null, table("PKTABLE_NAME, FKTABLE_NAME", getForeignKeyRows((String) a[2], 0)));
+                            case "getExportedKeys":
+                                return newResultSet(null, table("PKTABLE_NAME, FKTABLE_NAME", getForeignKeyRows((String) a[2], 1)));
+                            default:
+                                return defaultValue(m.getReturnType());
+                        }
+                    });
+                case "getAutoCommit":
+                    return autoCommit;
+                case "setAutoCommit":
+                    autoCommit = (Boolean) args[0];
+                    return null;
+                case "close":
+                    closed = true;
+                    return null;
+                case "isClosed":
+                    return closed;
+                case "unwrap":
+                    return proxy;
+                case "isWrapperFor":
+                    return true;
+                case "getTransactionIsolation":
+                    return Connection.TRANSACTION_READ_COMMITTED;
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "equals":
+                    return proxy == args[0];
+                case "toString":
+                    return "MockConnection@" + Integer.toHexString(System.identityHashCode(proxy));
+                default:
+                    return defaultValue(method.getReturnType());
+            }
+        }
+    }
+
+    private Object[][] getTableRows(String tableName) {
+        Set<String> tables = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+        for (String[] foreignKey : foreignKeys) {
+            tables.addAll(Arrays.asList(foreignKey));
+        }
+        return tables.contains(tableName) ? new Object[][]{{tables.stream().filter(tableName::equalsIgnoreCase).findFirst().get()}} : new Object[0][];
+    }
+
+    /**
+     * @param side 0：表是子表（它引用的表），1：表是父表（引用它的表）
+     */
+    private Object[][] getForeignKeyRows(String tableName, int side) {
+        List<Object[]> rows = new ArrayList<>();
+        for (String[] foreignKey : foreignKeys) {
+            if (foreignKey[side].equalsIgnoreCase(tableName)) {
+                rows.add(new Object[]{foreignKey[1], foreignKey[0]});
+            }
+        }
+        return rows.toArray(new Object[0][]);
+    }
+
+    private class PreparedStatementHandler implements InvocationHandler {
+
+        private final Connection connection;
+
+        private final String sql;
+
+        private final Map<Integer, Object> parameters = new TreeMap<>();
+
+        private final List<List<Object>> batch = new ArrayList<>();
+
+        private Integer fetchSize;
+
+        private int queryTimeout;
+
+        private ResultSet resultSet;
+
+        private int updateCount = -1;
+
+        private boolean closed;
+
+        private PreparedStatementHandler(Connection connection, String sql) {
+            this.connection = connection;
+            this.sql = sql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            final String name = method.getName();
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer
+                    && !"setFetchSize".equals(name) && !"setQueryTimeout".equals(name)) {
+                parameters.put((Integer) args[0], "setNull".equals(name) ? null : args[1]);
+                return null;
+            }
+            switch (name) {
+                case "execute":
+                case "executeQuery":
+                    if (isQuery(sql)) {
+                        Execution execution = record(ExecutionType.QUERY);
+                        resultSet = newResultSet((Statement) proxy, queryResults.apply(execution));
+                        updateCount = -1;
+                        return "execute".equals(name) ? Boolean.TRUE : resultSet;
+                    }
+                    record(ExecutionType.UPDATE);
+                    updateCount = 1;
+                    return "execute".equals(name) ? Boolean.FALSE : null;
+                case "executeUpdate":
+                    record(ExecutionType.UPDATE);
+                    return 1;
+                case "addBatch":
+                    batch.add(new ArrayList<>(parameters.values()));
+                    return null;
+                case "executeBatch":
+                    executions.add(new Execution(ExecutionType.BATCH, sql, new ArrayList<>(batch), fetchSize));
+                    int[] counts = new int[batch.size()];
+                    Arrays.fill(counts, 1);
+                    batch.clear();
+                    return counts;
+                case "clearParameters":
+                    parameters.clear();
+                    return null;
+                case "clearBatch":
+                    batch.clear();
+                    return null;
+                case "getResultSet":
+                    return resultSet;
+                case "getUpdateCount":
+                    int count = updateCount;
+                    updateCount = -1;
+                    return count;
+                case "getMoreResults":
+                    resultSet = null;
+                    updateCount = -1;
+                    return false;
+                case "setFetchSize":
+                    fetchSize = (Integer) args[0];
+                    return null;
+                case "getFetchSize":
+                    return fetchSize == null ? 0 : fetchSize;
+                case "setQueryTimeout":
+                    queryTimeout = (Integer) args[0];
+                    return null;
+                case "getQueryTimeout":
+                    return queryTimeout;
+                case "getConnection":
+                    return connection;
+                case "close":
+                    closed = true;
+                    return null;
+                case "isClosed":
+                    return closed;
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "equals":
+                    return proxy == args[0];
+                case "toString":
+                    return "MockPreparedStatement[" + sql + "]";
+                default:
+                    return defaultValue(method.getReturnType());
+            }
+        }
+
+        private Execution record(ExecutionType type) {
+            Execution execution = new Execution(type, sql, Collections.singletonList(new ArrayList<>(parameters.values())), fetchSize);
+            executions.add(execution);
+            return execution;
+        }
+    }
+
+    private static ResultSet newResultSet(Statement statement, Table table) {
+        return proxy(ResultSet.class, new InvocationHandler() {
+
+            private int row = -1;
+
+            private boolean closed;
+
+            private boolean wasNull;
+
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                final String name = method.getName();
+                switch (name) {
+                    case "next":
+                        if (closed) {
+                            throw new SQLException("ResultSet is closed.");
+                        }
+                        return ++row < table.rows.size();
+                    case "close":
+                        closed = true;
+                        return null;
+                    case "isClosed":
+                        return closed;
+                    case "getStatement":
+                        return statement;
+                    case "wasNull":
+                        return wasNull;
+                    case "getType":
+                        return ResultSet.TYPE_FORWARD_ONLY;
+                    case "getMetaData":
+                        return newMetaData(table);
+                    case "findColumn":
+                        return table.indexOf((String) args[0]) + 1;
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    case "equals":
+                        return proxy == args[0];
+                    case "toString":
+                        return "MockResultSet";
+                    default:
+                        break;
+                }
+                if (name.startsWith("get") && args != null && args.length >= 1) {
+                    int index = args[0] instanceof String ? table.indexOf((String) args[0]) : (Integer) args[0] - 1;
+                    Object value = table.rows.get(row)[index];
+                    wasNull = value == null;
+                    return convert(value, method.getReturnType(), args.length == 2 && args[1] instanceof Class ? (Class<?>) args[1] : null);
+                }
+                return defaultValue(method.getReturnType());
+            }
+        });
+    }
+
+    private static Object convert(Object value, Class<?> returnType, Class<?> requestedType) {
+        Class<?> type = requestedType != null ? requestedType : returnType;
+        if (value == null) {
+            return defaultValue(type);
+        }
+        if (type == Object.class || type.isInstance(value)) {
+            return value;
+        }
+        if (type == String.class) {
+            return String.valueOf(value);
+        }
+        Number number = value instanceof Number ? (Number) value : new BigDecimal(value.toString());
+        if (type == int.class || type == Integer.class) {
+            return number.intValue();
+        } else if (type == long.class || type == Long.class) {
+            return number.longValue();
+        } else if (type == double.class || type == Double.class) {
+            return number.doubleValue();
+        } else if (type == float.class || type == Float.class) {
+            return number.floatValue();
+        } else if (type == short.class || type == Short.class) {
+            return number.shortValue();
+        } else if (type == byte.class || type == Byte.class) {
+            return number.byteValue();
+        } else if (type == boolean.class || type == Boolean.class) {
+            return number.intValue() != 0;
+        } else if (type == BigDecimal.class) {
+            return new BigDecimal(number.toString());
+        }
+        return value;
+    }
+
+    private static ResultSetMetaData newMetaData(Table table) {
+        return proxy(ResultSetMetaData.class, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "getColumnCount":
+                    return table.columns.length;
+                case "getColumnLabel":
+                case "getColumnName":
+                    return table.columns[(Integer) args[0] - 1];
+                case "getColumnType":
+                    return table.getColumnType((Integer) args[0] - 1);
+                case "getColumnClassName":
+                    return table.getColumnClass((Integer) args[0] - 1).getName();
+                default:
+                    return defaultValue(method.getReturnType());
+            }
+        });
+    }
+}
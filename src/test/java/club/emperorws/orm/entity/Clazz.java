@@ -0,0 +1,64 @@
+package club.emperorws.orm.entity;
+
+import club.emperorws.orm.annotations.AnnModel;
+import club.emperorws.orm.mapping.FetchType;
+
+import java.util.List;
+
+/**
+ * 表名：班级表
+ *
+ * @author: EmperorWS
+ * @date: 2023/8/24 15:40
+ * @description: Clazz: 班级表
+ */
+@AnnModel.Table(tableName = "clazz", pkName = "id")
+public class Clazz {
+
+    @AnnModel.AnnField(column = "id", property = "id", jdbcType = "INTEGER")
+    private Integer id;
+
+    @AnnModel.AnnField(column = "name", property = "name", jdbcType = "VARCHAR")
+    private String name;
+
+    @AnnModel.AnnField(column = "monitor_id", property = "monitorId", jdbcType = "INTEGER")
+    private Integer monitorId;
+
+    /**
+     * 班长（按monitor_id延迟加载）
+     */
+    @AnnModel.Collection(column = "monitor_id", foreignColumn = "id", fetch = FetchType.LAZY)
+    private List<Student> monitors;
+
+    public Integer getId() {
+        return id;
+    }
+
+    public void setId(Integer id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public Integer getMonitorId() {
+        return monitorId;
+    }
+
+    public void setMonitorId(Integer monitorId) {
+        this.monitorId = monitorId;
+    }
+
+    public List<Student> getMonitors() {
+        return monitors;
+    }
+
+    public void setMonitors(List<Student> monitors) {
+        this.monitors = monitors;
+    }
+}
@@ -0,0 +1,62 @@
+package club.emperorws.orm.entity;
+
+import club.emperorws.orm.annotations.AnnModel;
+import club.emperorws.orm.mapping.FetchType;
+
+/**
+ * 表名：年级表
+ *
+ * @author: EmperorWS
+ * @date: 2023/8/24 16:10
+ * @description: Grade: 年级表
+ */
+@AnnModel.Table(tableName = "grade", pkName = "id")
+public class Grade {
+
+    @AnnModel.AnnField(column = "id", property = "id", jdbcType = "INTEGER")
+    private Integer id;
+
+    @AnnModel.AnnField(column = "name", property = "name", jdbcType = "VARCHAR")
+    private String name;
+
+    @AnnModel.AnnField(column = "leader_id", property = "leaderId", jdbcType = "INTEGER")
+    private Integer leaderId;
+
+    /**
+     * 年级长（按leader_id分批加载）
+     */
+    @AnnModel.Association(column = "leader_id", foreignColumn = "id", fetch = FetchType.BATCH)
+    private Student leader;
+
+    public Integer getId() {
+        return id;
+    }
+
+    public void setId(Integer id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public Integer getLeaderId() {
+        return leaderId;
+    }
+
+    public void setLeaderId(Integer leaderId) {
+        this.leaderId = leaderId;
+    }
+
+    public Student getLeader() {
+        return leader;
+    }
+
+    public void setLeader(Student leader) {
+        this.leader = leader;
+    }
+}
@@ -0,0 +1,42 @@
+package club.emperorws.orm.entity;
+
+import club.emperorws.orm.annotations.AutomapConstructor;
+import club.emperorws.orm.annotations.Param;
+
+/**
+ * 学生证：构造器映射id、name，其余属性通过set方法映射
+ *
+ * @author: EmperorWS
+ * @date: 2023/8/22 9:30
+ * @description: StudentCard: 学生证
+ */
+public class StudentCard {
+
+    private final Integer id;
+
+    private final String name;
+
+    private String email;
+
+    @AutomapConstructor
+    public StudentCard(@Param("id") Integer id, @Param("name") String name) {
+        this.id = id;
+        this.name = name;
+    }
+
+    public Integer getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public void setEmail(String email) {
+        this.email = email;
+    }
+}
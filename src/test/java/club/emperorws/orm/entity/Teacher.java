@@ -0,0 +1,52 @@
+package club.emperorws.orm.entity;
+
+import club.emperorws.orm.annotations.AnnModel;
+
+import java.util.List;
+
+/**
+ * 表名：教师表
+ *
+ * @author: EmperorWS
+ * @date: 2023/8/30 10:20
+ * @description: Teacher: 教师表
+ */
+@AnnModel.Table(tableName = "teacher", pkName = "id")
+public class Teacher {
+
+    @AnnModel.AnnField(column = "id", property = "id", jdbcType = "INTEGER")
+    private Integer id;
+
+    @AnnModel.AnnField(column = "name", property = "name", jdbcType = "VARCHAR")
+    private String name;
+
+    /**
+     * 教的学生（JOIN查询，列前缀student_）
+     */
+    @AnnModel.Collection(columnPrefix = "student_")
+    private List<Student> students;
+
+    public Integer getId() {
+        return id;
+    }
+
+    public void setId(Integer id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public List<Student> getStudents() {
+        return students;
+    }
+
+    public void setStudents(List<Student> students) {
+        this.students = students;
+    }
+}
@@ -0,0 +1,25 @@
+package club.emperorws.orm.mapper;
+
+import club.emperorws.orm.annotations.QueryCache;
+import club.emperorws.orm.annotations.Select;
+import club.emperorws.orm.entity.Clazz;
+import club.emperorws.orm.mapping.SqlSource;
+
+import java.util.List;
+
+/**
+ * ClazzMapper
+ *
+ * @author: EmperorWS
+ * @date: 2023/8/24 15:45
+ * @description: ClazzMapper: ClazzMapper
+ */
+public interface ClazzMapper {
+
+    @Select(resultType = "club.emperorws.orm.entity.Clazz")
+    List<Clazz> selectList(SqlSource sqlSource);
+
+    @QueryCache(size = 128, ttl = 60000)
+    @Select(resultType = "club.emperorws.orm.entity.Clazz")
+    List<Clazz> selectCachedList(SqlSource sqlSource);
+}
@@ -0,0 +1,39 @@
+package club.emperorws.orm.mapper;
+
+import club.emperorws.orm.annotations.MapKey;
+import club.emperorws.orm.annotations.QueryCache;
+import club.emperorws.orm.annotations.Select;
+import club.emperorws.orm.cursor.Cursor;
+import club.emperorws.orm.entity.Grade;
+import club.emperorws.orm.mapping.SqlSource;
+import club.emperorws.orm.result.ResultHandler;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * GradeMapper
+ *
+ * @author: EmperorWS
+ * @date: 2023/8/24 16:15
+ * @description: GradeMapper: GradeMapper
+ */
+public interface GradeMapper {
+
+    @Select(resultType = "club.emperorws.orm.entity.Grade")
+    List<Grade> selectList(SqlSource sqlSource);
+
+    @QueryCache(size = 128, ttl = 60000)
+    @Select(resultType = "club.emperorws.orm.entity.Grade")
+    List<Grade> selectCachedList(SqlSource sqlSource);
+
+    @MapKey("id")
+    @Select(resultType = "club.emperorws.orm.entity.Grade")
+    Map<Integer, Grade> selectMap(SqlSource sqlSource);
+
+    @Select(resultType = "club.emperorws.orm.entity.Grade")
+    void select(SqlSource sqlSource, ResultHandler<Grade> resultHandler);
+
+    @Select(resultType = "club.emperorws.orm.entity.Grade")
+    Cursor<Grade> selectCursor(SqlSource sqlSource);
+}
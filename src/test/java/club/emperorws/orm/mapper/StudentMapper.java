@@ -1,11 +1,24 @@
 package club.emperorws.orm.mapper;
 
+import club.emperorws.orm.annotations.Insert;
+import club.emperorws.orm.annotations.MapKey;
+import club.emperorws.orm.annotations.PageCount;
 import club.emperorws.orm.annotations.Param;
+import club.emperorws.orm.annotations.QueryCache;
 import club.emperorws.orm.annotations.Select;
+import club.emperorws.orm.annotations.Update;
+import club.emperorws.orm.cursor.Cursor;
 import club.emperorws.orm.entity.Student;
+import club.emperorws.orm.entity.StudentCard;
+import club.emperorws.orm.mapping.RowBounds;
 import club.emperorws.orm.mapping.SqlSource;
+import club.emperorws.orm.result.Page;
+import club.emperorws.orm.result.columnar.ColumnarResult;
+import club.emperorws.orm.result.primitive.LongList;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * StudentMapper
@@ -16,6 +29,59 @@ import java.util.List;
  */
 public interface StudentMapper {
 
+    @Insert(resultType = "")
+    int insert(SqlSource sqlSource, @Param("id") Integer id, @Param("parentId") Integer parentId);
+
+    @Update(resultType = "")
+    int update(SqlSource sqlSource, @Param("id") Integer id, @Param("name") String name);
+
     @Select(resultType = "club.emperorws.orm.entity.Student")
     List<Student> selectList(SqlSource sqlSource, @Param("keyword") String keyword);
+
+    @Select(resultType = "club.emperorws.orm.entity.StudentCard")
+    List<StudentCard> selectCardList(SqlSource sqlSource, @Param("keyword") String keyword);
+
+    @MapKey("id")
+    @Select(resultType = "club.emperorws.orm.entity.Student")
+    Map<Integer, Student> selectMap(SqlSource sqlSource, @Param("keyword") String keyword);
+
+    @MapKey("id")
+    @QueryCache(size = 128, ttl = 60000)
+    @Select(resultType = "club.emperorws.orm.entity.Student")
+    LinkedHashMap<Integer, Student> selectCachedMap(SqlSource sqlSource, @Param("keyword") String keyword);
+
+    @Select(resultType = "club.emperorws.orm.entity.Student")
+    Cursor<Student> selectCursor(SqlSource sqlSource, @Param("keyword") String keyword);
+
+    @Select(resultType = "club.emperorws.orm.entity.Student")
+    Cursor<Student> selectCursorPage(SqlSource sqlSource, @Param("keyword") String keyword, RowBounds rowBounds);
+
+    @QueryCache(size = 128, ttl = 60000)
+    @Select(resultType = "club.emperorws.orm.entity.Student")
+    List<Student> selectCachedList(SqlSource sqlSource, @Param("keyword") String keyword);
+
+    @Select(resultType = "")
+    long[] selectIds(SqlSource sqlSource, @Param("keyword") String keyword);
+
+    @Select(resultType = "")
+    LongList selectIdList(SqlSource sqlSource, @Param("keyword") String keyword);
+
+    @Select(resultType = "club.emperorws.orm.entity.Student")
+    List<Student> selectPage(SqlSource sqlSource, @Param("keyword") String keyword, RowBounds rowBounds);
+
+    @PageCount(cacheTtl = 60000)
+    @Select(resultType = "club.emperorws.orm.entity.Student")
+    Page<Student> selectPageWithTotal(SqlSource sqlSource, @Param("keyword") String keyword, RowBounds rowBounds);
+
+    @Select(resultType = "club.emperorws.orm.entity.Student")
+    Page<Student> selectPageByIds(SqlSource sqlSource, @Param("ids") List<Integer> ids, RowBounds rowBounds);
+
+    @Select(resultType = "club.emperorws.orm.entity.Student")
+    List<Student> selectByIds(SqlSource sqlSource, @Param("ids") List<Integer> ids);
+
+    @Select(resultType = "")
+    ColumnarResult selectColumnar(SqlSource sqlSource, @Param("keyword") String keyword);
+
+    @Select(resultType = "")
+    ColumnarResult selectColumnarByIds(SqlSource sqlSource, @Param("ids") List<Integer> ids);
 }
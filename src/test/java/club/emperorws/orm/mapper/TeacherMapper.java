@@ -0,0 +1,25 @@
+package club.emperorws.orm.mapper;
+
+import club.emperorws.orm.annotations.Select;
+import club.emperorws.orm.entity.Teacher;
+import club.emperorws.orm.mapping.RowBounds;
+import club.emperorws.orm.mapping.SqlSource;
+import club.emperorws.orm.result.ResultHandler;
+
+import java.util.List;
+
+/**
+ * TeacherMapper
+ *
+ * @author: EmperorWS
+ * @date: 2023/8/30 10:25
+ * @description: TeacherMapper: TeacherMapper
+ */
+public interface TeacherMapper {
+
+    @Select(resultType = "club.emperorws.orm.entity.Teacher")
+    List<Teacher> selectList(SqlSource sqlSource, RowBounds rowBounds);
+
+    @Select(resultType = "club.emperorws.orm.entity.Teacher")
+    void select(SqlSource sqlSource, ResultHandler<Teacher> resultHandler);
+}